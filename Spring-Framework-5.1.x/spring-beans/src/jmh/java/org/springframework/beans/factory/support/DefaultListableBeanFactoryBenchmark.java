@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+
+/**
+ * Benchmarks for bean retrieval and type-based lookups on a
+ * {@link DefaultListableBeanFactory}.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-beans:jmh -PjmhInclude=DefaultListableBeanFactoryBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DefaultListableBeanFactoryBenchmark {
+
+	@Benchmark
+	public Object getSingletonByName(BeanFactoryData data) {
+		return data.beanFactory.getBean("singleton0");
+	}
+
+	@Benchmark
+	public Object getSingletonByType(BeanFactoryData data) {
+		return data.beanFactory.getBean(SingletonTarget.class);
+	}
+
+	@Benchmark
+	public Object getPrototypeByName(BeanFactoryData data) {
+		return data.beanFactory.getBean("prototype");
+	}
+
+	@Benchmark
+	public Object getPrototypeWithDependency(BeanFactoryData data) {
+		return data.beanFactory.getBean("prototypeWithDependency");
+	}
+
+	@Benchmark
+	public void getBeanNamesForType(BeanFactoryData data, Blackhole bh) {
+		bh.consume(data.beanFactory.getBeanNamesForType(Service.class));
+		bh.consume(data.beanFactory.getBeanNamesForType(Runnable.class, true, false));
+	}
+
+	@Benchmark
+	public void getBeanNamesForTypeUncached(BeanFactoryData data, Blackhole bh) {
+		data.beanFactory.clearMetadataCache();
+		bh.consume(data.beanFactory.getBeanNamesForType(Service.class));
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class BeanFactoryData {
+
+		@Param({"100", "1000"})
+		public int beanCount;
+
+		@Param({"true", "false"})
+		public boolean frozen;
+
+		public DefaultListableBeanFactory beanFactory;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.beanFactory = new DefaultListableBeanFactory();
+			for (int i = 0; i < this.beanCount; i++) {
+				Class<?> beanClass = (i % 2 == 0 ? ServiceImpl.class : TaskImpl.class);
+				this.beanFactory.registerBeanDefinition("bean" + i, new RootBeanDefinition(beanClass));
+			}
+			this.beanFactory.registerBeanDefinition("singleton0", new RootBeanDefinition(SingletonTarget.class));
+			RootBeanDefinition prototype = new RootBeanDefinition(PrototypeTarget.class);
+			prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			this.beanFactory.registerBeanDefinition("prototype", prototype);
+			RootBeanDefinition prototypeWithDependency = new RootBeanDefinition(PrototypeTarget.class);
+			prototypeWithDependency.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+			prototypeWithDependency.getPropertyValues().add("singleton", new RuntimeBeanReference("singleton0"));
+			prototypeWithDependency.getPropertyValues().add("name", "benchmark");
+			this.beanFactory.registerBeanDefinition("prototypeWithDependency", prototypeWithDependency);
+			if (this.frozen) {
+				this.beanFactory.freezeConfiguration();
+			}
+			this.beanFactory.preInstantiateSingletons();
+		}
+	}
+
+
+	public interface Service {
+	}
+
+
+	public static class ServiceImpl implements Service {
+	}
+
+
+	public static class TaskImpl implements Runnable {
+
+		@Override
+		public void run() {
+		}
+	}
+
+
+	public static class SingletonTarget {
+	}
+
+
+	public static class PrototypeTarget {
+
+		private SingletonTarget singleton;
+
+		private String name;
+
+		public void setSingleton(SingletonTarget singleton) {
+			this.singleton = singleton;
+		}
+
+		public SingletonTarget getSingleton() {
+			return this.singleton;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+}
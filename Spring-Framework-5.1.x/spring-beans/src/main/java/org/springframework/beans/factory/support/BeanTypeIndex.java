@@ -0,0 +1,294 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Index of bean definition names by the types that their beans may match,
+ * narrowing down the bean definitions to check for a by-type lookup in a
+ * {@link DefaultListableBeanFactory} with a frozen configuration.
+ *
+ * <p>Each bean definition is indexed under its determined type as well as all
+ * superclasses and interfaces of that type. Bean definitions whose type cannot
+ * be determined upfront or may change over time (e.g. FactoryBeans, prototypes,
+ * or beans that have been created before) are candidates for any type.
+ *
+ * <p>Entries are determined lazily on lookup and invalidated per bean name,
+ * e.g. when the singleton instance for a bean definition has been registered.
+ * Types are determined outside of the index monitor, since the type resolver
+ * may call back into the bean factory and acquire its singleton lock; a bean
+ * whose type is being determined by another thread is a candidate for any type.
+ *
+ * @since 5.1.21
+ * @see DefaultListableBeanFactory#getBeanNamesForType
+ */
+final class BeanTypeIndex {
+
+	/** Marker for a bean whose type needs to be determined on next lookup. */
+	private static final Object PENDING = new Object();
+
+	/** Marker for a bean that is a candidate for any type. */
+	private static final Object DYNAMIC = new Object();
+
+	/** Marker for a bean whose type is currently being determined: a candidate for any type. */
+	private static final Object RESOLVING = new Object();
+
+	private static final Map<Class<?>, Set<Class<?>>> typeHierarchyCache = new ConcurrentReferenceHashMap<>(256);
+
+
+	/** Bean name to indexed type, or one of the markers above. */
+	private final Map<String, Object> beanTypes = new ConcurrentHashMap<>(256);
+
+	/** Bean name to registration position, for returning candidates in registration order. */
+	private final Map<String, Integer> positions = new HashMap<>(256);
+
+	/** Type to names of the beans indexed under that type. */
+	private final Map<Class<?>, Set<String>> beanNamesByType = new HashMap<>(256);
+
+	/** Names of the beans which are candidates for any type, including those being resolved. */
+	private final Set<String> dynamicBeanNames = new LinkedHashSet<>();
+
+	/** Names of the beans whose type needs to be determined on next lookup. */
+	private final Set<String> pendingBeanNames = new LinkedHashSet<>();
+
+	private int nextPosition;
+
+	private volatile boolean initialized;
+
+
+	/**
+	 * Initialize this index with the given bean definition names, if not done yet.
+	 * @param beanNames the bean definition names, in registration order
+	 */
+	public void initialize(List<String> beanNames) {
+		if (this.initialized) {
+			return;
+		}
+		synchronized (this) {
+			if (!this.initialized) {
+				for (String beanName : beanNames) {
+					registerBeanName(beanName);
+				}
+				this.initialized = true;
+			}
+		}
+	}
+
+	/**
+	 * Add a newly registered bean definition to this index, if initialized.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void beanDefinitionRegistered(String beanName) {
+		if (this.initialized && !this.positions.containsKey(beanName)) {
+			registerBeanName(beanName);
+		}
+	}
+
+	/**
+	 * Remove a bean definition from this index.
+	 * @param beanName the name of the bean definition
+	 */
+	public synchronized void beanDefinitionRemoved(String beanName) {
+		if (this.positions.remove(beanName) != null) {
+			unindex(beanName);
+			this.beanTypes.remove(beanName);
+		}
+	}
+
+	/**
+	 * Determine the type of the given bean again on next lookup,
+	 * e.g. after its singleton instance has been registered or removed.
+	 * @param beanName the name of the bean definition
+	 */
+	public void invalidate(String beanName) {
+		if (this.initialized && this.beanTypes.get(beanName) != PENDING) {
+			update(beanName, PENDING);
+		}
+	}
+
+	/**
+	 * Determine the type of all beans again on next lookup.
+	 */
+	public synchronized void invalidateAll() {
+		for (String beanName : this.positions.keySet()) {
+			update(beanName, PENDING);
+		}
+	}
+
+	/**
+	 * Consider the given bean as a candidate for any type,
+	 * e.g. once it is being created.
+	 * @param beanName the name of the bean definition
+	 */
+	public void markDynamic(String beanName) {
+		if (this.initialized && this.beanTypes.get(beanName) != DYNAMIC) {
+			update(beanName, DYNAMIC);
+		}
+	}
+
+	/**
+	 * Return the indexed type for the given bean, determining it if necessary.
+	 * @param beanName the name of the bean definition
+	 * @param typeResolver the function to determine the type of a bean with,
+	 * returning {@code null} if the bean is a candidate for any type
+	 * @return the indexed type, or {@code null} if the bean is a candidate for
+	 * any type or not contained in this index
+	 */
+	@Nullable
+	public Class<?> getIndexedType(String beanName, Function<String, Class<?>> typeResolver) {
+		resolvePendingTypes(typeResolver);
+		Object beanType = this.beanTypes.get(beanName);
+		return (beanType instanceof Class ? (Class<?>) beanType : null);
+	}
+
+	/**
+	 * Return the names of all beans that may match the given type.
+	 * @param type the type to match
+	 * @param typeResolver the function to determine the type of a bean with,
+	 * returning {@code null} if the bean is a candidate for any type
+	 * @return the names of the candidate beans, in registration order
+	 */
+	public List<String> getCandidateNames(Class<?> type, Function<String, Class<?>> typeResolver) {
+		resolvePendingTypes(typeResolver);
+		synchronized (this) {
+			Set<String> indexedBeanNames = this.beanNamesByType.getOrDefault(type, Collections.emptySet());
+			List<String> candidateNames = new ArrayList<>(indexedBeanNames.size() + this.dynamicBeanNames.size());
+			candidateNames.addAll(indexedBeanNames);
+			candidateNames.addAll(this.dynamicBeanNames);
+			candidateNames.sort((name1, name2) -> Integer.compare(this.positions.get(name1), this.positions.get(name2)));
+			return candidateNames;
+		}
+	}
+
+	private void registerBeanName(String beanName) {
+		this.positions.put(beanName, this.nextPosition++);
+		this.beanTypes.put(beanName, PENDING);
+		this.pendingBeanNames.add(beanName);
+	}
+
+	/**
+	 * Determine the types of all pending beans, invoking the type resolver
+	 * without holding the index monitor.
+	 */
+	private void resolvePendingTypes(Function<String, Class<?>> typeResolver) {
+		String beanName;
+		while ((beanName = claimPendingBeanName()) != null) {
+			Class<?> beanType = typeResolver.apply(beanName);
+			synchronized (this) {
+				// The entry may have been marked as dynamic, invalidated or removed in the meantime
+				if (this.beanTypes.get(beanName) == RESOLVING) {
+					update(beanName, (beanType != null ? beanType : DYNAMIC));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Mark the next pending bean as being resolved by the current thread.
+	 * <p>This also guards against nested lookups for the same bean during
+	 * type resolution.
+	 * @return the name of the claimed bean, or {@code null} if none pending
+	 */
+	@Nullable
+	private synchronized String claimPendingBeanName() {
+		if (this.pendingBeanNames.isEmpty()) {
+			return null;
+		}
+		String beanName = this.pendingBeanNames.iterator().next();
+		update(beanName, RESOLVING);
+		return beanName;
+	}
+
+	private synchronized void update(String beanName, Object beanType) {
+		if (!this.positions.containsKey(beanName)) {
+			return;
+		}
+		unindex(beanName);
+		this.beanTypes.put(beanName, beanType);
+		if (beanType == PENDING) {
+			this.pendingBeanNames.add(beanName);
+		}
+		else if (beanType == DYNAMIC || beanType == RESOLVING) {
+			this.dynamicBeanNames.add(beanName);
+		}
+		else {
+			for (Class<?> type : getTypeHierarchy((Class<?>) beanType)) {
+				this.beanNamesByType.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(beanName);
+			}
+		}
+	}
+
+	private void unindex(String beanName) {
+		Object beanType = this.beanTypes.get(beanName);
+		if (beanType == PENDING) {
+			this.pendingBeanNames.remove(beanName);
+		}
+		else if (beanType == DYNAMIC || beanType == RESOLVING) {
+			this.dynamicBeanNames.remove(beanName);
+		}
+		else if (beanType != null) {
+			for (Class<?> type : getTypeHierarchy((Class<?>) beanType)) {
+				Set<String> beanNames = this.beanNamesByType.get(type);
+				if (beanNames != null) {
+					beanNames.remove(beanName);
+					if (beanNames.isEmpty()) {
+						this.beanNamesByType.remove(type);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the given type along with all of its superclasses and interfaces,
+	 * including inherited ones as well as {@code Object} for an interface type,
+	 * starting from the corresponding wrapper type in case of a primitive.
+	 */
+	private static Set<Class<?>> getTypeHierarchy(Class<?> type) {
+		Set<Class<?>> typeHierarchy = typeHierarchyCache.get(type);
+		if (typeHierarchy == null) {
+			typeHierarchy = new LinkedHashSet<>();
+			collectTypeHierarchy(ClassUtils.resolvePrimitiveIfNecessary(type), typeHierarchy);
+			typeHierarchy.add(Object.class);
+			typeHierarchyCache.put(type, typeHierarchy);
+		}
+		return typeHierarchy;
+	}
+
+	private static void collectTypeHierarchy(@Nullable Class<?> type, Set<Class<?>> typeHierarchy) {
+		if (type != null && typeHierarchy.add(type)) {
+			collectTypeHierarchy(type.getSuperclass(), typeHierarchy);
+			for (Class<?> ifc : type.getInterfaces()) {
+				collectTypeHierarchy(ifc, typeHierarchy);
+			}
+		}
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.beans.factory.support;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.BeanCreationException;
@@ -39,10 +40,14 @@ import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.BeanReference;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+import org.springframework.core.Conventions;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
@@ -51,6 +56,7 @@ import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CompositeIterator;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import javax.inject.Provider;
@@ -69,6 +75,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -78,6 +85,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -133,6 +143,19 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	}
 
 
+	/**
+	 * Bean definition attribute that marks a singleton bean as order-sensitive
+	 * in case of parallel pre-instantiation, with a {@code Boolean} value.
+	 * <p>An order-sensitive bean is created on the calling thread once all beans
+	 * registered before it have been created, and before any bean registered
+	 * after it, just like with serial pre-instantiation.
+	 * @since 5.1.21
+	 * @see #setPreInstantiationParallelism
+	 */
+	public static final String ORDER_SENSITIVE_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(DefaultListableBeanFactory.class, "orderSensitive");
+
+
 	/** Map from serialized id to factory instance. */
 	private static final Map<String, Reference<DefaultListableBeanFactory>> serializableFactories =
 			new ConcurrentHashMap<>(8);
@@ -147,6 +170,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans. */
 	private boolean allowEagerClassLoading = true;
 
+	/** Number of threads to pre-instantiate singletons with. */
+	private int preInstantiationParallelism = 1;
+
 	/** Optional OrderComparator for dependency Lists and arrays. */
 	@Nullable
 	private Comparator<Object> dependencyComparator;
@@ -169,6 +195,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Map of singleton-only bean names, keyed by dependency type. */
 	private final Map<Class<?>, String[]> singletonBeanNamesByType = new ConcurrentHashMap<>(64);
 
+	/** Index of bean definition names by type, for by-type lookups in case of a frozen configuration. */
+	private final BeanTypeIndex beanTypeIndex = new BeanTypeIndex();
+
 	/** List of bean definition names, in registration order. */
 	private volatile List<String> beanDefinitionNames = new ArrayList<>(256);
 
@@ -266,6 +295,39 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return this.allowEagerClassLoading;
 	}
 
+	/**
+	 * Set the number of threads to pre-instantiate singletons with.
+	 * <p>Default is 1, creating all non-lazy singletons on the calling thread in
+	 * registration order. A higher value creates groups of singletons which are
+	 * independent of each other in parallel, with each group being created in
+	 * registration order on a thread of a dedicated {@link ForkJoinPool}. The
+	 * groups are computed up front from the "depends-on" declarations, the factory
+	 * bean and the bean references in the property values and constructor arguments
+	 * of the bean definitions, and the dependencies registered so far. Beans marked
+	 * as {@link #ORDER_SENSITIVE_ATTRIBUTE order-sensitive} are created serially.
+	 * <p>Note that singletons must not rely on thread-bound state of the calling
+	 * thread during their initialization when pre-instantiated in parallel, and
+	 * that dependencies which are not declared in the bean definitions (e.g.
+	 * autowired dependencies) must not form a circular reference across groups:
+	 * pre-instantiation fails with a {@link BeanCreationException} in such a case,
+	 * instead of creating any bean twice. Declare such dependencies through
+	 * "depends-on", or mark the beans involved as order-sensitive.
+	 * @since 5.1.21
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setPreInstantiationParallelism(int preInstantiationParallelism) {
+		Assert.isTrue(preInstantiationParallelism > 0, "Pre-instantiation parallelism must be greater than 0");
+		this.preInstantiationParallelism = preInstantiationParallelism;
+	}
+
+	/**
+	 * Return the number of threads to pre-instantiate singletons with.
+	 * @since 5.1.21
+	 */
+	public int getPreInstantiationParallelism() {
+		return this.preInstantiationParallelism;
+	}
+
 	/**
 	 * Set a {@link java.util.Comparator} for dependency Lists and arrays.
 	 * @since 4.0
@@ -321,6 +383,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.preInstantiationParallelism = otherListableFactory.preInstantiationParallelism;
 			this.dependencyComparator = otherListableFactory.dependencyComparator;
 			// A clone of the AutowireCandidateResolver since it is potentially BeanFactoryAware...
 			setAutowireCandidateResolver(
@@ -503,8 +566,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	private String[] doGetBeanNamesForType(ResolvableType type, boolean includeNonSingletons, boolean allowEagerInit) {
 		List<String> result = new ArrayList<>();
 
-		// Check all bean definitions.
-		for (String beanName : this.beanDefinitionNames) {
+		// Check all bean definitions which may match the given type.
+		for (String beanName : getCandidateBeanNames(type)) {
 			// Only consider bean as eligible if the bean name is not defined as alias for some other bean.
 			if (!isAlias(beanName)) {
 				try {
@@ -587,6 +650,62 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return StringUtils.toStringArray(result);
 	}
 
+	/**
+	 * Determine the names of the bean definitions to check for the given type:
+	 * all bean definitions, or just the candidates from the type index in case
+	 * of a frozen configuration.
+	 * @param type the type to match
+	 * @return the bean definition names, in registration order
+	 * @see #determineIndexedType
+	 */
+	private List<String> getCandidateBeanNames(ResolvableType type) {
+		Class<?> resolved = type.resolve();
+		if (resolved == null || resolved.isArray() || !isConfigurationFrozen()) {
+			// Array types are covariant, not reflected by the indexed type hierarchies
+			return this.beanDefinitionNames;
+		}
+		this.beanTypeIndex.initialize(this.beanDefinitionNames);
+		return this.beanTypeIndex.getCandidateNames(
+				ClassUtils.resolvePrimitiveIfNecessary(resolved), this::determineIndexedType);
+	}
+
+	/**
+	 * Determine the type to index the given bean definition under: the type of
+	 * its singleton instance, if any, or its predicted type if determinable
+	 * without side effects and not expected to change anymore.
+	 * @param beanName the name of the bean definition
+	 * @return the type to index the bean under, or {@code null} if the bean
+	 * needs to be checked for any type
+	 */
+	@Nullable
+	private Class<?> determineIndexedType(String beanName) {
+		try {
+			Object beanInstance = getSingleton(beanName, false);
+			if (beanInstance != null) {
+				return (beanInstance instanceof FactoryBean || beanInstance.getClass() == NullBean.class ?
+						null : beanInstance.getClass());
+			}
+			if (isAlias(beanName) || super.isBeanEligibleForMetadataCaching(beanName) ||
+					getTempClassLoader() != null) {
+				// Alias overriding a bean definition name, bean created before (e.g. a prototype),
+				// or type matching against classes from a temporary ClassLoader
+				return null;
+			}
+			RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+			if (mbd.isAbstract() || !mbd.isSingleton() || mbd.getDecoratedDefinition() != null ||
+					(mbd.getFactoryMethodName() != null ? mbd.factoryMethodReturnType == null : !mbd.hasBeanClass()) ||
+					isFactoryBean(beanName, mbd)) {
+				return null;
+			}
+			Class<?> beanType = predictBeanType(beanName, mbd);
+			return (beanType != null && !FactoryBean.class.isAssignableFrom(beanType) ? beanType : null);
+		}
+		catch (BeansException ex) {
+			// Probably some metadata with a placeholder: to be checked for any type.
+			return null;
+		}
+	}
+
 	/**
 	 * Check whether the specified bean would need to be eagerly initialized
 	 * in order to determine its type.
@@ -828,6 +947,28 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		return (this.configurationFrozen || super.isBeanEligibleForMetadataCaching(beanName));
 	}
 
+	/**
+	 * Overridden to consider the bean for any type in by-type lookups
+	 * from now on, until its singleton instance is available.
+	 */
+	@Override
+	protected void markBeanAsCreated(String beanName) {
+		super.markBeanAsCreated(beanName);
+		this.beanTypeIndex.markDynamic(beanName);
+	}
+
+	/**
+	 * Overridden to determine all indexed bean types again, since the given
+	 * post-processor may predict different bean types.
+	 */
+	@Override
+	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+		super.addBeanPostProcessor(beanPostProcessor);
+		if (beanPostProcessor instanceof SmartInstantiationAwareBeanPostProcessor) {
+			this.beanTypeIndex.invalidateAll();
+		}
+	}
+
 	@Override
 	public void preInstantiateSingletons() throws BeansException {
 		if (logger.isTraceEnabled()) {
@@ -842,37 +983,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
 
 		// 触发所有非懒加载、单例bean的初始化
-		for (String beanName : beanNames) {
-			// 合并父Bean中的配置，因为bean可以配置父bean，如<bean id="" class="" parent="" /> 中的 parent
-			RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
-			// 判断bean不是抽象类、非懒加载的、并且是单例
-			if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-				// 判断bean是否实现FactoryBean接口
-				if (isFactoryBean(beanName)) {
-					// 如果bean实现了FactoryBean接口，那么通过getBean(&beanName)获取的是FactoryBean对象本身
-					// 注意，如果要获取到FactoryBean帮我们创建的对象，需要通过getBean(beanName)，这时候才会执行FactoryBean#getObject()方法帮我们创建bean对象
-					Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
-					if (bean instanceof FactoryBean) {
-						FactoryBean<?> factory = (FactoryBean<?>) bean;
-						// 标识bean是否急切需要初始化
-						boolean isEagerInit;
-						if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
-							isEagerInit = AccessController.doPrivileged(
-									(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
-									getAccessControlContext());
-						}
-						else {
-							isEagerInit = (factory instanceof SmartFactoryBean &&
-									((SmartFactoryBean<?>) factory).isEagerInit());
-						}
-						// 如果急切需要初始化bean的话，则直接通过beanName获取bean实例
-						if (isEagerInit) {
-							getBean(beanName);
-						}
-					}
-				} else {
-					// 如果没有实现FactoryBean接口的话，则执行普通的getBean逻辑
-					getBean(beanName);
+		if (this.preInstantiationParallelism > 1) {
+			preInstantiateSingletonsInParallel(beanNames);
+		}
+		else {
+			for (String beanName : beanNames) {
+				// 合并父Bean中的配置，因为bean可以配置父bean，如<bean id="" class="" parent="" /> 中的 parent
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				// 判断bean不是抽象类、非懒加载的、并且是单例
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					preInstantiateSingleton(beanName);
 				}
 			}
 		}
@@ -901,6 +1021,228 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		}
 	}
 
+	private void preInstantiateSingleton(String beanName) {
+		// 判断bean是否实现FactoryBean接口
+		if (isFactoryBean(beanName)) {
+			// 如果bean实现了FactoryBean接口，那么通过getBean(&beanName)获取的是FactoryBean对象本身
+			// 注意，如果要获取到FactoryBean帮我们创建的对象，需要通过getBean(beanName)，这时候才会执行FactoryBean#getObject()方法帮我们创建bean对象
+			Object bean = getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (bean instanceof FactoryBean) {
+				FactoryBean<?> factory = (FactoryBean<?>) bean;
+				// 标识bean是否急切需要初始化
+				boolean isEagerInit;
+				if (System.getSecurityManager() != null && factory instanceof SmartFactoryBean) {
+					isEagerInit = AccessController.doPrivileged(
+							(PrivilegedAction<Boolean>) ((SmartFactoryBean<?>) factory)::isEagerInit,
+							getAccessControlContext());
+				}
+				else {
+					isEagerInit = (factory instanceof SmartFactoryBean &&
+							((SmartFactoryBean<?>) factory).isEagerInit());
+				}
+				// 如果急切需要初始化bean的话，则直接通过beanName获取bean实例
+				if (isEagerInit) {
+					getBean(beanName);
+				}
+			}
+		}
+		else {
+			// 如果没有实现FactoryBean接口的话，则执行普通的getBean逻辑
+			getBean(beanName);
+		}
+	}
+
+	/**
+	 * Pre-instantiate the given non-lazy singletons in parallel, splitting them
+	 * into segments at order-sensitive beans which are created on the calling thread.
+	 * @param beanNames the names of all bean definitions, in registration order
+	 * @see #ORDER_SENSITIVE_ATTRIBUTE
+	 */
+	private void preInstantiateSingletonsInParallel(List<String> beanNames) {
+		ForkJoinPool pool = new ForkJoinPool(this.preInstantiationParallelism);
+		try {
+			List<String> segment = new ArrayList<>();
+			for (String beanName : beanNames) {
+				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+					if (Boolean.TRUE.equals(bd.getAttribute(ORDER_SENSITIVE_ATTRIBUTE))) {
+						preInstantiateSingletonsConcurrently(segment, pool);
+						segment.clear();
+						preInstantiateSingleton(beanName);
+					}
+					else {
+						segment.add(beanName);
+					}
+				}
+			}
+			preInstantiateSingletonsConcurrently(segment, pool);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Create independent groups of the given singletons on the given pool,
+	 * waiting for all groups to complete.
+	 * @param beanNames the names of the singletons to create, in registration order
+	 * @param pool the pool to create the groups on
+	 */
+	private void preInstantiateSingletonsConcurrently(List<String> beanNames, ForkJoinPool pool) {
+		if (beanNames.isEmpty()) {
+			return;
+		}
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		List<Future<?>> groups = new ArrayList<>();
+		for (List<String> group : groupByDependencies(beanNames)) {
+			groups.add(pool.submit(() -> preInstantiateSingletonGroup(group, classLoader)));
+		}
+
+		Throwable failure = null;
+		for (Future<?> group : groups) {
+			try {
+				group.get();
+			}
+			catch (ExecutionException ex) {
+				if (failure == null) {
+					failure = ex.getCause();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new BeanCreationException("Interrupted during parallel pre-instantiation of singletons");
+			}
+		}
+		if (failure != null) {
+			ReflectionUtils.rethrowRuntimeException(failure);
+		}
+	}
+
+	/**
+	 * Create the given group of singletons on the current pool thread.
+	 * <p>A singleton which conflicts with a bean concurrently created by another
+	 * group, through a dependency not declared in the bean definitions, fails
+	 * with a {@link BeanCurrentlyInCreationException} rather than being retried.
+	 * @param beanNames the names of the singletons to create, in registration order
+	 * @param classLoader the context ClassLoader of the calling thread
+	 */
+	private void preInstantiateSingletonGroup(List<String> beanNames, @Nullable ClassLoader classLoader) {
+		Thread currentThread = Thread.currentThread();
+		ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+		currentThread.setContextClassLoader(classLoader);
+		setConcurrentSingletonCreation(true);
+		try {
+			for (String beanName : beanNames) {
+				preInstantiateSingleton(beanName);
+			}
+		}
+		finally {
+			setConcurrentSingletonCreation(false);
+			currentThread.setContextClassLoader(previousClassLoader);
+		}
+	}
+
+	/**
+	 * Split the given singletons into groups which do not depend on each other,
+	 * according to their "depends-on" declarations, the factory bean and bean
+	 * references declared in their bean definitions, and registered dependencies.
+	 * @param beanNames the names of the singletons, in registration order
+	 * @return the groups of bean names, each in registration order
+	 */
+	private List<List<String>> groupByDependencies(List<String> beanNames) {
+		Map<String, String> parents = new HashMap<>();
+		for (String beanName : beanNames) {
+			RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+			String[] dependsOn = mbd.getDependsOn();
+			if (dependsOn != null) {
+				for (String dependsOnBean : dependsOn) {
+					joinGroups(parents, beanName, canonicalName(dependsOnBean));
+				}
+			}
+			Set<String> declaredReferences = new LinkedHashSet<>();
+			collectDeclaredReferences(mbd, declaredReferences);
+			for (String reference : declaredReferences) {
+				joinGroups(parents, beanName, transformedBeanName(reference));
+			}
+			for (String dependency : getDependenciesForBean(beanName)) {
+				joinGroups(parents, beanName, dependency);
+			}
+			for (String dependentBean : getDependentBeans(beanName)) {
+				joinGroups(parents, beanName, dependentBean);
+			}
+		}
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		for (String beanName : beanNames) {
+			groups.computeIfAbsent(findGroup(parents, beanName), key -> new ArrayList<>()).add(beanName);
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	/**
+	 * Collect the names of the beans referenced by the given bean definition:
+	 * its factory bean, and bean references in its property values and
+	 * constructor arguments, including those of inner bean definitions.
+	 */
+	private static void collectDeclaredReferences(BeanDefinition bd, Set<String> references) {
+		if (bd.getFactoryBeanName() != null) {
+			references.add(bd.getFactoryBeanName());
+		}
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValues()) {
+			collectDeclaredReferences(pv.getValue(), references);
+		}
+		ConstructorArgumentValues cargs = bd.getConstructorArgumentValues();
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cargs.getIndexedArgumentValues().values()) {
+			collectDeclaredReferences(valueHolder.getValue(), references);
+		}
+		for (ConstructorArgumentValues.ValueHolder valueHolder : cargs.getGenericArgumentValues()) {
+			collectDeclaredReferences(valueHolder.getValue(), references);
+		}
+	}
+
+	private static void collectDeclaredReferences(@Nullable Object value, Set<String> references) {
+		if (value instanceof BeanReference) {
+			references.add(((BeanReference) value).getBeanName());
+		}
+		else if (value instanceof BeanDefinitionHolder) {
+			collectDeclaredReferences(((BeanDefinitionHolder) value).getBeanDefinition(), references);
+		}
+		else if (value instanceof BeanDefinition) {
+			collectDeclaredReferences((BeanDefinition) value, references);
+		}
+		else if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				collectDeclaredReferences(element, references);
+			}
+		}
+		else if (value instanceof Map) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				collectDeclaredReferences(entry.getKey(), references);
+				collectDeclaredReferences(entry.getValue(), references);
+			}
+		}
+	}
+
+	private static void joinGroups(Map<String, String> parents, String beanName, String otherBeanName) {
+		String group = findGroup(parents, beanName);
+		String otherGroup = findGroup(parents, otherBeanName);
+		if (!group.equals(otherGroup)) {
+			parents.put(otherGroup, group);
+		}
+	}
+
+	private static String findGroup(Map<String, String> parents, String beanName) {
+		String group = beanName;
+		String parent = parents.get(group);
+		while (parent != null) {
+			group = parent;
+			parent = parents.get(group);
+		}
+		if (!group.equals(beanName)) {
+			parents.put(beanName, group);
+		}
+		return group;
+	}
+
 
 	//---------------------------------------------------------------------
 	// BeanDefinitionRegistry 接口的实现
@@ -984,12 +1326,13 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.frozenBeanDefinitionNames = null;
 		}
 
+		this.beanTypeIndex.beanDefinitionRegistered(beanName);
 		if (existingDefinition != null || containsSingleton(beanName)) {
 			// 重置给定bean的所有bean定义缓存，包括从它派生的 bean的缓存
 			resetBeanDefinition(beanName);
 		}
 		else if (isConfigurationFrozen()) {
-			clearByTypeCache();
+			clearByTypeCache(this.beanTypeIndex.getIndexedType(beanName, this::determineIndexedType));
 		}
 	}
 
@@ -1018,6 +1361,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.beanDefinitionNames.remove(beanName);
 		}
 		this.frozenBeanDefinitionNames = null;
+		this.beanTypeIndex.beanDefinitionRemoved(beanName);
 
 		resetBeanDefinition(beanName);
 	}
@@ -1035,6 +1379,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	protected void resetBeanDefinition(String beanName) {
 		// Remove the merged bean definition for the given bean, if already created.
 		clearMergedBeanDefinition(beanName);
+		this.beanTypeIndex.invalidate(beanName);
 
 		// Remove corresponding bean from singleton cache, if any. Shouldn't usually
 		// be necessary, rather just meant for overriding a context's default beans
@@ -1072,7 +1417,25 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		super.registerSingleton(beanName, singletonObject);
 		updateManualSingletonNames(set -> set.add(beanName), set -> !this.beanDefinitionMap.containsKey(beanName));
-		clearByTypeCache();
+		clearByTypeCache(getManualSingletonType(beanName));
+	}
+
+	/**
+	 * Overridden to update the type index for the bean as well.
+	 */
+	@Override
+	protected void addSingleton(String beanName, Object singletonObject) {
+		super.addSingleton(beanName, singletonObject);
+		this.beanTypeIndex.invalidate(beanName);
+	}
+
+	/**
+	 * Overridden to update the type index for the bean as well.
+	 */
+	@Override
+	protected void removeSingleton(String beanName) {
+		super.removeSingleton(beanName);
+		this.beanTypeIndex.invalidate(beanName);
 	}
 
 	@Override
@@ -1084,9 +1447,26 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	@Override
 	public void destroySingleton(String beanName) {
+		Class<?> manualSingletonType = getManualSingletonType(beanName);
 		super.destroySingleton(beanName);
 		removeManualSingletonName(beanName);
-		clearByTypeCache();
+		clearByTypeCache(manualSingletonType);
+	}
+
+	/**
+	 * Determine the type of the given manually registered singleton, if it is
+	 * not a FactoryBean and not shadowed by a bean definition of the same name.
+	 * @param beanName the name of the singleton
+	 * @return the type of the singleton, or {@code null} if not determinable
+	 */
+	@Nullable
+	private Class<?> getManualSingletonType(String beanName) {
+		if (!this.manualSingletonNames.contains(beanName) || this.beanDefinitionMap.containsKey(beanName)) {
+			return null;
+		}
+		Object singletonObject = getSingleton(beanName, false);
+		return (singletonObject != null && !(singletonObject instanceof FactoryBean) ?
+				singletonObject.getClass() : null);
 	}
 
 	private void removeManualSingletonName(String beanName) {
@@ -1126,6 +1506,22 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.singletonBeanNamesByType.clear();
 	}
 
+	/**
+	 * Remove the by-type mappings that a bean of the given type may affect,
+	 * i.e. the mappings for the type itself and all of its supertypes.
+	 * @param beanType the type of the added or removed bean, or {@code null}
+	 * if unknown (removing all by-type mappings then)
+	 */
+	private void clearByTypeCache(@Nullable Class<?> beanType) {
+		if (beanType == null) {
+			clearByTypeCache();
+		}
+		else {
+			this.allBeanNamesByType.keySet().removeIf(type -> type.isAssignableFrom(beanType));
+			this.singletonBeanNamesByType.keySet().removeIf(type -> type.isAssignableFrom(beanType));
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Dependency resolution functionality
@@ -22,6 +22,7 @@ import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -36,6 +37,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Generic registry for shared bean instances, implementing the
@@ -84,7 +86,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/**
 	 * 三级缓存：用于保存beanName和创建bean的工厂之间的关系，beanName -> ObjectFactory
 	 */
-	private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<>(16);
+	private final Map<String, ObjectFactory<?>> singletonFactories = new ConcurrentHashMap<>(16);
 
 	/** Cache of early singleton objects: bean name to bean instance. */
 	/**
@@ -97,10 +99,17 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/**
 	 * 保存当前所有已经注册的bean
 	 */
-	private final Set<String> registeredSingletons = new LinkedHashSet<>(256);
+	private final Set<String> registeredSingletons = Collections.synchronizedSet(new LinkedHashSet<>(256));
 
-	/** Names of beans that are currently in creation. */
-	private final Set<String> singletonsCurrentlyInCreation = Collections.newSetFromMap(new ConcurrentHashMap<>(16));
+	/** Creation state of beans that are currently in creation: bean name to creation record. */
+	private final Map<String, SingletonCreation> singletonsCurrentlyInCreation = new ConcurrentHashMap<>(16);
+
+	/** Threads currently waiting for a singleton concurrently created by another thread. */
+	private final Map<Thread, SingletonCreation> awaitedSingletonCreations = new HashMap<>();
+
+	/** Whether the current thread creates singletons concurrently with other threads. */
+	private final ThreadLocal<Boolean> concurrentSingletonCreation =
+			new NamedThreadLocal<>("Concurrent singleton creation");
 
 	/** Names of beans currently excluded from in creation checks. */
 	private final Set<String> inCreationCheckExclusions =
@@ -110,6 +119,10 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	@Nullable
 	private Set<Exception> suppressedExceptions;
 
+	/** Suppressed Exceptions of the singleton concurrently created by the current thread. */
+	private final ThreadLocal<Set<Exception>> concurrentSuppressedExceptions =
+			new NamedThreadLocal<>("Suppressed exceptions of concurrent singleton creation");
+
 	/** Flag that indicates whether we're currently within destroySingletons. */
 	private boolean singletonsCurrentlyInDestruction = false;
 
@@ -168,8 +181,8 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	protected void addSingletonFactory(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(singletonFactory, "Singleton factory must not be null");
-		// 加锁
-		synchronized (this.singletonObjects) {
+		// Early reference state is guarded by the bean's own creation lock
+		synchronized (getSingletonCreationMutex(beanName)) {
 			// 1、如果一级缓存中不存在当前beanName的时候，才能进if判断
 			if (!this.singletonObjects.containsKey(beanName)) {
 				// 2、将beanName => ObjectFactory的映射关系添加到三级缓存中，注意添加的是创建bean的对象工厂singletonFactory
@@ -223,6 +236,12 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * Return the (raw) singleton object registered under the given name.
 	 * <p>Checks already instantiated singletons and also allows for an early
 	 * reference to a currently created singleton (resolving a circular reference).
+	 * <p>Fully initialized singletons are returned without any locking. Early
+	 * references are resolved under the creation lock of the specific bean when
+	 * requested by the thread which creates that bean; other threads wait on the
+	 * full singleton lock for the ongoing creation, as before. Beans which are
+	 * concurrently created by another thread do not expose an early reference
+	 * to the current thread at all.
 	 * @param beanName the name of the bean to look for
 	 * @param allowEarlyReference whether early references should be created or not
 	 * @return the registered singleton object, or {@code null} if none found
@@ -235,41 +254,23 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		// 尝试从一级缓存中获取对应的bean对象
 		Object singletonObject = this.singletonObjects.get(beanName);
 		// 如果一级缓存中不存在，并且当前单例bean处于正在创建中
-		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
-			// 如果一级缓存中没有的话，再尝试从二级缓存中获取对应的bean对象
-			// 从早期单例对象缓存earlySingletonObjects中获取单例对象（之所称为早期单例对象，是因为earlySingletonObjects里的对象的都是通过提前曝光的ObjectFactory对象工厂创建出来的，还未进行属性填充等操作）
-			singletonObject = this.earlySingletonObjects.get(beanName);
-			if (singletonObject == null && allowEarlyReference) {
-				// 加锁
-				synchronized (this.singletonObjects) {
-					// Consistent creation of early reference within full singleton lock
-					singletonObject = this.singletonObjects.get(beanName);
-					if (singletonObject == null) {
-						singletonObject = this.earlySingletonObjects.get(beanName);
-						if (singletonObject == null) {
-							// 如果二级缓存中也没有的话，再尝试从三级缓存中获取对应的ObjectFactory单例工厂
-							ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
-
-							// 如果存在单例工厂，则调用单例工厂ObjectFactory的getObject()方法，创建一个bean
-							if (singletonFactory != null) {
-
-								// 调用ObjectFactory的getObject()方法，产生一个半成品bean
-								// 因为添加三级缓存的时候执行的是： addSingletonFactory(beanName, () -> getEarlyBeanReference(beanName, mbd, bean))，
-								// 所以singletonFactory.getObject()真正执行的其实是：获取bean的早期引用  ===>  getEarlyBeanReference(beanName, mbd, bean)
-								singletonObject = singletonFactory.getObject();
-
-								/**
-								 * 如下可以看到，二级缓存earlySingletonObjects和三级缓存singletonFactories是互斥的
-								 */
-								// 将bean放置于二级缓存中（放到早期单例对象缓存中）
-								this.earlySingletonObjects.put(beanName, singletonObject);
-
-								// 删除三级缓存中对应bean的单例工厂ObjectFactory
-								// 因为该单例工厂已经创建了一个实例对象，并且放到earlySingletonObjects缓存（二级缓存）中了，所以后面获取beanName的单例对象的时候，
-								// 可以从earlySingletonObjects二级缓存拿到，不需要再用到该单例工厂
-								this.singletonFactories.remove(beanName);
-
-							}
+		if (singletonObject == null) {
+			SingletonCreation creation = this.singletonsCurrentlyInCreation.get(beanName);
+			if (creation != null && (!creation.isConcurrent() || creation.isCreatingThread())) {
+				// 如果一级缓存中没有的话，再尝试从二级缓存中获取对应的bean对象
+				singletonObject = this.earlySingletonObjects.get(beanName);
+				if (singletonObject == null && allowEarlyReference) {
+					if (creation.isCreatingThread()) {
+						// Circular reference within the creating thread:
+						// consistent creation of early reference within the bean's creation lock
+						synchronized (creation) {
+							singletonObject = getEarlySingletonReference(beanName);
+						}
+					}
+					else {
+						// Consistent creation of early reference within full singleton lock
+						synchronized (this.singletonObjects) {
+							singletonObject = getEarlySingletonReference(beanName);
 						}
 					}
 				}
@@ -279,6 +280,42 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return singletonObject;
 	}
 
+	/**
+	 * Obtain the early reference for the given bean, if any, creating it through
+	 * its registered singleton factory on first access.
+	 * <p>To be called within the creation lock of the given bean.
+	 * @param beanName the name of the bean
+	 * @return the fully initialized singleton object (if it appeared in the meantime),
+	 * the early singleton reference, or {@code null} if none available
+	 */
+	@Nullable
+	private Object getEarlySingletonReference(String beanName) {
+		Object singletonObject = this.singletonObjects.get(beanName);
+		if (singletonObject == null) {
+			singletonObject = this.earlySingletonObjects.get(beanName);
+			if (singletonObject == null) {
+				// 如果二级缓存中也没有的话，再尝试从三级缓存中获取对应的ObjectFactory单例工厂
+				ObjectFactory<?> singletonFactory = this.singletonFactories.get(beanName);
+				// 如果存在单例工厂，则调用单例工厂ObjectFactory的getObject()方法，创建一个bean
+				if (singletonFactory != null) {
+					// 调用ObjectFactory的getObject()方法，产生一个半成品bean
+					// 因为添加三级缓存的时候执行的是： addSingletonFactory(beanName, () -> getEarlyBeanReference(beanName, mbd, bean))，
+					// 所以singletonFactory.getObject()真正执行的其实是：获取bean的早期引用  ===>  getEarlyBeanReference(beanName, mbd, bean)
+					singletonObject = singletonFactory.getObject();
+					// 二级缓存earlySingletonObjects和三级缓存singletonFactories是互斥的
+					// Singleton could have been added or removed in the meantime.
+					if (this.singletonFactories.remove(beanName) != null) {
+						this.earlySingletonObjects.put(beanName, singletonObject);
+					}
+					else {
+						singletonObject = this.singletonObjects.get(beanName);
+					}
+				}
+			}
+		}
+		return singletonObject;
+	}
+
 	/**
 	 * Return the (raw) singleton object registered under the given name,
 	 * creating and registering a new one if none registered yet.
@@ -286,9 +323,19 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param singletonFactory the ObjectFactory to lazily create the singleton
 	 * with, if necessary
 	 * @return the registered singleton object
+	 * @see #setConcurrentSingletonCreation
 	 */
 	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
 		Assert.notNull(beanName, "Bean name must not be null");
+		if (isConcurrentSingletonCreation()) {
+			return getSingletonConcurrently(beanName, singletonFactory);
+		}
+
+		// Let a concurrent creation in another thread finish before entering the singleton lock
+		SingletonCreation concurrentCreation = this.singletonsCurrentlyInCreation.get(beanName);
+		if (concurrentCreation != null && concurrentCreation.isConcurrent() && !concurrentCreation.isCreatingThread()) {
+			awaitSingletonCreation(beanName, concurrentCreation);
+		}
 
 		// 加锁，避免重复创建单例对象
 		synchronized (this.singletonObjects) {
@@ -365,6 +412,158 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		}
 	}
 
+	/**
+	 * Create and register the given singleton without the full singleton lock,
+	 * coordinating with other threads through the creation record of the bean.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to lazily create the singleton with
+	 * @return the registered singleton object
+	 * @throws BeanCurrentlyInCreationException if the bean is currently in creation
+	 * in the current thread, or if waiting for its creation in another thread would
+	 * lead to a deadlock
+	 */
+	private Object getSingletonConcurrently(String beanName, ObjectFactory<?> singletonFactory) {
+		while (true) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			if (this.singletonsCurrentlyInDestruction) {
+				throw new BeanCreationNotAllowedException(beanName,
+						"Singleton bean creation not allowed while singletons of this factory are in destruction " +
+						"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+			}
+
+			SingletonCreation creation = new SingletonCreation(true);
+			SingletonCreation existingCreation = (this.inCreationCheckExclusions.contains(beanName) ? null :
+					this.singletonsCurrentlyInCreation.putIfAbsent(beanName, creation));
+			if (existingCreation == null) {
+				return createSingletonConcurrently(beanName, singletonFactory, creation);
+			}
+			if (existingCreation.isCreatingThread()) {
+				throw new BeanCurrentlyInCreationException(beanName);
+			}
+			if (existingCreation.isConcurrent()) {
+				awaitSingletonCreation(beanName, existingCreation);
+			}
+			else {
+				// Creation within the full singleton lock: wait for the lock to be released
+				synchronized (this.singletonObjects) {
+					if (this.singletonsCurrentlyInCreation.get(beanName) == existingCreation) {
+						throw new BeanCurrentlyInCreationException(beanName);
+					}
+				}
+			}
+		}
+	}
+
+	private Object createSingletonConcurrently(
+			String beanName, ObjectFactory<?> singletonFactory, SingletonCreation creation) {
+
+		try {
+			// The singleton may have been registered right before our creation record
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Creating shared instance of singleton bean '" + beanName + "' concurrently");
+			}
+			boolean recordSuppressedExceptions = (this.concurrentSuppressedExceptions.get() == null);
+			if (recordSuppressedExceptions) {
+				this.concurrentSuppressedExceptions.set(new LinkedHashSet<>());
+			}
+			try {
+				singletonObject = singletonFactory.getObject();
+			}
+			catch (IllegalStateException ex) {
+				// Has the singleton object implicitly appeared in the meantime ->
+				// if yes, proceed with it since the exception indicates that state.
+				singletonObject = this.singletonObjects.get(beanName);
+				if (singletonObject == null) {
+					throw ex;
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Proceeding with singleton bean '" + beanName +
+							"' which has been registered during its creation: " + ex);
+				}
+				return singletonObject;
+			}
+			catch (BeanCreationException ex) {
+				if (recordSuppressedExceptions) {
+					for (Exception suppressedException : this.concurrentSuppressedExceptions.get()) {
+						ex.addRelatedCause(suppressedException);
+					}
+				}
+				throw ex;
+			}
+			finally {
+				if (recordSuppressedExceptions) {
+					this.concurrentSuppressedExceptions.remove();
+				}
+			}
+			// Publish the singleton before removing the creation record, so that
+			// waiting threads find it once they get notified
+			addSingleton(beanName, singletonObject);
+			return singletonObject;
+		}
+		catch (RuntimeException | Error ex) {
+			creation.fail(ex);
+			throw ex;
+		}
+		finally {
+			afterSingletonCreation(beanName);
+			creation.complete();
+		}
+	}
+
+	/**
+	 * Wait for the given singleton to be created by another thread.
+	 * @param beanName the name of the bean
+	 * @param creation the creation record of the bean in the other thread
+	 * @throws BeanCurrentlyInCreationException if waiting would lead to a deadlock:
+	 * the current thread holds the full singleton lock, or the creating thread
+	 * (transitively) waits for a bean in creation in the current thread
+	 * @throws BeanCreationException if the creation failed in the other thread,
+	 * rather than creating the bean once more in the current thread
+	 */
+	private void awaitSingletonCreation(String beanName, SingletonCreation creation) {
+		Thread currentThread = Thread.currentThread();
+		if (Thread.holdsLock(this.singletonObjects)) {
+			throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+					"in another thread which cannot be awaited within the singleton lock");
+		}
+		synchronized (this.awaitedSingletonCreations) {
+			Thread creatingThread = creation.getCreatingThread();
+			while (creatingThread != null) {
+				if (creatingThread == currentThread) {
+					throw new BeanCurrentlyInCreationException(beanName, "Requested bean is currently in creation " +
+							"in another thread which waits for a bean in creation in the current thread");
+				}
+				SingletonCreation awaitedCreation = this.awaitedSingletonCreations.get(creatingThread);
+				creatingThread = (awaitedCreation != null ? awaitedCreation.getCreatingThread() : null);
+			}
+			this.awaitedSingletonCreations.put(currentThread, creation);
+		}
+		try {
+			creation.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new BeanCreationException(beanName,
+					"Interrupted while waiting for the creation of the bean in another thread", ex);
+		}
+		finally {
+			synchronized (this.awaitedSingletonCreations) {
+				this.awaitedSingletonCreations.remove(currentThread);
+			}
+		}
+		Throwable failure = creation.getFailure();
+		if (failure != null) {
+			throw new BeanCreationException(beanName, "Creation of the bean failed in another thread", failure);
+		}
+	}
+
 	/**
 	 * Register an exception that happened to get suppressed during the creation of a
 	 * singleton bean instance, e.g. a temporary circular reference resolution problem.
@@ -375,6 +574,13 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see BeanCreationException#getRelatedCauses()
 	 */
 	protected void onSuppressedException(Exception ex) {
+		Set<Exception> concurrentSuppressedExceptions = this.concurrentSuppressedExceptions.get();
+		if (concurrentSuppressedExceptions != null) {
+			if (concurrentSuppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
+				concurrentSuppressedExceptions.add(ex);
+			}
+			return;
+		}
 		synchronized (this.singletonObjects) {
 			if (this.suppressedExceptions != null && this.suppressedExceptions.size() < SUPPRESSED_EXCEPTIONS_LIMIT) {
 				this.suppressedExceptions.add(ex);
@@ -404,16 +610,14 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 
 	@Override
 	public String[] getSingletonNames() {
-		synchronized (this.singletonObjects) {
+		synchronized (this.registeredSingletons) {
 			return StringUtils.toStringArray(this.registeredSingletons);
 		}
 	}
 
 	@Override
 	public int getSingletonCount() {
-		synchronized (this.singletonObjects) {
-			return this.registeredSingletons.size();
-		}
+		return this.registeredSingletons.size();
 	}
 
 
@@ -442,7 +646,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param beanName the name of the bean
 	 */
 	public boolean isSingletonCurrentlyInCreation(String beanName) {
-		return this.singletonsCurrentlyInCreation.contains(beanName);
+		return this.singletonsCurrentlyInCreation.containsKey(beanName);
 	}
 
 	/**
@@ -453,7 +657,8 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	protected void beforeSingletonCreation(String beanName) {
 		// inCreationCheckExclusions表示当前从创建检查中排除的bean的名称，通常情况下为空
-		if (!this.inCreationCheckExclusions.contains(beanName) && !this.singletonsCurrentlyInCreation.add(beanName)) {
+		if (!this.inCreationCheckExclusions.contains(beanName) &&
+				this.singletonsCurrentlyInCreation.putIfAbsent(beanName, new SingletonCreation(false)) != null) {
 			throw new BeanCurrentlyInCreationException(beanName);
 		}
 	}
@@ -465,11 +670,42 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see #isSingletonCurrentlyInCreation
 	 */
 	protected void afterSingletonCreation(String beanName) {
-		if (!this.inCreationCheckExclusions.contains(beanName) && !this.singletonsCurrentlyInCreation.remove(beanName)) {
+		if (!this.inCreationCheckExclusions.contains(beanName) && this.singletonsCurrentlyInCreation.remove(beanName) == null) {
 			throw new IllegalStateException("Singleton '" + beanName + "' isn't currently in creation");
 		}
 	}
 
+	/**
+	 * Specify whether the current thread creates singletons concurrently with
+	 * other threads, e.g. as part of a parallel pre-instantiation phase.
+	 * <p>A concurrently creating thread does not acquire the full singleton lock
+	 * for the creation of a singleton: other threads requesting the same bean
+	 * wait for its completion rather than receiving an early reference, and
+	 * a {@link BeanCurrentlyInCreationException} is raised in case of waiting
+	 * threads that would otherwise deadlock.
+	 * @param concurrent whether the current thread creates singletons concurrently
+	 * @since 5.1.21
+	 * @see #getSingleton(String, ObjectFactory)
+	 */
+	protected void setConcurrentSingletonCreation(boolean concurrent) {
+		if (concurrent) {
+			this.concurrentSingletonCreation.set(Boolean.TRUE);
+		}
+		else {
+			this.concurrentSingletonCreation.remove();
+		}
+	}
+
+	/**
+	 * Return whether the current thread creates singletons concurrently with
+	 * other threads.
+	 * @since 5.1.21
+	 * @see #setConcurrentSingletonCreation
+	 */
+	protected boolean isConcurrentSingletonCreation() {
+		return (this.concurrentSingletonCreation.get() != null);
+	}
+
 
 	/**
 	 * Add the given bean to the list of disposable beans in this registry.
@@ -737,4 +973,71 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return this.singletonObjects;
 	}
 
+	/**
+	 * Return the mutex for the early reference state of the given bean:
+	 * its creation record if currently in creation, or the full singleton
+	 * mutex otherwise.
+	 * @param beanName the name of the bean
+	 */
+	private Object getSingletonCreationMutex(String beanName) {
+		SingletonCreation creation = this.singletonsCurrentlyInCreation.get(beanName);
+		return (creation != null ? creation : this.singletonObjects);
+	}
+
+
+	/**
+	 * Creation record for a singleton bean that is currently in creation,
+	 * also serving as the lock for its early reference state.
+	 */
+	private static final class SingletonCreation {
+
+		private final Thread creatingThread = Thread.currentThread();
+
+		@Nullable
+		private final CountDownLatch completion;
+
+		@Nullable
+		private volatile Throwable failure;
+
+		public SingletonCreation(boolean concurrent) {
+			this.completion = (concurrent ? new CountDownLatch(1) : null);
+		}
+
+		public Thread getCreatingThread() {
+			return this.creatingThread;
+		}
+
+		public boolean isCreatingThread() {
+			return (this.creatingThread == Thread.currentThread());
+		}
+
+		/**
+		 * Return whether the bean is created outside of the full singleton lock.
+		 */
+		public boolean isConcurrent() {
+			return (this.completion != null);
+		}
+
+		public void fail(Throwable failure) {
+			this.failure = failure;
+		}
+
+		@Nullable
+		public Throwable getFailure() {
+			return this.failure;
+		}
+
+		public void complete() {
+			if (this.completion != null) {
+				this.completion.countDown();
+			}
+		}
+
+		public void await() throws InterruptedException {
+			if (this.completion != null) {
+				this.completion.await();
+			}
+		}
+	}
+
 }
@@ -26,7 +26,9 @@ import java.security.Principal;
 import java.security.PrivilegedAction;
 import java.text.NumberFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -37,6 +39,13 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -92,6 +101,7 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.lang.Nullable;
 import org.springframework.tests.Assume;
 import org.springframework.tests.TestGroup;
+import org.springframework.tests.sample.beans.AgeHolder;
 import org.springframework.tests.sample.beans.DependenciesBean;
 import org.springframework.tests.sample.beans.DerivedTestBean;
 import org.springframework.tests.sample.beans.ITestBean;
@@ -1932,6 +1942,96 @@ public class DefaultListableBeanFactoryTests {
 		assertEquals("&factoryBean", beanNames[0]);
 	}
 
+	@Test
+	public void testGetBeanNamesForTypeWithFrozenConfigurationAndLateRegistrations() {
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("nested1", new RootBeanDefinition(NestedTestBean.class));
+		lbf.freezeConfiguration();
+		assertArrayEquals(new String[] {"tb1"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"nested1"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.registerBeanDefinition("tb2", new RootBeanDefinition(DerivedTestBean.class));
+		assertArrayEquals(new String[] {"tb1", "tb2"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertArrayEquals(new String[] {"tb2"}, lbf.getBeanNamesForType(DerivedTestBean.class));
+		assertArrayEquals(new String[] {"nested1"}, lbf.getBeanNamesForType(NestedTestBean.class));
+
+		lbf.registerSingleton("tb3", new TestBean());
+		assertArrayEquals(new String[] {"tb1", "tb2", "tb3"}, lbf.getBeanNamesForType(ITestBean.class));
+		lbf.destroySingleton("tb3");
+		assertArrayEquals(new String[] {"tb1", "tb2"}, lbf.getBeanNamesForType(ITestBean.class));
+
+		lbf.removeBeanDefinition("tb1");
+		assertArrayEquals(new String[] {"tb2"}, lbf.getBeanNamesForType(ITestBean.class));
+		lbf.registerBeanDefinition("tb1", new RootBeanDefinition(TestBean.class));
+		assertArrayEquals(new String[] {"tb2", "tb1"}, lbf.getBeanNamesForType(ITestBean.class));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithFrozenConfigurationAndInheritedTypes() {
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition number = new RootBeanDefinition(Integer.class);
+		number.getConstructorArgumentValues().addGenericArgumentValue("42");
+		lbf.registerBeanDefinition("number", number);
+		lbf.freezeConfiguration();
+		assertArrayEquals(new String[] {"tb"}, lbf.getBeanNamesForType(AgeHolder.class));
+		assertArrayEquals(new String[] {"number"}, lbf.getBeanNamesForType(int.class));
+		assertArrayEquals(new String[] {"number"}, lbf.getBeanNamesForType(Number.class));
+		assertArrayEquals(new String[] {"tb", "number"}, lbf.getBeanNamesForType(Object.class));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithFrozenConfigurationAndReplacedInstance() {
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return ("replaced".equals(beanName) ? new DerivedTestBean() : bean);
+			}
+		});
+		lbf.registerBeanDefinition("replaced", new RootBeanDefinition(TestBean.class));
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		lbf.freezeConfiguration();
+		assertArrayEquals(new String[] {"replaced", "tb"}, lbf.getBeanNamesForType(ITestBean.class));
+		assertEquals(0, lbf.getBeanNamesForType(DisposableBean.class).length);
+
+		lbf.preInstantiateSingletons();
+		assertArrayEquals(new String[] {"replaced"}, lbf.getBeanNamesForType(Serializable.class));
+		assertArrayEquals(new String[] {"replaced", "tb"}, lbf.getBeanNamesForType(ITestBean.class, false, false));
+	}
+
+	@Test
+	public void testGetBeanNamesForTypeWithFrozenConfigurationAndConcurrentLookupDuringTypePrediction()
+			throws Exception {
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			AtomicBoolean concurrentLookupDone = new AtomicBoolean();
+			lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+				@Override
+				public Class<?> predictBeanType(Class<?> beanClass, String beanName) {
+					if (beanName.equals("tb") && concurrentLookupDone.compareAndSet(false, true)) {
+						// Another thread looking up beans while the type of "tb" is being predicted
+						Future<String[]> future = executor.submit(() -> lbf.getBeanNamesForType(ITestBean.class));
+						try {
+							assertArrayEquals(new String[] {"tb"}, future.get(10, TimeUnit.SECONDS));
+						}
+						catch (Exception ex) {
+							throw new IllegalStateException(ex);
+						}
+					}
+					return null;
+				}
+			});
+			lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+			lbf.registerBeanDefinition("nested", new RootBeanDefinition(NestedTestBean.class));
+			lbf.freezeConfiguration();
+			assertArrayEquals(new String[] {"tb"}, lbf.getBeanNamesForType(ITestBean.class));
+			assertTrue(concurrentLookupDone.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Verifies that a dependency on a {@link FactoryBean} can <strong>not</strong>
 	 * be autowired <em>by name</em>, as &amp; is an illegal character in
@@ -2954,6 +3054,142 @@ public class DefaultListableBeanFactoryTests {
 		}
 	}
 
+	@Test
+	public void testParallelPreInstantiation() {
+		lbf.setPreInstantiationParallelism(4);
+		for (int i = 0; i < 20; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.getPropertyValues().add("name", "tb" + i);
+			bd.getPropertyValues().add("spouse", new RuntimeBeanReference("shared" + (i % 3)));
+			lbf.registerBeanDefinition("tb" + i, bd);
+		}
+		for (int i = 0; i < 3; i++) {
+			lbf.registerBeanDefinition("shared" + i, new RootBeanDefinition(TestBean.class));
+		}
+		lbf.preInstantiateSingletons();
+
+		assertEquals(23, lbf.getSingletonCount());
+		for (int i = 0; i < 20; i++) {
+			TestBean tb = (TestBean) lbf.getSingleton("tb" + i);
+			assertNotNull(tb);
+			assertEquals("tb" + i, tb.getName());
+			assertSame(lbf.getSingleton("shared" + (i % 3)), tb.getSpouse());
+		}
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithCircularReferences() {
+		for (int run = 0; run < 20; run++) {
+			DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+			lbf.setPreInstantiationParallelism(4);
+			AtomicInteger instantiations = new AtomicInteger();
+			for (int i = 0; i < 10; i++) {
+				RootBeanDefinition bd = new RootBeanDefinition(TestBean.class, () -> {
+					instantiations.incrementAndGet();
+					return new TestBean();
+				});
+				bd.getPropertyValues().add("spouse", new RuntimeBeanReference("tb" + ((i + 1) % 10)));
+				lbf.registerBeanDefinition("tb" + i, bd);
+			}
+			lbf.preInstantiateSingletons();
+			assertEquals(10, instantiations.get());
+
+			for (int i = 0; i < 10; i++) {
+				TestBean tb = lbf.getBean("tb" + i, TestBean.class);
+				assertSame(lbf.getBean("tb" + ((i + 1) % 10)), tb.getSpouse());
+			}
+		}
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithOrderSensitiveBean() {
+		List<String> creationOrder = recordCreationOrder();
+		lbf.setPreInstantiationParallelism(4);
+		for (String beanName : new String[] {"a1", "a2", "a3", "barrier", "b1", "b2", "b3"}) {
+			lbf.registerBeanDefinition(beanName, new RootBeanDefinition(TestBean.class));
+		}
+		lbf.getBeanDefinition("barrier").setAttribute(DefaultListableBeanFactory.ORDER_SENSITIVE_ATTRIBUTE, true);
+		lbf.preInstantiateSingletons();
+
+		assertEquals(7, creationOrder.size());
+		assertEquals("barrier", creationOrder.get(3));
+		assertThat(creationOrder.subList(0, 3), containsInAnyOrder("a1", "a2", "a3"));
+		assertThat(creationOrder.subList(4, 7), containsInAnyOrder("b1", "b2", "b3"));
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithDependsOn() {
+		List<String> creationOrder = recordCreationOrder();
+		lbf.setPreInstantiationParallelism(4);
+		for (String beanName : new String[] {"dependent", "other", "dependency"}) {
+			lbf.registerBeanDefinition(beanName, new RootBeanDefinition(TestBean.class));
+		}
+		lbf.getBeanDefinition("dependent").setDependsOn("dependency");
+		lbf.preInstantiateSingletons();
+
+		assertEquals(3, creationOrder.size());
+		assertTrue(creationOrder.indexOf("dependency") < creationOrder.indexOf("dependent"));
+		assertTrue(Arrays.asList(lbf.getDependentBeans("dependency")).contains("dependent"));
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithUndeclaredCircularReferenceFailsFast() {
+		lbf.setPreInstantiationParallelism(2);
+		CountDownLatch started = new CountDownLatch(2);
+		AtomicInteger instantiations = new AtomicInteger();
+		for (String beanName : new String[] {"a", "b"}) {
+			String otherBeanName = (beanName.equals("a") ? "b" : "a");
+			lbf.registerBeanDefinition(beanName, new RootBeanDefinition(TestBean.class, () -> {
+				instantiations.incrementAndGet();
+				started.countDown();
+				try {
+					assertTrue(started.await(5, TimeUnit.SECONDS));
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException(ex);
+				}
+				return new TestBean(lbf.getBean(otherBeanName, TestBean.class));
+			}));
+		}
+		try {
+			lbf.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertTrue(ex.contains(BeanCurrentlyInCreationException.class));
+		}
+		assertEquals(2, instantiations.get());
+	}
+
+	@Test
+	public void testParallelPreInstantiationWithFailingBean() {
+		lbf.setPreInstantiationParallelism(4);
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().add("age", "not a number");
+		lbf.registerBeanDefinition("failing", bd);
+		try {
+			lbf.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("failing", ex.getBeanName());
+			assertFalse(lbf.containsSingleton("failing"));
+		}
+	}
+
+	private List<String> recordCreationOrder() {
+		List<String> creationOrder = Collections.synchronizedList(new ArrayList<>());
+		lbf.addBeanPostProcessor(new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				creationOrder.add(beanName);
+				return bean;
+			}
+		});
+		return creationOrder;
+	}
+
 
 	static class A { }
 
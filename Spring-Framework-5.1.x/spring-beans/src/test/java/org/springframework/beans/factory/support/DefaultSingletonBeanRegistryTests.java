@@ -16,9 +16,19 @@
 
 package org.springframework.beans.factory.support;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.tests.sample.beans.DerivedTestBean;
 import org.springframework.tests.sample.beans.TestBean;
@@ -83,6 +93,157 @@ public class DefaultSingletonBeanRegistryTests {
 		assertTrue(tb.wasDestroyed());
 	}
 
+	@Test(expected = IllegalStateException.class)
+	public void testRegisterSingletonTwice() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.registerSingleton("tb", new TestBean());
+		beanRegistry.registerSingleton("tb", new TestBean());
+	}
+
+	@Test
+	public void testConcurrentSingletonRegistration() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] futures = new Future<?>[4];
+			for (int i = 0; i < futures.length; i++) {
+				int offset = i * 250;
+				futures[i] = executor.submit(() -> {
+					for (int j = offset; j < offset + 250; j++) {
+						beanRegistry.registerSingleton("tb" + j, new TestBean("tb" + j));
+					}
+				});
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1000, beanRegistry.getSingletonCount());
+		assertEquals(1000, beanRegistry.getSingletonNames().length);
+		assertEquals("tb500", ((TestBean) beanRegistry.getSingleton("tb500")).getName());
+	}
+
+	@Test
+	public void testSingletonRegistrationDuringCreationInOtherThread() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean created = new TestBean("created");
+		AtomicReference<Future<?>> registration = new AtomicReference<>();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			beanRegistry.getSingleton("tb", () -> {
+				registration.set(executor.submit(() -> beanRegistry.registerSingleton("tb", new TestBean())));
+				try {
+					// Registration has to wait for the creation to complete
+					registration.get().get(100, TimeUnit.MILLISECONDS);
+					fail("Registration should have been blocked");
+				}
+				catch (TimeoutException ex) {
+					// expected
+				}
+				catch (InterruptedException | ExecutionException ex) {
+					throw new AssertionError(ex);
+				}
+				return created;
+			});
+			try {
+				registration.get().get(5, TimeUnit.SECONDS);
+				fail("Should have thrown IllegalStateException");
+			}
+			catch (ExecutionException ex) {
+				assertTrue(ex.getCause() instanceof IllegalStateException);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertSame(created, beanRegistry.getSingleton("tb"));
+	}
+
+	@Test
+	public void testEarlySingletonReferenceWithinCreatingThread() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean early = new TestBean("early");
+		TestBean full = new TestBean("full");
+
+		Object result = beanRegistry.getSingleton("tb", () -> {
+			assertTrue(beanRegistry.isSingletonCurrentlyInCreation("tb"));
+			assertNull(beanRegistry.getSingleton("tb"));
+			beanRegistry.addSingletonFactory("tb", () -> early);
+			assertNull(beanRegistry.getSingleton("tb", false));
+			assertSame(early, beanRegistry.getSingleton("tb"));
+			assertSame(early, beanRegistry.getSingleton("tb", false));
+			return full;
+		});
+
+		assertSame(full, result);
+		assertSame(full, beanRegistry.getSingleton("tb"));
+		assertSame(full, beanRegistry.getSingleton("tb", false));
+		assertFalse(beanRegistry.isSingletonCurrentlyInCreation("tb"));
+		assertEquals(1, beanRegistry.getSingletonCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testEarlySingletonReferenceNotExposedToOtherThread() throws Exception {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		TestBean early = new TestBean("early");
+		TestBean full = new TestBean("full");
+		CountDownLatch factoryRegistered = new CountDownLatch(1);
+		AtomicReference<Object> otherThreadResult = new AtomicReference<>();
+
+		Thread otherThread = new Thread(() -> {
+			try {
+				factoryRegistered.await();
+				otherThreadResult.set(beanRegistry.getSingleton("tb"));
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		otherThread.start();
+
+		beanRegistry.getSingleton("tb", () -> {
+			beanRegistry.addSingletonFactory("tb", () -> early);
+			factoryRegistered.countDown();
+			// Wait until the other thread either blocks on the singleton lock held
+			// by this thread or - if the early reference leaked - has already returned
+			Thread.State state = otherThread.getState();
+			while (state != Thread.State.BLOCKED && state != Thread.State.TERMINATED) {
+				Thread.yield();
+				state = otherThread.getState();
+			}
+			assertEquals(Thread.State.BLOCKED, state);
+			assertNull(otherThreadResult.get());
+			return full;
+		});
+
+		otherThread.join();
+		assertSame(full, otherThreadResult.get());
+	}
+
+	@Test
+	public void testSuppressedExceptionsWithConcurrentCreation() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		IllegalStateException suppressed = new IllegalStateException("suppressed");
+		beanRegistry.setConcurrentSingletonCreation(true);
+		try {
+			beanRegistry.getSingleton("tb", () -> {
+				beanRegistry.onSuppressedException(suppressed);
+				throw new BeanCreationException("tb", "failed");
+			});
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertArrayEquals(new Throwable[] {suppressed}, ex.getRelatedCauses());
+		}
+		finally {
+			beanRegistry.setConcurrentSingletonCreation(false);
+		}
+		assertFalse(beanRegistry.containsSingleton("tb"));
+	}
+
 	@Test
 	public void testDependentRegistration() {
 		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
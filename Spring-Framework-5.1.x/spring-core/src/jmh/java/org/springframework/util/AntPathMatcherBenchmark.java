@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link AntPathMatcher}, matching a typical set of
+ * request mapping patterns against request paths.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-core:jmh -PjmhInclude=AntPathMatcherBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AntPathMatcherBenchmark {
+
+	@Benchmark
+	public void matchAllPatterns(MatcherData data, Blackhole bh) {
+		for (String path : data.paths) {
+			for (String pattern : data.patterns) {
+				bh.consume(data.matcher.match(pattern, path));
+			}
+		}
+	}
+
+	@Benchmark
+	public void extractUriTemplateVariables(MatcherData data, Blackhole bh) {
+		for (int i = 0; i < data.paths.size(); i++) {
+			String pattern = data.patterns.get(i % data.patterns.size());
+			String path = data.paths.get(i);
+			if (data.matcher.match(pattern, path)) {
+				bh.consume(data.matcher.extractUriTemplateVariables(pattern, path));
+			}
+		}
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class MatcherData {
+
+		@Param({"true", "false"})
+		public boolean cachePatterns;
+
+		@Param({"20", "200"})
+		public int patternCount;
+
+		public AntPathMatcher matcher;
+
+		public List<String> patterns;
+
+		public List<String> paths;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.matcher = new AntPathMatcher();
+			this.matcher.setCachePatterns(this.cachePatterns);
+			this.patterns = new ArrayList<>(this.patternCount);
+			this.paths = new ArrayList<>(this.patternCount);
+			for (int i = 0; i < this.patternCount; i++) {
+				switch (i % 4) {
+					case 0:
+						this.patterns.add("/api/resource" + i);
+						this.paths.add("/api/resource" + i);
+						break;
+					case 1:
+						this.patterns.add("/api/resource" + i + "/{id}");
+						this.paths.add("/api/resource" + i + "/42");
+						break;
+					case 2:
+						this.patterns.add("/api/resource" + i + "/{id}/items/{itemId:\\d+}");
+						this.paths.add("/api/resource" + i + "/42/items/7");
+						break;
+					default:
+						this.patterns.add("/static/resource" + i + "/**/*.js");
+						this.paths.add("/static/resource" + i + "/js/lib/app.js");
+				}
+			}
+		}
+	}
+
+}
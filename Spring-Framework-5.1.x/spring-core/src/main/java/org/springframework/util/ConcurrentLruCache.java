@@ -0,0 +1,550 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Simple LRU (Least Recently Used) cache, bounded by a specified cache limit.
+ *
+ * <p>This implementation is backed by a number of segments, each of which
+ * holds an equal share of the overall size limit and evicts its own least
+ * recently used entry once it is exceeded, which makes the eviction order an
+ * approximation of the global LRU order.
+ *
+ * <p>Reads do not acquire any lock: each segment keeps its entries in a
+ * {@link ConcurrentHashMap} and merely records read accesses in a small
+ * bounded buffer. The recorded accesses are applied to the eviction order of
+ * the segment in batches, under the segment's own lock, once the buffer is
+ * half full or before the segment is modified. Accesses which cannot be
+ * recorded under heavy contention are dropped, so the recency of entries
+ * that are only read is approximate as well.
+ *
+ * <p>Values are computed through a generator function outside of any lock,
+ * so the generator may be invoked concurrently for the same key, with the
+ * first value to be cached winning. Neither keys nor values may be {@code null}.
+ *
+ * <p>Keeps track of hits, misses and evictions for monitoring purposes.
+ *
+ * @since 5.1.21
+ * @param <K> the type of the key used for cache retrieval
+ * @param <V> the type of the cached values
+ * @see ConcurrentReferenceHashMap
+ */
+public class ConcurrentLruCache<K, V> {
+
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+	private static final int MAXIMUM_CONCURRENCY_LEVEL = 1 << 16;
+
+
+	private final int sizeLimit;
+
+	@Nullable
+	private final Function<K, V> generator;
+
+	private final Segment<K, V>[] segments;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+
+	/**
+	 * Create a new cache instance with the given size limit, populated
+	 * through {@link #put} or {@link #get(Object, Function)} only.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 */
+	public ConcurrentLruCache(int sizeLimit) {
+		this(sizeLimit, DEFAULT_CONCURRENCY_LEVEL, null);
+	}
+
+	/**
+	 * Create a new cache instance with the given size limit and generator function.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param generator a function to generate a new value for a given key
+	 */
+	public ConcurrentLruCache(int sizeLimit, Function<K, V> generator) {
+		this(sizeLimit, DEFAULT_CONCURRENCY_LEVEL, generator);
+	}
+
+	/**
+	 * Create a new cache instance with the given size limit and generator function.
+	 * @param sizeLimit the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value)
+	 * @param concurrencyLevel the expected number of threads that will concurrently
+	 * access the cache, determining the number of segments (at most one per entry)
+	 * @param generator a function to generate a new value for a given key
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentLruCache(int sizeLimit, int concurrencyLevel, @Nullable Function<K, V> generator) {
+		Assert.isTrue(sizeLimit >= 0, "Cache size limit must not be negative");
+		Assert.isTrue(concurrencyLevel > 0, "Concurrency level must be positive");
+		this.sizeLimit = sizeLimit;
+		this.generator = generator;
+		int segmentCount = 1;
+		while (segmentCount < Math.min(concurrencyLevel, MAXIMUM_CONCURRENCY_LEVEL) &&
+				segmentCount * 2 <= sizeLimit) {
+			segmentCount <<= 1;
+		}
+		this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			int segmentLimit = sizeLimit / segmentCount + (i < sizeLimit % segmentCount ? 1 : 0);
+			this.segments[i] = new Segment<>(segmentLimit, this.evictionCount);
+		}
+	}
+
+
+	/**
+	 * Retrieve an entry from the cache, potentially triggering generation
+	 * of the value through the generator function of this cache.
+	 * @param key the key to retrieve the entry for
+	 * @return the cached or newly generated value
+	 * @throws IllegalStateException if this cache has no generator function
+	 */
+	public V get(K key) {
+		Function<K, V> generator = this.generator;
+		Assert.state(generator != null, "No generator function specified for this cache");
+		return get(key, generator);
+	}
+
+	/**
+	 * Retrieve an entry from the cache, potentially triggering generation
+	 * of the value through the given generator function.
+	 * @param key the key to retrieve the entry for
+	 * @param generator a function to generate a new value for the given key
+	 * @return the cached or newly generated value
+	 */
+	public V get(K key, Function<? super K, ? extends V> generator) {
+		V value = getIfPresent(key);
+		if (value != null) {
+			return value;
+		}
+		value = generator.apply(key);
+		Assert.state(value != null, "Generator function returned null value");
+		return getSegment(key).putIfAbsent(key, value);
+	}
+
+	/**
+	 * Retrieve an entry from the cache, if present.
+	 * @param key the key to retrieve the entry for
+	 * @return the cached value, or {@code null} if none
+	 */
+	@Nullable
+	public V getIfPresent(K key) {
+		V value = getSegment(key).get(key);
+		if (value != null) {
+			this.hitCount.increment();
+		}
+		else {
+			this.missCount.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * Put the given entry into the cache, replacing any existing entry for
+	 * the same key and potentially evicting the least recently used entry.
+	 * @param key the key of the entry
+	 * @param value the value of the entry
+	 */
+	public void put(K key, V value) {
+		Assert.notNull(value, "Value must not be null");
+		getSegment(key).put(key, value);
+	}
+
+	/**
+	 * Determine whether the given key is present in this cache,
+	 * without affecting its position in the eviction order.
+	 * @param key the key to check for
+	 * @return {@code true} if the key is present, {@code false} if there was no matching key
+	 */
+	public boolean contains(K key) {
+		return getSegment(key).contains(key);
+	}
+
+	/**
+	 * Immediately remove the given key and any associated value.
+	 * @param key the key to evict the entry for
+	 * @return the removed value, or {@code null} if there was no matching key
+	 */
+	@Nullable
+	public V remove(K key) {
+		return getSegment(key).remove(key);
+	}
+
+	/**
+	 * Immediately remove all entries from this cache.
+	 */
+	public void clear() {
+		for (Segment<K, V> segment : this.segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * Perform the given action for each entry in this cache, without
+	 * affecting the eviction order. The action operates on a snapshot of each
+	 * segment, so it may modify this cache but does not see its own changes.
+	 * @param action the action to perform for each key and value
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (Segment<K, V> segment : this.segments) {
+			for (Map.Entry<K, V> entry : segment.snapshot()) {
+				action.accept(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Return the current size of the cache.
+	 * @see #sizeLimit()
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : this.segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache
+	 * (0 indicates no caching, always generating a new value).
+	 * @see #size()
+	 */
+	public int sizeLimit() {
+		return this.sizeLimit;
+	}
+
+	/**
+	 * Return the number of lookups that found a cached value.
+	 */
+	public long hitCount() {
+		return this.hitCount.sum();
+	}
+
+	/**
+	 * Return the number of lookups that did not find a cached value.
+	 */
+	public long missCount() {
+		return this.missCount.sum();
+	}
+
+	/**
+	 * Return the number of entries that have been evicted
+	 * because the size limit was exceeded.
+	 */
+	public long evictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	private Segment<K, V> getSegment(K key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return this.segments[hash & (this.segments.length - 1)];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[size=" + size() + ", sizeLimit=" + this.sizeLimit +
+				", hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount() + "]";
+	}
+
+
+	/**
+	 * A segment of the cache with lock-free reads, keeping its entries in
+	 * eviction order in a linked list that is guarded by its own lock.
+	 */
+	private static final class Segment<K, V> {
+
+		/** Size of the read buffer, a power of two. */
+		private static final int READ_BUFFER_SIZE = 64;
+
+		private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+		/** Number of pending reads which triggers applying them to the eviction order. */
+		private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+
+		private final int sizeLimit;
+
+		private final LongAdder evictionCount;
+
+		private final ConcurrentHashMap<K, Node<K, V>> entries;
+
+		private final ReentrantLock evictionLock = new ReentrantLock();
+
+		private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+		private final AtomicLong readBufferWriteCount = new AtomicLong();
+
+		private volatile long readBufferReadCount;
+
+		/** The least recently used entry, guarded by the eviction lock. */
+		@Nullable
+		private Node<K, V> head;
+
+		/** The most recently used entry, guarded by the eviction lock. */
+		@Nullable
+		private Node<K, V> tail;
+
+		Segment(int sizeLimit, LongAdder evictionCount) {
+			this.sizeLimit = sizeLimit;
+			this.evictionCount = evictionCount;
+			this.entries = new ConcurrentHashMap<>(Math.min(sizeLimit, 256));
+		}
+
+		@Nullable
+		public V get(K key) {
+			Node<K, V> node = this.entries.get(key);
+			if (node == null) {
+				return null;
+			}
+			recordRead(node);
+			return node.value;
+		}
+
+		public void put(K key, V value) {
+			this.evictionLock.lock();
+			try {
+				drainReadBuffer();
+				Node<K, V> node = this.entries.get(key);
+				if (node != null) {
+					node.value = value;
+					moveToTail(node);
+				}
+				else {
+					addNode(key, value);
+				}
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+
+		public V putIfAbsent(K key, V value) {
+			this.evictionLock.lock();
+			try {
+				drainReadBuffer();
+				Node<K, V> node = this.entries.get(key);
+				if (node != null) {
+					moveToTail(node);
+					return node.value;
+				}
+				addNode(key, value);
+				return value;
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+
+		public boolean contains(K key) {
+			return this.entries.containsKey(key);
+		}
+
+		@Nullable
+		public V remove(K key) {
+			this.evictionLock.lock();
+			try {
+				Node<K, V> node = this.entries.remove(key);
+				if (node == null) {
+					return null;
+				}
+				unlink(node);
+				return node.value;
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+
+		public void clear() {
+			this.evictionLock.lock();
+			try {
+				drainReadBuffer();
+				this.entries.clear();
+				Node<K, V> node = this.head;
+				while (node != null) {
+					Node<K, V> next = node.next;
+					node.prev = null;
+					node.next = null;
+					node.linked = false;
+					node = next;
+				}
+				this.head = null;
+				this.tail = null;
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+
+		public int size() {
+			return this.entries.size();
+		}
+
+		public List<Map.Entry<K, V>> snapshot() {
+			List<Map.Entry<K, V>> snapshot = new ArrayList<>(this.entries.size());
+			for (Node<K, V> node : this.entries.values()) {
+				snapshot.add(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+			}
+			return snapshot;
+		}
+
+		/**
+		 * Record a read access to the given entry without blocking, applying
+		 * the pending read accesses if the lock is available and enough of
+		 * them have been recorded. The access is dropped if the buffer is full.
+		 */
+		private void recordRead(Node<K, V> node) {
+			long writeCount = this.readBufferWriteCount.get();
+			long pendingReads = writeCount - this.readBufferReadCount;
+			if (pendingReads < READ_BUFFER_SIZE &&
+					this.readBufferWriteCount.compareAndSet(writeCount, writeCount + 1)) {
+				this.readBuffer.lazySet((int) (writeCount & READ_BUFFER_MASK), node);
+				pendingReads++;
+			}
+			if (pendingReads >= READ_BUFFER_DRAIN_THRESHOLD && this.evictionLock.tryLock()) {
+				try {
+					drainReadBuffer();
+				}
+				finally {
+					this.evictionLock.unlock();
+				}
+			}
+		}
+
+		/**
+		 * Apply the recorded read accesses to the eviction order.
+		 * <p>To be called with the eviction lock held.
+		 */
+		private void drainReadBuffer() {
+			long readCount = this.readBufferReadCount;
+			long writeCount = this.readBufferWriteCount.get();
+			for (; readCount < writeCount; readCount++) {
+				int index = (int) (readCount & READ_BUFFER_MASK);
+				Node<K, V> node = this.readBuffer.get(index);
+				if (node == null) {
+					// Slot claimed by a reader but not written yet: continue on next drain
+					break;
+				}
+				this.readBuffer.lazySet(index, null);
+				if (node.linked) {
+					moveToTail(node);
+				}
+			}
+			this.readBufferReadCount = readCount;
+		}
+
+		private void addNode(K key, V value) {
+			Node<K, V> node = new Node<>(key, value);
+			this.entries.put(key, node);
+			linkLast(node);
+			while (this.entries.size() > this.sizeLimit && this.head != null) {
+				Node<K, V> eldest = this.head;
+				unlink(eldest);
+				this.entries.remove(eldest.key, eldest);
+				this.evictionCount.increment();
+			}
+		}
+
+		private void moveToTail(Node<K, V> node) {
+			if (node != this.tail) {
+				unlink(node);
+				linkLast(node);
+			}
+		}
+
+		private void linkLast(Node<K, V> node) {
+			Node<K, V> last = this.tail;
+			node.prev = last;
+			node.next = null;
+			if (last != null) {
+				last.next = node;
+			}
+			else {
+				this.head = node;
+			}
+			this.tail = node;
+			node.linked = true;
+		}
+
+		private void unlink(Node<K, V> node) {
+			Node<K, V> prev = node.prev;
+			Node<K, V> next = node.next;
+			if (prev != null) {
+				prev.next = next;
+			}
+			else {
+				this.head = next;
+			}
+			if (next != null) {
+				next.prev = prev;
+			}
+			else {
+				this.tail = prev;
+			}
+			node.prev = null;
+			node.next = null;
+			node.linked = false;
+		}
+	}
+
+
+	/**
+	 * A cache entry, linked in eviction order under the eviction lock
+	 * of its segment.
+	 */
+	private static final class Node<K, V> {
+
+		final K key;
+
+		volatile V value;
+
+		@Nullable
+		Node<K, V> prev;
+
+		@Nullable
+		Node<K, V> next;
+
+		boolean linked;
+
+		Node(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+	}
+
+}
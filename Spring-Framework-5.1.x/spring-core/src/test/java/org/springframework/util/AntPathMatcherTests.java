@@ -618,8 +618,15 @@ public class AntPathMatcherTests {
 		for (int i = 0; i < 65536; i++) {
 			pathMatcher.match("test" + i, "test");
 		}
-		// Cache turned off because it went beyond the threshold
-		assertTrue(pathMatcher.stringMatcherCache.isEmpty());
+		// Cache kept alive but bounded to the most recently used patterns
+		assertTrue(pathMatcher.stringMatcherCache.size() > 20);
+
+		for (int i = 0; i < 65536; i++) {
+			pathMatcher.match("test" + i + "*", "test" + i);
+		}
+		assertTrue(pathMatcher.stringMatcherCache.size() <= 65536);
+		assertTrue(pathMatcher.stringMatcherCache.contains("test65535*"));
+		assertTrue(pathMatcher.stringMatcherCache.evictionCount() > 0);
 	}
 
 	@Test
@@ -671,7 +678,7 @@ public class AntPathMatcherTests {
 	public void cachePatternsSetToFalse() {
 		pathMatcher.setCachePatterns(false);
 		match();
-		assertTrue(pathMatcher.stringMatcherCache.isEmpty());
+		assertEquals(0, pathMatcher.stringMatcherCache.size());
 	}
 
 	@Test
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ConcurrentLruCache}.
+ *
+ * @since 5.1.21
+ */
+public class ConcurrentLruCacheTests {
+
+	private final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2, 1, key -> key + "value");
+
+
+	@Test
+	public void getAndSize() {
+		assertEquals(2, this.cache.sizeLimit());
+		assertEquals(0, this.cache.size());
+		assertEquals("k1value", this.cache.get("k1"));
+		assertEquals(1, this.cache.size());
+		assertTrue(this.cache.contains("k1"));
+		assertEquals("k2value", this.cache.get("k2"));
+		assertEquals(2, this.cache.size());
+		assertTrue(this.cache.contains("k1"));
+		assertTrue(this.cache.contains("k2"));
+		assertEquals("k3value", this.cache.get("k3"));
+		assertEquals(2, this.cache.size());
+		assertFalse(this.cache.contains("k1"));
+		assertTrue(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void removeLeastRecentlyUsed() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.get("k1");
+		this.cache.get("k3");
+		assertTrue(this.cache.contains("k1"));
+		assertFalse(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+		assertEquals(1, this.cache.evictionCount());
+	}
+
+	@Test
+	public void removeLeastRecentlyUsedAfterManyReads() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		for (int i = 0; i < 1000; i++) {
+			this.cache.get("k2");
+			this.cache.get("k1");
+		}
+		this.cache.get("k3");
+		assertTrue(this.cache.contains("k1"));
+		assertFalse(this.cache.contains("k2"));
+		assertTrue(this.cache.contains("k3"));
+	}
+
+	@Test
+	public void containsDoesNotAffectEvictionOrder() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		assertTrue(this.cache.contains("k1"));
+		this.cache.get("k3");
+		assertFalse(this.cache.contains("k1"));
+	}
+
+	@Test
+	public void statistics() {
+		this.cache.get("k1");
+		this.cache.get("k1");
+		this.cache.get("k2");
+		assertNull(this.cache.getIfPresent("k3"));
+		assertEquals(1, this.cache.hitCount());
+		assertEquals(3, this.cache.missCount());
+		assertEquals(0, this.cache.evictionCount());
+	}
+
+	@Test
+	public void putAndRemove() {
+		this.cache.put("k1", "v1");
+		assertEquals("v1", this.cache.get("k1"));
+		this.cache.put("k1", "v2");
+		assertEquals("v2", this.cache.getIfPresent("k1"));
+		assertEquals("v2", this.cache.remove("k1"));
+		assertNull(this.cache.remove("k1"));
+		assertEquals(0, this.cache.size());
+	}
+
+	@Test
+	public void clear() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		this.cache.clear();
+		assertEquals(0, this.cache.size());
+		assertFalse(this.cache.contains("k1"));
+	}
+
+	@Test
+	public void forEach() {
+		this.cache.get("k1");
+		this.cache.get("k2");
+		Map<String, String> entries = new HashMap<>();
+		this.cache.forEach((key, value) -> {
+			entries.put(key, value);
+			this.cache.remove(key);
+		});
+		assertEquals(2, entries.size());
+		assertEquals("k1value", entries.get("k1"));
+		assertEquals(0, this.cache.size());
+	}
+
+	@Test
+	public void zeroSizeLimit() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(0, key -> key + "value");
+		assertEquals("k1value", cache.get("k1"));
+		assertEquals(0, cache.size());
+		assertFalse(cache.contains("k1"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getWithoutGenerator() {
+		new ConcurrentLruCache<String, String>(2).get("k1");
+	}
+
+	@Test
+	public void getWithGivenGenerator() {
+		ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(2);
+		assertEquals("k1other", cache.get("k1", key -> key + "other"));
+		assertEquals("k1other", cache.get("k1", key -> key + "another"));
+	}
+
+	@Test
+	public void sizeLimitWithSegments() {
+		ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100, key -> key);
+		for (int i = 0; i < 1000; i++) {
+			cache.get(i);
+		}
+		assertTrue(cache.size() <= 100);
+		assertEquals(1000 - cache.size(), cache.evictionCount());
+	}
+
+	@Test
+	public void concurrentAccess() throws Exception {
+		ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(64, key -> key * 2);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch latch = new CountDownLatch(4);
+		AtomicInteger failures = new AtomicInteger();
+		for (int t = 0; t < 4; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 10000; i++) {
+					int key = i % 100;
+					if (cache.get(key) != key * 2) {
+						failures.incrementAndGet();
+					}
+				}
+				latch.countDown();
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertEquals(0, failures.get());
+		assertTrue(cache.size() <= 64);
+		assertEquals(40000, cache.hitCount() + cache.missCount());
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Benchmarks for {@link JdbcTemplate} queries against an embedded H2 database.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-jdbc:jmh -PjmhInclude=JdbcTemplateBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class JdbcTemplateBenchmark {
+
+	@Benchmark
+	public List<Customer> queryWithRowMapper(DatabaseData data) {
+		return data.jdbcTemplate.query("SELECT id, name, email FROM customer WHERE id < ?",
+				(rs, rowNum) -> new Customer(rs.getLong(1), rs.getString(2), rs.getString(3)), data.rowCount);
+	}
+
+	@Benchmark
+	public List<Customer> queryWithBeanPropertyRowMapper(DatabaseData data) {
+		return data.jdbcTemplate.query("SELECT id, name, email FROM customer WHERE id < ?",
+				data.beanPropertyRowMapper, data.rowCount);
+	}
+
+	@Benchmark
+	public void queryWithRowCallbackHandler(DatabaseData data, Blackhole bh) {
+		data.jdbcTemplate.query("SELECT id, name, email FROM customer WHERE id < ?",
+				(RowCallbackHandler) rs -> bh.consume(rs.getString(2)), data.rowCount);
+	}
+
+	@Benchmark
+	public Integer queryForObject(DatabaseData data) {
+		return data.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer WHERE id < ?",
+				Integer.class, data.rowCount);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DatabaseData {
+
+		@Param({"1", "100", "10000"})
+		public int rowCount;
+
+		public EmbeddedDatabase database;
+
+		public JdbcTemplate jdbcTemplate;
+
+		public BeanPropertyRowMapper<Customer> beanPropertyRowMapper;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.database = new EmbeddedDatabaseBuilder()
+					.setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+			this.jdbcTemplate = new JdbcTemplate(this.database);
+			this.jdbcTemplate.execute(
+					"CREATE TABLE customer (id BIGINT PRIMARY KEY, name VARCHAR(50), email VARCHAR(100))");
+			List<Object[]> batchArgs = new ArrayList<>(this.rowCount);
+			for (long i = 0; i < this.rowCount; i++) {
+				batchArgs.add(new Object[] {i, "name" + i, "customer" + i + "@example.org"});
+			}
+			this.jdbcTemplate.batchUpdate("INSERT INTO customer (id, name, email) VALUES (?, ?, ?)", batchArgs);
+			this.beanPropertyRowMapper = new BeanPropertyRowMapper<>(Customer.class);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.database.shutdown();
+		}
+	}
+
+
+	public static class Customer {
+
+		private long id;
+
+		private String name;
+
+		private String email;
+
+		public Customer() {
+		}
+
+		public Customer(long id, String name, String email) {
+			this.id = id;
+			this.name = name;
+			this.email = email;
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getEmail() {
+			return this.email;
+		}
+
+		public void setEmail(String email) {
+			this.email = email;
+		}
+	}
+
+}
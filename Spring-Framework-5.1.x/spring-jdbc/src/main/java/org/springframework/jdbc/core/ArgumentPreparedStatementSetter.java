@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,32 @@ public class ArgumentPreparedStatementSetter implements PreparedStatementSetter,
 		}
 	}
 
+	/**
+	 * Set the arguments on the given PreparedStatement, resolving the SQL type
+	 * of {@code null} arguments through the given cache of parameter types.
+	 * @param ps the PreparedStatement
+	 * @param parameterMetaDataCache the cache of parameter types to use
+	 * @param sql the SQL statement that the PreparedStatement has been created for
+	 * @throws SQLException if thrown by PreparedStatement methods
+	 * @since 5.1.21
+	 */
+	void setValues(PreparedStatement ps, ParameterMetaDataCache parameterMetaDataCache, String sql)
+			throws SQLException {
+
+		if (this.args != null) {
+			for (int i = 0; i < this.args.length; i++) {
+				Object arg = this.args[i];
+				if (arg instanceof SqlParameterValue) {
+					doSetValue(ps, i + 1, arg);
+				}
+				else {
+					StatementCreatorUtils.setParameterValue(
+							ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, arg, parameterMetaDataCache, sql);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Set the value for prepared statements specified parameter index using the passed in value.
 	 * This method can be overridden by sub-classes if needed.
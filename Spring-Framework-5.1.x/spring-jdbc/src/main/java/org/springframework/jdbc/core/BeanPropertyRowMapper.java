@@ -20,6 +20,7 @@ import java.beans.PropertyDescriptor;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
@@ -233,6 +234,23 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		}
 	}
 
+	/**
+	 * Return the bean property for the given column name, if any.
+	 * @param column the column name as obtained from result set meta-data
+	 */
+	@Nullable
+	PropertyDescriptor getMappedProperty(String column) {
+		String field = lowerCaseName(StringUtils.delete(column, " "));
+		return (this.mappedFields != null ? this.mappedFields.get(field) : null);
+	}
+
+	/**
+	 * Return the names of all bean properties we provide mapping for.
+	 */
+	Set<String> getMappedProperties() {
+		return (this.mappedProperties != null ? this.mappedProperties : Collections.emptySet());
+	}
+
 	/**
 	 * Convert a name in camelCase to an underscored name in lower case.
 	 * Any upper case letters are converted to lower case with a preceding underscore.
@@ -294,36 +312,14 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 			String field = lowerCaseName(StringUtils.delete(column, " "));
 			PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
 			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (rowNumber == 0 && logger.isDebugEnabled()) {
-						logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-								"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
-					}
-					try {
-						bw.setPropertyValue(pd.getName(), value);
-					}
-					catch (TypeMismatchException ex) {
-						if (value == null && this.primitivesDefaultedForNullValue) {
-							if (logger.isDebugEnabled()) {
-								logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-										" and column '" + column + "' with null value when setting property '" +
-										pd.getName() + "' of type '" +
-										ClassUtils.getQualifiedName(pd.getPropertyType()) +
-										"' on object: " + mappedObject, ex);
-							}
-						}
-						else {
-							throw ex;
-						}
-					}
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
+				Object value = getColumnValue(rs, index, pd);
+				if (rowNumber == 0 && logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
 				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+				setPropertyValue(bw, column, pd, value, rowNumber);
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
 				}
 			}
 			else {
@@ -342,6 +338,37 @@ public class BeanPropertyRowMapper<T> implements RowMapper<T> {
 		return mappedObject;
 	}
 
+	/**
+	 * Set the given column value on the corresponding bean property through
+	 * the given BeanWrapper, defaulting primitives for {@code null} values
+	 * if configured.
+	 */
+	void setPropertyValue(BeanWrapper bw, String column, PropertyDescriptor pd, @Nullable Object value,
+			int rowNumber) {
+
+		try {
+			bw.setPropertyValue(pd.getName(), value);
+		}
+		catch (TypeMismatchException ex) {
+			if (value == null && this.primitivesDefaultedForNullValue) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+							" and column '" + column + "' with null value when setting property '" +
+							pd.getName() + "' of type '" +
+							ClassUtils.getQualifiedName(pd.getPropertyType()) +
+							"' on object: " + bw.getWrappedInstance(), ex);
+				}
+			}
+			else {
+				throw ex;
+			}
+		}
+		catch (NotWritablePropertyException ex) {
+			throw new DataRetrievalFailureException(
+					"Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+		}
+	}
+
 	/**
 	 * Initialize the given BeanWrapper to be used for row mapping.
 	 * To be called for each row.
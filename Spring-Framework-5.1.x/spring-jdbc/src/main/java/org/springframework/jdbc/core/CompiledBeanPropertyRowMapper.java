@@ -0,0 +1,445 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.MethodInvocationException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.core.KotlinDetector;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentLruCache;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link BeanPropertyRowMapper} variant that resolves the mapping from columns
+ * to bean properties once per result set shape (i.e. per sequence of column
+ * names) and invokes the constructor and property setters of the mapped class
+ * through a generated CGLIB {@link FastClass}, avoiding the creation of a
+ * {@link BeanWrapper} as well as property lookups for each row.
+ *
+ * <p>Column values for common property types (String, primitives and their
+ * wrappers, BigDecimal, byte arrays and the {@code java.sql} date types) are
+ * retrieved through the corresponding typed {@code ResultSet} getter. Values
+ * that are not an instance of the property type already, {@code null} values
+ * for primitive or {@code Optional} properties, as well as mapped classes for
+ * which no FastClass can be generated (e.g. private classes or Kotlin types) are
+ * handled through a BeanWrapper like in {@code BeanPropertyRowMapper}, with
+ * the configured {@link #setConversionService ConversionService} applied.
+ *
+ * <p>Subclasses that override {@link #getColumnValue} or {@link #initBeanWrapper}
+ * remain supported: their column values are retrieved through
+ * {@code getColumnValue}, and their BeanWrapper is used for every property,
+ * respectively.
+ *
+ * @since 5.1.21
+ * @param <T> the result type
+ * @see BeanPropertyRowMapper
+ */
+public class CompiledBeanPropertyRowMapper<T> extends BeanPropertyRowMapper<T> {
+
+	private static final int MAPPING_CACHE_LIMIT = 16;
+
+	/** Marker for a property setter to invoke through a BeanWrapper. */
+	private static final int NOT_COMPILED = -1;
+
+	private static final Map<Class<?>, ColumnReader> columnReaders = new HashMap<>(32);
+
+	static {
+		columnReaders.put(String.class, ResultSet::getString);
+		columnReaders.put(boolean.class, (rs, index) -> {
+			boolean value = rs.getBoolean(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(byte.class, (rs, index) -> {
+			byte value = rs.getByte(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(short.class, (rs, index) -> {
+			short value = rs.getShort(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(int.class, (rs, index) -> {
+			int value = rs.getInt(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(long.class, (rs, index) -> {
+			long value = rs.getLong(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(float.class, (rs, index) -> {
+			float value = rs.getFloat(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(double.class, (rs, index) -> {
+			double value = rs.getDouble(index);
+			return (rs.wasNull() ? null : value);
+		});
+		columnReaders.put(Boolean.class, columnReaders.get(boolean.class));
+		columnReaders.put(Byte.class, columnReaders.get(byte.class));
+		columnReaders.put(Short.class, columnReaders.get(short.class));
+		columnReaders.put(Integer.class, columnReaders.get(int.class));
+		columnReaders.put(Long.class, columnReaders.get(long.class));
+		columnReaders.put(Float.class, columnReaders.get(float.class));
+		columnReaders.put(Double.class, columnReaders.get(double.class));
+		columnReaders.put(BigDecimal.class, ResultSet::getBigDecimal);
+		columnReaders.put(byte[].class, ResultSet::getBytes);
+		columnReaders.put(java.sql.Date.class, ResultSet::getDate);
+		columnReaders.put(java.sql.Time.class, ResultSet::getTime);
+		columnReaders.put(java.sql.Timestamp.class, ResultSet::getTimestamp);
+		columnReaders.put(java.util.Date.class, ResultSet::getTimestamp);
+	}
+
+
+	@Nullable
+	private FastClass fastClass;
+
+	private int constructorIndex = NOT_COMPILED;
+
+	private final boolean typedColumnAccess;
+
+	private final boolean compiledPropertyAccess;
+
+	private final ConcurrentLruCache<List<String>, ColumnMapping[]> mappingCache =
+			new ConcurrentLruCache<>(MAPPING_CACHE_LIMIT);
+
+	@Nullable
+	private volatile ResultSetMapping lastMapping;
+
+
+	/**
+	 * Create a new {@code CompiledBeanPropertyRowMapper} for bean-style configuration.
+	 * @see #setMappedClass
+	 * @see #setCheckFullyPopulated
+	 */
+	public CompiledBeanPropertyRowMapper() {
+		this.typedColumnAccess = isDeclaredByBeanPropertyRowMapper(
+				"getColumnValue", ResultSet.class, int.class, PropertyDescriptor.class);
+		this.compiledPropertyAccess = isDeclaredByBeanPropertyRowMapper("initBeanWrapper", BeanWrapper.class);
+	}
+
+	/**
+	 * Create a new {@code CompiledBeanPropertyRowMapper}, accepting unpopulated
+	 * properties in the target bean.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public CompiledBeanPropertyRowMapper(Class<T> mappedClass) {
+		this();
+		setMappedClass(mappedClass);
+	}
+
+	/**
+	 * Create a new {@code CompiledBeanPropertyRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 * @param checkFullyPopulated whether we're strictly validating that
+	 * all bean properties have been mapped from corresponding database fields
+	 */
+	public CompiledBeanPropertyRowMapper(Class<T> mappedClass, boolean checkFullyPopulated) {
+		this(mappedClass);
+		setCheckFullyPopulated(checkFullyPopulated);
+	}
+
+
+	/**
+	 * Initialize the mapping meta-data for the given class,
+	 * generating a {@link FastClass} for it if possible.
+	 * @param mappedClass the mapped class
+	 */
+	@Override
+	protected void initialize(Class<T> mappedClass) {
+		super.initialize(mappedClass);
+		this.fastClass = null;
+		this.constructorIndex = NOT_COMPILED;
+		if (isCompilable(mappedClass)) {
+			try {
+				Constructor<T> ctor = mappedClass.getDeclaredConstructor();
+				if (!Modifier.isPrivate(ctor.getModifiers())) {
+					FastClass.Generator generator = new FastClass.Generator();
+					generator.setType(mappedClass);
+					generator.setClassLoader(mappedClass.getClassLoader());
+					generator.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+					this.fastClass = generator.create();
+					this.constructorIndex = this.fastClass.getIndex(new Class<?>[0]);
+				}
+			}
+			catch (Throwable ex) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to generate FastClass for mapped class [" + mappedClass.getName() +
+							"] - falling back to reflection: " + ex);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Extract the values for all columns in the current row, based on the
+	 * column mapping resolved for the result set meta-data.
+	 * @see java.sql.ResultSetMetaData
+	 */
+	@Override
+	public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
+		Class<T> mappedClass = getMappedClass();
+		Assert.state(mappedClass != null, "Mapped class was not specified");
+		ColumnMapping[] mappings = getColumnMappings(rs.getMetaData());
+		T mappedObject = instantiate(mappedClass);
+		BeanWrapper bw = null;
+
+		for (ColumnMapping mapping : mappings) {
+			Object value = (mapping.reader != null ? mapping.reader.read(rs, mapping.index) :
+					getColumnValue(rs, mapping.index, mapping.property));
+			if (mapping.isApplicable(value)) {
+				mapping.setValue(mappedObject, value);
+			}
+			else {
+				if (bw == null) {
+					bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
+					initBeanWrapper(bw);
+				}
+				setPropertyValue(bw, mapping.column, mapping.property, value, rowNumber);
+			}
+		}
+
+		return mappedObject;
+	}
+
+	private T instantiate(Class<T> mappedClass) {
+		FastClass fastClass = this.fastClass;
+		if (fastClass != null && this.constructorIndex >= 0) {
+			try {
+				return mappedClass.cast(fastClass.newInstance(this.constructorIndex, new Object[0]));
+			}
+			catch (InvocationTargetException ex) {
+				throw new BeanInstantiationException(mappedClass, "Constructor threw exception",
+						ex.getTargetException());
+			}
+		}
+		return BeanUtils.instantiateClass(mappedClass);
+	}
+
+	/**
+	 * Return the column mappings for the given result set meta-data,
+	 * resolving them once per sequence of column names.
+	 */
+	private ColumnMapping[] getColumnMappings(ResultSetMetaData rsmd) throws SQLException {
+		ResultSetMapping lastMapping = this.lastMapping;
+		if (lastMapping != null && lastMapping.matches(rsmd)) {
+			return lastMapping.mappings;
+		}
+		int columnCount = rsmd.getColumnCount();
+		String[] columns = new String[columnCount];
+		for (int index = 1; index <= columnCount; index++) {
+			columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+		}
+		List<String> key = Arrays.asList(columns);
+		ColumnMapping[] mappings = this.mappingCache.getIfPresent(key);
+		if (mappings == null) {
+			mappings = resolveColumnMappings(columns);
+			this.mappingCache.put(key, mappings);
+		}
+		this.lastMapping = new ResultSetMapping(columns, mappings);
+		return mappings;
+	}
+
+	private ColumnMapping[] resolveColumnMappings(String[] columns) {
+		List<ColumnMapping> mappings = new ArrayList<>(columns.length);
+		Set<String> populatedProperties = new HashSet<>();
+		for (int index = 1; index <= columns.length; index++) {
+			String column = columns[index - 1];
+			PropertyDescriptor pd = getMappedProperty(column);
+			if (pd != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
+							"' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+				}
+				ColumnReader reader = (this.typedColumnAccess ? columnReaders.get(pd.getPropertyType()) : null);
+				mappings.add(new ColumnMapping(index, column, pd, reader, this.fastClass, getSetterIndex(pd)));
+				populatedProperties.add(pd.getName());
+			}
+			else {
+				if (logger.isDebugEnabled()) {
+					logger.debug("No property found for column '" + column + "'");
+				}
+			}
+		}
+		if (isCheckFullyPopulated() && !populatedProperties.equals(getMappedProperties())) {
+			throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+					"necessary to populate object of " + getMappedClass() + ": " + getMappedProperties());
+		}
+		return mappings.toArray(new ColumnMapping[mappings.size()]);
+	}
+
+	private int getSetterIndex(PropertyDescriptor pd) {
+		FastClass fastClass = this.fastClass;
+		Method writeMethod = pd.getWriteMethod();
+		if (fastClass == null || !this.compiledPropertyAccess || writeMethod == null ||
+				!Modifier.isPublic(writeMethod.getModifiers()) || Modifier.isStatic(writeMethod.getModifiers()) ||
+				pd.getPropertyType() == Optional.class) {
+			return NOT_COMPILED;
+		}
+		return fastClass.getIndex(writeMethod.getName(), writeMethod.getParameterTypes());
+	}
+
+	private boolean isDeclaredByBeanPropertyRowMapper(String methodName, Class<?>... parameterTypes) {
+		Method method = ReflectionUtils.findMethod(getClass(), methodName, parameterTypes);
+		return (method != null && method.getDeclaringClass() == BeanPropertyRowMapper.class);
+	}
+
+	private static boolean isCompilable(Class<?> mappedClass) {
+		return (System.getSecurityManager() == null && mappedClass.getClassLoader() != null &&
+				!Modifier.isAbstract(mappedClass.getModifiers()) && !Modifier.isPrivate(mappedClass.getModifiers()) &&
+				!(KotlinDetector.isKotlinReflectPresent() && KotlinDetector.isKotlinType(mappedClass)));
+	}
+
+
+	/**
+	 * Static factory method to create a new {@code CompiledBeanPropertyRowMapper}.
+	 * @param mappedClass the class that each row should be mapped to
+	 */
+	public static <T> CompiledBeanPropertyRowMapper<T> newInstance(Class<T> mappedClass) {
+		return new CompiledBeanPropertyRowMapper<>(mappedClass);
+	}
+
+
+	/**
+	 * Strategy for retrieving a column value through a typed ResultSet getter.
+	 */
+	@FunctionalInterface
+	private interface ColumnReader {
+
+		@Nullable
+		Object read(ResultSet rs, int index) throws SQLException;
+	}
+
+
+	/**
+	 * Mapping of a single column to a bean property.
+	 */
+	private static final class ColumnMapping {
+
+		final int index;
+
+		final String column;
+
+		final PropertyDescriptor property;
+
+		@Nullable
+		final ColumnReader reader;
+
+		@Nullable
+		private final FastClass fastClass;
+
+		private final int setterIndex;
+
+		/** The property type, with primitives resolved to their wrapper types. */
+		private final Class<?> argumentType;
+
+		private final boolean nullable;
+
+		ColumnMapping(int index, String column, PropertyDescriptor property, @Nullable ColumnReader reader,
+				@Nullable FastClass fastClass, int setterIndex) {
+
+			this.index = index;
+			this.column = column;
+			this.property = property;
+			this.reader = reader;
+			this.fastClass = fastClass;
+			this.setterIndex = (fastClass != null ? setterIndex : NOT_COMPILED);
+			this.argumentType = ClassUtils.resolvePrimitiveIfNecessary(property.getPropertyType());
+			this.nullable = !property.getPropertyType().isPrimitive();
+		}
+
+		/**
+		 * Determine whether the given value can be passed to the generated
+		 * property setter as-is, without any conversion.
+		 */
+		public boolean isApplicable(@Nullable Object value) {
+			return (this.setterIndex >= 0 && (value != null ? this.argumentType.isInstance(value) : this.nullable));
+		}
+
+		public void setValue(Object mappedObject, @Nullable Object value) {
+			FastClass fastClass = this.fastClass;
+			Assert.state(fastClass != null, "No FastClass available");
+			try {
+				fastClass.invoke(this.setterIndex, mappedObject, new Object[] {value});
+			}
+			catch (InvocationTargetException ex) {
+				PropertyChangeEvent event = new PropertyChangeEvent(mappedObject, this.property.getName(), null, value);
+				throw new MethodInvocationException(event, ex.getTargetException());
+			}
+		}
+	}
+
+
+	/**
+	 * Column mappings along with the column names they have been resolved for.
+	 */
+	private static final class ResultSetMapping {
+
+		private final String[] columns;
+
+		final ColumnMapping[] mappings;
+
+		ResultSetMapping(String[] columns, ColumnMapping[] mappings) {
+			this.columns = columns;
+			this.mappings = mappings;
+		}
+
+		/**
+		 * Determine whether the given result set meta-data has the same
+		 * sequence of column names that the mappings have been resolved for.
+		 */
+		public boolean matches(ResultSetMetaData rsmd) throws SQLException {
+			if (rsmd.getColumnCount() != this.columns.length) {
+				return false;
+			}
+			for (int index = 1; index <= this.columns.length; index++) {
+				if (!this.columns[index - 1].equals(JdbcUtils.lookupColumnName(rsmd, index))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
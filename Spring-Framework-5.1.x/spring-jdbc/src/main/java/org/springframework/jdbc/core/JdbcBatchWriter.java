@@ -0,0 +1,469 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * Asynchronous writer that executes a single SQL statement as JDBC batch
+ * for rows submitted by any number of threads.
+ *
+ * <p>Rows are buffered in a bounded queue and written through the given
+ * {@link JdbcTemplate} on a dedicated executor, either once a full
+ * {@linkplain #setBatchSize batch} is available or after the
+ * {@linkplain #setFlushInterval flush interval} has elapsed. Once the queue
+ * holds {@linkplain #setQueueCapacity queueCapacity} rows, {@link #write}
+ * blocks until the executor has caught up, applying backpressure to the
+ * producers instead of letting the buffer grow without bounds.
+ *
+ * <p>Parameter values are set through {@link StatementCreatorUtils}, and
+ * failures are translated through the {@code SQLExceptionTranslator} of the
+ * JdbcTemplate. The rows of a failed batch are handed to the
+ * {@linkplain #setFailureHandler failure handler} along with the exception;
+ * by default, the failure is logged and the rows are discarded.
+ *
+ * <p>Rows are written in the order in which they have been queued. A batch
+ * is not executed within any transaction of the submitting threads: each batch
+ * is subject to the transaction settings (e.g. auto-commit) of the Connection
+ * that the DataSource returns for the executor thread.
+ *
+ * @since 5.1.21
+ * @see JdbcTemplate#batchUpdate(String, BatchPreparedStatementSetter)
+ */
+public class JdbcBatchWriter implements InitializingBean, DisposableBean {
+
+	/** Default number of rows per batch. */
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	/** Default interval between time-based flushes, in milliseconds. */
+	public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+
+	private static final Log logger = LogFactory.getLog(JdbcBatchWriter.class);
+
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final String sql;
+
+	@Nullable
+	private final int[] argTypes;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+	private int queueCapacity = -1;
+
+	@Nullable
+	private ScheduledExecutorService executor;
+
+	private boolean internalExecutor;
+
+	private BiConsumer<List<Object[]>, DataAccessException> failureHandler = (rows, ex) ->
+			logger.error("Failed to write batch of " + rows.size() + " rows", ex);
+
+	@Nullable
+	private volatile BlockingQueue<Object[]> queue;
+
+	@Nullable
+	private ScheduledFuture<?> flushFuture;
+
+	private final Object lifecycleMonitor = new Object();
+
+	private final Object flushMonitor = new Object();
+
+	private final AtomicBoolean flushPending = new AtomicBoolean();
+
+	private volatile boolean closed;
+
+	private final AtomicLong writtenRowCount = new AtomicLong();
+
+	private final AtomicLong failedRowCount = new AtomicLong();
+
+
+	/**
+	 * Create a new JdbcBatchWriter for the given SQL statement,
+	 * letting the JDBC driver determine the SQL types of the arguments.
+	 * @param jdbcTemplate the JdbcTemplate to execute the batches with
+	 * @param sql the SQL statement to execute for each row
+	 */
+	public JdbcBatchWriter(JdbcTemplate jdbcTemplate, String sql) {
+		this(jdbcTemplate, sql, null);
+	}
+
+	/**
+	 * Create a new JdbcBatchWriter for the given SQL statement.
+	 * @param jdbcTemplate the JdbcTemplate to execute the batches with
+	 * @param sql the SQL statement to execute for each row
+	 * @param argTypes the SQL types of the arguments
+	 * (constants from {@code java.sql.Types}), or {@code null} if unknown
+	 */
+	public JdbcBatchWriter(JdbcTemplate jdbcTemplate, String sql, @Nullable int[] argTypes) {
+		Assert.notNull(jdbcTemplate, "JdbcTemplate must not be null");
+		Assert.hasText(sql, "SQL must not be empty");
+		this.jdbcTemplate = jdbcTemplate;
+		this.sql = sql;
+		this.argTypes = argTypes;
+	}
+
+
+	/**
+	 * Set the number of rows that triggers an immediate flush,
+	 * which is also the maximum number of rows per JDBC batch.
+	 * <p>Default is {@link #DEFAULT_BATCH_SIZE}.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Return the number of rows that triggers an immediate flush.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Set the interval in milliseconds after which queued rows get flushed
+	 * even if less than a full batch is available.
+	 * <p>Default is {@link #DEFAULT_FLUSH_INTERVAL}.
+	 */
+	public void setFlushInterval(long flushInterval) {
+		Assert.isTrue(flushInterval > 0, "Flush interval must be greater than 0");
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Return the interval in milliseconds after which queued rows get flushed.
+	 */
+	public long getFlushInterval() {
+		return this.flushInterval;
+	}
+
+	/**
+	 * Set the maximum number of rows to buffer before {@link #write} blocks.
+	 * <p>Default is ten times the {@linkplain #setBatchSize batch size}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater than 0");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Return the maximum number of rows to buffer before {@link #write} blocks.
+	 */
+	public int getQueueCapacity() {
+		return (this.queueCapacity > 0 ? this.queueCapacity : this.batchSize * 10);
+	}
+
+	/**
+	 * Set the executor to write the batches on. Batches are written one at
+	 * a time, so a single thread is sufficient.
+	 * <p>Default is a single-threaded executor with a daemon thread that is
+	 * shut down along with this writer. An executor specified here is not
+	 * shut down by this writer.
+	 */
+	public void setExecutor(ScheduledExecutorService executor) {
+		Assert.notNull(executor, "ScheduledExecutorService must not be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * Set a callback for batches that failed to be written, receiving the
+	 * rows of the batch along with the translated exception.
+	 * <p>Default is to log the failure at error level.
+	 */
+	public void setFailureHandler(BiConsumer<List<Object[]>, DataAccessException> failureHandler) {
+		Assert.notNull(failureHandler, "Failure handler must not be null");
+		this.failureHandler = failureHandler;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		initialize();
+	}
+
+	/**
+	 * Start this writer, unless it has been started already.
+	 * <p>Implicitly called on the first {@link #write}.
+	 */
+	public void initialize() {
+		synchronized (this.lifecycleMonitor) {
+			Assert.state(!this.closed, "JdbcBatchWriter has been closed");
+			if (this.queue != null) {
+				return;
+			}
+			if (this.executor == null) {
+				CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("jdbc-batch-writer-");
+				threadCreator.setDaemon(true);
+				this.executor = Executors.newSingleThreadScheduledExecutor(threadCreator::createThread);
+				this.internalExecutor = true;
+			}
+			this.flushFuture = this.executor.scheduleWithFixedDelay(
+					this::flushTimed, this.flushInterval, this.flushInterval, TimeUnit.MILLISECONDS);
+			this.queue = new ArrayBlockingQueue<>(getQueueCapacity());
+		}
+	}
+
+
+	/**
+	 * Queue the given row for writing, blocking while the queue is full.
+	 * @param args the arguments for the SQL statement
+	 * @throws InterruptedException if interrupted while waiting for queue space
+	 * @throws IllegalStateException if this writer has been closed
+	 */
+	public void write(Object... args) throws InterruptedException {
+		BlockingQueue<Object[]> queue = obtainQueue();
+		queue.put(args);
+		afterWrite(queue);
+	}
+
+	/**
+	 * Queue the given row for writing, waiting up to the given timeout
+	 * while the queue is full.
+	 * @param args the arguments for the SQL statement
+	 * @param timeout how long to wait for queue space
+	 * @param unit the unit of the timeout
+	 * @return {@code true} if the row has been queued, {@code false} if the
+	 * timeout elapsed before queue space became available
+	 * @throws InterruptedException if interrupted while waiting for queue space
+	 * @throws IllegalStateException if this writer has been closed
+	 */
+	public boolean tryWrite(Object[] args, long timeout, TimeUnit unit) throws InterruptedException {
+		BlockingQueue<Object[]> queue = obtainQueue();
+		if (!queue.offer(args, timeout, unit)) {
+			return false;
+		}
+		afterWrite(queue);
+		return true;
+	}
+
+	private BlockingQueue<Object[]> obtainQueue() {
+		BlockingQueue<Object[]> queue = this.queue;
+		if (queue == null) {
+			initialize();
+			queue = this.queue;
+			Assert.state(queue != null, "No queue");
+		}
+		Assert.state(!this.closed, "JdbcBatchWriter has been closed");
+		return queue;
+	}
+
+	private void afterWrite(BlockingQueue<Object[]> queue) {
+		if (this.closed) {
+			// Closed concurrently: do not leave the row behind
+			flush();
+			return;
+		}
+		if (queue.size() >= this.batchSize && this.flushPending.compareAndSet(false, true)) {
+			ScheduledExecutorService executor = this.executor;
+			Assert.state(executor != null, "No executor");
+			try {
+				executor.execute(this::flushFullBatches);
+			}
+			catch (RejectedExecutionException ex) {
+				// Executor shut down: remaining rows get written on close
+				this.flushPending.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Write all rows queued so far in the calling thread,
+	 * in batches of at most {@linkplain #setBatchSize batchSize} rows.
+	 */
+	public void flush() {
+		BlockingQueue<Object[]> queue = this.queue;
+		if (queue != null) {
+			flush(queue, 1);
+		}
+	}
+
+	private void flushFullBatches() {
+		this.flushPending.set(false);
+		BlockingQueue<Object[]> queue = this.queue;
+		if (queue != null) {
+			flush(queue, this.batchSize);
+		}
+	}
+
+	private void flushTimed() {
+		try {
+			flush();
+		}
+		catch (Throwable ex) {
+			// Keep the periodic flush scheduled
+			logger.error("Unexpected exception from time-based flush", ex);
+		}
+	}
+
+	/**
+	 * Write batches of queued rows as long as at least the given minimum
+	 * number of rows is available.
+	 */
+	private void flush(BlockingQueue<Object[]> queue, int minRows) {
+		synchronized (this.flushMonitor) {
+			while (queue.size() >= minRows && !queue.isEmpty()) {
+				List<Object[]> rows = new ArrayList<>(Math.min(queue.size(), this.batchSize));
+				queue.drainTo(rows, this.batchSize);
+				writeBatch(rows);
+			}
+		}
+	}
+
+	/**
+	 * Write the given rows as a single JDBC batch.
+	 * @param rows the rows to write
+	 */
+	protected void writeBatch(final List<Object[]> rows) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Writing batch of " + rows.size() + " rows with SQL [" + this.sql + "]");
+		}
+		try {
+			this.jdbcTemplate.batchUpdate(this.sql, new RowBatchSetter(rows));
+			this.writtenRowCount.addAndGet(rows.size());
+		}
+		catch (DataAccessException ex) {
+			this.failedRowCount.addAndGet(rows.size());
+			this.failureHandler.accept(rows, ex);
+		}
+	}
+
+
+	/**
+	 * Return the number of rows currently queued for writing.
+	 */
+	public int getQueuedRowCount() {
+		BlockingQueue<Object[]> queue = this.queue;
+		return (queue != null ? queue.size() : 0);
+	}
+
+	/**
+	 * Return the number of rows written successfully so far.
+	 */
+	public long getWrittenRowCount() {
+		return this.writtenRowCount.get();
+	}
+
+	/**
+	 * Return the number of rows in batches that failed to be written so far.
+	 */
+	public long getFailedRowCount() {
+		return this.failedRowCount.get();
+	}
+
+	/**
+	 * Return whether this writer has been closed.
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+
+
+	/**
+	 * Close this writer: stop accepting rows, write all queued rows
+	 * and shut down the internal executor, if any.
+	 */
+	public void close() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (this.flushFuture != null) {
+				this.flushFuture.cancel(false);
+			}
+		}
+		flush();
+		if (this.internalExecutor && this.executor != null) {
+			this.executor.shutdown();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		close();
+	}
+
+
+	/**
+	 * BatchPreparedStatementSetter for the queued rows.
+	 */
+	private class RowBatchSetter implements BatchPreparedStatementSetter, ParameterDisposer {
+
+		private final List<Object[]> rows;
+
+		public RowBatchSetter(List<Object[]> rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public void setValues(PreparedStatement ps, int i) throws SQLException {
+			Object[] args = this.rows.get(i);
+			for (int j = 0; j < args.length; j++) {
+				int sqlType = (argTypes != null && j < argTypes.length ? argTypes[j] : SqlTypeValue.TYPE_UNKNOWN);
+				Object arg = args[j];
+				if (arg instanceof SqlParameterValue) {
+					SqlParameterValue paramValue = (SqlParameterValue) arg;
+					StatementCreatorUtils.setParameterValue(ps, j + 1, paramValue, paramValue.getValue());
+				}
+				else {
+					StatementCreatorUtils.setParameterValue(ps, j + 1, sqlType, arg);
+				}
+			}
+		}
+
+		@Override
+		public int getBatchSize() {
+			return this.rows.size();
+		}
+
+		@Override
+		public void cleanupParameters() {
+			for (Object[] args : this.rows) {
+				StatementCreatorUtils.cleanupParameters(args);
+			}
+		}
+	}
+
+}
@@ -34,6 +34,12 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.sql.DataSource;
 
@@ -45,6 +51,8 @@ import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.datasource.ConnectionProxy;
 import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.support.JdbcAccessor;
+import org.springframework.jdbc.support.JdbcOperationEvent;
+import org.springframework.jdbc.support.JdbcOperationEvent.OperationType;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
@@ -147,6 +155,13 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/**
+	 * Cache of parameter types per SQL statement, used when setting parameters of
+	 * unknown type to null. Can be disabled through a cache limit of 0.
+	 */
+	@Nullable
+	private volatile ParameterMetaDataCache parameterMetaDataCache = new ParameterMetaDataCache();
+
 
 	/**
 	 * Construct a new JdbcTemplate for bean usage.
@@ -311,6 +326,34 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * Specify the maximum number of statement parameters to cache the SQL type for.
+	 * <p>When setting a parameter of unknown SQL type to {@code null}, the type is
+	 * retrieved through {@link java.sql.ParameterMetaData#getParameterType}, which
+	 * is a roundtrip to the database with some drivers. Caching the result per
+	 * SQL statement avoids repeating that call for subsequent executions with
+	 * plain arguments, as passed to e.g. {@link #update(String, Object...)}.
+	 * <p>Default is {@link ParameterMetaDataCache#DEFAULT_CACHE_LIMIT}.
+	 * Set this to 0 to disable caching.
+	 * @since 5.1.21
+	 * @see StatementCreatorUtils#IGNORE_GETPARAMETERTYPE_PROPERTY_NAME
+	 */
+	public void setParameterMetaDataCacheLimit(int cacheLimit) {
+		this.parameterMetaDataCache = (cacheLimit > 0 ? new ParameterMetaDataCache(cacheLimit) : null);
+	}
+
+	/**
+	 * Return the cache of parameter types per SQL statement, e.g. for
+	 * monitoring its hit and miss counts.
+	 * @return the cache, or {@code null} if disabled
+	 * @since 5.1.21
+	 * @see #setParameterMetaDataCacheLimit
+	 */
+	@Nullable
+	public ParameterMetaDataCache getParameterMetaDataCache() {
+		return this.parameterMetaDataCache;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -366,6 +409,28 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	@Override
 	@Nullable
 	public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+		return execute(action, true);
+	}
+
+	/**
+	 * Execute the given JDBC Statement callback, notifying the registered
+	 * operation listeners, if any.
+	 * @param action the callback to execute
+	 * @param closeResources whether to close the Statement and release the
+	 * Connection after successful execution, or to leave this to the result
+	 * (e.g. a Stream) in which case they are only cleaned up in case of failure
+	 * @return the result of the callback
+	 */
+	@Nullable
+	private <T> T execute(StatementCallback<T> action, boolean closeResources) throws DataAccessException {
+		if (hasOperationListeners()) {
+			return observe(action, getSql(action), () -> doExecute(action, closeResources));
+		}
+		return doExecute(action, closeResources);
+	}
+
+	@Nullable
+	private <T> T doExecute(StatementCallback<T> action, boolean closeResources) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
 		Connection con = DataSourceUtils.getConnection(obtainDataSource());
@@ -375,6 +440,11 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			applyStatementSettings(stmt);
 			T result = action.doInStatement(stmt);
 			handleWarnings(stmt);
+			if (!closeResources) {
+				// Resources to be cleaned up by the result from now on
+				stmt = null;
+				con = null;
+			}
 			return result;
 		}
 		catch (SQLException ex) {
@@ -449,7 +519,8 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			}
 		}
 
-		return execute(new QueryStatementCallback());
+		return execute(observedStatement(OperationType.QUERY, sql, -1, JdbcTemplate::queryRowCount,
+				new QueryStatementCallback()));
 	}
 
 	@Override
@@ -462,6 +533,38 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(sql, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(final String sql, final RowMapper<T> rowMapper) throws DataAccessException {
+		Assert.notNull(sql, "SQL must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL query [" + sql + "]");
+		}
+
+		/**
+		 * Callback to execute the query, leaving the Statement open for the Stream.
+		 */
+		class StreamStatementCallback implements StatementCallback<Stream<T>>, SqlProvider {
+			@Override
+			public Stream<T> doInStatement(Statement stmt) throws SQLException {
+				ResultSet rs = stmt.executeQuery(sql);
+				Connection con = stmt.getConnection();
+				return new ResultSetSpliterator<>(rs, rowMapper, sql).stream().onClose(() -> {
+					JdbcUtils.closeResultSet(rs);
+					JdbcUtils.closeStatement(stmt);
+					DataSourceUtils.releaseConnection(con, getDataSource());
+				});
+			}
+			@Override
+			public String getSql() {
+				return sql;
+			}
+		}
+
+		return result(execute(observedStatement(OperationType.QUERY, sql, -1, null,
+				new StreamStatementCallback()), false));
+	}
+
 	@Override
 	public Map<String, Object> queryForMap(String sql) throws DataAccessException {
 		return result(queryForObject(sql, getColumnMapRowMapper()));
@@ -520,7 +623,8 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			}
 		}
 
-		return updateCount(execute(new UpdateStatementCallback()));
+		return updateCount(execute(observedStatement(OperationType.UPDATE, sql, -1, Integer::intValue,
+				new UpdateStatementCallback())));
 	}
 
 	@Override
@@ -587,7 +691,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			}
 		}
 
-		int[] result = execute(new BatchUpdateStatementCallback());
+		String batchSql = (hasOperationListeners() ? StringUtils.arrayToDelimitedString(sql, "; ") : null);
+		int[] result = execute(observedStatement(OperationType.BATCH_UPDATE, batchSql, sql.length,
+				JdbcTemplate::batchRowCount, new BatchUpdateStatementCallback()));
 		Assert.state(result != null, "No update counts");
 		return result;
 	}
@@ -602,6 +708,33 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action)
 			throws DataAccessException {
 
+		return execute(psc, action, true);
+	}
+
+	/**
+	 * Execute the given JDBC PreparedStatement callback, notifying the
+	 * registered operation listeners, if any.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param action the callback to execute
+	 * @param closeResources whether to close the PreparedStatement and release
+	 * the Connection after successful execution, or to leave this to the result
+	 * (e.g. a Stream) in which case they are only cleaned up in case of failure
+	 * @return the result of the callback
+	 */
+	@Nullable
+	private <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean closeResources)
+			throws DataAccessException {
+
+		if (hasOperationListeners()) {
+			return observe(action, getSql(psc), () -> doExecute(psc, action, closeResources));
+		}
+		return doExecute(psc, action, closeResources);
+	}
+
+	@Nullable
+	private <T> T doExecute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean closeResources)
+			throws DataAccessException {
+
 		Assert.notNull(psc, "PreparedStatementCreator must not be null");
 		Assert.notNull(action, "Callback object must not be null");
 		if (logger.isDebugEnabled()) {
@@ -616,6 +749,12 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			applyStatementSettings(ps);
 			T result = action.doInPreparedStatement(ps);
 			handleWarnings(ps);
+			if (!closeResources) {
+				// Resources to be cleaned up by the result from now on
+				psc = null;
+				ps = null;
+				con = null;
+			}
 			return result;
 		}
 		catch (SQLException ex) {
@@ -666,14 +805,15 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		Assert.notNull(rse, "ResultSetExtractor must not be null");
 		logger.debug("Executing prepared SQL query");
 
-		return execute(psc, new PreparedStatementCallback<T>() {
+		return execute(psc, observedPreparedStatement(OperationType.QUERY, null, -1,
+				JdbcTemplate::queryRowCount, new PreparedStatementCallback<T>() {
 			@Override
 			@Nullable
 			public T doInPreparedStatement(PreparedStatement ps) throws SQLException {
 				ResultSet rs = null;
 				try {
 					if (pss != null) {
-						pss.setValues(ps);
+						setValues(pss, ps, psc);
 					}
 					rs = ps.executeQuery();
 					return rse.extractData(rs);
@@ -685,7 +825,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					}
 				}
 			}
-		});
+		}));
 	}
 
 	@Override
@@ -748,6 +888,65 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result(query(psc, new RowMapperResultSetExtractor<>(rowMapper)));
 	}
 
+	/**
+	 * Query using a prepared statement, allowing for a PreparedStatementCreator
+	 * and a PreparedStatementSetter, and turning the mapped rows into an
+	 * iterable and closeable Stream. The PreparedStatement and Connection stay
+	 * open until the Stream is closed.
+	 * @param psc a callback that creates a PreparedStatement given a Connection
+	 * @param pss a callback that knows how to set values on the prepared statement.
+	 * If this is {@code null}, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper a callback that will map one object per row
+	 * @return the result Stream, containing mapped objects, needing to be
+	 * closed once fully processed (e.g. through a try-with-resources clause)
+	 * @throws DataAccessException if there is any problem
+	 * @since 5.1.21
+	 */
+	public <T> Stream<T> queryForStream(final PreparedStatementCreator psc, @Nullable final PreparedStatementSetter pss,
+			final RowMapper<T> rowMapper) throws DataAccessException {
+
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		logger.debug("Executing prepared SQL query");
+
+		return result(execute(psc, observedPreparedStatement(OperationType.QUERY, null, -1, null, ps -> {
+			if (pss != null) {
+				setValues(pss, ps, psc);
+			}
+			ResultSet rs = ps.executeQuery();
+			Connection con = ps.getConnection();
+			return new ResultSetSpliterator<>(rs, rowMapper, getSql(psc)).stream().onClose(() -> {
+				JdbcUtils.closeResultSet(rs);
+				if (pss instanceof ParameterDisposer) {
+					((ParameterDisposer) pss).cleanupParameters();
+				}
+				if (psc instanceof ParameterDisposer) {
+					((ParameterDisposer) psc).cleanupParameters();
+				}
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, getDataSource());
+			});
+		}), false));
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
+		return queryForStream(psc, null, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), pss, rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, @Nullable Object... args)
+			throws DataAccessException {
+
+		return queryForStream(new SimplePreparedStatementCreator(sql), newArgPreparedStatementSetter(args), rowMapper);
+	}
+
 	@Override
 	public <T> List<T> query(String sql, @Nullable PreparedStatementSetter pss, RowMapper<T> rowMapper) throws DataAccessException {
 		return result(query(sql, pss, new RowMapperResultSetExtractor<>(rowMapper)));
@@ -859,10 +1058,11 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		logger.debug("Executing prepared SQL update");
 
-		return updateCount(execute(psc, ps -> {
+		return updateCount(execute(psc, observedPreparedStatement(OperationType.UPDATE, null, -1,
+				Integer::intValue, ps -> {
 			try {
 				if (pss != null) {
-					pss.setValues(ps);
+					setValues(pss, ps, psc);
 				}
 				int rows = ps.executeUpdate();
 				if (logger.isTraceEnabled()) {
@@ -875,7 +1075,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					((ParameterDisposer) pss).cleanupParameters();
 				}
 			}
-		}));
+		})));
 	}
 
 	@Override
@@ -890,7 +1090,8 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		Assert.notNull(generatedKeyHolder, "KeyHolder must not be null");
 		logger.debug("Executing SQL update and returning generated keys");
 
-		return updateCount(execute(psc, ps -> {
+		return updateCount(execute(psc, observedPreparedStatement(OperationType.UPDATE, null, -1,
+				Integer::intValue, ps -> {
 			int rows = ps.executeUpdate();
 			List<Map<String, Object>> generatedKeys = generatedKeyHolder.getKeyList();
 			generatedKeys.clear();
@@ -909,7 +1110,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 				logger.trace("SQL update affected " + rows + " rows and returned " + generatedKeys.size() + " keys");
 			}
 			return rows;
-		}));
+		})));
 	}
 
 	@Override
@@ -933,7 +1134,8 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			logger.debug("Executing SQL batch update [" + sql + "]");
 		}
 
-		int[] result = execute(sql, (PreparedStatementCallback<int[]>) ps -> {
+		int[] result = execute(sql, observedPreparedStatement(OperationType.BATCH_UPDATE, null, pss.getBatchSize(),
+				JdbcTemplate::batchRowCount, ps -> {
 			try {
 				int batchSize = pss.getBatchSize();
 				InterruptibleBatchPreparedStatementSetter ipss =
@@ -970,7 +1172,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					((ParameterDisposer) pss).cleanupParameters();
 				}
 			}
-		});
+		}));
 
 		Assert.state(result != null, "No result array");
 		return result;
@@ -1026,7 +1228,8 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		if (logger.isDebugEnabled()) {
 			logger.debug("Executing SQL batch update [" + sql + "] with a batch size of " + batchSize);
 		}
-		int[][] result = execute(sql, (PreparedStatementCallback<int[][]>) ps -> {
+		int[][] result = execute(sql, observedPreparedStatement(OperationType.BATCH_UPDATE, null, batchArgs.size(),
+				JdbcTemplate::batchRowCount, ps -> {
 			List<int[]> rowsAffected = new ArrayList<>();
 			try {
 				boolean batchSupported = JdbcUtils.supportsBatchUpdates(ps.getConnection());
@@ -1061,7 +1264,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					((ParameterDisposer) pss).cleanupParameters();
 				}
 			}
-		});
+		}));
 
 		Assert.state(result != null, "No result array");
 		return result;
@@ -1445,6 +1648,29 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * Apply the given PreparedStatementSetter to the given PreparedStatement,
+	 * letting a plain argument setter resolve the SQL type of {@code null}
+	 * arguments through the {@link #getParameterMetaDataCache() parameter
+	 * metadata cache} for the SQL statement of the given creator.
+	 * @param pss the PreparedStatementSetter to apply
+	 * @param ps the PreparedStatement to set the values on
+	 * @param psc the creator of the PreparedStatement
+	 */
+	private void setValues(PreparedStatementSetter pss, PreparedStatement ps, PreparedStatementCreator psc)
+			throws SQLException {
+
+		ParameterMetaDataCache parameterMetaDataCache = this.parameterMetaDataCache;
+		if (parameterMetaDataCache != null && pss.getClass() == ArgumentPreparedStatementSetter.class) {
+			String sql = getSql(psc);
+			if (sql != null) {
+				((ArgumentPreparedStatementSetter) pss).setValues(ps, parameterMetaDataCache, sql);
+				return;
+			}
+		}
+		pss.setValues(ps);
+	}
+
 	/**
 	 * Determine SQL from potential provider object.
 	 * @param sqlProvider object which is potentially an SqlProvider
@@ -1471,6 +1697,161 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return result;
 	}
 
+	/**
+	 * Describe the given Statement callback for the registered
+	 * {@link #addOperationListener operation listeners}, if any.
+	 * @param operationType the type of operation
+	 * @param sql the SQL to report, or {@code null} to derive it from the callback
+	 * @param batchSize the number of statements or parameter sets in a batch, or -1
+	 * @param rowCounter a function to determine the row count from the result, if any
+	 * @param action the callback to describe
+	 * @return the callback to execute
+	 */
+	private <T> StatementCallback<T> observedStatement(OperationType operationType, @Nullable String sql,
+			int batchSize, @Nullable ToIntFunction<? super T> rowCounter, StatementCallback<T> action) {
+
+		return (hasOperationListeners() ?
+				new ObservedCallback<>(action, operationType, sql, batchSize, rowCounter) : action);
+	}
+
+	/**
+	 * Describe the given PreparedStatement callback for the registered
+	 * {@link #addOperationListener operation listeners}, if any.
+	 * @param operationType the type of operation
+	 * @param sql the SQL to report, or {@code null} to derive it from the creator
+	 * @param batchSize the number of statements or parameter sets in a batch, or -1
+	 * @param rowCounter a function to determine the row count from the result, if any
+	 * @param action the callback to describe
+	 * @return the callback to execute
+	 */
+	private <T> PreparedStatementCallback<T> observedPreparedStatement(OperationType operationType,
+			@Nullable String sql, int batchSize, @Nullable ToIntFunction<? super T> rowCounter,
+			PreparedStatementCallback<T> action) {
+
+		return (hasOperationListeners() ?
+				new ObservedCallback<>(action, operationType, sql, batchSize, rowCounter) : action);
+	}
+
+	/**
+	 * Perform the given operation, notifying the registered
+	 * {@link #addOperationListener operation listeners} of its completion.
+	 * @param action the callback that the operation executes, describing the
+	 * operation if returned from {@link #observedStatement} or {@link #observedPreparedStatement}
+	 * @param sql the SQL statement, if known
+	 * @param operation the operation to perform
+	 * @return the result of the operation
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private <T> T observe(Object action, @Nullable String sql, Supplier<T> operation) {
+		OperationType operationType = OperationType.EXECUTE;
+		String sqlToUse = sql;
+		int batchSize = -1;
+		ToIntFunction<? super T> rowCounter = null;
+		if (action instanceof ObservedCallback) {
+			ObservedCallback<T> observedCallback = (ObservedCallback<T>) action;
+			operationType = observedCallback.operationType;
+			if (observedCallback.sql != null) {
+				sqlToUse = observedCallback.sql;
+			}
+			batchSize = observedCallback.batchSize;
+			rowCounter = observedCallback.rowCounter;
+		}
+
+		long startTime = System.nanoTime();
+		T result;
+		try {
+			result = operation.get();
+		}
+		catch (RuntimeException | Error ex) {
+			notifyOperationListeners(new JdbcOperationEvent(
+					operationType, sqlToUse, System.nanoTime() - startTime, -1, getFetchSize(), batchSize, ex));
+			throw ex;
+		}
+		int rowCount = (result != null && rowCounter != null ? rowCounter.applyAsInt(result) : -1);
+		notifyOperationListeners(new JdbcOperationEvent(
+				operationType, sqlToUse, System.nanoTime() - startTime, rowCount, getFetchSize(), batchSize, null));
+		return result;
+	}
+
+	private static int queryRowCount(Object result) {
+		return (result instanceof Collection ? ((Collection<?>) result).size() : -1);
+	}
+
+	private static int batchRowCount(int[] updateCounts) {
+		int rowCount = 0;
+		for (int updateCount : updateCounts) {
+			if (updateCount < 0) {
+				// e.g. Statement.SUCCESS_NO_INFO
+				return -1;
+			}
+			rowCount += updateCount;
+		}
+		return rowCount;
+	}
+
+	private static int batchRowCount(int[][] updateCounts) {
+		int rowCount = 0;
+		for (int[] batchUpdateCounts : updateCounts) {
+			int batchRowCount = batchRowCount(batchUpdateCounts);
+			if (batchRowCount < 0) {
+				return -1;
+			}
+			rowCount += batchRowCount;
+		}
+		return rowCount;
+	}
+
+
+	/**
+	 * Callback decorator that describes the operation performed by the target
+	 * callback, for notifying the registered operation listeners.
+	 */
+	private static class ObservedCallback<T> implements StatementCallback<T>, PreparedStatementCallback<T>, SqlProvider {
+
+		private final Object target;
+
+		private final OperationType operationType;
+
+		@Nullable
+		private final String sql;
+
+		private final int batchSize;
+
+		@Nullable
+		private final ToIntFunction<? super T> rowCounter;
+
+		public ObservedCallback(Object target, OperationType operationType, @Nullable String sql, int batchSize,
+				@Nullable ToIntFunction<? super T> rowCounter) {
+
+			this.target = target;
+			this.operationType = operationType;
+			this.sql = sql;
+			this.batchSize = batchSize;
+			this.rowCounter = rowCounter;
+		}
+
+		@Override
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public T doInStatement(Statement stmt) throws SQLException, DataAccessException {
+			return ((StatementCallback<T>) this.target).doInStatement(stmt);
+		}
+
+		@Override
+		@Nullable
+		@SuppressWarnings("unchecked")
+		public T doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+			return ((PreparedStatementCallback<T>) this.target).doInPreparedStatement(ps);
+		}
+
+		@Override
+		@Nullable
+		public String getSql() {
+			return JdbcTemplate.getSql(this.target);
+		}
+	}
+
 
 	/**
 	 * Invocation handler that suppresses close calls on JDBC Connections.
@@ -1610,4 +1991,62 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+
+	/**
+	 * Spliterator for queryForStream adaptation of a ResultSet to a Stream,
+	 * mapping one row at a time while the Stream is being consumed.
+	 * @since 5.1.21
+	 */
+	private class ResultSetSpliterator<T> implements Spliterator<T> {
+
+		private final ResultSet rs;
+
+		private final RowMapper<T> rowMapper;
+
+		@Nullable
+		private final String sql;
+
+		private int rowNum = 0;
+
+		public ResultSetSpliterator(ResultSet rs, RowMapper<T> rowMapper, @Nullable String sql) {
+			this.rs = rs;
+			this.rowMapper = rowMapper;
+			this.sql = sql;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			try {
+				if (this.rs.next()) {
+					action.accept(this.rowMapper.mapRow(this.rs, this.rowNum++));
+					return true;
+				}
+				return false;
+			}
+			catch (SQLException ex) {
+				throw translateException("ResultSetSpliterator", this.sql, ex);
+			}
+		}
+
+		@Override
+		@Nullable
+		public Spliterator<T> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+
+		public Stream<T> stream() {
+			return StreamSupport.stream(this, false);
+		}
+	}
+
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
+
+/**
+ * Bounded cache of JDBC parameter types per SQL statement, as determined through
+ * {@link java.sql.ParameterMetaData#getParameterType}. Allows for skipping that
+ * call - which is a roundtrip to the database with some drivers - when setting
+ * a parameter of unknown SQL type to {@code null} for a statement whose
+ * parameter types have been retrieved before.
+ *
+ * <p>{@link JdbcTemplate} holds one such cache for its DataSource and passes it
+ * to {@link StatementCreatorUtils} along with the SQL statement being executed.
+ * Drivers that do not support retrieving a parameter type are remembered as well,
+ * letting subsequent executions go straight to the database-specific fallback.
+ *
+ * @since 5.1.21
+ * @see JdbcTemplate#setParameterMetaDataCacheLimit
+ * @see StatementCreatorUtils#setParameterValue(PreparedStatement, int, int, Object, ParameterMetaDataCache, String)
+ * @see StatementCreatorUtils#IGNORE_GETPARAMETERTYPE_PROPERTY_NAME
+ */
+public class ParameterMetaDataCache {
+
+	/** Default maximum number of statement parameters to cache the type for. */
+	public static final int DEFAULT_CACHE_LIMIT = 256;
+
+
+	private final ConcurrentLruCache<ParameterKey, Integer> parameterTypes;
+
+
+	/**
+	 * Create a new cache for the default number of statement parameters.
+	 * @see #DEFAULT_CACHE_LIMIT
+	 */
+	public ParameterMetaDataCache() {
+		this(DEFAULT_CACHE_LIMIT);
+	}
+
+	/**
+	 * Create a new cache for the given number of statement parameters.
+	 * @param cacheLimit the maximum number of statement parameters to cache
+	 * the type for, evicting the least recently used ones beyond
+	 */
+	public ParameterMetaDataCache(int cacheLimit) {
+		Assert.isTrue(cacheLimit > 0, "Cache limit must be greater than 0");
+		this.parameterTypes = new ConcurrentLruCache<>(cacheLimit);
+	}
+
+
+	/**
+	 * Return the SQL type of the specified parameter of the given statement,
+	 * retrieving it from the statement's parameter metadata if not cached yet.
+	 * @param ps the PreparedStatement to retrieve the parameter metadata from
+	 * @param sql the SQL statement that the PreparedStatement has been created for
+	 * @param paramIndex the index of the parameter
+	 * @return the SQL type of the parameter, or {@code null} if the driver
+	 * turned out not to support retrieving it on a previous attempt
+	 * @throws SQLException if thrown when retrieving the parameter metadata
+	 * (a subsequent call for the same parameter will return {@code null} instead
+	 * in case of a {@link SQLFeatureNotSupportedException})
+	 */
+	@Nullable
+	public Integer getParameterType(PreparedStatement ps, String sql, int paramIndex) throws SQLException {
+		ParameterKey key = new ParameterKey(sql, paramIndex);
+		Integer sqlType = this.parameterTypes.getIfPresent(key);
+		if (sqlType != null) {
+			return (sqlType != SqlTypeValue.TYPE_UNKNOWN ? sqlType : null);
+		}
+		try {
+			sqlType = ps.getParameterMetaData().getParameterType(paramIndex);
+		}
+		catch (SQLFeatureNotSupportedException ex) {
+			// Remember the lack of support, going straight to the fallback next time.
+			// Any other failure may be transient and is not cached.
+			this.parameterTypes.put(key, SqlTypeValue.TYPE_UNKNOWN);
+			throw ex;
+		}
+		this.parameterTypes.put(key, sqlType);
+		return sqlType;
+	}
+
+	/**
+	 * Return the number of parameter types served from this cache.
+	 */
+	public long getHitCount() {
+		return this.parameterTypes.hitCount();
+	}
+
+	/**
+	 * Return the number of parameter types not found in this cache.
+	 */
+	public long getMissCount() {
+		return this.parameterTypes.missCount();
+	}
+
+	/**
+	 * Return the number of statement parameters currently cached.
+	 */
+	public int size() {
+		return this.parameterTypes.size();
+	}
+
+	/**
+	 * Return the maximum number of statement parameters to cache.
+	 */
+	public int getCacheLimit() {
+		return this.parameterTypes.sizeLimit();
+	}
+
+	/**
+	 * Remove all cached parameter types, e.g. after a schema change.
+	 */
+	public void clear() {
+		this.parameterTypes.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "ParameterMetaDataCache: size=" + size() + ", limit=" + getCacheLimit() +
+				", hits=" + getHitCount() + ", misses=" + getMissCount();
+	}
+
+
+	/**
+	 * Cache key for a parameter of a SQL statement.
+	 */
+	private static final class ParameterKey {
+
+		private final String sql;
+
+		private final int paramIndex;
+
+		ParameterKey(String sql, int paramIndex) {
+			this.sql = sql;
+			this.paramIndex = paramIndex;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ParameterKey)) {
+				return false;
+			}
+			ParameterKey otherKey = (ParameterKey) other;
+			return (this.paramIndex == otherKey.paramIndex && this.sql.equals(otherKey.sql));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.sql.hashCode() * 31 + this.paramIndex;
+		}
+	}
+
+}
@@ -143,7 +143,8 @@ public abstract class StatementCreatorUtils {
 	public static void setParameterValue(PreparedStatement ps, int paramIndex, SqlParameter param,
 			@Nullable Object inValue) throws SQLException {
 
-		setParameterValueInternal(ps, paramIndex, param.getSqlType(), param.getTypeName(), param.getScale(), inValue);
+		setParameterValueInternal(ps, paramIndex, param.getSqlType(), param.getTypeName(), param.getScale(), inValue,
+				null, null);
 	}
 
 	/**
@@ -159,7 +160,28 @@ public abstract class StatementCreatorUtils {
 	public static void setParameterValue(PreparedStatement ps, int paramIndex, int sqlType,
 			@Nullable Object inValue) throws SQLException {
 
-		setParameterValueInternal(ps, paramIndex, sqlType, null, null, inValue);
+		setParameterValueInternal(ps, paramIndex, sqlType, null, null, inValue, null, null);
+	}
+
+	/**
+	 * Set the value for a parameter, resolving the SQL type of a {@code null} value
+	 * of unknown type through the given cache rather than through the parameter
+	 * metadata of the statement on every execution.
+	 * @param ps the prepared statement or callable statement
+	 * @param paramIndex index of the parameter we are setting
+	 * @param sqlType the SQL type of the parameter
+	 * @param inValue the value to set (plain value or an SqlTypeValue)
+	 * @param parameterMetaDataCache the cache of parameter types to use
+	 * @param sql the SQL statement that the given statement has been created for
+	 * @throws SQLException if thrown by PreparedStatement methods
+	 * @since 5.1.21
+	 * @see SqlTypeValue
+	 */
+	public static void setParameterValue(PreparedStatement ps, int paramIndex, int sqlType,
+			@Nullable Object inValue, ParameterMetaDataCache parameterMetaDataCache, String sql)
+			throws SQLException {
+
+		setParameterValueInternal(ps, paramIndex, sqlType, null, null, inValue, parameterMetaDataCache, sql);
 	}
 
 	/**
@@ -177,7 +199,7 @@ public abstract class StatementCreatorUtils {
 	public static void setParameterValue(PreparedStatement ps, int paramIndex, int sqlType, String typeName,
 			@Nullable Object inValue) throws SQLException {
 
-		setParameterValueInternal(ps, paramIndex, sqlType, typeName, null, inValue);
+		setParameterValueInternal(ps, paramIndex, sqlType, typeName, null, inValue, null, null);
 	}
 
 	/**
@@ -191,11 +213,14 @@ public abstract class StatementCreatorUtils {
 	 * @param scale the number of digits after the decimal point
 	 * (for DECIMAL and NUMERIC types)
 	 * @param inValue the value to set (plain value or an SqlTypeValue)
+	 * @param parameterMetaDataCache the cache of parameter types to use, if any
+	 * @param sql the SQL statement to cache parameter types for, if any
 	 * @throws SQLException if thrown by PreparedStatement methods
 	 * @see SqlTypeValue
 	 */
 	private static void setParameterValueInternal(PreparedStatement ps, int paramIndex, int sqlType,
-			@Nullable String typeName, @Nullable Integer scale, @Nullable Object inValue) throws SQLException {
+			@Nullable String typeName, @Nullable Integer scale, @Nullable Object inValue,
+			@Nullable ParameterMetaDataCache parameterMetaDataCache, @Nullable String sql) throws SQLException {
 
 		String typeNameToUse = typeName;
 		int sqlTypeToUse = sqlType;
@@ -225,7 +250,7 @@ public abstract class StatementCreatorUtils {
 		}
 
 		if (inValueToUse == null) {
-			setNull(ps, paramIndex, sqlTypeToUse, typeNameToUse);
+			setNull(ps, paramIndex, sqlTypeToUse, typeNameToUse, parameterMetaDataCache, sql);
 		}
 		else {
 			setValue(ps, paramIndex, sqlTypeToUse, typeNameToUse, scale, inValueToUse);
@@ -236,15 +261,20 @@ public abstract class StatementCreatorUtils {
 	 * Set the specified PreparedStatement parameter to null,
 	 * respecting database-specific peculiarities.
 	 */
-	private static void setNull(PreparedStatement ps, int paramIndex, int sqlType, @Nullable String typeName)
-			throws SQLException {
+	private static void setNull(PreparedStatement ps, int paramIndex, int sqlType, @Nullable String typeName,
+			@Nullable ParameterMetaDataCache parameterMetaDataCache, @Nullable String sql) throws SQLException {
 
 		if (sqlType == SqlTypeValue.TYPE_UNKNOWN || (sqlType == Types.OTHER && typeName == null)) {
 			boolean useSetObject = false;
 			Integer sqlTypeToUse = null;
 			if (!shouldIgnoreGetParameterType) {
 				try {
-					sqlTypeToUse = ps.getParameterMetaData().getParameterType(paramIndex);
+					if (parameterMetaDataCache != null && sql != null) {
+						sqlTypeToUse = parameterMetaDataCache.getParameterType(ps, sql, paramIndex);
+					}
+					else {
+						sqlTypeToUse = ps.getParameterMetaData().getParameterType(paramIndex);
+					}
 				}
 				catch (SQLException ex) {
 					if (logger.isDebugEnabled()) {
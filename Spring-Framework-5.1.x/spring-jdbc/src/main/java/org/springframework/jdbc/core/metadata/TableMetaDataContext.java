@@ -270,6 +270,19 @@ public class TableMetaDataContext {
 	 * @return the insert string to be used
 	 */
 	public String createInsertString(String... generatedKeyNames) {
+		return createInsertString(1, generatedKeyNames);
+	}
+
+	/**
+	 * Build a multi-row insert string, i.e. with a {@code VALUES} clause
+	 * holding the given number of rows, based on configuration and meta-data
+	 * information.
+	 * @param rowCount the number of rows to insert with a single statement
+	 * @return the insert string to be used
+	 * @since 5.1.21
+	 */
+	public String createInsertString(int rowCount, String... generatedKeyNames) {
+		Assert.isTrue(rowCount > 0, "Row count must be greater than 0");
 		Set<String> keys = new LinkedHashSet<>(generatedKeyNames.length);
 		for (String key : generatedKeyNames) {
 			keys.add(key.toUpperCase());
@@ -305,11 +318,16 @@ public class TableMetaDataContext {
 						getTableName() + "' so an insert statement can't be generated");
 			}
 		}
-		for (int i = 0; i < columnCount; i++) {
-			if (i > 0) {
-				insertStatement.append(", ");
+		for (int row = 0; row < rowCount; row++) {
+			if (row > 0) {
+				insertStatement.append("), (");
+			}
+			for (int i = 0; i < columnCount; i++) {
+				if (i > 0) {
+					insertStatement.append(", ");
+				}
+				insertStatement.append("?");
 			}
-			insertStatement.append("?");
 		}
 		insertStatement.append(")");
 		return insertStatement.toString();
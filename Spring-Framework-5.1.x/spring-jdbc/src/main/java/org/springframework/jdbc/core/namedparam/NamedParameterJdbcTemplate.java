@@ -18,10 +18,12 @@ package org.springframework.jdbc.core.namedparam;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -39,11 +41,13 @@ import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 
 /**
  * Template class with a basic set of JDBC operations, allowing the use
@@ -78,14 +82,12 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	private volatile int cacheLimit = DEFAULT_CACHE_LIMIT;
 
 	/** Cache of original SQL String to ParsedSql representation. */
-	@SuppressWarnings("serial")
-	private final Map<String, ParsedSql> parsedSqlCache =
-			new LinkedHashMap<String, ParsedSql>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-				@Override
-				protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
-					return size() > getCacheLimit();
-				}
-			};
+	private volatile ConcurrentLruCache<String, ParsedSql> parsedSqlCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT, NamedParameterUtils::parseSqlStatement);
+
+	/** Cache of PreparedStatementCreatorFactory per original SQL String and parameter shape. */
+	private volatile ConcurrentLruCache<ParameterShape, PreparedStatementCreatorFactory> factoryCache =
+			new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT);
 
 
 	/**
@@ -132,10 +134,16 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 
 	/**
 	 * Specify the maximum number of entries for this template's SQL cache.
-	 * Default is 256.
+	 * Default is 256. 0 indicates no caching at all.
+	 * <p>The same limit applies to the cache of prepared statement creator
+	 * factories per SQL statement and parameter shape.
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
+		if (cacheLimit > 0) {
+			this.parsedSqlCache = new ConcurrentLruCache<>(cacheLimit, NamedParameterUtils::parseSqlStatement);
+			this.factoryCache = new ConcurrentLruCache<>(cacheLimit);
+		}
 	}
 
 	/**
@@ -228,6 +236,20 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return query(sql, EmptySqlParameterSource.INSTANCE, rowMapper);
 	}
 
+	@Override
+	public <T> Stream<T> queryForStream(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return getJdbcOperations().queryForStream(getPreparedStatementCreator(sql, paramSource), rowMapper);
+	}
+
+	@Override
+	public <T> Stream<T> queryForStream(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper)
+			throws DataAccessException {
+
+		return queryForStream(sql, new MapSqlParameterSource(paramMap), rowMapper);
+	}
+
 	@Override
 	@Nullable
 	public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper)
@@ -411,10 +433,15 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 			@Nullable Consumer<PreparedStatementCreatorFactory> customizer) {
 
 		ParsedSql parsedSql = getParsedSql(sql);
-		PreparedStatementCreatorFactory pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
+		PreparedStatementCreatorFactory pscf;
 		if (customizer != null) {
+			// Factory to be customized for this invocation only
+			pscf = getPreparedStatementCreatorFactory(parsedSql, paramSource);
 			customizer.accept(pscf);
 		}
+		else {
+			pscf = obtainPreparedStatementCreatorFactory(parsedSql, paramSource);
+		}
 		Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
 		return pscf.newPreparedStatementCreator(params);
 	}
@@ -429,14 +456,30 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		if (getCacheLimit() <= 0) {
 			return NamedParameterUtils.parseSqlStatement(sql);
 		}
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
+		return this.parsedSqlCache.get(sql);
+	}
+
+	/**
+	 * Obtain a {@link PreparedStatementCreatorFactory} for the given SQL and named
+	 * parameters, reusing a cached factory for the same SQL statement if the given
+	 * parameters have the same shape (SQL types, type names and collection sizes)
+	 * as in a previous invocation.
+	 * @param parsedSql parsed representation of the given SQL statement
+	 * @param paramSource container of arguments to bind
+	 * @return the corresponding {@link PreparedStatementCreatorFactory}
+	 * (not to be customized since it may be shared)
+	 * @see #getPreparedStatementCreatorFactory(ParsedSql, SqlParameterSource)
+	 */
+	private PreparedStatementCreatorFactory obtainPreparedStatementCreatorFactory(
+			ParsedSql parsedSql, SqlParameterSource paramSource) {
+
+		if (getCacheLimit() > 0) {
+			ParameterShape shape = ParameterShape.of(parsedSql, paramSource);
+			if (shape != null) {
+				return this.factoryCache.get(shape, key -> getPreparedStatementCreatorFactory(parsedSql, paramSource));
 			}
-			return parsedSql;
 		}
+		return getPreparedStatementCreatorFactory(parsedSql, paramSource);
 	}
 
 	/**
@@ -456,4 +499,87 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters);
 	}
 
+
+	/**
+	 * Cache key for a SQL statement along with the shape of its parameters,
+	 * i.e. everything that the substituted SQL and the declared parameters
+	 * of a {@link PreparedStatementCreatorFactory} depend on.
+	 */
+	private static final class ParameterShape {
+
+		private final String sql;
+
+		private final int[] sqlTypes;
+
+		private final int[] sizes;
+
+		private final String[] typeNames;
+
+		private final int hashCode;
+
+		private ParameterShape(String sql, int[] sqlTypes, int[] sizes, String[] typeNames) {
+			this.sql = sql;
+			this.sqlTypes = sqlTypes;
+			this.sizes = sizes;
+			this.typeNames = typeNames;
+			this.hashCode = 31 * (31 * (31 * sql.hashCode() + Arrays.hashCode(sqlTypes)) +
+					Arrays.hashCode(sizes)) + Arrays.hashCode(typeNames);
+		}
+
+		/**
+		 * Determine the shape of the given parameters for the given SQL statement.
+		 * @return the shape, or {@code null} if not cacheable
+		 * (in case of collections of tuples)
+		 */
+		@Nullable
+		static ParameterShape of(ParsedSql parsedSql, SqlParameterSource paramSource) {
+			List<String> paramNames = parsedSql.getParameterNames();
+			int count = paramNames.size();
+			int[] sqlTypes = new int[count];
+			int[] sizes = new int[count];
+			String[] typeNames = new String[count];
+			for (int i = 0; i < count; i++) {
+				String paramName = paramNames.get(i);
+				int size = -1;
+				if (paramSource.hasValue(paramName)) {
+					Object value = paramSource.getValue(paramName);
+					if (value instanceof SqlParameterValue) {
+						value = ((SqlParameterValue) value).getValue();
+					}
+					if (value instanceof Collection) {
+						Collection<?> entries = (Collection<?>) value;
+						for (Object entry : entries) {
+							if (entry instanceof Object[]) {
+								return null;
+							}
+						}
+						size = entries.size();
+					}
+				}
+				sqlTypes[i] = paramSource.getSqlType(paramName);
+				sizes[i] = size;
+				typeNames[i] = paramSource.getTypeName(paramName);
+			}
+			return new ParameterShape(parsedSql.getOriginalSql(), sqlTypes, sizes, typeNames);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ParameterShape)) {
+				return false;
+			}
+			ParameterShape otherShape = (ParameterShape) other;
+			return (this.sql.equals(otherShape.sql) && Arrays.equals(this.sqlTypes, otherShape.sqlTypes) &&
+					Arrays.equals(this.sizes, otherShape.sizes) && Arrays.equals(this.typeNames, otherShape.typeNames));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
 }
@@ -37,8 +37,10 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
 import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
 import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.jdbc.core.metadata.TableMetaDataContext;
@@ -61,6 +63,15 @@ import org.springframework.util.Assert;
  */
 public abstract class AbstractJdbcInsert {
 
+	/**
+	 * Default maximum number of bind parameters in a multi-row insert statement,
+	 * staying below common driver limits (e.g. 2100 for SQL Server).
+	 * @since 5.1.21
+	 * @see #setMaxParameterCount
+	 */
+	public static final int DEFAULT_MAX_PARAMETER_COUNT = 2000;
+
+
 	/** Logger available to subclasses. */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -88,6 +99,12 @@ public abstract class AbstractJdbcInsert {
 	/** The SQL type information for the insert columns. */
 	private int[] insertTypes = new int[0];
 
+	/** The maximum number of rows to insert with a single statement in a batch. */
+	private int rowsPerStatement = 1;
+
+	/** The maximum number of bind parameters in a multi-row insert statement. */
+	private int maxParameterCount = DEFAULT_MAX_PARAMETER_COUNT;
+
 
 	/**
 	 * Constructor to be used when initializing using a {@link DataSource}.
@@ -205,6 +222,52 @@ public abstract class AbstractJdbcInsert {
 		return this.generatedKeyNames;
 	}
 
+	/**
+	 * Specify the maximum number of rows to insert with a single multi-row
+	 * {@code INSERT ... VALUES (...), (...)} statement when executing a batch,
+	 * reducing the number of statements sent to the database.
+	 * <p>The actual number of rows per statement is further limited by the
+	 * {@link #setMaxParameterCount maximum number of bind parameters}.
+	 * <p>Default is 1, i.e. a single-row insert statement per batch entry.
+	 * Note that multi-row inserts are not supported by all databases.
+	 * @since 5.1.21
+	 */
+	public void setRowsPerStatement(int rowsPerStatement) {
+		checkIfConfigurationModificationIsAllowed();
+		Assert.isTrue(rowsPerStatement > 0, "Rows per statement must be greater than 0");
+		this.rowsPerStatement = rowsPerStatement;
+	}
+
+	/**
+	 * Get the maximum number of rows to insert with a single statement in a batch.
+	 * @since 5.1.21
+	 */
+	public int getRowsPerStatement() {
+		return this.rowsPerStatement;
+	}
+
+	/**
+	 * Specify the maximum number of bind parameters that the JDBC driver
+	 * accepts for a single statement, limiting the number of rows in a
+	 * multi-row insert statement.
+	 * <p>Default is {@link #DEFAULT_MAX_PARAMETER_COUNT}.
+	 * @since 5.1.21
+	 * @see #setRowsPerStatement
+	 */
+	public void setMaxParameterCount(int maxParameterCount) {
+		checkIfConfigurationModificationIsAllowed();
+		Assert.isTrue(maxParameterCount > 0, "Max parameter count must be greater than 0");
+		this.maxParameterCount = maxParameterCount;
+	}
+
+	/**
+	 * Get the maximum number of bind parameters in a multi-row insert statement.
+	 * @since 5.1.21
+	 */
+	public int getMaxParameterCount() {
+		return this.maxParameterCount;
+	}
+
 	/**
 	 * Specify whether the parameter meta-data for the call should be used.
 	 * The default is {@code true}.
@@ -432,7 +495,7 @@ public abstract class AbstractJdbcInsert {
 		if (this.tableMetaDataContext.isGetGeneratedKeysSupported()) {
 			getJdbcTemplate().update(
 					con -> {
-						PreparedStatement ps = prepareStatementForGeneratedKeys(con);
+						PreparedStatement ps = prepareStatementForGeneratedKeys(con, getInsertString());
 						setParameterValues(ps, values, getInsertTypes());
 						return ps;
 					},
@@ -510,9 +573,12 @@ public abstract class AbstractJdbcInsert {
 	/**
 	 * Create a PreparedStatement to be used for an insert operation with generated keys.
 	 * @param con the Connection to use
+	 * @param insertString the insert string to use
 	 * @return the PreparedStatement
 	 */
-	private PreparedStatement prepareStatementForGeneratedKeys(Connection con) throws SQLException {
+	private PreparedStatement prepareStatementForGeneratedKeys(Connection con, String insertString)
+			throws SQLException {
+
 		if (getGeneratedKeyNames().length < 1) {
 			throw new InvalidDataAccessApiUsageException("Generated Key Name(s) not specified. " +
 					"Using the generated keys features requires specifying the name(s) of the generated column(s).");
@@ -522,13 +588,13 @@ public abstract class AbstractJdbcInsert {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Using generated keys support with array of column names.");
 			}
-			ps = con.prepareStatement(getInsertString(), getGeneratedKeyNames());
+			ps = con.prepareStatement(insertString, getGeneratedKeyNames());
 		}
 		else {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Using generated keys support with Statement.RETURN_GENERATED_KEYS.");
 			}
-			ps = con.prepareStatement(getInsertString(), Statement.RETURN_GENERATED_KEYS);
+			ps = con.prepareStatement(insertString, Statement.RETURN_GENERATED_KEYS);
 		}
 		return ps;
 	}
@@ -566,6 +632,10 @@ public abstract class AbstractJdbcInsert {
 	 * Delegate method to execute the batch insert.
 	 */
 	private int[] executeBatchInternal(final List<List<Object>> batchValues) {
+		int rowsPerStatement = determineRowsPerStatement(batchValues);
+		if (rowsPerStatement > 1) {
+			return executeMultiRowBatchInternal(batchValues, rowsPerStatement);
+		}
 		if (logger.isDebugEnabled()) {
 			logger.debug("Executing statement " + getInsertString() + " with batch of size: " + batchValues.size());
 		}
@@ -582,6 +652,207 @@ public abstract class AbstractJdbcInsert {
 				});
 	}
 
+	/**
+	 * Delegate method to execute the batch insert through multi-row insert
+	 * statements, with full statements executed as a JDBC batch.
+	 * @return the number of rows affected per batch entry,
+	 * {@link Statement#EXECUTE_FAILED} for the rows of a failed statement, or
+	 * {@link Statement#SUCCESS_NO_INFO} if not known for a specific row
+	 */
+	private int[] executeMultiRowBatchInternal(final List<List<Object>> batchValues, final int rowsPerStatement) {
+		final int statementCount = batchValues.size() / rowsPerStatement;
+		final int remainingRows = batchValues.size() % rowsPerStatement;
+		int[] rowCounts = new int[batchValues.size()];
+
+		if (statementCount > 0) {
+			String insertString = createInsertString(rowsPerStatement);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Executing statement " + insertString + " with batch of size: " + statementCount);
+			}
+			int[] updateCounts = getJdbcTemplate().batchUpdate(insertString,
+					new BatchPreparedStatementSetter() {
+						@Override
+						public void setValues(PreparedStatement ps, int i) throws SQLException {
+							int offset = i * rowsPerStatement;
+							setMultiRowParameterValues(ps, batchValues.subList(offset, offset + rowsPerStatement));
+						}
+						@Override
+						public int getBatchSize() {
+							return statementCount;
+						}
+					});
+			for (int i = 0; i < updateCounts.length; i++) {
+				applyRowCounts(rowCounts, i * rowsPerStatement, rowsPerStatement, updateCounts[i]);
+			}
+		}
+
+		if (remainingRows > 0) {
+			final String insertString = createInsertString(remainingRows);
+			final int offset = statementCount * rowsPerStatement;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Executing statement " + insertString + " for remaining " + remainingRows + " rows");
+			}
+			int updateCount = getJdbcTemplate().update(con -> {
+				PreparedStatement ps = con.prepareStatement(insertString);
+				setMultiRowParameterValues(ps, batchValues.subList(offset, batchValues.size()));
+				return ps;
+			});
+			applyRowCounts(rowCounts, offset, remainingRows, updateCount);
+		}
+
+		return rowCounts;
+	}
+
+	private static void applyRowCounts(int[] rowCounts, int offset, int rows, int updateCount) {
+		int rowCount;
+		if (updateCount == rows) {
+			rowCount = 1;
+		}
+		else if (updateCount == Statement.EXECUTE_FAILED) {
+			rowCount = Statement.EXECUTE_FAILED;
+		}
+		else {
+			rowCount = Statement.SUCCESS_NO_INFO;
+		}
+		Arrays.fill(rowCounts, offset, offset + rows, rowCount);
+	}
+
+	/**
+	 * Delegate method that executes a batch insert using the passed-in Maps of parameters
+	 * and returning all generated keys.
+	 * @param batch array of Maps with parameter names and values to be used in batch insert
+	 * @return the KeyHolder containing the keys generated by the insert, in batch order
+	 * @since 5.1.21
+	 */
+	@SuppressWarnings("unchecked")
+	protected KeyHolder doExecuteBatchAndReturnKeyHolder(Map<String, ?>... batch) {
+		checkCompiled();
+		List<List<Object>> batchValues = new ArrayList<>(batch.length);
+		for (Map<String, ?> args : batch) {
+			batchValues.add(matchInParameterValuesWithInsertColumns(args));
+		}
+		return executeBatchAndReturnKeyHolderInternal(batchValues);
+	}
+
+	/**
+	 * Delegate method that executes a batch insert using the passed-in
+	 * {@link SqlParameterSource SqlParameterSources} and returning all generated keys.
+	 * @param batch array of SqlParameterSource with parameter names and values to be used in insert
+	 * @return the KeyHolder containing the keys generated by the insert, in batch order
+	 * @since 5.1.21
+	 */
+	protected KeyHolder doExecuteBatchAndReturnKeyHolder(SqlParameterSource... batch) {
+		checkCompiled();
+		List<List<Object>> batchValues = new ArrayList<>(batch.length);
+		for (SqlParameterSource parameterSource : batch) {
+			batchValues.add(matchInParameterValuesWithInsertColumns(parameterSource));
+		}
+		return executeBatchAndReturnKeyHolderInternal(batchValues);
+	}
+
+	/**
+	 * Delegate method to execute the batch insert, generating any number of keys
+	 * per row. Executes one statement per chunk of rows on the same Connection,
+	 * collecting the generated keys of each statement in turn.
+	 * <p>Fails if a multi-row statement does not return one key per row, as is the
+	 * case with drivers that only return the key of the last inserted row: the keys
+	 * could not be attributed to the batch entries then.
+	 */
+	private KeyHolder executeBatchAndReturnKeyHolderInternal(final List<List<Object>> batchValues) {
+		if (!this.tableMetaDataContext.isGetGeneratedKeysSupported()) {
+			throw new InvalidDataAccessResourceUsageException(
+					"The getGeneratedKeys feature is not supported by this database");
+		}
+		final int rowsPerStatement = determineRowsPerStatement(batchValues);
+		final String insertString = createInsertString(rowsPerStatement);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing statement " + insertString + " with batch of " + batchValues.size() + " rows");
+		}
+		final KeyHolder keyHolder = new GeneratedKeyHolder();
+		final RowMapperResultSetExtractor<Map<String, Object>> keyExtractor =
+				new RowMapperResultSetExtractor<>(new ColumnMapRowMapper(), rowsPerStatement);
+
+		getJdbcTemplate().execute((ConnectionCallback<Object>) con -> {
+			for (int offset = 0; offset < batchValues.size(); offset += rowsPerStatement) {
+				int rows = Math.min(rowsPerStatement, batchValues.size() - offset);
+				PreparedStatement ps = null;
+				ResultSet keys = null;
+				try {
+					ps = prepareStatementForGeneratedKeys(con,
+							(rows == rowsPerStatement ? insertString : createInsertString(rows)));
+					setMultiRowParameterValues(ps, batchValues.subList(offset, offset + rows));
+					ps.executeUpdate();
+					keys = ps.getGeneratedKeys();
+					if (keys != null) {
+						List<Map<String, Object>> keyList = keyExtractor.extractData(keys);
+						if (rows > 1 && keyList.size() != rows) {
+							throw new InvalidDataAccessResourceUsageException("The JDBC driver returned " +
+									keyList.size() + " generated keys for a multi-row insert of " + rows +
+									" rows: use a single row per statement to retrieve the generated keys " +
+									"of a batch with this database");
+						}
+						keyHolder.getKeyList().addAll(keyList);
+					}
+				}
+				finally {
+					JdbcUtils.closeResultSet(keys);
+					JdbcUtils.closeStatement(ps);
+				}
+			}
+			return null;
+		});
+
+		return keyHolder;
+	}
+
+	/**
+	 * Determine the number of rows to insert with a single statement for the
+	 * given batch, based on the configured rows per statement and the maximum
+	 * number of bind parameters.
+	 */
+	private int determineRowsPerStatement(List<List<Object>> batchValues) {
+		if (this.rowsPerStatement <= 1 || batchValues.size() <= 1) {
+			return 1;
+		}
+		int columnCount = batchValues.get(0).size();
+		if (columnCount < 1) {
+			// An insert with default values only cannot be expressed as multi-row insert
+			return 1;
+		}
+		int maxRows = Math.max(this.maxParameterCount / columnCount, 1);
+		return Math.min(Math.min(this.rowsPerStatement, maxRows), batchValues.size());
+	}
+
+	/**
+	 * Build the insert string for the given number of rows.
+	 */
+	private String createInsertString(int rowCount) {
+		return (rowCount == 1 ? getInsertString() :
+				this.tableMetaDataContext.createInsertString(rowCount, getGeneratedKeyNames()));
+	}
+
+	/**
+	 * Internal implementation for setting the parameter values of multiple rows,
+	 * in the order of a multi-row insert statement.
+	 * @param preparedStatement the PreparedStatement
+	 * @param rows the values to be set for each row
+	 */
+	private void setMultiRowParameterValues(PreparedStatement preparedStatement, List<List<Object>> rows)
+			throws SQLException {
+
+		int[] columnTypes = getInsertTypes();
+		int paramIndex = 0;
+		for (List<?> values : rows) {
+			int colIndex = 0;
+			for (Object value : values) {
+				paramIndex++;
+				colIndex++;
+				int sqlType = (colIndex <= columnTypes.length ? columnTypes[colIndex - 1] : SqlTypeValue.TYPE_UNKNOWN);
+				StatementCreatorUtils.setParameterValue(preparedStatement, paramIndex, sqlType, value);
+			}
+		}
+	}
+
 	/**
 	 * Internal implementation for setting parameter values.
 	 * @param preparedStatement the PreparedStatement
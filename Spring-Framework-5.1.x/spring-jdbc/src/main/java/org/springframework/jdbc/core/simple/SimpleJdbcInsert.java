@@ -112,6 +112,18 @@ public class SimpleJdbcInsert extends AbstractJdbcInsert implements SimpleJdbcIn
 		return this;
 	}
 
+	@Override
+	public SimpleJdbcInsert usingRowsPerStatement(int rowsPerStatement) {
+		setRowsPerStatement(rowsPerStatement);
+		return this;
+	}
+
+	@Override
+	public SimpleJdbcInsert withMaxParameterCount(int maxParameterCount) {
+		setMaxParameterCount(maxParameterCount);
+		return this;
+	}
+
 	@Override
 	public int execute(Map<String, ?> args) {
 		return doExecute(args);
@@ -153,4 +165,15 @@ public class SimpleJdbcInsert extends AbstractJdbcInsert implements SimpleJdbcIn
 		return doExecuteBatch(batch);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public KeyHolder executeBatchAndReturnKeyHolder(Map<String, ?>... batch) {
+		return doExecuteBatchAndReturnKeyHolder(batch);
+	}
+
+	@Override
+	public KeyHolder executeBatchAndReturnKeyHolder(SqlParameterSource... batch) {
+		return doExecuteBatchAndReturnKeyHolder(batch);
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -80,6 +80,35 @@ public interface SimpleJdbcInsertOperations {
 	 */
 	SimpleJdbcInsertOperations includeSynonymsForTableColumnMetaData();
 
+	/**
+	 * Insert up to the given number of rows with a single multi-row
+	 * {@code INSERT ... VALUES (...), (...)} statement when executing a batch,
+	 * as far as the maximum number of bind parameters permits.
+	 * <p>The default implementation ignores the setting, inserting a single
+	 * row per statement.
+	 * @param rowsPerStatement the maximum number of rows per insert statement
+	 * @return the instance of this SimpleJdbcInsert
+	 * @since 5.1.21
+	 * @see AbstractJdbcInsert#setRowsPerStatement
+	 */
+	default SimpleJdbcInsertOperations usingRowsPerStatement(int rowsPerStatement) {
+		return this;
+	}
+
+	/**
+	 * Specify the maximum number of bind parameters that the JDBC driver
+	 * accepts for a single statement, limiting the number of rows in a
+	 * multi-row insert statement.
+	 * <p>The default implementation ignores the setting.
+	 * @param maxParameterCount the maximum number of bind parameters
+	 * @return the instance of this SimpleJdbcInsert
+	 * @since 5.1.21
+	 * @see AbstractJdbcInsert#setMaxParameterCount
+	 */
+	default SimpleJdbcInsertOperations withMaxParameterCount(int maxParameterCount) {
+		return this;
+	}
+
 
 	/**
 	 * Execute the insert using the values passed in.
@@ -150,4 +179,37 @@ public interface SimpleJdbcInsertOperations {
 	 */
 	int[] executeBatch(SqlParameterSource... batch);
 
+	/**
+	 * Execute a batch insert using the batch of values passed in
+	 * and return the generated keys.
+	 * <p>This requires that the name of the columns with auto generated keys have been specified
+	 * and that the JDBC driver supports retrieving generated keys. The keys are returned in batch
+	 * order, also when inserting multiple rows per statement, as long as the driver returns the
+	 * keys of all rows of such a statement; an exception is thrown otherwise.
+	 * <p>The default implementation throws an {@link UnsupportedOperationException}.
+	 * @param batch an array of Maps containing a batch of column names and corresponding value
+	 * @return the KeyHolder containing all generated keys
+	 * @since 5.1.21
+	 */
+	@SuppressWarnings("unchecked")
+	default KeyHolder executeBatchAndReturnKeyHolder(Map<String, ?>... batch) {
+		throw new UnsupportedOperationException("Batch insert with generated keys not supported");
+	}
+
+	/**
+	 * Execute a batch insert using the batch of values passed in
+	 * and return the generated keys.
+	 * <p>This requires that the name of the columns with auto generated keys have been specified
+	 * and that the JDBC driver supports retrieving generated keys. The keys are returned in batch
+	 * order, also when inserting multiple rows per statement, as long as the driver returns the
+	 * keys of all rows of such a statement; an exception is thrown otherwise.
+	 * <p>The default implementation throws an {@link UnsupportedOperationException}.
+	 * @param batch an array of SqlParameterSource containing values for the batch
+	 * @return the KeyHolder containing all generated keys
+	 * @since 5.1.21
+	 */
+	default KeyHolder executeBatchAndReturnKeyHolder(SqlParameterSource... batch) {
+		throw new UnsupportedOperationException("Batch insert with generated keys not supported");
+	}
+
 }
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * DataSource that routes read-only transactions to replica DataSources and
+ * everything else to a primary DataSource, based on the current transaction's
+ * {@linkplain TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+ * read-only flag}.
+ *
+ * <p>Connections are handed out as lazy handles, in the style of
+ * {@link LazyConnectionDataSourceProxy}: the physical Connection is only fetched
+ * once the first Statement gets created, at which point the transaction manager
+ * has exposed the read-only flag of the transaction. This allows for using this
+ * DataSource directly with a {@link org.springframework.jdbc.datasource.DataSourceTransactionManager},
+ * which fetches its Connection before the transaction is fully set up.
+ *
+ * <p>Replicas are chosen at random according to their configured weight. A replica
+ * that fails to provide a Connection is taken out of rotation for the
+ * {@linkplain #setReplicaRecoveryInterval recovery interval}, with the Connection
+ * being requested from one of the remaining replicas instead. If no replica is
+ * available, read-only transactions fall back to the primary DataSource, unless
+ * {@linkplain #setPrimaryFallback primary fallback} has been switched off.
+ *
+ * <p>Note that the read-only flag is only exposed for transactions with
+ * synchronization; code running without a transaction uses the primary DataSource.
+ *
+ * @since 5.1.21
+ * @see #setPrimaryDataSource
+ * @see #setReplicaDataSources
+ * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+ * @see LazyConnectionDataSourceProxy
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+	/** Default recovery interval for failed replicas, in milliseconds. */
+	public static final long DEFAULT_REPLICA_RECOVERY_INTERVAL = 30000;
+
+
+	private static final Log logger = LogFactory.getLog(ReadWriteRoutingDataSource.class);
+
+
+	@Nullable
+	private DataSource primaryDataSource;
+
+	private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+
+	private long replicaRecoveryInterval = DEFAULT_REPLICA_RECOVERY_INTERVAL;
+
+	private boolean primaryFallback = true;
+
+	@Nullable
+	private DataSource connectionSource;
+
+
+	/**
+	 * Create a new ReadWriteRoutingDataSource.
+	 * @see #setPrimaryDataSource
+	 * @see #setReplicaDataSources
+	 */
+	public ReadWriteRoutingDataSource() {
+	}
+
+	/**
+	 * Create a new ReadWriteRoutingDataSource for the given primary
+	 * DataSource and equally weighted replica DataSources.
+	 * @param primaryDataSource the DataSource for read-write access
+	 * @param replicaDataSources the DataSources for read-only transactions
+	 */
+	public ReadWriteRoutingDataSource(DataSource primaryDataSource, DataSource... replicaDataSources) {
+		setPrimaryDataSource(primaryDataSource);
+		for (DataSource replicaDataSource : replicaDataSources) {
+			addReplicaDataSource(replicaDataSource, 1);
+		}
+		afterPropertiesSet();
+	}
+
+
+	/**
+	 * Set the DataSource for read-write access, also used outside of transactions.
+	 */
+	public void setPrimaryDataSource(DataSource primaryDataSource) {
+		Assert.notNull(primaryDataSource, "Primary DataSource must not be null");
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	/**
+	 * Return the DataSource for read-write access.
+	 */
+	@Nullable
+	public DataSource getPrimaryDataSource() {
+		return this.primaryDataSource;
+	}
+
+	/**
+	 * Set the DataSources for read-only transactions, replacing any replicas
+	 * registered before, with each replica receiving the same weight.
+	 * @see #addReplicaDataSource
+	 */
+	public void setReplicaDataSources(List<DataSource> replicaDataSources) {
+		List<Replica> replicas = new ArrayList<>(replicaDataSources.size());
+		for (DataSource replicaDataSource : replicaDataSources) {
+			Assert.notNull(replicaDataSource, "Replica DataSource must not be null");
+			replicas.add(new Replica(replicaDataSource, 1));
+		}
+		this.replicas.clear();
+		this.replicas.addAll(replicas);
+	}
+
+	/**
+	 * Add a DataSource for read-only transactions.
+	 * @param replicaDataSource the replica DataSource
+	 * @param weight the relative share of read-only transactions to route to
+	 * this replica, compared to the weights of the other replicas
+	 */
+	public void addReplicaDataSource(DataSource replicaDataSource, int weight) {
+		Assert.notNull(replicaDataSource, "Replica DataSource must not be null");
+		Assert.isTrue(weight > 0, "Weight must be greater than 0");
+		this.replicas.add(new Replica(replicaDataSource, weight));
+	}
+
+	/**
+	 * Set the time in milliseconds during which a replica that failed to provide
+	 * a Connection is not considered for read-only transactions.
+	 * <p>Default is {@link #DEFAULT_REPLICA_RECOVERY_INTERVAL}.
+	 */
+	public void setReplicaRecoveryInterval(long replicaRecoveryInterval) {
+		Assert.isTrue(replicaRecoveryInterval >= 0, "Recovery interval must not be negative");
+		this.replicaRecoveryInterval = replicaRecoveryInterval;
+	}
+
+	/**
+	 * Specify whether to fall back to the primary DataSource for read-only
+	 * transactions if no replica is available.
+	 * <p>Default is "true". Switch this to "false" to rather fail with the
+	 * exception from the last replica in order to protect the primary DataSource.
+	 */
+	public void setPrimaryFallback(boolean primaryFallback) {
+		this.primaryFallback = primaryFallback;
+	}
+
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.primaryDataSource == null) {
+			throw new IllegalArgumentException("Property 'primaryDataSource' is required");
+		}
+		this.connectionSource = new LazyConnectionDataSourceProxy(new RoutingDataSource());
+	}
+
+	private DataSource obtainConnectionSource() {
+		DataSource connectionSource = this.connectionSource;
+		Assert.state(connectionSource != null, "ReadWriteRoutingDataSource not initialized");
+		return connectionSource;
+	}
+
+	private DataSource obtainPrimaryDataSource() {
+		DataSource primaryDataSource = this.primaryDataSource;
+		Assert.state(primaryDataSource != null, "No primary DataSource set");
+		return primaryDataSource;
+	}
+
+
+	/**
+	 * Return a Connection handle that fetches an actual JDBC Connection from the
+	 * primary or a replica DataSource when asked for a Statement.
+	 * @see #determineTargetConnection
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return obtainConnectionSource().getConnection();
+	}
+
+	/**
+	 * Return a Connection handle that fetches an actual JDBC Connection from the
+	 * primary or a replica DataSource when asked for a Statement.
+	 * @see #determineTargetConnection
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return obtainConnectionSource().getConnection(username, password);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+		return obtainPrimaryDataSource().unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (iface.isInstance(this) || obtainPrimaryDataSource().isWrapperFor(iface));
+	}
+
+
+	/**
+	 * Fetch the physical Connection for the current transaction: from a replica
+	 * for a read-only transaction, from the primary DataSource otherwise.
+	 * @param username the per-Connection username, or {@code null} for the default
+	 * @param password the per-Connection password
+	 * @return the physical Connection
+	 * @throws SQLException if thrown by the target DataSource
+	 */
+	protected Connection determineTargetConnection(@Nullable String username, @Nullable String password)
+			throws SQLException {
+
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !this.replicas.isEmpty()) {
+			Connection con = getReplicaConnection(username, password);
+			if (con != null) {
+				return con;
+			}
+		}
+		return getConnection(obtainPrimaryDataSource(), username, password);
+	}
+
+	/**
+	 * Fetch a Connection from one of the available replicas, chosen by weight,
+	 * taking replicas that fail to provide one out of rotation.
+	 * @return the Connection, or {@code null} to fall back to the primary DataSource
+	 */
+	@Nullable
+	private Connection getReplicaConnection(@Nullable String username, @Nullable String password)
+			throws SQLException {
+
+		SQLException lastException = null;
+		int attempts = this.replicas.size();
+		Replica replica;
+		while (attempts-- > 0 && (replica = selectReplica(System.currentTimeMillis())) != null) {
+			try {
+				return getConnection(replica.dataSource, username, password);
+			}
+			catch (SQLException ex) {
+				replica.unavailableUntil = System.currentTimeMillis() + this.replicaRecoveryInterval;
+				if (logger.isWarnEnabled()) {
+					logger.warn("Replica DataSource [" + replica.dataSource + "] failed to provide a Connection - " +
+							"taking it out of rotation for " + this.replicaRecoveryInterval + " ms", ex);
+				}
+				lastException = ex;
+			}
+		}
+		if (!this.primaryFallback) {
+			throw (lastException != null ? lastException :
+					new SQLException("No replica DataSource available for read-only transaction"));
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("No replica DataSource available - using primary DataSource for read-only transaction");
+		}
+		return null;
+	}
+
+	/**
+	 * Choose one of the replicas that are not out of rotation at the given time,
+	 * with a probability corresponding to its share of the total weight.
+	 */
+	@Nullable
+	private Replica selectReplica(long now) {
+		int totalWeight = 0;
+		for (Replica replica : this.replicas) {
+			if (replica.isAvailable(now)) {
+				totalWeight += replica.weight;
+			}
+		}
+		if (totalWeight == 0) {
+			return null;
+		}
+		int selection = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (Replica replica : this.replicas) {
+			if (replica.isAvailable(now)) {
+				selection -= replica.weight;
+				if (selection < 0) {
+					return replica;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Connection getConnection(DataSource dataSource, @Nullable String username,
+			@Nullable String password) throws SQLException {
+
+		return (username != null ? dataSource.getConnection(username, password) : dataSource.getConnection());
+	}
+
+
+	/**
+	 * A replica DataSource along with its weight and availability.
+	 */
+	private static class Replica {
+
+		final DataSource dataSource;
+
+		final int weight;
+
+		volatile long unavailableUntil;
+
+		Replica(DataSource dataSource, int weight) {
+			this.dataSource = dataSource;
+			this.weight = weight;
+		}
+
+		boolean isAvailable(long now) {
+			return (this.unavailableUntil <= now);
+		}
+	}
+
+
+	/**
+	 * Target of the lazy Connection handles, fetching the physical Connection
+	 * from the primary or a replica DataSource.
+	 */
+	private class RoutingDataSource extends AbstractDataSource {
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return determineTargetConnection(null, null);
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return determineTargetConnection(username, password);
+		}
+	}
+
+}
@@ -16,6 +16,10 @@
 
 package org.springframework.jdbc.support;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import javax.sql.DataSource;
 
 import org.apache.commons.logging.Log;
@@ -50,6 +54,8 @@ public abstract class JdbcAccessor implements InitializingBean {
 
 	private boolean lazyInit = true;
 
+	private final List<JdbcOperationListener> operationListeners = new CopyOnWriteArrayList<>();
+
 
 	/**
 	 * Set the JDBC DataSource to obtain connections from.
@@ -150,6 +156,61 @@ public abstract class JdbcAccessor implements InitializingBean {
 		return this.lazyInit;
 	}
 
+	/**
+	 * Set the listeners to notify of the JDBC operations performed by this
+	 * accessor, replacing any listeners registered before.
+	 * @since 5.1.21
+	 * @see #addOperationListener
+	 */
+	public void setOperationListeners(List<JdbcOperationListener> operationListeners) {
+		this.operationListeners.clear();
+		this.operationListeners.addAll(operationListeners);
+	}
+
+	/**
+	 * Add a listener to notify of the JDBC operations performed by this accessor.
+	 * @since 5.1.21
+	 * @see JdbcOperationListener#operationCompleted
+	 */
+	public void addOperationListener(JdbcOperationListener operationListener) {
+		Assert.notNull(operationListener, "JdbcOperationListener must not be null");
+		this.operationListeners.add(operationListener);
+	}
+
+	/**
+	 * Return the listeners to notify of the JDBC operations performed by this accessor.
+	 * @since 5.1.21
+	 */
+	public List<JdbcOperationListener> getOperationListeners() {
+		return Collections.unmodifiableList(this.operationListeners);
+	}
+
+	/**
+	 * Return whether any operation listeners are registered, allowing
+	 * subclasses to skip measuring operations otherwise.
+	 * @since 5.1.21
+	 */
+	protected boolean hasOperationListeners() {
+		return !this.operationListeners.isEmpty();
+	}
+
+	/**
+	 * Notify all registered operation listeners of the given completed operation.
+	 * <p>An exception thrown by a listener is logged rather than propagated.
+	 * @param event the details of the operation
+	 * @since 5.1.21
+	 */
+	protected void notifyOperationListeners(JdbcOperationEvent event) {
+		for (JdbcOperationListener listener : this.operationListeners) {
+			try {
+				listener.operationCompleted(event);
+			}
+			catch (Throwable ex) {
+				logger.warn("JdbcOperationListener threw exception for " + event, ex);
+			}
+		}
+	}
+
 	/**
 	 * Eagerly initialize the exception translator, if demanded,
 	 * creating a default one for the specified DataSource if none set.
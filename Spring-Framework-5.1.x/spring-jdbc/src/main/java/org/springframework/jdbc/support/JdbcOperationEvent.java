@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Details of a completed JDBC operation, as passed to
+ * {@link JdbcOperationListener JdbcOperationListeners}.
+ *
+ * @since 5.1.21
+ * @see JdbcOperationListener#operationCompleted
+ */
+public class JdbcOperationEvent {
+
+	private final OperationType operationType;
+
+	@Nullable
+	private final String sql;
+
+	private final long durationNanos;
+
+	private final int rowCount;
+
+	private final int fetchSize;
+
+	private final int batchSize;
+
+	@Nullable
+	private final Throwable exception;
+
+
+	/**
+	 * Create a new JdbcOperationEvent.
+	 * @param operationType the type of operation
+	 * @param sql the SQL statement, or {@code null} if not known
+	 * @param durationNanos the duration of the operation in nanoseconds
+	 * @param rowCount the number of rows returned or affected, or -1 if not known
+	 * @param fetchSize the fetch size applied to the statement, or -1 for the driver's default
+	 * @param batchSize the number of statements or parameter sets in a batch,
+	 * or -1 for an operation other than a batch update
+	 * @param exception the exception that the operation failed with, if any
+	 */
+	public JdbcOperationEvent(OperationType operationType, @Nullable String sql, long durationNanos,
+			int rowCount, int fetchSize, int batchSize, @Nullable Throwable exception) {
+
+		Assert.notNull(operationType, "OperationType must not be null");
+		this.operationType = operationType;
+		this.sql = sql;
+		this.durationNanos = durationNanos;
+		this.rowCount = rowCount;
+		this.fetchSize = fetchSize;
+		this.batchSize = batchSize;
+		this.exception = exception;
+	}
+
+
+	/**
+	 * Return the type of operation.
+	 */
+	public OperationType getOperationType() {
+		return this.operationType;
+	}
+
+	/**
+	 * Return the SQL statement, or {@code null} if not known
+	 * (e.g. for a custom statement creator that does not expose its SQL).
+	 * <p>For a batch of different SQL statements, the statements are
+	 * concatenated with "; ".
+	 */
+	@Nullable
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Return the duration of the operation in nanoseconds, including the
+	 * time for obtaining the Connection and for processing the results.
+	 */
+	public long getDurationNanos() {
+		return this.durationNanos;
+	}
+
+	/**
+	 * Return the duration of the operation in milliseconds.
+	 */
+	public long getDurationMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.durationNanos);
+	}
+
+	/**
+	 * Return the number of rows returned by a query or affected by an update,
+	 * or -1 if not known (e.g. for queries with a custom result handler or
+	 * batches with drivers not reporting update counts).
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Return the fetch size applied to the statement,
+	 * or -1 for the JDBC driver's default.
+	 */
+	public int getFetchSize() {
+		return this.fetchSize;
+	}
+
+	/**
+	 * Return the number of statements or parameter sets in a batch update,
+	 * or -1 for other operations.
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Return the exception that the operation failed with, if any.
+	 */
+	@Nullable
+	public Throwable getException() {
+		return this.exception;
+	}
+
+	/**
+	 * Return whether the operation completed successfully.
+	 */
+	public boolean isSuccessful() {
+		return (this.exception == null);
+	}
+
+	@Override
+	public String toString() {
+		return "JdbcOperationEvent: " + this.operationType + " [" + this.sql + "] in " +
+				getDurationMillis() + " ms, rowCount=" + this.rowCount + ", fetchSize=" + this.fetchSize +
+				", batchSize=" + this.batchSize + (this.exception != null ? ", exception=" + this.exception : "");
+	}
+
+
+	/**
+	 * The type of JDBC operation.
+	 */
+	public enum OperationType {
+
+		/** A generic execute call, including callbacks with custom statement handling. */
+		EXECUTE,
+
+		/** A query returning a result set. */
+		QUERY,
+
+		/** A single update statement. */
+		UPDATE,
+
+		/** A batch of update statements. */
+		BATCH_UPDATE
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support;
+
+/**
+ * Callback interface for observing the JDBC operations performed by a
+ * {@link JdbcAccessor}, e.g. for recording timings or logging slow statements.
+ *
+ * <p>Listeners are invoked synchronously in the thread that performed the
+ * operation, after completion of the operation, and should therefore return
+ * quickly. An exception thrown by a listener is logged and does not affect
+ * the outcome of the operation.
+ *
+ * @since 5.1.21
+ * @see JdbcAccessor#addOperationListener
+ * @see org.springframework.jdbc.core.JdbcTemplate
+ */
+@FunctionalInterface
+public interface JdbcOperationListener {
+
+	/**
+	 * Called after a JDBC operation has completed, either successfully
+	 * or with an exception.
+	 * @param event the details of the operation
+	 */
+	void operationCompleted(JdbcOperationEvent event);
+
+}
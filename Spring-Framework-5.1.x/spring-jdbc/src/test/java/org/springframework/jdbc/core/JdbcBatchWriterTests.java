@@ -0,0 +1,216 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link JdbcBatchWriter} against an embedded H2 database.
+ *
+ * @since 5.1.21
+ */
+public class JdbcBatchWriterTests {
+
+	private static final String INSERT = "INSERT INTO item (id, name) VALUES (?, ?)";
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcBatchWriter writer;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name VARCHAR(50))");
+		this.writer = new JdbcBatchWriter(this.jdbcTemplate, INSERT, new int[] {Types.INTEGER, Types.VARCHAR});
+	}
+
+	@After
+	public void shutdown() {
+		this.writer.close();
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void flushOnBatchSize() throws Exception {
+		this.writer.setBatchSize(5);
+		this.writer.setFlushInterval(60_000);
+		for (int i = 0; i < 12; i++) {
+			this.writer.write(i, "item" + i);
+		}
+		awaitWrittenRowCount(10);
+		assertEquals(2, this.writer.getQueuedRowCount());
+		assertEquals(10, countRows());
+	}
+
+	@Test
+	public void flushOnInterval() throws Exception {
+		this.writer.setBatchSize(100);
+		this.writer.setFlushInterval(50);
+		this.writer.write(1, "one");
+		this.writer.write(2, "two");
+		awaitWrittenRowCount(2);
+		assertEquals(2, countRows());
+	}
+
+	@Test
+	public void explicitFlush() throws Exception {
+		this.writer.setFlushInterval(60_000);
+		this.writer.write(1, "one");
+		this.writer.flush();
+		assertEquals(1, this.writer.getWrittenRowCount());
+		assertEquals(0, this.writer.getQueuedRowCount());
+		assertEquals("one", this.jdbcTemplate.queryForObject("SELECT name FROM item WHERE id = 1", String.class));
+	}
+
+	@Test
+	public void closeWritesQueuedRows() throws Exception {
+		this.writer.setFlushInterval(60_000);
+		for (int i = 0; i < 7; i++) {
+			this.writer.write(i, "item" + i);
+		}
+		this.writer.close();
+		assertTrue(this.writer.isClosed());
+		assertEquals(7, countRows());
+		try {
+			this.writer.write(8, "item8");
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void concurrentWriters() throws Exception {
+		this.writer.setBatchSize(10);
+		this.writer.setQueueCapacity(20);
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		CountDownLatch latch = new CountDownLatch(4);
+		for (int t = 0; t < 4; t++) {
+			int offset = t * 250;
+			producers.execute(() -> {
+				try {
+					for (int i = offset; i < offset + 250; i++) {
+						this.writer.write(i, "item" + i);
+					}
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		producers.shutdown();
+		this.writer.close();
+		assertEquals(1000, this.writer.getWrittenRowCount());
+		assertEquals(1000, countRows());
+	}
+
+	@Test
+	public void backpressureWhenQueueIsFull() throws Exception {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+		CountDownLatch blocker = new CountDownLatch(1);
+		executor.execute(() -> {
+			try {
+				blocker.await();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		try {
+			this.writer.setExecutor(executor);
+			this.writer.setBatchSize(2);
+			this.writer.setQueueCapacity(3);
+			this.writer.write(1, "one");
+			this.writer.write(2, "two");
+			this.writer.write(3, "three");
+			assertFalse(this.writer.tryWrite(new Object[] {4, "four"}, 50, TimeUnit.MILLISECONDS));
+			assertEquals(3, this.writer.getQueuedRowCount());
+
+			blocker.countDown();
+			assertTrue(this.writer.tryWrite(new Object[] {4, "four"}, 10, TimeUnit.SECONDS));
+			this.writer.close();
+			assertEquals(4, countRows());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void failureHandler() throws Exception {
+		List<Object[]> failedRows = new ArrayList<>();
+		List<DataAccessException> failures = new ArrayList<>();
+		this.writer.setFailureHandler((rows, ex) -> {
+			failedRows.addAll(rows);
+			failures.add(ex);
+		});
+		this.writer.setFlushInterval(60_000);
+		this.writer.write(1, "one");
+		this.writer.write(1, "duplicate");
+		this.writer.flush();
+
+		assertEquals(1, failures.size());
+		assertTrue(failures.get(0) instanceof DataIntegrityViolationException);
+		assertEquals(2, failedRows.size());
+		assertEquals(2, this.writer.getFailedRowCount());
+		assertEquals(0, this.writer.getWrittenRowCount());
+	}
+
+
+	private void awaitWrittenRowCount(long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (this.writer.getWrittenRowCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, this.writer.getWrittenRowCount());
+	}
+
+	private int countRows() {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item", Integer.class);
+	}
+
+}
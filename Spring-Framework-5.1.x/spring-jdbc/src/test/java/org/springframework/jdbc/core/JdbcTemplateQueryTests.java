@@ -24,8 +24,11 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -34,6 +37,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 
 import static org.junit.Assert.*;
@@ -393,4 +397,75 @@ public class JdbcTemplateQueryTests {
 		verify(this.preparedStatement).close();
 	}
 
+	@Test
+	public void testQueryForStream() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.statement.getConnection()).willReturn(this.connection);
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		this.template.setFetchSize(10);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1))) {
+			verify(this.statement).setFetchSize(10);
+			verify(this.resultSet, never()).next();
+			verify(this.connection, never()).close();
+			assertEquals(Arrays.asList(11, 12), stream.collect(Collectors.toList()));
+			verify(this.resultSet, never()).close();
+			verify(this.statement, never()).close();
+		}
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithArgs() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
+		given(this.preparedStatement.getConnection()).willReturn(this.connection);
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getInt(1)).willReturn(11, 12);
+		try (Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3)) {
+			assertEquals(Integer.valueOf(11), stream.findFirst().get());
+			verify(this.preparedStatement, never()).close();
+		}
+		verify(this.preparedStatement).setObject(1, 3);
+		verify(this.resultSet).close();
+		verify(this.preparedStatement).close();
+		verify(this.connection).close();
+	}
+
+	@Test
+	public void testQueryForStreamWithFailingQuery() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID = ?";
+		given(this.preparedStatement.executeQuery()).willThrow(new SQLException("bad query"));
+		this.thrown.expect(DataAccessException.class);
+		try {
+			this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1), 3);
+		}
+		finally {
+			verify(this.preparedStatement).close();
+			verify(this.connection, atLeastOnce()).close();
+		}
+	}
+
+	@Test
+	public void testQueryForStreamWithFailingRow() throws Exception {
+		String sql = "SELECT AGE FROM CUSTMR WHERE ID < 3";
+		given(this.statement.getConnection()).willReturn(this.connection);
+		given(this.resultSet.next()).willThrow(new SQLException("bad row"));
+		Stream<Integer> stream = this.template.queryForStream(sql, (rs, rowNum) -> rs.getInt(1));
+		try {
+			stream.count();
+			fail("Should have thrown DataAccessException");
+		}
+		catch (DataAccessException ex) {
+			assertEquals("bad row", ex.getCause().getMessage());
+		}
+		finally {
+			stream.close();
+		}
+		verify(this.resultSet).close();
+		verify(this.statement).close();
+		verify(this.connection, atLeastOnce()).close();
+	}
+
 }
@@ -20,6 +20,7 @@ import java.sql.BatchUpdateException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -50,6 +51,7 @@ import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.support.AbstractInterruptibleBatchPreparedStatementSetter;
 import org.springframework.jdbc.datasource.ConnectionProxy;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.JdbcOperationEvent;
 import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
 import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
 import org.springframework.util.LinkedCaseInsensitiveMap;
@@ -359,6 +361,42 @@ public class JdbcTemplateTests {
 	/**
 	 * Test update with dynamic SQL.
 	 */
+	@Test
+	public void testSqlUpdateWithNullArgumentsUsesParameterMetaDataCache() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = ? WHERE ID = ?";
+		ParameterMetaData parameterMetaData = mock(ParameterMetaData.class);
+		given(this.preparedStatement.getParameterMetaData()).willReturn(parameterMetaData);
+		given(parameterMetaData.getParameterType(1)).willReturn(Types.DATE);
+		given(this.preparedStatement.executeUpdate()).willReturn(1);
+
+		this.template.update(sql, null, 1);
+		this.template.update(sql, null, 2);
+
+		verify(parameterMetaData).getParameterType(1);
+		verify(this.preparedStatement, times(2)).setNull(1, Types.DATE);
+		ParameterMetaDataCache cache = this.template.getParameterMetaDataCache();
+		assertNotNull(cache);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testSqlUpdateWithNullArgumentsAndParameterMetaDataCacheDisabled() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = ? WHERE ID = ?";
+		ParameterMetaData parameterMetaData = mock(ParameterMetaData.class);
+		given(this.preparedStatement.getParameterMetaData()).willReturn(parameterMetaData);
+		given(parameterMetaData.getParameterType(1)).willReturn(Types.DATE);
+		given(this.preparedStatement.executeUpdate()).willReturn(1);
+		this.template.setParameterMetaDataCacheLimit(0);
+
+		this.template.update(sql, null, 1);
+		this.template.update(sql, null, 2);
+
+		verify(parameterMetaData, times(2)).getParameterType(1);
+		assertNull(this.template.getParameterMetaDataCache());
+	}
+
 	@Test
 	public void testSqlUpdateWithArguments() throws Exception {
 		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ? and PR = ?";
@@ -523,6 +561,104 @@ public class JdbcTemplateTests {
 		verify(this.connection, atLeastOnce()).close();
 	}
 
+	@Test
+	public void testOperationListenerForQueryAndUpdate() throws Exception {
+		List<JdbcOperationEvent> events = new ArrayList<>();
+		this.template.addOperationListener(events::add);
+		this.template.setFetchSize(50);
+		given(this.resultSet.next()).willReturn(true, true, false);
+		given(this.resultSet.getString(1)).willReturn("a", "b");
+		given(this.preparedStatement.executeUpdate()).willReturn(3);
+
+		this.template.query("SELECT NAME FROM T WHERE ID = ?", (rs, rowNum) -> rs.getString(1), 1);
+		this.template.update("UPDATE T SET NAME = ?", "c");
+
+		assertEquals(2, events.size());
+		JdbcOperationEvent query = events.get(0);
+		assertEquals(JdbcOperationEvent.OperationType.QUERY, query.getOperationType());
+		assertEquals("SELECT NAME FROM T WHERE ID = ?", query.getSql());
+		assertEquals(2, query.getRowCount());
+		assertEquals(50, query.getFetchSize());
+		assertEquals(-1, query.getBatchSize());
+		assertTrue(query.isSuccessful());
+		assertTrue(query.getDurationNanos() >= 0);
+		JdbcOperationEvent update = events.get(1);
+		assertEquals(JdbcOperationEvent.OperationType.UPDATE, update.getOperationType());
+		assertEquals("UPDATE T SET NAME = ?", update.getSql());
+		assertEquals(3, update.getRowCount());
+	}
+
+	@Test
+	public void testOperationListenerForBatchUpdateAndFailure() throws Exception {
+		List<JdbcOperationEvent> events = new ArrayList<>();
+		this.template.addOperationListener(events::add);
+		this.template.addOperationListener(event -> {
+			throw new IllegalStateException("ignored");
+		});
+		given(this.preparedStatement.executeBatch()).willReturn(new int[] {1, 2});
+		mockDatabaseMetaData(true);
+		SQLException sqlException = new SQLException("bad update");
+		given(this.statement.executeUpdate("UPDATE T SET NAME = NULL")).willThrow(sqlException);
+		given(this.connection.createStatement()).willReturn(this.statement);
+
+		this.template.batchUpdate("UPDATE T SET NAME = ? WHERE ID = ?",
+				Arrays.asList(new Object[] {"a", 1}, new Object[] {"b", 2}));
+		try {
+			this.template.update("UPDATE T SET NAME = NULL");
+			fail("Should have thrown DataAccessException");
+		}
+		catch (DataAccessException ex) {
+			assertEquals(2, events.size());
+			assertSame(ex, events.get(1).getException());
+		}
+
+		JdbcOperationEvent batch = events.get(0);
+		assertEquals(JdbcOperationEvent.OperationType.BATCH_UPDATE, batch.getOperationType());
+		assertEquals(2, batch.getBatchSize());
+		assertEquals(3, batch.getRowCount());
+		JdbcOperationEvent update = events.get(1);
+		assertEquals(JdbcOperationEvent.OperationType.UPDATE, update.getOperationType());
+		assertEquals("UPDATE T SET NAME = NULL", update.getSql());
+		assertEquals(-1, update.getRowCount());
+		assertFalse(update.isSuccessful());
+	}
+
+	@Test
+	public void testExecuteOverridesInterceptOperationsWithListener() throws Exception {
+		List<String> executions = new ArrayList<>();
+		JdbcTemplate template = new JdbcTemplate(this.dataSource) {
+			@Override
+			public <T> T execute(StatementCallback<T> action) {
+				executions.add("statement");
+				return super.execute(action);
+			}
+			@Override
+			public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+				executions.add("prepared");
+				return super.execute(psc, action);
+			}
+		};
+		List<JdbcOperationEvent> events = new ArrayList<>();
+		template.addOperationListener(events::add);
+		given(this.connection.createStatement()).willReturn(this.statement);
+		given(this.statement.executeUpdate("UPDATE T SET NAME = NULL")).willReturn(2);
+		given(this.preparedStatement.executeUpdate()).willReturn(1);
+
+		template.query("SELECT NAME FROM T", (rs, rowNum) -> rs.getString(1));
+		template.update("UPDATE T SET NAME = NULL");
+		template.update("UPDATE T SET NAME = ?", "c");
+
+		assertEquals(Arrays.asList("statement", "statement", "prepared"), executions);
+		assertEquals(3, events.size());
+		assertEquals(JdbcOperationEvent.OperationType.QUERY, events.get(0).getOperationType());
+		assertEquals("SELECT NAME FROM T", events.get(0).getSql());
+		assertEquals(JdbcOperationEvent.OperationType.UPDATE, events.get(1).getOperationType());
+		assertEquals(2, events.get(1).getRowCount());
+		assertEquals(JdbcOperationEvent.OperationType.UPDATE, events.get(2).getOperationType());
+		assertEquals("UPDATE T SET NAME = ?", events.get(2).getSql());
+		assertEquals(1, events.get(2).getRowCount());
+	}
+
 	@Test
 	public void testInterruptibleBatchUpdate() throws Exception {
 		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
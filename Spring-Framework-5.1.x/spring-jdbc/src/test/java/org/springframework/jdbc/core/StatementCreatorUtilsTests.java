@@ -21,12 +21,15 @@ import java.sql.DatabaseMetaData;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLRecoverableException;
 import java.sql.Types;
 import java.util.GregorianCalendar;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.*;
 import static org.mockito.BDDMockito.*;
 
 /**
@@ -113,6 +116,69 @@ public class StatementCreatorUtilsTests {
 		verify(preparedStatement).setNull(1, Types.SMALLINT);
 	}
 
+	@Test
+	public void testSetParameterValueWithNullAndCachedParameterType() throws SQLException {
+		ParameterMetaDataCache cache = new ParameterMetaDataCache();
+		String sql = "UPDATE T SET A = ?";
+		ParameterMetaData pmd = mock(ParameterMetaData.class);
+		given(preparedStatement.getParameterMetaData()).willReturn(pmd);
+		given(pmd.getParameterType(1)).willReturn(Types.SMALLINT);
+		PreparedStatement otherStatement = mock(PreparedStatement.class);
+
+		for (PreparedStatement ps : new PreparedStatement[] {preparedStatement, otherStatement}) {
+			StatementCreatorUtils.setParameterValue(ps, 1, SqlTypeValue.TYPE_UNKNOWN, null, cache, sql);
+		}
+
+		verify(pmd).getParameterType(1);
+		verify(otherStatement, never()).getParameterMetaData();
+		verify(preparedStatement).setNull(1, Types.SMALLINT);
+		verify(otherStatement).setNull(1, Types.SMALLINT);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testSetParameterValueWithNullAndCachedParameterTypeFailure() throws SQLException {
+		ParameterMetaDataCache cache = new ParameterMetaDataCache();
+		String sql = "UPDATE T SET A = ?";
+		Connection con = mock(Connection.class);
+		DatabaseMetaData dbmd = mock(DatabaseMetaData.class);
+		given(preparedStatement.getConnection()).willReturn(con);
+		given(con.getMetaData()).willReturn(dbmd);
+		given(dbmd.getDatabaseProductName()).willReturn("Apache Derby");
+		given(dbmd.getDriverName()).willReturn("Apache Derby Embedded Driver");
+		given(preparedStatement.getParameterMetaData()).willThrow(new SQLFeatureNotSupportedException("unsupported"));
+
+		StatementCreatorUtils.setParameterValue(preparedStatement, 1, SqlTypeValue.TYPE_UNKNOWN, null, cache, sql);
+		StatementCreatorUtils.setParameterValue(preparedStatement, 1, SqlTypeValue.TYPE_UNKNOWN, null, cache, sql);
+
+		verify(preparedStatement).getParameterMetaData();
+		verify(preparedStatement, times(2)).setNull(1, Types.VARCHAR);
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void testSetParameterValueWithNullAndTransientParameterTypeFailureNotCached() throws SQLException {
+		ParameterMetaDataCache cache = new ParameterMetaDataCache();
+		String sql = "UPDATE T SET A = ?";
+		Connection con = mock(Connection.class);
+		DatabaseMetaData dbmd = mock(DatabaseMetaData.class);
+		given(preparedStatement.getConnection()).willReturn(con);
+		given(con.getMetaData()).willReturn(dbmd);
+		given(dbmd.getDatabaseProductName()).willReturn("Apache Derby");
+		given(dbmd.getDriverName()).willReturn("Apache Derby Embedded Driver");
+		given(preparedStatement.getParameterMetaData()).willThrow(new SQLRecoverableException("connection lost"));
+
+		StatementCreatorUtils.setParameterValue(preparedStatement, 1, SqlTypeValue.TYPE_UNKNOWN, null, cache, sql);
+		StatementCreatorUtils.setParameterValue(preparedStatement, 1, SqlTypeValue.TYPE_UNKNOWN, null, cache, sql);
+
+		verify(preparedStatement, times(2)).getParameterMetaData();
+		verify(preparedStatement, times(2)).setNull(1, Types.VARCHAR);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.size());
+	}
+
 	@Test
 	public void testSetParameterValueWithString() throws SQLException {
 		StatementCreatorUtils.setParameterValue(preparedStatement, 1, Types.VARCHAR, null, "test");
@@ -28,6 +28,9 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -42,6 +45,7 @@ import org.springframework.jdbc.Customer;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.SqlParameterValue;
 
 import static org.junit.Assert.*;
@@ -149,6 +153,54 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testExecuteReusesPreparedStatementCreatorFactoryForSameParameterShape() throws SQLException {
+		AtomicInteger factoryCount = new AtomicInteger();
+		namedParameterTemplate = new NamedParameterJdbcTemplate(dataSource) {
+			@Override
+			protected PreparedStatementCreatorFactory getPreparedStatementCreatorFactory(
+					ParsedSql parsedSql, SqlParameterSource paramSource) {
+				factoryCount.incrementAndGet();
+				return super.getPreparedStatementCreatorFactory(parsedSql, paramSource);
+			}
+		};
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		String sql = "update seat_status set booking_id = null where performance_id in (:perfIds)";
+
+		namedParameterTemplate.update(sql, Collections.singletonMap("perfIds", Arrays.asList(1, 2)));
+		namedParameterTemplate.update(sql, Collections.singletonMap("perfIds", Arrays.asList(3, 4)));
+		assertEquals(1, factoryCount.get());
+		namedParameterTemplate.update(sql, Collections.singletonMap("perfIds", Arrays.asList(5, 6, 7)));
+		assertEquals(2, factoryCount.get());
+		MapSqlParameterSource typedParams = new MapSqlParameterSource("perfIds", Arrays.asList(8, 9));
+		typedParams.registerSqlType("perfIds", Types.BIGINT);
+		namedParameterTemplate.update(sql, typedParams);
+		assertEquals(3, factoryCount.get());
+
+		verify(connection, times(3)).prepareStatement(
+				"update seat_status set booking_id = null where performance_id in (?, ?)");
+		verify(connection).prepareStatement(
+				"update seat_status set booking_id = null where performance_id in (?, ?, ?)");
+		verify(preparedStatement).setObject(1, 3);
+		verify(preparedStatement).setObject(2, 4);
+		verify(preparedStatement).setObject(3, 7);
+		verify(preparedStatement).setObject(1, 8, Types.BIGINT);
+	}
+
+	@Test
+	public void testExecuteWithoutCaching() throws SQLException {
+		given(preparedStatement.executeUpdate()).willReturn(1);
+		namedParameterTemplate.setCacheLimit(0);
+
+		params.put("perfId", 1);
+		params.put("priceId", 1);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+		namedParameterTemplate.update(UPDATE_NAMED_PARAMETERS, params);
+
+		verify(connection, times(2)).prepareStatement(UPDATE_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement, times(2)).setObject(1, 1);
+	}
+
 	@Ignore("SPR-16340")
 	@Test
 	public void testExecuteArray() throws SQLException {
@@ -334,6 +386,36 @@ public class NamedParameterJdbcTemplateTests {
 		verify(connection).close();
 	}
 
+	@Test
+	public void testQueryForStreamWithRowMapper() throws SQLException {
+		given(resultSet.next()).willReturn(true, false);
+		given(resultSet.getInt("id")).willReturn(1);
+		given(resultSet.getString("forename")).willReturn("rod");
+
+		params.put("id", new SqlParameterValue(Types.DECIMAL, 1));
+		params.put("country", "UK");
+		List<Customer> customers;
+		try (Stream<Customer> stream = namedParameterTemplate.queryForStream(SELECT_NAMED_PARAMETERS, params,
+				(rs, rownum) -> {
+					Customer cust = new Customer();
+					cust.setId(rs.getInt(COLUMN_NAMES[0]));
+					cust.setForename(rs.getString(COLUMN_NAMES[1]));
+					return cust;
+				})) {
+			customers = stream.collect(Collectors.toList());
+			verify(connection, never()).close();
+		}
+		assertEquals(1, customers.size());
+		assertTrue("Customer id was assigned correctly", customers.get(0).getId() == 1);
+		assertTrue("Customer forename was assigned correctly", customers.get(0).getForename().equals("rod"));
+		verify(connection).prepareStatement(SELECT_NAMED_PARAMETERS_PARSED);
+		verify(preparedStatement).setObject(1, 1, Types.DECIMAL);
+		verify(preparedStatement).setString(2, "UK");
+		verify(resultSet).close();
+		verify(preparedStatement).close();
+		verify(connection).close();
+	}
+
 	@Test
 	public void testQueryWithRowMapperNoParameters() throws SQLException {
 		given(resultSet.next()).willReturn(true, false);
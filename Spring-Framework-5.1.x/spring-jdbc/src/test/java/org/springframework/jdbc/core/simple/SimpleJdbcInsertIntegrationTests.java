@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core.simple;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.h2.tools.SimpleResultSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.KeyHolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Integration tests for {@link SimpleJdbcInsert} batch inserts
+ * against an embedded H2 database.
+ *
+ * @since 5.1.21
+ */
+public class SimpleJdbcInsertIntegrationTests {
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+
+	@Before
+	public void setUp() {
+		this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true)
+				.setType(EmbeddedDatabaseType.H2).build();
+		this.jdbcTemplate = new JdbcTemplate(this.database);
+		this.jdbcTemplate.execute("CREATE TABLE person (id INTEGER AUTO_INCREMENT PRIMARY KEY, " +
+				"name VARCHAR(50) NOT NULL, age INTEGER)");
+	}
+
+	@After
+	public void shutdown() {
+		this.database.shutdown();
+	}
+
+
+	@Test
+	public void executeBatchWithSingleRowStatements() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate)
+				.withTableName("person").usingGeneratedKeyColumns("id");
+
+		int[] rowCounts = insert.executeBatch(batch(3));
+
+		assertArrayEquals(new int[] {1, 1, 1}, rowCounts);
+		assertPersons(3);
+	}
+
+	@Test
+	public void executeBatchWithMultiRowStatements() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate)
+				.withTableName("person").usingGeneratedKeyColumns("id").usingRowsPerStatement(3);
+
+		int[] rowCounts = insert.executeBatch(batch(7));
+
+		assertArrayEquals(new int[] {1, 1, 1, 1, 1, 1, 1}, rowCounts);
+		assertPersons(7);
+	}
+
+	@Test
+	public void executeBatchWithRowsLimitedByMaxParameterCount() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate)
+				.withTableName("person").usingGeneratedKeyColumns("id");
+		insert.setRowsPerStatement(100);
+		insert.setMaxParameterCount(5);
+
+		int[] rowCounts = insert.executeBatch(batch(5));
+
+		assertEquals(5, rowCounts.length);
+		assertPersons(5);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void executeBatchWithMapsAndMultiRowStatements() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate)
+				.withTableName("person").usingColumns("name", "age");
+		insert.setRowsPerStatement(2);
+		SqlParameterSource[] batch = batch(3);
+		Map<String, Object>[] maps = new Map[batch.length];
+		for (int i = 0; i < batch.length; i++) {
+			maps[i] = ((MapSqlParameterSource) batch[i]).getValues();
+		}
+
+		int[] rowCounts = insert.executeBatch(maps);
+
+		assertArrayEquals(new int[] {1, 1, 1}, rowCounts);
+		assertPersons(3);
+	}
+
+	@Test
+	public void executeBatchAndReturnKeyHolder() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate)
+				.withTableName("person").usingGeneratedKeyColumns("id");
+
+		KeyHolder keyHolder = insert.executeBatchAndReturnKeyHolder(batch(3));
+
+		assertKeys(keyHolder, 3);
+		assertPersons(3);
+	}
+
+	@Test
+	public void executeBatchAndReturnKeyHolderWithMultiRowStatements() {
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(this.jdbcTemplate)
+				.withTableName("person").usingGeneratedKeyColumns("id");
+		insert.setRowsPerStatement(2);
+
+		KeyHolder keyHolder = insert.executeBatchAndReturnKeyHolder(batch(5));
+
+		assertKeys(keyHolder, 5);
+		assertPersons(5);
+	}
+
+	@Test
+	public void executeBatchAndReturnKeyHolderWithMultiRowStatementsReturningLastKeyOnly() {
+		DataSource dataSource = new DelegatingDataSource(this.database) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				return lastGeneratedKeyOnly(super.getConnection());
+			}
+		};
+		SimpleJdbcInsert insert = new SimpleJdbcInsert(dataSource)
+				.withTableName("person").usingGeneratedKeyColumns("id");
+		insert.setRowsPerStatement(2);
+
+		try {
+			insert.executeBatchAndReturnKeyHolder(batch(4));
+			fail("Should have thrown InvalidDataAccessResourceUsageException");
+		}
+		catch (InvalidDataAccessResourceUsageException ex) {
+			assertTrue(ex.getMessage().contains("multi-row insert of 2 rows"));
+		}
+	}
+
+
+	private static SqlParameterSource[] batch(int size) {
+		SqlParameterSource[] batch = new SqlParameterSource[size];
+		for (int i = 0; i < size; i++) {
+			batch[i] = new MapSqlParameterSource("name", "person" + (i + 1)).addValue("age", 20 + i);
+		}
+		return batch;
+	}
+
+	private void assertPersons(int count) {
+		List<String> names = this.jdbcTemplate.queryForList("SELECT name FROM person ORDER BY age", String.class);
+		assertEquals(count, names.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals("person" + (i + 1), names.get(i));
+		}
+	}
+
+	private static Connection lastGeneratedKeyOnly(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(SimpleJdbcInsertIntegrationTests.class.getClassLoader(),
+				new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+					Object result = invoke(connection, method, args);
+					if (result instanceof PreparedStatement) {
+						PreparedStatement ps = (PreparedStatement) result;
+						return Proxy.newProxyInstance(SimpleJdbcInsertIntegrationTests.class.getClassLoader(),
+								new Class<?>[] {PreparedStatement.class}, (psProxy, psMethod, psArgs) ->
+										(psMethod.getName().equals("getGeneratedKeys") ?
+												lastKey(ps.getGeneratedKeys()) : invoke(ps, psMethod, psArgs)));
+					}
+					return result;
+				});
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	private static ResultSet lastKey(ResultSet keys) throws SQLException {
+		SimpleResultSet lastKey = new SimpleResultSet();
+		lastKey.addColumn("ID", Types.INTEGER, 10, 0);
+		Object key = null;
+		while (keys.next()) {
+			key = keys.getObject(1);
+		}
+		keys.close();
+		lastKey.addRow(key);
+		return lastKey;
+	}
+
+	private void assertKeys(KeyHolder keyHolder, int count) {
+		List<Map<String, Object>> keyList = keyHolder.getKeyList();
+		assertEquals(count, keyList.size());
+		for (int i = 0; i < count; i++) {
+			Number key = (Number) keyList.get(i).values().iterator().next();
+			String name = this.jdbcTemplate.queryForObject(
+					"SELECT name FROM person WHERE id = ?", String.class, key.intValue());
+			assertEquals("person" + (i + 1), name);
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests for {@link ReadWriteRoutingDataSource}.
+ *
+ * @since 5.1.21
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+	private DataSource primary;
+
+	private Connection primaryConnection;
+
+	private DataSource replica1;
+
+	private Connection replica1Connection;
+
+	private DataSource replica2;
+
+	private Connection replica2Connection;
+
+
+	@Before
+	public void setup() throws Exception {
+		this.primary = mock(DataSource.class);
+		this.primaryConnection = mockConnection(this.primary);
+		this.replica1 = mock(DataSource.class);
+		this.replica1Connection = mockConnection(this.replica1);
+		this.replica2 = mock(DataSource.class);
+		this.replica2Connection = mockConnection(this.replica2);
+	}
+
+	@After
+	public void resetReadOnly() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+
+	@Test
+	public void primaryOutsideOfReadOnlyTransaction() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary, this.replica1);
+		assertSame(this.primaryConnection, targetConnection(dataSource));
+		verify(this.replica1, never()).getConnection();
+	}
+
+	@Test
+	public void replicaWithinReadOnlyTransaction() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary, this.replica1);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertSame(this.replica1Connection, targetConnection(dataSource));
+	}
+
+	@Test
+	public void primaryWithinReadOnlyTransactionWithoutReplicas() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertSame(this.primaryConnection, targetConnection(dataSource));
+	}
+
+	@Test
+	public void routingWithDataSourceTransactionManager() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary, this.replica1);
+		TransactionTemplate tt = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		tt.setReadOnly(true);
+		tt.execute(status -> {
+			Connection con = DataSourceUtils.getConnection(dataSource);
+			assertSame(this.replica1Connection, unwrap(con));
+			return null;
+		});
+		verify(this.replica1Connection).setReadOnly(true);
+		verify(this.replica1Connection).close();
+
+		tt.setReadOnly(false);
+		tt.execute(status -> {
+			Connection con = DataSourceUtils.getConnection(dataSource);
+			assertSame(this.primaryConnection, unwrap(con));
+			return null;
+		});
+		verify(this.primaryConnection, never()).setReadOnly(true);
+	}
+
+	@Test
+	public void failingReplicaTakenOutOfRotation() throws Exception {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down"));
+		ReadWriteRoutingDataSource dataSource =
+				new ReadWriteRoutingDataSource(this.primary, this.replica1, this.replica2);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		for (int i = 0; i < 10; i++) {
+			assertSame(this.replica2Connection, targetConnection(dataSource));
+		}
+		verify(this.replica1, atMost(1)).getConnection();
+		verify(this.primary, times(1)).getConnection();
+	}
+
+	@Test
+	public void failingReplicaRecoversAfterInterval() throws Exception {
+		given(this.replica1.getConnection()).willThrow(new SQLException("down")).willReturn(this.replica1Connection);
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary, this.replica1);
+		dataSource.setReplicaRecoveryInterval(0);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertSame(this.primaryConnection, targetConnection(dataSource));
+		assertSame(this.replica1Connection, targetConnection(dataSource));
+	}
+
+	@Test
+	public void noReplicaAvailableWithoutPrimaryFallback() throws Exception {
+		SQLException failure = new SQLException("down");
+		given(this.replica1.getConnection()).willThrow(failure);
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary, this.replica1);
+		dataSource.setPrimaryFallback(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		try {
+			targetConnection(dataSource);
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			assertSame(failure, ex);
+		}
+		verify(this.primary, times(1)).getConnection();
+	}
+
+	@Test
+	public void unwrapToPrimary() throws Exception {
+		ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(this.primary, this.replica1);
+		assertSame(dataSource, dataSource.unwrap(ReadWriteRoutingDataSource.class));
+		Closeable target = mock(Closeable.class);
+		given(this.primary.unwrap(Closeable.class)).willReturn(target);
+		given(this.primary.isWrapperFor(Closeable.class)).willReturn(true);
+		assertSame(target, dataSource.unwrap(Closeable.class));
+		assertTrue(dataSource.isWrapperFor(Closeable.class));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void primaryDataSourceRequired() {
+		new ReadWriteRoutingDataSource().afterPropertiesSet();
+	}
+
+
+	private static Connection mockConnection(DataSource dataSource) throws SQLException {
+		Connection con = mock(Connection.class);
+		given(con.createStatement()).willReturn(mock(Statement.class));
+		given(dataSource.getConnection()).willReturn(con);
+		return con;
+	}
+
+	private static Connection targetConnection(DataSource dataSource) throws SQLException {
+		try (Connection con = dataSource.getConnection()) {
+			con.createStatement();
+			return ((ConnectionProxy) con).getTargetConnection();
+		}
+	}
+
+	private static Connection unwrap(Connection con) {
+		try {
+			con.createStatement();
+		}
+		catch (SQLException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return ((ConnectionProxy) con).getTargetConnection();
+	}
+
+}
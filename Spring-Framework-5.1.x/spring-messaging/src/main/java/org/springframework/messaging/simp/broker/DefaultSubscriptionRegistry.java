@@ -17,8 +17,6 @@
 package org.springframework.messaging.simp.broker;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +39,7 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentLruCache;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.PathMatcher;
@@ -106,6 +105,7 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	 */
 	public void setCacheLimit(int cacheLimit) {
 		this.cacheLimit = cacheLimit;
+		this.destinationCache.setCacheLimit(cacheLimit);
 	}
 
 	/**
@@ -252,31 +252,24 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 	 */
 	private class DestinationCache {
 
-		/** Map from destination to {@code <sessionId, subscriptionId>} for fast look-ups. */
-		private final Map<String, LinkedMultiValueMap<String, String>> accessCache =
-				new ConcurrentHashMap<>(DEFAULT_CACHE_LIMIT);
-
-		/** Map from destination to {@code <sessionId, subscriptionId>} with locking. */
-		@SuppressWarnings("serial")
-		private final Map<String, LinkedMultiValueMap<String, String>> updateCache =
-				new LinkedHashMap<String, LinkedMultiValueMap<String, String>>(DEFAULT_CACHE_LIMIT, 0.75f, true) {
-					@Override
-					protected boolean removeEldestEntry(Map.Entry<String, LinkedMultiValueMap<String, String>> eldest) {
-						if (size() > getCacheLimit()) {
-							accessCache.remove(eldest.getKey());
-							return true;
-						}
-						else {
-							return false;
-						}
-					}
-				};
+		/**
+		 * Map from destination to {@code <sessionId, subscriptionId>} for fast look-ups,
+		 * with values that are never modified once cached but replaced on update.
+		 */
+		private volatile ConcurrentLruCache<String, LinkedMultiValueMap<String, String>> accessCache =
+				new ConcurrentLruCache<>(DEFAULT_CACHE_LIMIT);
 
 
+		public void setCacheLimit(int cacheLimit) {
+			synchronized (this) {
+				this.accessCache = new ConcurrentLruCache<>(cacheLimit);
+			}
+		}
+
 		public LinkedMultiValueMap<String, String> getSubscriptions(String destination, Message<?> message) {
-			LinkedMultiValueMap<String, String> result = this.accessCache.get(destination);
+			LinkedMultiValueMap<String, String> result = this.accessCache.getIfPresent(destination);
 			if (result == null) {
-				synchronized (this.updateCache) {
+				synchronized (this) {
 					result = new LinkedMultiValueMap<>();
 					for (SessionSubscriptionInfo info : subscriptionRegistry.getAllSubscriptions()) {
 						for (String destinationPattern : info.getDestinations()) {
@@ -288,7 +281,6 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 						}
 					}
 					if (!result.isEmpty()) {
-						this.updateCache.put(destination, result.deepCopy());
 						this.accessCache.put(destination, result);
 					}
 				}
@@ -297,14 +289,16 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		}
 
 		public void updateAfterNewSubscription(String destination, String sessionId, String subsId) {
-			synchronized (this.updateCache) {
-				this.updateCache.forEach((cachedDestination, subscriptions) -> {
+			synchronized (this) {
+				ConcurrentLruCache<String, LinkedMultiValueMap<String, String>> accessCache = this.accessCache;
+				accessCache.forEach((cachedDestination, subscriptions) -> {
 					if (getPathMatcher().match(destination, cachedDestination)) {
 						// Subscription id's may also be populated via getSubscriptions()
 						List<String> subsForSession = subscriptions.get(sessionId);
 						if (subsForSession == null || !subsForSession.contains(subsId)) {
-							subscriptions.add(sessionId, subsId);
-							this.accessCache.put(cachedDestination, subscriptions.deepCopy());
+							LinkedMultiValueMap<String, String> updated = subscriptions.deepCopy();
+							updated.add(sessionId, subsId);
+							accessCache.put(cachedDestination, updated);
 						}
 					}
 				});
@@ -312,47 +306,43 @@ public class DefaultSubscriptionRegistry extends AbstractSubscriptionRegistry {
 		}
 
 		public void updateAfterRemovedSubscription(String sessionId, String subsId) {
-			synchronized (this.updateCache) {
-				Set<String> destinationsToRemove = new HashSet<>();
-				this.updateCache.forEach((destination, sessionMap) -> {
+			synchronized (this) {
+				ConcurrentLruCache<String, LinkedMultiValueMap<String, String>> accessCache = this.accessCache;
+				accessCache.forEach((destination, sessionMap) -> {
 					List<String> subscriptions = sessionMap.get(sessionId);
-					if (subscriptions != null) {
-						subscriptions.remove(subsId);
-						if (subscriptions.isEmpty()) {
-							sessionMap.remove(sessionId);
+					if (subscriptions != null && subscriptions.contains(subsId)) {
+						LinkedMultiValueMap<String, String> updated = sessionMap.deepCopy();
+						List<String> updatedSubscriptions = updated.get(sessionId);
+						updatedSubscriptions.remove(subsId);
+						if (updatedSubscriptions.isEmpty()) {
+							updated.remove(sessionId);
 						}
-						if (sessionMap.isEmpty()) {
-							destinationsToRemove.add(destination);
+						if (updated.isEmpty()) {
+							accessCache.remove(destination);
 						}
 						else {
-							this.accessCache.put(destination, sessionMap.deepCopy());
+							accessCache.put(destination, updated);
 						}
 					}
 				});
-				for (String destination : destinationsToRemove) {
-					this.updateCache.remove(destination);
-					this.accessCache.remove(destination);
-				}
 			}
 		}
 
 		public void updateAfterRemovedSession(SessionSubscriptionInfo info) {
-			synchronized (this.updateCache) {
-				Set<String> destinationsToRemove = new HashSet<>();
-				this.updateCache.forEach((destination, sessionMap) -> {
-					if (sessionMap.remove(info.getSessionId()) != null) {
-						if (sessionMap.isEmpty()) {
-							destinationsToRemove.add(destination);
+			synchronized (this) {
+				ConcurrentLruCache<String, LinkedMultiValueMap<String, String>> accessCache = this.accessCache;
+				accessCache.forEach((destination, sessionMap) -> {
+					if (sessionMap.containsKey(info.getSessionId())) {
+						LinkedMultiValueMap<String, String> updated = sessionMap.deepCopy();
+						updated.remove(info.getSessionId());
+						if (updated.isEmpty()) {
+							accessCache.remove(destination);
 						}
 						else {
-							this.accessCache.put(destination, sessionMap.deepCopy());
+							accessCache.put(destination, updated);
 						}
 					}
 				});
-				for (String destination : destinationsToRemove) {
-					this.updateCache.remove(destination);
-					this.accessCache.remove(destination);
-				}
 			}
 		}
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.interceptor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Benchmarks for proxied service calls through a {@link TransactionInterceptor},
+ * comparing non-transactional methods, {@code PROPAGATION_SUPPORTS} outside of
+ * a transaction and regular {@code PROPAGATION_REQUIRED} demarcation.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-tx:jmh -PjmhInclude=TransactionInterceptorBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class TransactionInterceptorBenchmark {
+
+	@Benchmark
+	public String nonTransactional(ServiceData data) {
+		return data.service.find(data.id);
+	}
+
+	@Benchmark
+	public String supports(ServiceData data) {
+		return data.service.supports(data.id);
+	}
+
+	@Benchmark
+	public String required(ServiceData data) {
+		return data.service.required(data.id);
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class ServiceData {
+
+		@Param({"SYNCHRONIZATION_ALWAYS", "SYNCHRONIZATION_ON_ACTUAL_TRANSACTION"})
+		public String synchronization;
+
+		public String id = "42";
+
+		public Service service;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			NoOpTransactionManager tm = new NoOpTransactionManager();
+			tm.setTransactionSynchronizationName(this.synchronization);
+
+			NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource();
+			tas.addTransactionalMethod("supports", new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_SUPPORTS));
+			tas.addTransactionalMethod("required", new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_REQUIRED));
+
+			ProxyFactory pf = new ProxyFactory(new DefaultService());
+			pf.addInterface(Service.class);
+			pf.addAdvice(new TransactionInterceptor(tm, tas));
+			this.service = (Service) pf.getProxy();
+		}
+	}
+
+
+	public interface Service {
+
+		String find(String id);
+
+		String supports(String id);
+
+		String required(String id);
+	}
+
+
+	public static class DefaultService implements Service {
+
+		@Override
+		public String find(String id) {
+			return id;
+		}
+
+		@Override
+		public String supports(String id) {
+			return id;
+		}
+
+		@Override
+		public String required(String id) {
+			return id;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+
+}
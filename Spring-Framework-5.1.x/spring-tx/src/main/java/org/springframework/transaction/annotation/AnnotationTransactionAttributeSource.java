@@ -70,6 +70,13 @@ public class AnnotationTransactionAttributeSource extends AbstractFallbackTransa
 
 	private final Set<TransactionAnnotationParser> annotationParsers;
 
+	/**
+	 * Whether the attribute lookup is left to the annotation parsers, allowing
+	 * for a quick candidate check through them; {@code false} if a subclass
+	 * customizes the lookup.
+	 */
+	private final boolean parserBasedLookup = !isLookupCustomized(getClass());
+
 
 	/**
 	 * Create a default AnnotationTransactionAttributeSource, supporting
@@ -172,6 +179,25 @@ public class AnnotationTransactionAttributeSource extends AbstractFallbackTransa
 		return null;
 	}
 
+	/**
+	 * Delegates to the configured
+	 * {@link TransactionAnnotationParser TransactionAnnotationParsers},
+	 * unless a subclass customizes the transaction attribute lookup.
+	 * @see TransactionAnnotationParser#isCandidateElement
+	 */
+	@Override
+	protected boolean isCandidateElement(AnnotatedElement element) {
+		if (!this.parserBasedLookup) {
+			return true;
+		}
+		for (TransactionAnnotationParser annotationParser : this.annotationParsers) {
+			if (annotationParser.isCandidateElement(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * By default, only public methods can be made transactional.
 	 */
@@ -199,4 +225,24 @@ public class AnnotationTransactionAttributeSource extends AbstractFallbackTransa
 		return this.annotationParsers.hashCode();
 	}
 
+
+	/**
+	 * Check whether the given subclass overrides any of the attribute lookup methods,
+	 * e.g. in order to support custom annotations.
+	 */
+	private static boolean isLookupCustomized(Class<?> clazz) {
+		Class<?> current = clazz;
+		while (current != null && current != AnnotationTransactionAttributeSource.class) {
+			for (Method method : current.getDeclaredMethods()) {
+				String name = method.getName();
+				if (name.equals("determineTransactionAttribute") || name.equals("findTransactionAttribute") ||
+						name.equals("computeTransactionAttribute")) {
+					return true;
+				}
+			}
+			current = current.getSuperclass();
+		}
+		return false;
+	}
+
 }
@@ -36,6 +36,11 @@ import org.springframework.transaction.interceptor.TransactionAttribute;
 @SuppressWarnings("serial")
 public class Ejb3TransactionAnnotationParser implements TransactionAnnotationParser, Serializable {
 
+	@Override
+	public boolean isCandidateElement(AnnotatedElement element) {
+		return element.isAnnotationPresent(javax.ejb.TransactionAttribute.class);
+	}
+
 	@Override
 	@Nullable
 	public TransactionAttribute parseTransactionAnnotation(AnnotatedElement element) {
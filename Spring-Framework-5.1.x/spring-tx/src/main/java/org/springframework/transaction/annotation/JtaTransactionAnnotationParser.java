@@ -39,6 +39,11 @@ import org.springframework.transaction.interceptor.TransactionAttribute;
 @SuppressWarnings("serial")
 public class JtaTransactionAnnotationParser implements TransactionAnnotationParser, Serializable {
 
+	@Override
+	public boolean isCandidateElement(AnnotatedElement element) {
+		return AnnotatedElementUtils.isAnnotated(element, javax.transaction.Transactional.class);
+	}
+
 	@Override
 	@Nullable
 	public TransactionAttribute parseTransactionAnnotation(AnnotatedElement element) {
@@ -39,6 +39,11 @@ import java.util.List;
 @SuppressWarnings("serial")
 public class SpringTransactionAnnotationParser implements TransactionAnnotationParser, Serializable {
 
+	@Override
+	public boolean isCandidateElement(AnnotatedElement element) {
+		return AnnotatedElementUtils.isAnnotated(element, Transactional.class);
+	}
+
 	@Override
 	@Nullable
 	public TransactionAttribute parseTransactionAnnotation(AnnotatedElement element) {
@@ -37,6 +37,22 @@ import org.springframework.transaction.interceptor.TransactionAttribute;
  */
 public interface TransactionAnnotationParser {
 
+	/**
+	 * Determine whether the given method or class declares an annotation of a type
+	 * understood by this parser, either directly or as a meta-annotation.
+	 * <p>Serves as a quick pre-check for the class scan in
+	 * {@link AnnotationTransactionAttributeSource}: implementations may err on
+	 * the side of {@code true}, but must not return {@code false} for an element
+	 * that {@link #parseTransactionAnnotation} would derive an attribute from.
+	 * The default implementation returns {@code true}.
+	 * @param element the method or class to check
+	 * @return {@code false} if the element is known to carry no such annotation
+	 * @since 5.1.21
+	 */
+	default boolean isCandidateElement(AnnotatedElement element) {
+		return true;
+	}
+
 	/**
 	 * Parse the transaction attribute for the given method or class,
 	 * based on an annotation type understood by this parser.
@@ -23,9 +23,14 @@ import org.springframework.core.MethodClassKey;
 import org.springframework.lang.Nullable;
 import org.springframework.util.ClassUtils;
 
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -44,6 +49,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * (which is very unlikely), caching could be made configurable. Caching is
  * desirable because of the cost of evaluating rollback rules.
  *
+ * <p>In addition, each class gets scanned once for the elements in its hierarchy
+ * that may carry transaction attributes, with the outcome kept in a per-class
+ * table: methods without candidate declarations skip the attribute lookup, and
+ * classes without any candidates are reported as such through
+ * {@link #isCandidateClass}, excluding them from transactional proxying upfront.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @since 1.1
@@ -77,6 +88,23 @@ public abstract class AbstractFallbackTransactionAttributeSource implements Tran
 	 */
 	private final Map<Object, TransactionAttribute> attributeCache = new ConcurrentHashMap<>(1024);
 
+	/**
+	 * Cache of per-class candidate metadata, keyed by class.
+	 */
+	private final Map<Class<?>, ClassTransactionMetadata> classMetadataCache = new ConcurrentHashMap<>(256);
+
+
+	/**
+	 * Determine whether the given class or any of its superclasses and interfaces
+	 * declare elements that may carry transaction attributes.
+	 * <p>The outcome is based on a single scan per class, as determined through
+	 * {@link #isCandidateElement}, and cached along with the candidate methods.
+	 * @see #isCandidateElement
+	 */
+	@Override
+	public boolean isCandidateClass(Class<?> targetClass) {
+		return getClassMetadata(targetClass).isCandidate();
+	}
 
 	/**
 	 * Determine the transaction attribute for this method invocation.
@@ -170,43 +198,121 @@ public abstract class AbstractFallbackTransactionAttributeSource implements Tran
 		// method代表接口中的方法
 		// specificMethod代表实现类中的方法
 		Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+		ClassTransactionMetadata metadata = getClassMetadata(specificMethod.getDeclaringClass());
+		TransactionAttribute txAttr;
 
 		// First try is the method in the target class.
 		// 去目标对象的方法上找事务注解
-		TransactionAttribute txAttr = findTransactionAttribute(specificMethod);
-		if (txAttr != null) {
-			return txAttr;
+		if (metadata.isCandidateMethod(specificMethod)) {
+			txAttr = findTransactionAttribute(specificMethod);
+			if (txAttr != null) {
+				return txAttr;
+			}
 		}
 
 		// Second try is the transaction attribute on the target class.
 
 		// 去方法所在类上面找事务注解
-		txAttr = findTransactionAttribute(specificMethod.getDeclaringClass());
-		if (txAttr != null && ClassUtils.isUserLevelMethod(method)) {
-			return txAttr;
+		if (metadata.hasClassAttribute() && ClassUtils.isUserLevelMethod(method)) {
+			txAttr = findTransactionAttribute(specificMethod.getDeclaringClass());
+			if (txAttr != null) {
+				return txAttr;
+			}
 		}
 
 		// 如果存在接口，则去接口中查找
 		if (specificMethod != method) {
+			metadata = getClassMetadata(method.getDeclaringClass());
+
 			// Fallback is to look at the original method.
 
 			// 去接口的方法找事务注解
-			txAttr = findTransactionAttribute(method);
-			if (txAttr != null) {
-				return txAttr;
+			if (metadata.isCandidateMethod(method)) {
+				txAttr = findTransactionAttribute(method);
+				if (txAttr != null) {
+					return txAttr;
+				}
 			}
 
 			// Last fallback is the class of the original method.
 			// 去接口中的类上面找事务注解
-			txAttr = findTransactionAttribute(method.getDeclaringClass());
-			if (txAttr != null && ClassUtils.isUserLevelMethod(method)) {
-				return txAttr;
+			if (metadata.hasClassAttribute() && ClassUtils.isUserLevelMethod(method)) {
+				txAttr = findTransactionAttribute(method.getDeclaringClass());
+				if (txAttr != null) {
+					return txAttr;
+				}
 			}
 		}
 
 		return null;
 	}
 
+	/**
+	 * Return the candidate metadata for the given class, scanning it on first access.
+	 */
+	private ClassTransactionMetadata getClassMetadata(Class<?> clazz) {
+		ClassTransactionMetadata metadata = this.classMetadataCache.get(clazz);
+		if (metadata == null) {
+			metadata = computeClassMetadata(clazz);
+			ClassTransactionMetadata existing = this.classMetadataCache.putIfAbsent(clazz, metadata);
+			if (existing != null) {
+				metadata = existing;
+			}
+		}
+		return metadata;
+	}
+
+	/**
+	 * Scan the given class along with its superclasses and interfaces for
+	 * candidate elements, resolving the class-level attribute once if any.
+	 */
+	private ClassTransactionMetadata computeClassMetadata(Class<?> clazz) {
+		Set<Class<?>> hierarchy = new LinkedHashSet<>();
+		collectTypeHierarchy(clazz, hierarchy);
+		boolean classCandidate = false;
+		Set<String> methodNames = new HashSet<>();
+		for (Class<?> type : hierarchy) {
+			if (!classCandidate && isCandidateElement(type)) {
+				classCandidate = true;
+			}
+			for (Method method : type.getDeclaredMethods()) {
+				if (!methodNames.contains(method.getName()) && isCandidateElement(method)) {
+					methodNames.add(method.getName());
+				}
+			}
+		}
+		boolean classAttribute = (classCandidate && findTransactionAttribute(clazz) != null);
+		if (!classAttribute && methodNames.isEmpty()) {
+			return ClassTransactionMetadata.NONE;
+		}
+		return new ClassTransactionMetadata(classAttribute, methodNames);
+	}
+
+	private static void collectTypeHierarchy(@Nullable Class<?> type, Set<Class<?>> hierarchy) {
+		if (type == null || type == Object.class || !hierarchy.add(type)) {
+			return;
+		}
+		collectTypeHierarchy(type.getSuperclass(), hierarchy);
+		for (Class<?> ifc : type.getInterfaces()) {
+			collectTypeHierarchy(ifc, hierarchy);
+		}
+	}
+
+
+	/**
+	 * Determine whether the given class or method may carry a transaction attribute,
+	 * as a quick pre-check before the actual {@link #findTransactionAttribute} lookup.
+	 * <p>Called once per element during the per-class scan; may err on the side of
+	 * {@code true} but must never return {@code false} for an element that the
+	 * attribute lookup would detect a transaction attribute for. The default
+	 * implementation returns {@code true}, checking every element.
+	 * @param element the class or method to check
+	 * @return {@code false} if the element is known to carry no transaction attribute
+	 * @since 5.1.21
+	 */
+	protected boolean isCandidateElement(AnnotatedElement element) {
+		return true;
+	}
 
 	/**
 	 * Subclasses need to implement this to return the transaction attribute for the
@@ -234,4 +340,36 @@ public abstract class AbstractFallbackTransactionAttributeSource implements Tran
 		return false;
 	}
 
+
+	/**
+	 * Candidate metadata for a class and its hierarchy: whether a class-level
+	 * attribute applies, and the names of methods that may declare one.
+	 */
+	private static final class ClassTransactionMetadata {
+
+		static final ClassTransactionMetadata NONE =
+				new ClassTransactionMetadata(false, Collections.emptySet());
+
+		private final boolean classAttribute;
+
+		private final Set<String> candidateMethodNames;
+
+		ClassTransactionMetadata(boolean classAttribute, Set<String> candidateMethodNames) {
+			this.classAttribute = classAttribute;
+			this.candidateMethodNames = candidateMethodNames;
+		}
+
+		boolean isCandidate() {
+			return (this.classAttribute || !this.candidateMethodNames.isEmpty());
+		}
+
+		boolean hasClassAttribute() {
+			return this.classAttribute;
+		}
+
+		boolean isCandidateMethod(Method method) {
+			return this.candidateMethodNames.contains(method.getName());
+		}
+	}
+
 }
@@ -18,23 +18,37 @@ package org.springframework.transaction.interceptor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.core.NamedThreadLocal;
+import org.springframework.core.ReactiveAdapter;
+import org.springframework.core.ReactiveAdapterRegistry;
 import org.springframework.lang.Nullable;
 import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.ReactiveTransaction;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.TransactionContextManager;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
 import org.springframework.transaction.support.CallbackPreferringPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentMap;
 
@@ -55,6 +69,12 @@ import java.util.concurrent.ConcurrentMap;
  * implementation will perform the actual transaction management, and a
  * {@code TransactionAttributeSource} is used for determining transaction definitions.
  *
+ * <p>Methods returning a reactive type such as {@code Mono} or {@code Flux} are
+ * managed through a {@link ReactiveTransactionManager} instead, if one is available:
+ * the transaction then spans the subscription of the returned publisher rather
+ * than the method invocation, with transaction state held in the Reactor
+ * subscriber context instead of the current thread.
+ *
  * <p>A transaction aspect is serializable if its {@code PlatformTransactionManager}
  * and {@code TransactionAttributeSource} are serializable.
  *
@@ -64,6 +84,7 @@ import java.util.concurrent.ConcurrentMap;
  * @author Sam Brannen
  * @since 1.1
  * @see #setTransactionManager
+ * @see #setReactiveTransactionManager
  * @see #setTransactionAttributes
  * @see #setTransactionAttributeSource
  */
@@ -78,6 +99,12 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	private static final Object DEFAULT_TRANSACTION_MANAGER_KEY = new Object();
 
+	/**
+	 * Reactive transaction support requires Reactor Core on the classpath.
+	 */
+	private static final boolean reactorPresent = ClassUtils.isPresent(
+			"reactor.core.publisher.Flux", TransactionAspectSupport.class.getClassLoader());
+
 	/**
 	 * Holder to support the {@code currentTransactionStatus()} method,
 	 * and to support communication between different cooperating advices
@@ -143,6 +170,20 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	private final ConcurrentMap<Object, PlatformTransactionManager> transactionManagerCache =
 			new ConcurrentReferenceHashMap<>(4);
 
+	@Nullable
+	private ReactiveTransactionManager reactiveTransactionManager;
+
+	@Nullable
+	private final ReactiveAdapterRegistry reactiveAdapterRegistry;
+
+	private final ConcurrentMap<Object, Optional<ReactiveTransactionManager>> reactiveTransactionManagerCache =
+			new ConcurrentReferenceHashMap<>(4);
+
+
+	protected TransactionAspectSupport() {
+		this.reactiveAdapterRegistry = (reactorPresent ? ReactiveAdapterRegistry.getSharedInstance() : null);
+	}
+
 
 	/**
 	 * Specify the name of the default transaction manager bean.
@@ -178,6 +219,32 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		return this.transactionManager;
 	}
 
+	/**
+	 * Specify the <em>default</em> reactive transaction manager to use to drive
+	 * transactions for methods with a reactive return type such as {@code Mono}.
+	 * <p>If not specified, a unique {@link ReactiveTransactionManager} bean will
+	 * be used, if available, unless a {@linkplain #setTransactionManager default
+	 * transaction manager} has been specified. Qualified transaction managers
+	 * are used for reactive methods if they implement {@link ReactiveTransactionManager}.
+	 * <p>Reactive methods without a reactive transaction manager are handled
+	 * like any other method, i.e. with a transaction around the method invocation
+	 * that returns the reactive type.
+	 * @since 5.1.21
+	 * @see #setTransactionManager
+	 */
+	public void setReactiveTransactionManager(@Nullable ReactiveTransactionManager reactiveTransactionManager) {
+		this.reactiveTransactionManager = reactiveTransactionManager;
+	}
+
+	/**
+	 * Return the default reactive transaction manager, or {@code null} if unknown.
+	 * @since 5.1.21
+	 */
+	@Nullable
+	public ReactiveTransactionManager getReactiveTransactionManager() {
+		return this.reactiveTransactionManager;
+	}
+
 	/**
 	 * Set properties with method names as keys and transaction attribute
 	 * descriptors (parsed via TransactionAttributeEditor) as values:
@@ -250,7 +317,7 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 */
 	@Override
 	public void afterPropertiesSet() {
-		if (getTransactionManager() == null && this.beanFactory == null) {
+		if (getTransactionManager() == null && getReactiveTransactionManager() == null && this.beanFactory == null) {
 			throw new IllegalStateException(
 					"Set the 'transactionManager' property or make sure to run within a BeanFactory " +
 					"containing a PlatformTransactionManager bean!");
@@ -267,6 +334,10 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	 * General delegate for around-advice-based subclasses, delegating to several other template
 	 * methods on this class. Able to handle {@link CallbackPreferringPlatformTransactionManager}
 	 * as well as regular {@link PlatformTransactionManager} implementations.
+	 * <p>Invocations that neither start nor participate in a transaction - e.g. for
+	 * a non-transactional method or {@code PROPAGATION_SUPPORTS} outside of a
+	 * transaction - proceed directly, without binding a {@link TransactionInfo}
+	 * to the thread, unless within the scope of another aspect-managed transaction.
 	 * @param method the Method being invoked
 	 * @param targetClass the target class that we're invoking the method on
 	 * @param invocation the callback to use for proceeding with the target invocation
@@ -283,12 +354,44 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		// 获取事务对应的属性
 		final TransactionAttribute txAttr = (tas != null ? tas.getTransactionAttribute(method, targetClass) : null);
 
+		// Fast path for a non-transactional method: nothing to demarcate, and no
+		// enclosing TransactionInfo to shield from the target invocation.
+		if (txAttr == null && transactionInfoHolder.get() == null) {
+			return invocation.proceedWithInvocation();
+		}
+
+		if (this.reactiveAdapterRegistry != null && txAttr != null) {
+			ReactiveAdapter adapter = this.reactiveAdapterRegistry.getAdapter(method.getReturnType());
+			if (adapter != null) {
+				ReactiveTransactionManager rtm = determineReactiveTransactionManager(txAttr);
+				if (rtm != null) {
+					return new ReactiveTransactionSupport(adapter).invokeWithinTransaction(
+							method, targetClass, invocation, txAttr, rtm);
+				}
+			}
+		}
+
 		// 获取事务管理器
 		final PlatformTransactionManager tm = determineTransactionManager(txAttr);
 
 		// 组装方法的唯一标识,例如com.wsh.transaction.UserServiceImpl.insert
 		final String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
 
+		if (txAttr != null && canSkipTransaction(tm, txAttr)) {
+			// Expose the same empty TransactionStatus that getTransaction would have
+			// returned, but without going through getTransaction/commit.
+			TransactionInfo txInfo = new TransactionInfo(tm, txAttr, joinpointIdentification);
+			txInfo.newTransactionStatus(new DefaultTransactionStatus(
+					null, true, false, txAttr.isReadOnly(), logger.isDebugEnabled(), null));
+			txInfo.bindToThread();
+			try {
+				return invocation.proceedWithInvocation();
+			}
+			finally {
+				cleanupTransactionInfo(txInfo);
+			}
+		}
+
 		// 声明式事务的处理
 		if (txAttr == null || !(tm instanceof CallbackPreferringPlatformTransactionManager)) {
 			// Standard transaction demarcation with getTransaction and commit/rollback calls.
@@ -380,11 +483,27 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 	}
 
+	/**
+	 * Determine whether the given transaction manager would neither start nor
+	 * participate in a transaction for the given attribute, outside of the
+	 * scope of any aspect-managed transaction. In that case, the invocation is
+	 * still exposed with an empty {@link DefaultTransactionStatus} for
+	 * {@link #currentTransactionStatus()}, just without commit processing.
+	 * @see AbstractPlatformTransactionManager#canSkipTransaction
+	 */
+	private boolean canSkipTransaction(@Nullable PlatformTransactionManager tm, TransactionAttribute txAttr) {
+		return (tm instanceof AbstractPlatformTransactionManager &&
+				!(tm instanceof CallbackPreferringPlatformTransactionManager) &&
+				transactionInfoHolder.get() == null &&
+				((AbstractPlatformTransactionManager) tm).canSkipTransaction(txAttr));
+	}
+
 	/**
 	 * Clear the transaction manager cache.
 	 */
 	protected void clearTransactionManagerCache() {
 		this.transactionManagerCache.clear();
+		this.reactiveTransactionManagerCache.clear();
 		this.beanFactory = null;
 	}
 
@@ -422,6 +541,56 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 		}
 	}
 
+	/**
+	 * Determine the specific reactive transaction manager to use for the given
+	 * transaction on a method with a reactive return type.
+	 * @return the reactive transaction manager, or {@code null} to manage the
+	 * method like any other method through a {@link PlatformTransactionManager}
+	 * @since 5.1.21
+	 * @see #setReactiveTransactionManager
+	 */
+	@Nullable
+	protected ReactiveTransactionManager determineReactiveTransactionManager(TransactionAttribute txAttr) {
+		if (this.beanFactory == null) {
+			return getReactiveTransactionManager();
+		}
+
+		String qualifier = txAttr.getQualifier();
+		if (StringUtils.hasText(qualifier)) {
+			return determineQualifiedReactiveTransactionManager(this.beanFactory, qualifier);
+		}
+		else if (StringUtils.hasText(this.transactionManagerBeanName)) {
+			return determineQualifiedReactiveTransactionManager(this.beanFactory, this.transactionManagerBeanName);
+		}
+		else {
+			ReactiveTransactionManager defaultTransactionManager = getReactiveTransactionManager();
+			if (defaultTransactionManager == null && getTransactionManager() == null) {
+				BeanFactory beanFactory = this.beanFactory;
+				defaultTransactionManager = this.reactiveTransactionManagerCache.computeIfAbsent(
+						DEFAULT_TRANSACTION_MANAGER_KEY, key -> Optional.ofNullable(
+								beanFactory.getBeanProvider(ReactiveTransactionManager.class).getIfUnique()))
+						.orElse(null);
+			}
+			return defaultTransactionManager;
+		}
+	}
+
+	@Nullable
+	private ReactiveTransactionManager determineQualifiedReactiveTransactionManager(
+			BeanFactory beanFactory, String qualifier) {
+
+		return this.reactiveTransactionManagerCache.computeIfAbsent(qualifier, key -> {
+			try {
+				return Optional.of(BeanFactoryAnnotationUtils.qualifiedBeanOfType(
+						beanFactory, ReactiveTransactionManager.class, qualifier));
+			}
+			catch (BeansException ex) {
+				// Not a reactive transaction manager: to be resolved as PlatformTransactionManager
+				return Optional.empty();
+			}
+		}).orElse(null);
+	}
+
 	private PlatformTransactionManager determineQualifiedTransactionManager(BeanFactory beanFactory, String qualifier) {
 		PlatformTransactionManager txManager = this.transactionManagerCache.get(qualifier);
 		if (txManager == null) {
@@ -704,6 +873,173 @@ public abstract class TransactionAspectSupport implements BeanFactoryAware, Init
 	}
 
 
+	/**
+	 * Opaque object used to hold transaction information for reactive methods.
+	 */
+	private static final class ReactiveTransactionInfo {
+
+		private final ReactiveTransactionManager transactionManager;
+
+		private final TransactionAttribute transactionAttribute;
+
+		private final String joinpointIdentification;
+
+		private final ReactiveTransaction reactiveTransaction;
+
+		ReactiveTransactionInfo(ReactiveTransactionManager transactionManager,
+				TransactionAttribute transactionAttribute, String joinpointIdentification,
+				ReactiveTransaction reactiveTransaction) {
+
+			this.transactionManager = transactionManager;
+			this.transactionAttribute = transactionAttribute;
+			this.joinpointIdentification = joinpointIdentification;
+			this.reactiveTransaction = reactiveTransaction;
+		}
+
+		@Override
+		public String toString() {
+			return this.transactionAttribute.toString();
+		}
+	}
+
+
+	/**
+	 * Delegate for Reactor-based management of transactional methods with a
+	 * reactive return type, spanning the transaction across the subscription
+	 * of the returned publisher.
+	 */
+	private class ReactiveTransactionSupport {
+
+		private final ReactiveAdapter adapter;
+
+		ReactiveTransactionSupport(ReactiveAdapter adapter) {
+			this.adapter = adapter;
+		}
+
+		Object invokeWithinTransaction(Method method, @Nullable Class<?> targetClass,
+				InvocationCallback invocation, TransactionAttribute txAttr, ReactiveTransactionManager rtm) {
+
+			String joinpointIdentification = methodIdentification(method, targetClass, txAttr);
+
+			Mono<ReactiveTransactionInfo> transaction = TransactionContextManager.currentContext()
+					.flatMap(context -> createTransactionIfNecessary(rtm, txAttr, joinpointIdentification));
+
+			if (this.adapter.isMultiValue()) {
+				Flux<?> result = transaction.flatMapMany(txInfo -> Mono.subscriberContext().flatMapMany(ctx ->
+						Flux.defer(() -> proceedWithInvocation(invocation))
+								.onErrorResume(ex -> completeTransactionAfterThrowing(txInfo, ex).then(Mono.error(ex)))
+								.concatWith(commitTransactionAfterReturning(txInfo).then(Mono.empty()))
+								.doOnCancel(() -> rollbackTransactionOnCancel(txInfo, ctx))))
+						.subscriberContext(TransactionContextManager.getOrCreateContext())
+						.subscriberContext(TransactionContextManager.getOrCreateContextHolder());
+				return this.adapter.fromPublisher(result);
+			}
+
+			Mono<?> result = transaction.flatMap(txInfo -> Mono.subscriberContext().flatMap(ctx ->
+					Mono.defer(() -> Mono.from(proceedWithInvocation(invocation)))
+							.onErrorResume(ex -> completeTransactionAfterThrowing(txInfo, ex).then(Mono.error(ex)))
+							// Commit before emitting the value, propagating commit failures
+							.flatMap(value -> commitTransactionAfterReturning(txInfo).thenReturn(value))
+							.switchIfEmpty(commitTransactionAfterReturning(txInfo).then(Mono.empty()))
+							.doOnCancel(() -> rollbackTransactionOnCancel(txInfo, ctx))))
+					.subscriberContext(TransactionContextManager.getOrCreateContext())
+					.subscriberContext(TransactionContextManager.getOrCreateContextHolder());
+			return this.adapter.fromPublisher(result);
+		}
+
+		/**
+		 * Invoke the target method, adapting its return value to a Publisher.
+		 */
+		private Publisher<?> proceedWithInvocation(InvocationCallback invocation) {
+			Object retVal;
+			try {
+				retVal = invocation.proceedWithInvocation();
+			}
+			catch (Throwable ex) {
+				return Mono.error(ex);
+			}
+			if (retVal == null) {
+				return Mono.error(new IllegalStateException(
+						"Transactional method with reactive return type returned null"));
+			}
+			return this.adapter.toPublisher(retVal);
+		}
+
+		@SuppressWarnings("serial")
+		private Mono<ReactiveTransactionInfo> createTransactionIfNecessary(ReactiveTransactionManager tm,
+				TransactionAttribute txAttr, String joinpointIdentification) {
+
+			// If no name specified, apply method identification as transaction name.
+			TransactionAttribute attrToUse = txAttr;
+			if (attrToUse.getName() == null) {
+				attrToUse = new DelegatingTransactionAttribute(txAttr) {
+					@Override
+					public String getName() {
+						return joinpointIdentification;
+					}
+				};
+			}
+			TransactionAttribute definition = attrToUse;
+			if (logger.isTraceEnabled()) {
+				logger.trace("Getting transaction for [" + joinpointIdentification + "]");
+			}
+			return tm.getReactiveTransaction(definition).map(transaction ->
+					new ReactiveTransactionInfo(tm, definition, joinpointIdentification, transaction));
+		}
+
+		private Mono<Void> commitTransactionAfterReturning(ReactiveTransactionInfo txInfo) {
+			return Mono.defer(() -> {
+				if (logger.isTraceEnabled()) {
+					logger.trace("Completing transaction for [" + txInfo.joinpointIdentification + "]");
+				}
+				return txInfo.transactionManager.commit(txInfo.reactiveTransaction);
+			});
+		}
+
+		private void rollbackTransactionOnCancel(ReactiveTransactionInfo txInfo, Context subscriberContext) {
+			if (txInfo.reactiveTransaction.isCompleted()) {
+				return;
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Rolling back transaction for [" + txInfo.joinpointIdentification + "] after cancellation");
+			}
+			txInfo.transactionManager.rollback(txInfo.reactiveTransaction).subscriberContext(subscriberContext)
+					.subscribe(null, ex -> logger.error("Failed to roll back transaction after cancellation", ex));
+		}
+
+		private Mono<Void> completeTransactionAfterThrowing(ReactiveTransactionInfo txInfo, Throwable ex) {
+			if (txInfo.reactiveTransaction.isCompleted()) {
+				// The commit attempt itself failed: transaction completed already.
+				return Mono.empty();
+			}
+			if (logger.isTraceEnabled()) {
+				logger.trace("Completing transaction for [" + txInfo.joinpointIdentification +
+						"] after exception: " + ex);
+			}
+			if (txInfo.transactionAttribute.rollbackOn(ex)) {
+				return txInfo.transactionManager.rollback(txInfo.reactiveTransaction).onErrorMap(ex2 -> {
+					logger.error("Application exception overridden by rollback exception", ex);
+					if (ex2 instanceof TransactionSystemException) {
+						((TransactionSystemException) ex2).initApplicationException(ex);
+					}
+					return ex2;
+				});
+			}
+			else {
+				// We don't roll back on this exception.
+				// Will still roll back if ReactiveTransaction.isRollbackOnly() is true.
+				return txInfo.transactionManager.commit(txInfo.reactiveTransaction).onErrorMap(ex2 -> {
+					logger.error("Application exception overridden by commit exception", ex);
+					if (ex2 instanceof TransactionSystemException) {
+						((TransactionSystemException) ex2).initApplicationException(ex);
+					}
+					return ex2;
+				});
+			}
+		}
+	}
+
+
 	/**
 	 * Simple callback interface for proceeding with the target invocation.
 	 * Concrete interceptors/aspects adapt this to their invocation mechanism.
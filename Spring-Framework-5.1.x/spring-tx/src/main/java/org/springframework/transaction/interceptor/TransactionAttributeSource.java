@@ -35,6 +35,24 @@ import org.springframework.lang.Nullable;
  */
 public interface TransactionAttributeSource {
 
+	/**
+	 * Determine whether the given class is a candidate for transaction attributes
+	 * in the metadata format of this {@code TransactionAttributeSource}.
+	 * <p>If this method returns {@code false}, the methods on the given class
+	 * will not get traversed for {@link #getTransactionAttribute} introspection.
+	 * Returning {@code false} is therefore an optimization for non-affected
+	 * classes, whereas {@code true} simply means that the class needs to get
+	 * fully introspected for each method on the given class individually.
+	 * @param targetClass the class to introspect
+	 * @return {@code false} if the class is known to have no transaction
+	 * attributes at class or method level; {@code true} otherwise. The default
+	 * implementation returns {@code true}, leading to regular introspection.
+	 * @since 5.1.21
+	 */
+	default boolean isCandidateClass(Class<?> targetClass) {
+		return true;
+	}
+
 	/**
 	 * Return the transaction attribute for the given method,
 	 * or {@code null} if the method is non-transactional.
@@ -16,6 +16,7 @@
 
 package org.springframework.transaction.interceptor;
 
+import org.springframework.aop.ClassFilter;
 import org.springframework.aop.support.StaticMethodMatcherPointcut;
 import org.springframework.dao.support.PersistenceExceptionTranslator;
 import org.springframework.lang.Nullable;
@@ -35,6 +36,11 @@ import java.lang.reflect.Method;
 @SuppressWarnings("serial")
 abstract class TransactionAttributeSourcePointcut extends StaticMethodMatcherPointcut implements Serializable {
 
+	protected TransactionAttributeSourcePointcut() {
+		setClassFilter(new TransactionAttributeSourceClassFilter());
+	}
+
+
 	@Override
 	public boolean matches(Method method, Class<?> targetClass) {
 		if (TransactionalProxy.class.isAssignableFrom(targetClass) ||
@@ -80,4 +86,18 @@ abstract class TransactionAttributeSourcePointcut extends StaticMethodMatcherPoi
 	@Nullable
 	protected abstract TransactionAttributeSource getTransactionAttributeSource();
 
+
+	/**
+	 * {@link ClassFilter} that delegates to {@link TransactionAttributeSource#isCandidateClass}
+	 * for filtering classes whose methods are not worth searching to begin with.
+	 */
+	private class TransactionAttributeSourceClassFilter implements ClassFilter {
+
+		@Override
+		public boolean matches(Class<?> clazz) {
+			TransactionAttributeSource tas = getTransactionAttributeSource();
+			return (tas == null || tas.isCandidateClass(clazz));
+		}
+	}
+
 }
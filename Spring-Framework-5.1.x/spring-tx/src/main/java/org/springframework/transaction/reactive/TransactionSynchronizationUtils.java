@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import org.springframework.aop.scope.ScopedObject;
+import org.springframework.core.InfrastructureProxy;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reactive transaction synchronization utilities, for use within this package.
+ *
+ * @since 5.1.21
+ * @see org.springframework.transaction.support.TransactionSynchronizationUtils
+ */
+abstract class TransactionSynchronizationUtils {
+
+	private static final boolean aopAvailable = ClassUtils.isPresent(
+			"org.springframework.aop.scope.ScopedObject", TransactionSynchronizationUtils.class.getClassLoader());
+
+
+	/**
+	 * Unwrap the given resource handle if necessary; otherwise return
+	 * the given handle as-is.
+	 * @see org.springframework.core.InfrastructureProxy#getWrappedObject()
+	 */
+	static Object unwrapResourceIfNecessary(Object resource) {
+		Assert.notNull(resource, "Resource must not be null");
+		Object resourceRef = resource;
+		// unwrap infrastructure proxy
+		if (resourceRef instanceof InfrastructureProxy) {
+			resourceRef = ((InfrastructureProxy) resourceRef).getWrappedObject();
+		}
+		if (aopAvailable) {
+			// now unwrap scoped proxy
+			resourceRef = ScopedProxyUnwrapper.unwrapIfNecessary(resourceRef);
+		}
+		return resourceRef;
+	}
+
+
+	/**
+	 * Inner class to avoid hard-coded dependency on AOP module.
+	 */
+	private static class ScopedProxyUnwrapper {
+
+		public static Object unwrapIfNecessary(Object resource) {
+			if (resource instanceof ScopedObject) {
+				return ((ScopedObject) resource).getTargetObject();
+			}
+			else {
+				return resource;
+			}
+		}
+	}
+
+}
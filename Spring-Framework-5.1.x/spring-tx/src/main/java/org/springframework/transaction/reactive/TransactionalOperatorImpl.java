@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import org.springframework.transaction.ReactiveTransaction;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.util.Assert;
+
+/**
+ * Operator implementation that simplifies programmatic transaction demarcation
+ * and transaction exception handling.
+ *
+ * @since 5.1.21
+ * @see #execute
+ * @see ReactiveTransactionManager
+ */
+final class TransactionalOperatorImpl implements TransactionalOperator {
+
+	private static final Log logger = LogFactory.getLog(TransactionalOperatorImpl.class);
+
+	private final ReactiveTransactionManager transactionManager;
+
+	private final TransactionDefinition transactionDefinition;
+
+
+	/**
+	 * Construct a new TransactionalOperatorImpl using the given transaction manager
+	 * and transaction definition.
+	 * @param transactionManager the transaction management strategy to be used
+	 * @param transactionDefinition the transaction definition to apply
+	 */
+	TransactionalOperatorImpl(ReactiveTransactionManager transactionManager, TransactionDefinition transactionDefinition) {
+		Assert.notNull(transactionManager, "ReactiveTransactionManager must not be null");
+		Assert.notNull(transactionDefinition, "TransactionDefinition must not be null");
+		this.transactionManager = transactionManager;
+		this.transactionDefinition = transactionDefinition;
+	}
+
+
+	/**
+	 * Return the transaction management strategy to be used.
+	 */
+	public ReactiveTransactionManager getTransactionManager() {
+		return this.transactionManager;
+	}
+
+	@Override
+	public <T> Mono<T> transactional(Mono<T> mono) {
+		return TransactionContextManager.currentContext().flatMap(context ->
+				this.transactionManager.getReactiveTransaction(this.transactionDefinition).flatMap(status ->
+						Mono.subscriberContext().flatMap(subscriberContext -> mono
+								.onErrorResume(ex -> rollbackOnException(status, ex).then(Mono.error(ex)))
+								// Commit before emitting the value, propagating commit failures
+								.flatMap(value -> this.transactionManager.commit(status).thenReturn(value))
+								.switchIfEmpty(this.transactionManager.commit(status).then(Mono.empty()))
+								.doOnCancel(() -> rollbackOnCancel(status, subscriberContext)))))
+				.subscriberContext(TransactionContextManager.getOrCreateContext())
+				.subscriberContext(TransactionContextManager.getOrCreateContextHolder());
+	}
+
+	@Override
+	public <T> Flux<T> execute(TransactionCallback<T> action) throws TransactionException {
+		return TransactionContextManager.currentContext().flatMapMany(context ->
+				this.transactionManager.getReactiveTransaction(this.transactionDefinition).flatMapMany(status ->
+						Mono.subscriberContext().flatMapMany(subscriberContext ->
+								Flux.defer(() -> action.doInTransaction(status))
+								.onErrorResume(ex -> rollbackOnException(status, ex).then(Mono.error(ex)))
+								.concatWith(this.transactionManager.commit(status).then(Mono.empty()))
+								.doOnCancel(() -> rollbackOnCancel(status, subscriberContext)))))
+				.subscriberContext(TransactionContextManager.getOrCreateContext())
+				.subscriberContext(TransactionContextManager.getOrCreateContextHolder());
+	}
+
+	/**
+	 * Perform a rollback, handling rollback exceptions properly.
+	 * <p>Skipped if the transaction has been completed already, i.e. if
+	 * the exception resulted from the commit attempt itself.
+	 * @param status object representing the transaction
+	 * @param ex the thrown application exception or error
+	 * @throws TransactionException in case of a rollback error
+	 */
+	private Mono<Void> rollbackOnException(ReactiveTransaction status, Throwable ex) throws TransactionException {
+		if (status.isCompleted()) {
+			return Mono.empty();
+		}
+		logger.debug("Initiating transaction rollback on application exception", ex);
+		return this.transactionManager.rollback(status).onErrorMap(ex2 -> {
+			logger.error("Application exception overridden by rollback exception", ex);
+			if (ex2 instanceof TransactionSystemException) {
+				((TransactionSystemException) ex2).initApplicationException(ex);
+			}
+			return ex2;
+		});
+	}
+
+	/**
+	 * Roll back the transaction after the transactional pipeline got cancelled,
+	 * unless completed already.
+	 * @param status object representing the transaction
+	 * @param subscriberContext the subscriber context to roll back the transaction in
+	 */
+	private void rollbackOnCancel(ReactiveTransaction status, Context subscriberContext) {
+		if (status.isCompleted()) {
+			return;
+		}
+		logger.debug("Initiating transaction rollback on cancellation");
+		this.transactionManager.rollback(status).subscriberContext(subscriberContext).subscribe(null,
+				ex -> logger.error("Failed to roll back transaction after cancellation", ex));
+	}
+
+}
@@ -408,6 +408,38 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		}
 	}
 
+	/**
+	 * Determine whether a {@link #getTransaction} call for the given definition would
+	 * lead to an empty transaction without any effect: no existing transaction to
+	 * participate in, suspend or reject, and no new transaction or transaction
+	 * synchronization to initialize.
+	 * <p>This is the case for non-transactional propagation behaviors such as
+	 * {@link TransactionDefinition#PROPAGATION_SUPPORTS} outside of a transaction,
+	 * unless transaction synchronization is to be activated {@link #SYNCHRONIZATION_ALWAYS
+	 * always}. Allows callers to proceed without transaction demarcation altogether;
+	 * callers that expose the current {@link TransactionStatus} are expected to
+	 * expose an equivalent empty status for such an invocation.
+	 * @param definition the TransactionDefinition instance
+	 * @return {@code true} if transaction demarcation can be skipped for the definition
+	 * @throws TransactionException in case of lookup errors
+	 * @since 5.1.21
+	 * @see #getTransaction
+	 * @see #setTransactionSynchronization
+	 */
+	public final boolean canSkipTransaction(TransactionDefinition definition) throws TransactionException {
+		int propagationBehavior = definition.getPropagationBehavior();
+		if (propagationBehavior != TransactionDefinition.PROPAGATION_SUPPORTS &&
+				propagationBehavior != TransactionDefinition.PROPAGATION_NOT_SUPPORTED &&
+				propagationBehavior != TransactionDefinition.PROPAGATION_NEVER) {
+			return false;
+		}
+		if (getTransactionSynchronization() == SYNCHRONIZATION_ALWAYS ||
+				definition.getTimeout() < TransactionDefinition.TIMEOUT_DEFAULT) {
+			return false;
+		}
+		return !isExistingTransaction(doGetTransaction());
+	}
+
 	/**
 	 * Create a TransactionStatus for an existing transaction.
 	 */
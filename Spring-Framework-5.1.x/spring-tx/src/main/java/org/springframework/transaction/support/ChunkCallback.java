@@ -0,0 +1,49 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.TransactionStatus;
+
+/**
+ * Callback interface for processing a chunk of items within a transaction.
+ * Used with {@link ChunkedTransactionTemplate}'s {@code executeInChunks} method.
+ *
+ * @since 5.1.21
+ * @see ChunkedTransactionTemplate#executeInChunks
+ * @param <T> the item type
+ * @param <R> the result type per chunk
+ */
+@FunctionalInterface
+public interface ChunkCallback<T, R> {
+
+	/**
+	 * Gets called by {@link ChunkedTransactionTemplate#executeInChunks} within
+	 * a transactional context of its own for each chunk, potentially on a
+	 * separate thread and potentially several times in case of retries.
+	 * <p>A RuntimeException thrown by the callback is treated as application
+	 * exception that enforces a rollback of the chunk's transaction.
+	 * @param chunk the items of the current chunk
+	 * @param status associated transaction status
+	 * @return a result object for the chunk, or {@code null}
+	 */
+	@Nullable
+	R doInTransaction(List<T> chunk, TransactionStatus status);
+
+}
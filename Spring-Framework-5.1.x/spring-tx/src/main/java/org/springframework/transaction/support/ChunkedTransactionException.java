@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Exception thrown by {@link ChunkedTransactionTemplate} when one or more chunks
+ * failed to complete, after retries if configured. The transactions of the failed
+ * chunks have been rolled back, while the transactions of all other chunks have
+ * been committed at that point, independently of any transaction of the caller;
+ * their results are available through {@link #getChunkResults()}.
+ *
+ * <p>The exception of the first failed chunk is exposed as the cause, with the
+ * exceptions of further failed chunks being added as suppressed exceptions.
+ *
+ * @since 5.1.21
+ * @see ChunkedTransactionTemplate#executeInChunks
+ */
+@SuppressWarnings("serial")
+public class ChunkedTransactionException extends TransactionException {
+
+	private final Map<Integer, Throwable> chunkFailures;
+
+	private final List<?> chunkResults;
+
+
+	/**
+	 * Constructor for ChunkedTransactionException.
+	 * @param msg the detail message
+	 * @param chunkFailures the exceptions of the failed chunks, keyed by chunk index
+	 * in ascending order (must not be empty)
+	 * @param chunkResults the results per chunk, with {@code null} for failed chunks
+	 */
+	public ChunkedTransactionException(String msg, Map<Integer, Throwable> chunkFailures, List<?> chunkResults) {
+		super(msg, chunkFailures.values().iterator().next());
+		this.chunkFailures = chunkFailures;
+		this.chunkResults = chunkResults;
+		for (Throwable failure : chunkFailures.values()) {
+			if (failure != getCause()) {
+				addSuppressed(failure);
+			}
+		}
+	}
+
+
+	/**
+	 * Return the exceptions of the failed chunks, keyed by chunk index.
+	 */
+	public Map<Integer, Throwable> getChunkFailures() {
+		return this.chunkFailures;
+	}
+
+	/**
+	 * Return the results of all chunks in chunk order, with {@code null}
+	 * at the index of each failed chunk.
+	 */
+	public List<?> getChunkResults() {
+		return this.chunkResults;
+	}
+
+}
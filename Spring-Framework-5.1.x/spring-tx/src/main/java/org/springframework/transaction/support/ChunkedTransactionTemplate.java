@@ -0,0 +1,320 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.util.Assert;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Extension of {@link TransactionTemplate} that partitions a list of items into
+ * chunks and processes each chunk in a transaction of its own, potentially in
+ * parallel on a {@link TaskExecutor}.
+ *
+ * <p>Each chunk is executed on the thread that the executor runs it on, so the
+ * transaction manager binds its resources (e.g. a JDBC Connection or JPA
+ * EntityManager) to that worker thread for the duration of the chunk's transaction,
+ * exactly like for a single-threaded {@code TransactionTemplate} invocation.
+ * The chunk transactions use the settings of this template, except for the
+ * propagation behavior: each chunk always runs in a new transaction
+ * ({@link TransactionDefinition#PROPAGATION_REQUIRES_NEW}), suspending a
+ * transaction of the calling thread if the chunk runs on that thread (e.g. with
+ * the default {@link SyncTaskExecutor}). The chunks are therefore committed
+ * independently of any existing transaction, and an existing transaction is
+ * not affected by a failing chunk.
+ *
+ * <p>A chunk that fails with a {@linkplain #setRetryableExceptionTypes retryable}
+ * exception gets rolled back and retried in a new transaction, following the
+ * configured {@linkplain #setRetryBackOff back-off}. Chunks that still fail do
+ * not affect the other chunks: {@link #executeInChunks} waits for all chunks to
+ * complete and then throws a {@link ChunkedTransactionException} with the
+ * failures and the results of the successfully committed chunks.
+ *
+ * @since 5.1.21
+ * @see #executeInChunks
+ * @see #setTaskExecutor
+ * @see #setRetryBackOff
+ */
+@SuppressWarnings("serial")
+public class ChunkedTransactionTemplate extends TransactionTemplate {
+
+	/** Default number of items per chunk. */
+	public static final int DEFAULT_CHUNK_SIZE = 100;
+
+
+	private TaskExecutor taskExecutor = new SyncTaskExecutor();
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	private BackOff retryBackOff = new FixedBackOff(0, 0);
+
+	private Class<?>[] retryableExceptionTypes = new Class<?>[] {TransientDataAccessException.class};
+
+
+	/**
+	 * Construct a new ChunkedTransactionTemplate for bean usage.
+	 * <p>Note: The PlatformTransactionManager needs to be set before
+	 * any {@code execute} calls.
+	 * @see #setTransactionManager
+	 */
+	public ChunkedTransactionTemplate() {
+	}
+
+	/**
+	 * Construct a new ChunkedTransactionTemplate using the given transaction manager.
+	 * @param transactionManager the transaction management strategy to be used
+	 */
+	public ChunkedTransactionTemplate(PlatformTransactionManager transactionManager) {
+		super(transactionManager);
+	}
+
+	/**
+	 * Construct a new ChunkedTransactionTemplate using the given transaction manager,
+	 * taking its default settings from the given transaction definition.
+	 * @param transactionManager the transaction management strategy to be used
+	 * @param transactionDefinition the transaction definition to copy the
+	 * default settings from. Local properties can still be set to change values.
+	 */
+	public ChunkedTransactionTemplate(PlatformTransactionManager transactionManager,
+			TransactionDefinition transactionDefinition) {
+
+		super(transactionManager, transactionDefinition);
+	}
+
+
+	/**
+	 * Set the TaskExecutor to run the chunks on.
+	 * <p>Default is a {@link SyncTaskExecutor}, processing the chunks one after
+	 * the other on the calling thread. Specify a thread pool for parallel
+	 * processing, typically bounded according to the number of resources
+	 * (e.g. JDBC Connections) available to the transaction manager.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Return the TaskExecutor to run the chunks on.
+	 */
+	public TaskExecutor getTaskExecutor() {
+		return this.taskExecutor;
+	}
+
+	/**
+	 * Set the maximum number of items per chunk, i.e. per transaction.
+	 * <p>Default is {@link #DEFAULT_CHUNK_SIZE}.
+	 */
+	public void setChunkSize(int chunkSize) {
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Return the maximum number of items per chunk.
+	 */
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	/**
+	 * Set the {@link BackOff} to apply between attempts for a chunk that failed
+	 * with a retryable exception, also determining the maximum number of retries.
+	 * <p>Default is no retries. Specify e.g. a {@link FixedBackOff} with the
+	 * interval and the maximum number of retries per chunk, or an
+	 * {@link org.springframework.util.backoff.ExponentialBackOff}.
+	 * @see #setRetryableExceptionTypes
+	 */
+	public void setRetryBackOff(BackOff retryBackOff) {
+		Assert.notNull(retryBackOff, "BackOff must not be null");
+		this.retryBackOff = retryBackOff;
+	}
+
+	/**
+	 * Set the exception types that lead to a retry of a failed chunk, if
+	 * encountered as the chunk's exception or as any of its causes.
+	 * <p>Default is {@link TransientDataAccessException}, covering e.g.
+	 * deadlock losers and query timeouts.
+	 * @see #setRetryBackOff
+	 */
+	public void setRetryableExceptionTypes(Class<?>... retryableExceptionTypes) {
+		Assert.notNull(retryableExceptionTypes, "Exception types must not be null");
+		for (Class<?> retryableExceptionType : retryableExceptionTypes) {
+			Assert.isAssignable(Throwable.class, retryableExceptionType, "Invalid retryable exception type");
+		}
+		this.retryableExceptionTypes = retryableExceptionTypes;
+	}
+
+
+	/**
+	 * Process the given items in chunks of the configured size, each chunk within
+	 * a new transaction of its own, and wait for all chunks to complete.
+	 * <p>May be called within an existing transaction, which remains unaffected
+	 * by the chunk transactions. Note that with a transaction manager for a single
+	 * resource (e.g. a DataSource), each chunk then needs a further resource
+	 * (e.g. a JDBC Connection) while the existing transaction is suspended.
+	 * @param items the items to process
+	 * @param action the callback to process each chunk with
+	 * @return the results of the chunks in chunk order (i.e. in the order of the items)
+	 * @throws ChunkedTransactionException if any chunk failed, after retries if any
+	 * @throws TransactionException in case of an interruption while waiting
+	 * for the chunks to complete
+	 */
+	public <T, R> List<R> executeInChunks(List<? extends T> items, ChunkCallback<T, R> action)
+			throws TransactionException {
+
+		Assert.notNull(items, "Items must not be null");
+		Assert.notNull(action, "ChunkCallback must not be null");
+		PlatformTransactionManager transactionManager = getTransactionManager();
+		Assert.state(transactionManager != null, "No PlatformTransactionManager set");
+
+		int chunkCount = (items.size() + this.chunkSize - 1) / this.chunkSize;
+		if (chunkCount == 0) {
+			return Collections.emptyList();
+		}
+
+		// Each chunk needs a transaction of its own, even within an existing transaction
+		TransactionTemplate chunkTemplate = new TransactionTemplate(transactionManager, this);
+		chunkTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		AtomicReferenceArray<R> results = new AtomicReferenceArray<>(chunkCount);
+		AtomicReferenceArray<Throwable> failures = new AtomicReferenceArray<>(chunkCount);
+		CountDownLatch latch = new CountDownLatch(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			int index = i;
+			List<T> chunk = Collections.unmodifiableList(new ArrayList<>(
+					items.subList(i * this.chunkSize, Math.min((i + 1) * this.chunkSize, items.size()))));
+			Runnable task = () -> {
+				try {
+					results.set(index, executeChunk(chunkTemplate, index, chunk, action));
+				}
+				catch (Throwable ex) {
+					failures.set(index, ex);
+				}
+				finally {
+					latch.countDown();
+				}
+			};
+			try {
+				this.taskExecutor.execute(task);
+			}
+			catch (TaskRejectedException ex) {
+				failures.set(index, ex);
+				latch.countDown();
+			}
+		}
+
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new TransactionSystemException("Interrupted while waiting for chunk transactions to complete", ex);
+		}
+
+		List<R> resultList = new ArrayList<>(chunkCount);
+		Map<Integer, Throwable> failureMap = new TreeMap<>();
+		for (int i = 0; i < chunkCount; i++) {
+			resultList.add(results.get(i));
+			Throwable failure = failures.get(i);
+			if (failure != null) {
+				failureMap.put(i, failure);
+			}
+		}
+		if (!failureMap.isEmpty()) {
+			throw new ChunkedTransactionException(failureMap.size() + " of " + chunkCount +
+					" chunk transactions failed", failureMap, resultList);
+		}
+		return resultList;
+	}
+
+	/**
+	 * Process the given chunk within a new transaction, retrying it in a new
+	 * transaction after a retryable exception as long as the back-off allows.
+	 */
+	@Nullable
+	private <T, R> R executeChunk(TransactionTemplate chunkTemplate, int index, List<T> chunk,
+			ChunkCallback<T, R> action) {
+
+		BackOffExecution backOffExecution = null;
+		while (true) {
+			try {
+				return chunkTemplate.execute(status -> action.doInTransaction(chunk, status));
+			}
+			catch (RuntimeException ex) {
+				if (!isRetryable(ex)) {
+					throw ex;
+				}
+				if (backOffExecution == null) {
+					backOffExecution = this.retryBackOff.start();
+				}
+				long interval = backOffExecution.nextBackOff();
+				if (interval == BackOffExecution.STOP) {
+					throw ex;
+				}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Retrying chunk " + index + " in " + interval + " ms after exception: " + ex);
+				}
+				if (interval > 0) {
+					try {
+						Thread.sleep(interval);
+					}
+					catch (InterruptedException ex2) {
+						Thread.currentThread().interrupt();
+						throw ex;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the given exception or any of its causes
+	 * is of one of the retryable exception types.
+	 */
+	private boolean isRetryable(Throwable ex) {
+		Throwable current = ex;
+		while (current != null) {
+			for (Class<?> retryableExceptionType : this.retryableExceptionTypes) {
+				if (retryableExceptionType.isInstance(current)) {
+					return true;
+				}
+			}
+			current = (current.getCause() != current ? current.getCause() : null);
+		}
+		return false;
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.transaction;
 import org.junit.After;
 import org.junit.Test;
 
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.springframework.transaction.support.DefaultTransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
@@ -78,6 +79,27 @@ public class TransactionSupportTests {
 		}
 	}
 
+	@Test
+	public void canSkipTransaction() {
+		TestTransactionManager tm = new TestTransactionManager(false, true);
+		assertTrue(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_SUPPORTS)));
+		assertTrue(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_NOT_SUPPORTED)));
+		assertTrue(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_NEVER)));
+		assertFalse(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED)));
+		assertFalse(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_MANDATORY)));
+
+		tm.setTransactionSynchronization(AbstractPlatformTransactionManager.SYNCHRONIZATION_ALWAYS);
+		assertFalse(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_SUPPORTS)));
+	}
+
+	@Test
+	public void canSkipTransactionWithExistingTransaction() {
+		TestTransactionManager tm = new TestTransactionManager(true, true);
+		assertFalse(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_SUPPORTS)));
+		assertFalse(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_NOT_SUPPORTED)));
+		assertFalse(tm.canSkipTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_NEVER)));
+	}
+
 	@Test
 	public void commitWithoutExistingTransaction() {
 		TestTransactionManager tm = new TestTransactionManager(false, true);
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 
 import javax.ejb.TransactionAttributeType;
@@ -30,8 +31,11 @@ import org.junit.Test;
 
 import org.springframework.aop.framework.Advised;
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.tests.transaction.CallCountingTransactionManager;
+import org.springframework.transaction.interceptor.BeanFactoryTransactionAttributeSourceAdvisor;
+import org.springframework.transaction.interceptor.DefaultTransactionAttribute;
 import org.springframework.transaction.interceptor.NoRollbackRuleAttribute;
 import org.springframework.transaction.interceptor.RollbackRuleAttribute;
 import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
@@ -371,6 +375,56 @@ public class AnnotationTransactionAttributeSourceTests {
 		assertEquals(TransactionAttribute.PROPAGATION_SUPPORTS, getNameAttr.getPropagationBehavior());
 	}
 
+	@Test
+	public void candidateClasses() {
+		AnnotationTransactionAttributeSource atas = new AnnotationTransactionAttributeSource();
+		assertFalse(atas.isCandidateClass(Empty.class));
+		assertFalse(atas.isCandidateClass(ITestBean1.class));
+		assertTrue(atas.isCandidateClass(TestBean1.class));
+		assertTrue(atas.isCandidateClass(TestBean2.class));
+		assertTrue(atas.isCandidateClass(TestBean3.class));
+		assertTrue(atas.isCandidateClass(TestBean5.class));
+		assertTrue(atas.isCandidateClass(TestBean8.class));
+		assertTrue(atas.isCandidateClass(TestBean9.class));
+		assertTrue(atas.isCandidateClass(TestBean10.class));
+		assertTrue(atas.isCandidateClass(Ejb3AnnotatedBean1.class));
+		assertTrue(atas.isCandidateClass(JtaAnnotatedBean1.class));
+	}
+
+	@Test
+	public void candidateClassWithCustomLookup() throws Exception {
+		Method method = Empty.class.getMethod("getAge");
+		AnnotationTransactionAttributeSource atas = new AnnotationTransactionAttributeSource() {
+			@Override
+			protected TransactionAttribute determineTransactionAttribute(AnnotatedElement element) {
+				return (element == method ? new DefaultTransactionAttribute() : null);
+			}
+		};
+		assertTrue(atas.isCandidateClass(Empty.class));
+		assertNotNull(atas.getTransactionAttribute(method, Empty.class));
+		assertNull(atas.getTransactionAttribute(Empty.class.getMethod("getName"), Empty.class));
+	}
+
+	@Test
+	public void classAttributeDescriptorPerMethod() throws Exception {
+		AnnotationTransactionAttributeSource atas = new AnnotationTransactionAttributeSource();
+		TransactionAttribute getAgeAttr = atas.getTransactionAttribute(TestBean4.class.getMethod("getAge"), TestBean4.class);
+		TransactionAttribute getNameAttr = atas.getTransactionAttribute(TestBean4.class.getMethod("getName"), TestBean4.class);
+		assertNotSame(getAgeAttr, getNameAttr);
+		assertTrue(((DefaultTransactionAttribute) getAgeAttr).getDescriptor().endsWith(".getAge"));
+		assertTrue(((DefaultTransactionAttribute) getNameAttr).getDescriptor().endsWith(".getName"));
+	}
+
+	@Test
+	public void pointcutExcludesNonCandidateClass() {
+		BeanFactoryTransactionAttributeSourceAdvisor advisor = new BeanFactoryTransactionAttributeSourceAdvisor();
+		advisor.setTransactionAttributeSource(new AnnotationTransactionAttributeSource());
+		assertFalse(advisor.getPointcut().getClassFilter().matches(Empty.class));
+		assertFalse(AopUtils.canApply(advisor, Empty.class));
+		assertTrue(advisor.getPointcut().getClassFilter().matches(TestBean1.class));
+		assertTrue(AopUtils.canApply(advisor, TestBean1.class));
+	}
+
 	@Test
 	public void transactionAttributeDeclaredOnGroovyClass() throws Exception {
 		Method getAgeMethod = ITestBean1.class.getMethod("getAge");
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.interceptor;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.reactive.ReactiveTestTransactionManager;
+import org.springframework.transaction.reactive.ReactiveTestTransactionManager.TestResource;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Tests for {@link TransactionInterceptor} with methods returning
+ * {@link Mono} and {@link Flux}, managed by a
+ * {@link org.springframework.transaction.ReactiveTransactionManager}.
+ *
+ * @since 5.1.21
+ */
+public class ReactiveTransactionInterceptorTests {
+
+	private final ReactiveTestTransactionManager rtm = new ReactiveTestTransactionManager();
+
+
+	@Test
+	public void commitOnMono() {
+		TestService service = advised(new DefaultTestService(this.rtm), this.rtm);
+
+		service.findName()
+				.as(StepVerifier::create)
+				.expectNext("name")
+				.verifyComplete();
+
+		TestResource resource = this.rtm.getResource();
+		assertTrue(resource.isCommitted());
+		assertTrue(resource.isClosed());
+		assertEquals(DefaultTestService.class.getName() + ".findName", resource.getDefinition().getName());
+	}
+
+	@Test
+	public void commitOnFlux() {
+		TestService service = advised(new DefaultTestService(this.rtm), this.rtm);
+
+		service.findNames()
+				.as(StepVerifier::create)
+				.expectNext("name1", "name2")
+				.verifyComplete();
+
+		assertTrue(this.rtm.getResource().isCommitted());
+	}
+
+	@Test
+	public void rollbackOnRuntimeException() {
+		TestService service = advised(new DefaultTestService(this.rtm), this.rtm);
+
+		service.fail(new IllegalStateException())
+				.as(StepVerifier::create)
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		TestResource resource = this.rtm.getResource();
+		assertTrue(resource.isRolledBack());
+		assertFalse(resource.isCommitted());
+	}
+
+	@Test
+	public void commitOnCheckedException() {
+		TestService service = advised(new DefaultTestService(this.rtm), this.rtm);
+
+		service.fail(new Exception())
+				.as(StepVerifier::create)
+				.expectError(Exception.class)
+				.verify();
+
+		TestResource resource = this.rtm.getResource();
+		assertTrue(resource.isCommitted());
+		assertFalse(resource.isRolledBack());
+	}
+
+	@Test
+	public void rollbackOnExceptionThrownByMethod() {
+		TestService service = advised(new DefaultTestService(this.rtm), this.rtm);
+
+		service.throwDirectly()
+				.as(StepVerifier::create)
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		assertTrue(this.rtm.getResource().isRolledBack());
+	}
+
+	@Test
+	public void transactionStartedOnSubscription() {
+		TestService service = advised(new DefaultTestService(this.rtm), this.rtm);
+
+		Mono<String> result = service.findName();
+		assertTrue(this.rtm.getResources().isEmpty());
+		result.as(StepVerifier::create).expectNext("name").verifyComplete();
+		assertEquals(1, this.rtm.getResources().size());
+	}
+
+	@Test
+	public void nestedCallParticipatesInTransaction() {
+		DefaultTestService target = new DefaultTestService(this.rtm);
+		TestService service = advised(target, this.rtm);
+		target.self = service;
+
+		service.findNameTwice()
+				.as(StepVerifier::create)
+				.expectNext("name,name")
+				.verifyComplete();
+
+		TestResource resource = this.rtm.getResource();
+		assertTrue(resource.isCommitted());
+		assertEquals(2, target.observedResourceIds.size());
+		assertEquals(Integer.valueOf(resource.getId()), target.observedResourceIds.get(0));
+		assertEquals(Integer.valueOf(resource.getId()), target.observedResourceIds.get(1));
+	}
+
+	@Test
+	public void reactiveTransactionManagerFromBeanFactory() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("rtm", this.rtm);
+		TransactionInterceptor ti = new TransactionInterceptor();
+		ti.setTransactionAttributes(transactionAttributes());
+		ti.setBeanFactory(beanFactory);
+		ti.afterPropertiesSet();
+
+		TestService service = proxy(new DefaultTestService(this.rtm), ti);
+		service.findName()
+				.as(StepVerifier::create)
+				.expectNext("name")
+				.verifyComplete();
+		assertTrue(this.rtm.getResource().isCommitted());
+	}
+
+	@Test
+	public void platformTransactionManagerWithoutReactiveTransactionManager() {
+		PlatformTransactionManager ptm = mock(PlatformTransactionManager.class);
+		TransactionStatus status = mock(TransactionStatus.class);
+		given(ptm.getTransaction(any())).willReturn(status);
+		TransactionInterceptor ti = new TransactionInterceptor();
+		ti.setTransactionAttributes(transactionAttributes());
+		ti.setTransactionManager(ptm);
+
+		TestService service = proxy(new DefaultTestService(this.rtm), ti);
+		Mono<String> result = service.findName();
+		verify(ptm).commit(status);
+		assertTrue(this.rtm.getResources().isEmpty());
+		result.as(StepVerifier::create).expectError(NoTransactionException.class).verify();
+	}
+
+
+	private static Properties transactionAttributes() {
+		Properties attributes = new Properties();
+		attributes.setProperty("*", "PROPAGATION_REQUIRED");
+		return attributes;
+	}
+
+	private static TestService advised(TestService target, ReactiveTestTransactionManager rtm) {
+		TransactionInterceptor ti = new TransactionInterceptor();
+		ti.setReactiveTransactionManager(rtm);
+		assertSame(rtm, ti.getReactiveTransactionManager());
+		ti.setTransactionAttributes(transactionAttributes());
+		ti.afterPropertiesSet();
+		return proxy(target, ti);
+	}
+
+	private static TestService proxy(TestService target, TransactionInterceptor ti) {
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.addAdvice(0, ti);
+		return (TestService) pf.getProxy();
+	}
+
+
+	public interface TestService {
+
+		Mono<String> findName();
+
+		Flux<String> findNames();
+
+		Mono<String> findNameTwice();
+
+		Mono<Void> fail(Exception ex);
+
+		Mono<Void> throwDirectly();
+	}
+
+
+	private static class DefaultTestService implements TestService {
+
+		private final ReactiveTestTransactionManager rtm;
+
+		final List<Integer> observedResourceIds = new CopyOnWriteArrayList<>();
+
+		TestService self = this;
+
+		DefaultTestService(ReactiveTestTransactionManager rtm) {
+			this.rtm = rtm;
+		}
+
+		@Override
+		public Mono<String> findName() {
+			return currentResource().doOnNext(this.observedResourceIds::add).thenReturn("name");
+		}
+
+		@Override
+		public Flux<String> findNames() {
+			return currentResource().thenMany(Flux.just("name1", "name2"));
+		}
+
+		@Override
+		public Mono<String> findNameTwice() {
+			return this.self.findName().zipWith(this.self.findName(), (name1, name2) -> name1 + "," + name2);
+		}
+
+		@Override
+		public Mono<Void> fail(Exception ex) {
+			return currentResource().then(Mono.error(ex));
+		}
+
+		@Override
+		public Mono<Void> throwDirectly() {
+			throw new IllegalStateException();
+		}
+
+		private Mono<Integer> currentResource() {
+			return TransactionSynchronizationManager.forCurrentTransaction().map(synchronizationManager ->
+					((TestResource) synchronizationManager.getResource(this.rtm)).getId());
+		}
+	}
+
+}
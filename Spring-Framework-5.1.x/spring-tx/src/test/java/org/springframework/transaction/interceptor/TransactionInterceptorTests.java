@@ -27,10 +27,15 @@ import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.lang.Nullable;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.tests.transaction.CallCountingTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.SerializationTestUtils;
 
 import static org.junit.Assert.*;
@@ -124,6 +129,42 @@ public class TransactionInterceptorTests extends AbstractTransactionAspectTests
 		assertTrue(ctas.getTransactionAttributeSources()[1] instanceof NameMatchTransactionAttributeSource);
 	}
 
+	@Test
+	public void nonTransactionalMethodProceedsWithoutTransactionInfo() {
+		CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+		ITestBean itb = (ITestBean) advised(new TransactionInfoCheckingTestBean(false, false),
+				ptm, new MapTransactionAttributeSource());
+
+		assertEquals("name", itb.getName());
+		assertEquals(0, ptm.begun);
+	}
+
+	@Test
+	public void supportsWithoutTransactionExposesEmptyTransactionStatus() throws Exception {
+		CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+		ptm.setTransactionSynchronization(AbstractPlatformTransactionManager.SYNCHRONIZATION_ON_ACTUAL_TRANSACTION);
+		MapTransactionAttributeSource tas = new MapTransactionAttributeSource();
+		tas.register(getNameMethod, new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_SUPPORTS));
+		ITestBean itb = (ITestBean) advised(new TransactionInfoCheckingTestBean(true, false), ptm, tas);
+
+		assertEquals("name", itb.getName());
+		assertEquals(0, ptm.begun);
+		assertEquals(0, ptm.commits);
+		assertNull(TransactionAspectSupport.currentTransactionInfo());
+	}
+
+	@Test
+	public void supportsWithSynchronizationAlwaysBindsTransactionInfo() throws Exception {
+		CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+		MapTransactionAttributeSource tas = new MapTransactionAttributeSource();
+		tas.register(getNameMethod, new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_SUPPORTS));
+		ITestBean itb = (ITestBean) advised(new TransactionInfoCheckingTestBean(true, true), ptm, tas);
+
+		assertEquals("name", itb.getName());
+		assertEquals(0, ptm.begun);
+		assertFalse(TransactionSynchronizationManager.isSynchronizationActive());
+	}
+
 	@Test
 	public void determineTransactionManagerWithNoBeanFactory() {
 		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
@@ -302,6 +343,33 @@ public class TransactionInterceptorTests extends AbstractTransactionAspectTests
 	}
 
 
+	private static class TransactionInfoCheckingTestBean extends TestBean {
+
+		private final boolean expectTransactionStatus;
+
+		private final boolean expectSynchronization;
+
+		TransactionInfoCheckingTestBean(boolean expectTransactionStatus, boolean expectSynchronization) {
+			this.expectTransactionStatus = expectTransactionStatus;
+			this.expectSynchronization = expectSynchronization;
+		}
+
+		@Override
+		public String getName() {
+			if (this.expectTransactionStatus) {
+				TransactionStatus status = TransactionAspectSupport.currentTransactionStatus();
+				assertFalse(status.isNewTransaction());
+				assertFalse(status.isRollbackOnly());
+			}
+			else {
+				assertNull(TransactionAspectSupport.currentTransactionInfo());
+			}
+			assertEquals(this.expectSynchronization, TransactionSynchronizationManager.isSynchronizationActive());
+			return "name";
+		}
+	}
+
+
 	/**
 	 * We won't use this: we just want to know it's serializable.
 	 */
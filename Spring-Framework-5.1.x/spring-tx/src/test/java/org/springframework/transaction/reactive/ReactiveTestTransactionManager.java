@@ -0,0 +1,232 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SmartTransactionObject;
+
+/**
+ * In-memory {@link AbstractReactiveTransactionManager} for tests, managing
+ * {@link TestResource} instances bound to the current transaction context.
+ *
+ * @since 5.1.21
+ */
+public class ReactiveTestTransactionManager extends AbstractReactiveTransactionManager {
+
+	private final AtomicInteger resourceCounter = new AtomicInteger();
+
+	private final List<TestResource> resources = new CopyOnWriteArrayList<>();
+
+	private volatile boolean canCreateTransaction = true;
+
+	private volatile boolean failOnCommit = false;
+
+
+	public void setCanCreateTransaction(boolean canCreateTransaction) {
+		this.canCreateTransaction = canCreateTransaction;
+	}
+
+	public void setFailOnCommit(boolean failOnCommit) {
+		this.failOnCommit = failOnCommit;
+	}
+
+	/**
+	 * Return all resources that transactions have been started for, in order.
+	 */
+	public List<TestResource> getResources() {
+		return this.resources;
+	}
+
+	/**
+	 * Return the single resource that a transaction has been started for.
+	 */
+	public TestResource getResource() {
+		if (this.resources.size() != 1) {
+			throw new IllegalStateException("Expected a single resource but got " + this.resources);
+		}
+		return this.resources.get(0);
+	}
+
+
+	@Override
+	protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+		return new TestTransactionObject((TestResource) synchronizationManager.getResource(this));
+	}
+
+	@Override
+	protected boolean isExistingTransaction(Object transaction) {
+		return (((TestTransactionObject) transaction).resource != null);
+	}
+
+	@Override
+	protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager,
+			Object transaction, TransactionDefinition definition) {
+
+		if (!this.canCreateTransaction) {
+			return Mono.error(new CannotCreateTransactionException("Cannot create transaction"));
+		}
+		return Mono.fromRunnable(() -> {
+			TestResource resource = new TestResource(this.resourceCounter.incrementAndGet(), definition);
+			this.resources.add(resource);
+			((TestTransactionObject) transaction).resource = resource;
+			synchronizationManager.bindResource(this, resource);
+		});
+	}
+
+	@Override
+	protected Mono<Object> doSuspend(TransactionSynchronizationManager synchronizationManager, Object transaction) {
+		return Mono.fromSupplier(() -> {
+			((TestTransactionObject) transaction).resource = null;
+			return synchronizationManager.unbindResource(this);
+		});
+	}
+
+	@Override
+	protected Mono<Void> doResume(TransactionSynchronizationManager synchronizationManager,
+			@Nullable Object transaction, Object suspendedResources) {
+
+		return Mono.fromRunnable(() -> synchronizationManager.bindResource(this, suspendedResources));
+	}
+
+	@Override
+	protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) {
+
+		if (this.failOnCommit) {
+			return Mono.error(new TransactionSystemException("Commit failed"));
+		}
+		return Mono.fromRunnable(() -> ((TestTransactionObject) status.getTransaction()).getResource().committed = true);
+	}
+
+	@Override
+	protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) {
+
+		return Mono.fromRunnable(() -> ((TestTransactionObject) status.getTransaction()).getResource().rolledBack = true);
+	}
+
+	@Override
+	protected Mono<Void> doSetRollbackOnly(TransactionSynchronizationManager synchronizationManager,
+			GenericReactiveTransaction status) {
+
+		return Mono.fromRunnable(() -> ((TestTransactionObject) status.getTransaction()).getResource().rollbackOnly = true);
+	}
+
+	@Override
+	protected Mono<Void> doCleanupAfterCompletion(TransactionSynchronizationManager synchronizationManager,
+			Object transaction) {
+
+		return Mono.fromRunnable(() -> {
+			synchronizationManager.unbindResource(this);
+			((TestTransactionObject) transaction).getResource().closed = true;
+		});
+	}
+
+
+	/**
+	 * Transaction object referring to the resource of the current transaction, if any.
+	 */
+	private static class TestTransactionObject implements SmartTransactionObject {
+
+		@Nullable
+		TestResource resource;
+
+		TestTransactionObject(@Nullable TestResource resource) {
+			this.resource = resource;
+		}
+
+		TestResource getResource() {
+			if (this.resource == null) {
+				throw new IllegalStateException("No resource");
+			}
+			return this.resource;
+		}
+
+		@Override
+		public boolean isRollbackOnly() {
+			return (this.resource != null && this.resource.rollbackOnly);
+		}
+
+		@Override
+		public void flush() {
+		}
+	}
+
+
+	/**
+	 * In-memory transactional resource, recording its completion.
+	 */
+	public static class TestResource {
+
+		private final int id;
+
+		private final TransactionDefinition definition;
+
+		volatile boolean committed;
+
+		volatile boolean rolledBack;
+
+		volatile boolean rollbackOnly;
+
+		volatile boolean closed;
+
+		TestResource(int id, TransactionDefinition definition) {
+			this.id = id;
+			this.definition = definition;
+		}
+
+		public int getId() {
+			return this.id;
+		}
+
+		public TransactionDefinition getDefinition() {
+			return this.definition;
+		}
+
+		public boolean isCommitted() {
+			return this.committed;
+		}
+
+		public boolean isRolledBack() {
+			return this.rolledBack;
+		}
+
+		public boolean isRollbackOnly() {
+			return this.rollbackOnly;
+		}
+
+		public boolean isClosed() {
+			return this.closed;
+		}
+
+		@Override
+		public String toString() {
+			return "TestResource " + this.id + " [committed=" + this.committed +
+					", rolledBack=" + this.rolledBack + ", closed=" + this.closed + "]";
+		}
+	}
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.reactive.ReactiveTestTransactionManager.TestResource;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link AbstractReactiveTransactionManager} and the subscriber
+ * context-based {@link TransactionSynchronizationManager}.
+ *
+ * @since 5.1.21
+ */
+public class ReactiveTransactionSupportTests {
+
+	private final ReactiveTestTransactionManager tm = new ReactiveTestTransactionManager();
+
+
+	@Test
+	public void noTransactionContext() {
+		TransactionSynchronizationManager.forCurrentTransaction()
+				.as(StepVerifier::create)
+				.expectError(NoTransactionException.class)
+				.verify();
+	}
+
+	@Test
+	public void commitWithoutExistingTransaction() {
+		this.tm.getReactiveTransaction(new DefaultTransactionDefinition())
+				.flatMap(status -> {
+					assertTrue(status.isNewTransaction());
+					return this.tm.commit(status);
+				})
+				.subscriberContext(TransactionContextManager.createTransactionContext())
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		TestResource resource = this.tm.getResource();
+		assertTrue(resource.isCommitted());
+		assertFalse(resource.isRolledBack());
+		assertTrue(resource.isClosed());
+	}
+
+	@Test
+	public void rollbackWithoutExistingTransaction() {
+		this.tm.getReactiveTransaction(new DefaultTransactionDefinition())
+				.flatMap(this.tm::rollback)
+				.subscriberContext(TransactionContextManager.createTransactionContext())
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		TestResource resource = this.tm.getResource();
+		assertFalse(resource.isCommitted());
+		assertTrue(resource.isRolledBack());
+		assertTrue(resource.isClosed());
+	}
+
+	@Test
+	public void rollbackOnlyOnCommit() {
+		this.tm.getReactiveTransaction(new DefaultTransactionDefinition())
+				.flatMap(status -> {
+					status.setRollbackOnly();
+					return this.tm.commit(status);
+				})
+				.subscriberContext(TransactionContextManager.createTransactionContext())
+				.as(StepVerifier::create)
+				.verifyComplete();
+
+		assertTrue(this.tm.getResource().isRolledBack());
+	}
+
+	@Test
+	public void commitTwice() {
+		this.tm.getReactiveTransaction(new DefaultTransactionDefinition())
+				.flatMap(status -> this.tm.commit(status).then(this.tm.commit(status)))
+				.subscriberContext(TransactionContextManager.createTransactionContext())
+				.as(StepVerifier::create)
+				.expectError(IllegalTransactionStateException.class)
+				.verify();
+	}
+
+	@Test
+	public void mandatoryWithoutExistingTransaction() {
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+
+		this.tm.getReactiveTransaction(definition)
+				.subscriberContext(TransactionContextManager.createTransactionContext())
+				.as(StepVerifier::create)
+				.expectError(IllegalTransactionStateException.class)
+				.verify();
+		assertTrue(this.tm.getResources().isEmpty());
+	}
+
+	@Test
+	public void supportsWithoutExistingTransaction() {
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+
+		this.tm.getReactiveTransaction(definition)
+				.flatMap(status -> {
+					assertFalse(status.isNewTransaction());
+					return TransactionSynchronizationManager.forCurrentTransaction()
+							.doOnNext(synchronizationManager -> {
+								assertTrue(synchronizationManager.isSynchronizationActive());
+								assertFalse(synchronizationManager.isActualTransactionActive());
+							})
+							.then(this.tm.commit(status));
+				})
+				.subscriberContext(TransactionContextManager.createTransactionContext())
+				.as(StepVerifier::create)
+				.verifyComplete();
+		assertTrue(this.tm.getResources().isEmpty());
+	}
+
+	@Test
+	public void participatingTransactionMarksExistingTransactionRollbackOnly() {
+		TransactionalOperator outer = TransactionalOperator.create(this.tm);
+		TransactionalOperator inner = TransactionalOperator.create(this.tm);
+
+		outer.execute(outerStatus -> inner.execute(innerStatus -> {
+			assertFalse(innerStatus.isNewTransaction());
+			return Mono.error(new IllegalStateException("inner failure"));
+		}).onErrorResume(IllegalStateException.class, ex -> Mono.empty()))
+				.as(StepVerifier::create)
+				.expectError(UnexpectedRollbackException.class)
+				.verify();
+
+		TestResource resource = this.tm.getResource();
+		assertTrue(resource.isRollbackOnly());
+		assertTrue(resource.isRolledBack());
+		assertFalse(resource.isCommitted());
+	}
+
+	@Test
+	public void requiresNewSuspendsAndResumesExistingTransaction() {
+		DefaultTransactionDefinition requiresNew = new DefaultTransactionDefinition();
+		requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		requiresNew.setName("inner");
+		DefaultTransactionDefinition required = new DefaultTransactionDefinition();
+		required.setName("outer");
+		TransactionalOperator outer = TransactionalOperator.create(this.tm, required);
+		TransactionalOperator inner = TransactionalOperator.create(this.tm, requiresNew);
+
+		outer.execute(outerStatus -> currentResource()
+				.flatMap(outerResource -> inner.execute(innerStatus -> {
+					assertTrue(innerStatus.isNewTransaction());
+					return currentResource();
+				}).single().flatMap(innerResource -> {
+					assertNotSame(outerResource, innerResource);
+					assertTrue(innerResource.isCommitted());
+					assertFalse(outerResource.isCommitted());
+					return currentResource().zipWith(currentTransactionName());
+				}).doOnNext(resumed -> {
+					assertSame(outerResource, resumed.getT1());
+					assertEquals("outer", resumed.getT2());
+				})))
+				.as(StepVerifier::create)
+				.expectNextCount(1)
+				.verifyComplete();
+
+		List<TestResource> resources = this.tm.getResources();
+		assertEquals(2, resources.size());
+		assertEquals("outer", resources.get(0).getDefinition().getName());
+		assertTrue(resources.get(0).isCommitted());
+		assertEquals("inner", resources.get(1).getDefinition().getName());
+		assertTrue(resources.get(1).isCommitted());
+	}
+
+	@Test
+	public void neverWithExistingTransaction() {
+		DefaultTransactionDefinition never = new DefaultTransactionDefinition();
+		never.setPropagationBehavior(TransactionDefinition.PROPAGATION_NEVER);
+		TransactionalOperator outer = TransactionalOperator.create(this.tm);
+		TransactionalOperator inner = TransactionalOperator.create(this.tm, never);
+
+		outer.execute(status -> inner.execute(innerStatus -> Mono.just("never")))
+				.as(StepVerifier::create)
+				.expectError(IllegalTransactionStateException.class)
+				.verify();
+		assertTrue(this.tm.getResource().isRolledBack());
+	}
+
+	@Test
+	public void failureToBeginTransaction() {
+		this.tm.setCanCreateTransaction(false);
+		TransactionalOperator.create(this.tm).transactional(Mono.just("value"))
+				.as(StepVerifier::create)
+				.expectError(CannotCreateTransactionException.class)
+				.verify();
+	}
+
+	@Test
+	public void synchronizationCallbacksOnCommit() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		TransactionalOperator.create(this.tm).transactional(registerSynchronization(events).thenReturn("value"))
+				.as(StepVerifier::create)
+				.expectNext("value")
+				.verifyComplete();
+
+		assertEquals("[beforeCommit, beforeCompletion, afterCommit, afterCompletion:0]", events.toString());
+	}
+
+	@Test
+	public void synchronizationCallbacksOnRollback() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		TransactionalOperator.create(this.tm)
+				.transactional(registerSynchronization(events).then(Mono.error(new IllegalStateException())))
+				.as(StepVerifier::create)
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		assertEquals("[beforeCompletion, afterCompletion:1]", events.toString());
+	}
+
+	@Test
+	public void synchronizationCallbacksOnCommitFailure() {
+		this.tm.setFailOnCommit(true);
+		List<String> events = new CopyOnWriteArrayList<>();
+		TransactionalOperator.create(this.tm).transactional(registerSynchronization(events))
+				.as(StepVerifier::create)
+				.expectError(TransactionSystemException.class)
+				.verify();
+
+		assertEquals("[beforeCommit, beforeCompletion, afterCompletion:2]", events.toString());
+		assertFalse(this.tm.getResource().isRolledBack());
+		assertTrue(this.tm.getResource().isClosed());
+	}
+
+
+	private Mono<TestResource> currentResource() {
+		return TransactionSynchronizationManager.forCurrentTransaction().map(synchronizationManager ->
+				(TestResource) synchronizationManager.getResource(this.tm));
+	}
+
+	private static Mono<String> currentTransactionName() {
+		return TransactionSynchronizationManager.forCurrentTransaction()
+				.map(TransactionSynchronizationManager::getCurrentTransactionName);
+	}
+
+	private static Mono<Void> registerSynchronization(List<String> events) {
+		return TransactionSynchronizationManager.forCurrentTransaction()
+				.doOnNext(synchronizationManager -> synchronizationManager.registerSynchronization(
+						new TransactionSynchronization() {
+							@Override
+							public Mono<Void> beforeCommit(boolean readOnly) {
+								return Mono.fromRunnable(() -> events.add("beforeCommit"));
+							}
+							@Override
+							public Mono<Void> beforeCompletion() {
+								return Mono.fromRunnable(() -> events.add("beforeCompletion"));
+							}
+							@Override
+							public Mono<Void> afterCommit() {
+								return Mono.fromRunnable(() -> events.add("afterCommit"));
+							}
+							@Override
+							public Mono<Void> afterCompletion(int status) {
+								return Mono.fromRunnable(() -> events.add("afterCompletion:" + status));
+							}
+						}))
+				.then();
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.reactive;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.ReactiveTestTransactionManager.TestResource;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link TransactionalOperator}.
+ *
+ * @since 5.1.21
+ */
+public class TransactionalOperatorTests {
+
+	private final ReactiveTestTransactionManager tm = new ReactiveTestTransactionManager();
+
+	private final TransactionalOperator operator = TransactionalOperator.create(this.tm);
+
+
+	@Test
+	public void commitWithMono() {
+		this.operator.transactional(Mono.just(true))
+				.as(StepVerifier::create)
+				.expectNext(true)
+				.verifyComplete();
+		assertCommitted(this.tm.getResource());
+	}
+
+	@Test
+	public void commitWithEmptyMono() {
+		this.operator.transactional(Mono.empty())
+				.as(StepVerifier::create)
+				.verifyComplete();
+		assertCommitted(this.tm.getResource());
+	}
+
+	@Test
+	public void rollbackWithMono() {
+		this.operator.transactional(Mono.error(new IllegalStateException()))
+				.as(StepVerifier::create)
+				.expectError(IllegalStateException.class)
+				.verify();
+		assertRolledBack(this.tm.getResource());
+	}
+
+	@Test
+	public void commitWithFlux() {
+		this.operator.transactional(Flux.just(1, 2, 3, 4))
+				.as(StepVerifier::create)
+				.expectNextCount(4)
+				.verifyComplete();
+		assertCommitted(this.tm.getResource());
+	}
+
+	@Test
+	public void rollbackWithFlux() {
+		this.operator.transactional(Flux.concat(Flux.just(1), Flux.error(new IllegalStateException())))
+				.as(StepVerifier::create)
+				.expectNext(1)
+				.expectError(IllegalStateException.class)
+				.verify();
+		assertRolledBack(this.tm.getResource());
+	}
+
+	@Test
+	public void rollbackOnCancel() {
+		this.operator.transactional(Flux.interval(Duration.ofMillis(10)))
+				.as(StepVerifier::create)
+				.expectNextCount(2)
+				.thenCancel()
+				.verify();
+		assertRolledBack(this.tm.getResource());
+	}
+
+	@Test
+	public void rollbackOnlyViaStatus() {
+		this.operator.execute(status -> {
+			status.setRollbackOnly();
+			return Mono.just("value");
+		})
+				.as(StepVerifier::create)
+				.expectNext("value")
+				.verifyComplete();
+		assertRolledBack(this.tm.getResource());
+	}
+
+	@Test
+	public void commitFailurePropagatedInsteadOfValue() {
+		this.tm.setFailOnCommit(true);
+		this.operator.transactional(Mono.just("value"))
+				.as(StepVerifier::create)
+				.expectError(TransactionSystemException.class)
+				.verify();
+		TestResource resource = this.tm.getResource();
+		assertFalse(resource.isRolledBack());
+		assertTrue(resource.isClosed());
+	}
+
+	@Test
+	public void commitFailurePropagatedAfterFluxElements() {
+		this.tm.setFailOnCommit(true);
+		this.operator.transactional(Flux.just(1, 2))
+				.as(StepVerifier::create)
+				.expectNext(1, 2)
+				.expectError(TransactionSystemException.class)
+				.verify();
+		assertFalse(this.tm.getResource().isRolledBack());
+	}
+
+	@Test
+	public void transactionContextPropagatedToPipeline() {
+		this.operator.transactional(TransactionSynchronizationManager.forCurrentTransaction()
+				.map(synchronizationManager -> {
+					assertTrue(synchronizationManager.isActualTransactionActive());
+					assertTrue(synchronizationManager.isSynchronizationActive());
+					return synchronizationManager.getResource(this.tm);
+				}))
+				.as(StepVerifier::create)
+				.consumeNextWith(resource -> assertSame(this.tm.getResource(), resource))
+				.verifyComplete();
+	}
+
+
+	private static void assertCommitted(TestResource resource) {
+		assertTrue(resource.isCommitted());
+		assertFalse(resource.isRolledBack());
+		assertTrue(resource.isClosed());
+	}
+
+	private static void assertRolledBack(TestResource resource) {
+		assertFalse(resource.isCommitted());
+		assertTrue(resource.isRolledBack());
+		assertTrue(resource.isClosed());
+	}
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.util.backoff.FixedBackOff;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ChunkedTransactionTemplate}.
+ *
+ * @since 5.1.21
+ */
+public class ChunkedTransactionTemplateTests {
+
+	private final ThreadBindingTransactionManager tm = new ThreadBindingTransactionManager();
+
+	private final ChunkedTransactionTemplate template = new ChunkedTransactionTemplate(this.tm);
+
+	private ExecutorService executorService;
+
+
+	@After
+	public void shutdown() {
+		if (this.executorService != null) {
+			this.executorService.shutdownNow();
+		}
+	}
+
+
+	@Test
+	public void chunksCommittedInOrder() {
+		this.template.setChunkSize(3);
+		List<Integer> results = this.template.executeInChunks(items(10), (chunk, status) -> {
+			assertTrue(status.isNewTransaction());
+			return chunk.stream().mapToInt(Integer::intValue).sum();
+		});
+		assertEquals(Arrays.asList(3, 12, 21, 9), results);
+		assertEquals(4, this.tm.commits.get());
+		assertEquals(0, this.tm.rollbacks.get());
+	}
+
+	@Test
+	public void noItems() {
+		List<Object> results = this.template.executeInChunks(Collections.emptyList(), (chunk, status) -> {
+			throw new IllegalStateException("Should not be called");
+		});
+		assertTrue(results.isEmpty());
+		assertEquals(0, this.tm.begun.get());
+	}
+
+	@Test
+	public void parallelChunksWithResourcesBoundPerThread() {
+		this.template.setChunkSize(10);
+		this.template.setTaskExecutor(parallelExecutor(4));
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+		List<Integer> results = this.template.executeInChunks(items(100), (chunk, status) -> {
+			String threadName = Thread.currentThread().getName();
+			assertEquals(threadName, TransactionSynchronizationManager.getResource(this.tm));
+			threadNames.add(threadName);
+			return chunk.size();
+		});
+		assertEquals(Collections.nCopies(10, 10), results);
+		assertEquals(10, this.tm.commits.get());
+		assertFalse(threadNames.contains(Thread.currentThread().getName()));
+		assertFalse(TransactionSynchronizationManager.hasResource(this.tm));
+	}
+
+	@Test
+	public void retryableFailureRetriedInNewTransaction() {
+		this.template.setChunkSize(5);
+		this.template.setRetryBackOff(new FixedBackOff(0, 2));
+		AtomicInteger attempts = new AtomicInteger();
+
+		List<Integer> results = this.template.executeInChunks(items(10), (chunk, status) -> {
+			if (chunk.get(0) == 5 && attempts.incrementAndGet() < 3) {
+				throw new DeadlockLoserDataAccessException("deadlock", null);
+			}
+			return chunk.size();
+		});
+		assertEquals(Arrays.asList(5, 5), results);
+		assertEquals(3, attempts.get());
+		assertEquals(2, this.tm.rollbacks.get());
+		assertEquals(2, this.tm.commits.get());
+	}
+
+	@Test
+	public void retriesExhausted() {
+		this.template.setChunkSize(5);
+		this.template.setRetryBackOff(new FixedBackOff(0, 1));
+		DeadlockLoserDataAccessException failure = new DeadlockLoserDataAccessException("deadlock", null);
+
+		try {
+			this.template.executeInChunks(items(10), (chunk, status) -> {
+				if (chunk.get(0) == 0) {
+					throw failure;
+				}
+				return chunk.size();
+			});
+			fail("Should have thrown ChunkedTransactionException");
+		}
+		catch (ChunkedTransactionException ex) {
+			assertSame(failure, ex.getCause());
+			assertEquals(Collections.singletonMap(0, failure), ex.getChunkFailures());
+			assertEquals(Arrays.asList(null, 5), ex.getChunkResults());
+		}
+		assertEquals(2, this.tm.rollbacks.get());
+		assertEquals(1, this.tm.commits.get());
+	}
+
+	@Test
+	public void nonRetryableFailuresCollected() {
+		this.template.setChunkSize(2);
+		this.template.setTaskExecutor(parallelExecutor(3));
+		this.template.setRetryBackOff(new FixedBackOff(0, 5));
+
+		try {
+			this.template.executeInChunks(items(10), (chunk, status) -> {
+				if (chunk.get(0) % 4 == 0) {
+					throw new IllegalStateException("chunk " + chunk.get(0));
+				}
+				return chunk.get(0);
+			});
+			fail("Should have thrown ChunkedTransactionException");
+		}
+		catch (ChunkedTransactionException ex) {
+			assertEquals(Arrays.asList(0, 2, 4), new ArrayList<>(ex.getChunkFailures().keySet()));
+			assertEquals("chunk 0", ex.getCause().getMessage());
+			assertEquals(2, ex.getSuppressed().length);
+			assertEquals(Arrays.asList(null, 2, null, 6, null), ex.getChunkResults());
+		}
+		assertEquals(3, this.tm.rollbacks.get());
+		assertEquals(2, this.tm.commits.get());
+	}
+
+	@Test
+	public void rejectedChunkReportedAsFailure() {
+		this.template.setChunkSize(5);
+		TaskExecutor rejecting = task -> {
+			throw new TaskRejectedException("full");
+		};
+		this.template.setTaskExecutor(rejecting);
+
+		try {
+			this.template.executeInChunks(items(10), (chunk, status) -> chunk.size());
+			fail("Should have thrown ChunkedTransactionException");
+		}
+		catch (ChunkedTransactionException ex) {
+			assertEquals(2, ex.getChunkFailures().size());
+		}
+		assertEquals(0, this.tm.begun.get());
+	}
+
+	@Test
+	public void propagationAppliedPerChunk() {
+		this.template.setChunkSize(5);
+		this.template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.template.setReadOnly(true);
+		this.template.executeInChunks(items(10), (chunk, status) -> {
+			assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+			return null;
+		});
+		assertEquals(2, this.tm.commits.get());
+	}
+
+	@Test
+	public void chunksRunInNewTransactionsWithinOuterTransaction() {
+		this.template.setChunkSize(5);
+		IllegalStateException failure = new IllegalStateException("failed chunk");
+
+		new TransactionTemplate(this.tm).execute(outerStatus -> {
+			try {
+				this.template.executeInChunks(items(10), (chunk, status) -> {
+					assertTrue(status.isNewTransaction());
+					if (chunk.get(0) == 0) {
+						throw failure;
+					}
+					return chunk.size();
+				});
+				fail("Should have thrown ChunkedTransactionException");
+			}
+			catch (ChunkedTransactionException ex) {
+				assertSame(failure, ex.getCause());
+				assertEquals(Arrays.asList(null, 5), ex.getChunkResults());
+			}
+			assertFalse(outerStatus.isRollbackOnly());
+			assertEquals(Thread.currentThread().getName(), TransactionSynchronizationManager.getResource(this.tm));
+			return null;
+		});
+		assertEquals(3, this.tm.begun.get());
+		assertEquals(2, this.tm.commits.get());
+		assertEquals(1, this.tm.rollbacks.get());
+	}
+
+
+	private TaskExecutor parallelExecutor(int threads) {
+		this.executorService = Executors.newFixedThreadPool(threads);
+		return this.executorService::execute;
+	}
+
+	private static List<Integer> items(int count) {
+		return IntStream.range(0, count).boxed().collect(Collectors.toList());
+	}
+
+
+	/**
+	 * Thread-safe transaction manager that binds the name of the current
+	 * thread as transactional resource, supporting suspension.
+	 */
+	@SuppressWarnings("serial")
+	private static class ThreadBindingTransactionManager extends AbstractPlatformTransactionManager {
+
+		final AtomicInteger begun = new AtomicInteger();
+
+		final AtomicInteger commits = new AtomicInteger();
+
+		final AtomicInteger rollbacks = new AtomicInteger();
+
+		@Override
+		protected Object doGetTransaction() {
+			return TransactionSynchronizationManager.hasResource(this);
+		}
+
+		@Override
+		protected boolean isExistingTransaction(Object transaction) {
+			return (Boolean) transaction;
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			this.begun.incrementAndGet();
+			TransactionSynchronizationManager.bindResource(this, Thread.currentThread().getName());
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			this.commits.incrementAndGet();
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+			this.rollbacks.incrementAndGet();
+		}
+
+		@Override
+		protected Object doSuspend(Object transaction) {
+			return TransactionSynchronizationManager.unbindResource(this);
+		}
+
+		@Override
+		protected void doResume(Object transaction, Object suspendedResources) {
+			TransactionSynchronizationManager.bindResource(this, suspendedResources);
+		}
+
+		@Override
+		protected void doCleanupAfterCompletion(Object transaction) {
+			TransactionSynchronizationManager.unbindResource(this);
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Benchmarks for {@link Jackson2JsonDecoder}, decoding a JSON array
+ * delivered as a stream of {@link DataBuffer DataBuffers}.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-web:jmh -PjmhInclude=Jackson2JsonDecoderBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class Jackson2JsonDecoderBenchmark {
+
+	@Benchmark
+	public List<Object> decodeToFlux(DecoderData data) {
+		return data.decoder.decode(data.input(), data.elementType,
+				MimeTypeUtils.APPLICATION_JSON, Collections.emptyMap()).collectList().block();
+	}
+
+	@Benchmark
+	public Object decodeToMono(DecoderData data) {
+		return data.decoder.decodeToMono(data.input(), data.listType,
+				MimeTypeUtils.APPLICATION_JSON, Collections.emptyMap()).block();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DecoderData {
+
+		@Param({"10", "1000"})
+		public int elementCount;
+
+		@Param({"1024", "8192"})
+		public int chunkSize;
+
+		public Jackson2JsonDecoder decoder;
+
+		public ResolvableType elementType;
+
+		public ResolvableType listType;
+
+		public List<byte[]> chunks;
+
+		private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.decoder = new Jackson2JsonDecoder();
+			this.elementType = ResolvableType.forClass(Item.class);
+			this.listType = ResolvableType.forClassWithGenerics(List.class, Item.class);
+			StringBuilder json = new StringBuilder("[");
+			for (int i = 0; i < this.elementCount; i++) {
+				if (i > 0) {
+					json.append(',');
+				}
+				json.append("{\"id\":").append(i).append(",\"name\":\"item").append(i)
+						.append("\",\"tags\":[\"a\",\"b\",\"c\"],\"price\":").append(i * 1.5d).append('}');
+			}
+			json.append(']');
+			byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+			this.chunks = new ArrayList<>();
+			for (int offset = 0; offset < bytes.length; offset += this.chunkSize) {
+				byte[] chunk = new byte[Math.min(this.chunkSize, bytes.length - offset)];
+				System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+				this.chunks.add(chunk);
+			}
+		}
+
+		public Flux<DataBuffer> input() {
+			return Flux.fromIterable(this.chunks).map(this.bufferFactory::wrap);
+		}
+	}
+
+
+	public static class Item {
+
+		private long id;
+
+		private String name;
+
+		private List<String> tags;
+
+		private double price;
+
+		public long getId() {
+			return this.id;
+		}
+
+		public void setId(long id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+
+		public double getPrice() {
+			return this.price;
+		}
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+	}
+
+}
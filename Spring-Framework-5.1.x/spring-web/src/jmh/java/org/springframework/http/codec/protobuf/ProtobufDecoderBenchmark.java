@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.protobuf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.MimeType;
+
+/**
+ * Benchmarks for {@link ProtobufDecoder}, decoding a stream of delimited
+ * messages delivered as {@link DataBuffer DataBuffers}.
+ *
+ * <p>With a chunk size larger than the messages, most messages are parsed
+ * directly from the received buffers, whereas small chunks split each message
+ * across several buffers, which are then aggregated before parsing.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-web:jmh -PjmhInclude=ProtobufDecoderBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ProtobufDecoderBenchmark {
+
+	private static final MimeType PROTOBUF = new MimeType("application", "x-protobuf");
+
+
+	@Benchmark
+	public List<Message> decode(DecoderData data) {
+		return data.decoder.decode(data.input(), data.elementType,
+				PROTOBUF, Collections.emptyMap()).collectList().block();
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DecoderData {
+
+		@Param({"100", "1000"})
+		public int messageCount;
+
+		@Param({"16", "65536"})
+		public int chunkSize;
+
+		public ProtobufDecoder decoder;
+
+		public ResolvableType elementType;
+
+		public List<byte[]> chunks;
+
+		private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			this.decoder = new ProtobufDecoder();
+			this.elementType = ResolvableType.forClass(Struct.class);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			for (int i = 0; i < this.messageCount; i++) {
+				Struct message = Struct.newBuilder()
+						.putFields("id", Value.newBuilder().setNumberValue(i).build())
+						.putFields("name", Value.newBuilder().setStringValue("item" + i).build())
+						.putFields("active", Value.newBuilder().setBoolValue(i % 2 == 0).build())
+						.build();
+				message.writeDelimitedTo(out);
+			}
+			byte[] bytes = out.toByteArray();
+			this.chunks = new ArrayList<>();
+			for (int offset = 0; offset < bytes.length; offset += this.chunkSize) {
+				byte[] chunk = new byte[Math.min(this.chunkSize, bytes.length - offset)];
+				System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+				this.chunks.add(chunk);
+			}
+		}
+
+		public Flux<DataBuffer> input() {
+			return Flux.fromIterable(this.chunks).map(this.bufferFactory::wrap);
+		}
+	}
+
+}
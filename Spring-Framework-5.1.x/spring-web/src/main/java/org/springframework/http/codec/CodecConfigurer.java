@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -168,6 +168,12 @@ public interface CodecConfigurer {
 		 * {@link org.springframework.core.io.Resource Resource}, {@code String}, etc.
 		 * It can also occur when splitting the input stream, e.g. delimited text,
 		 * in which case the limit applies to data buffered between delimiters.
+		 * <p>The limit is applied to all default readers and decoders that buffer
+		 * input, including the form data, multipart and Server-Sent Events
+		 * readers, and to the decoders used by them. Buffers aggregated up to
+		 * the point where the limit is exceeded are released, and
+		 * {@link org.springframework.core.io.buffer.DataBufferLimitException
+		 * DataBufferLimitException} is raised.
 		 * <p>By default this is not set, in which case individual codec defaults
 		 * apply. In 5.1 most codecs are not limited except {@code FormHttpMessageReader}
 		 * which is limited to 256K. In 5.2 all codecs are limited to 256K by default.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -91,6 +91,12 @@ public interface ServerCodecConfigurer extends CodecConfigurer {
 		 * MultipartHttpMessageReader} created with an instance of
 		 * {@link org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader
 		 * SynchronossPartHttpMessageReader}.
+		 * <p>To use the
+		 * {@link org.springframework.http.codec.multipart.DefaultPartHttpMessageReader
+		 * DefaultPartHttpMessageReader} instead, which does not require any third-party
+		 * library, set a {@code MultipartHttpMessageReader} created with an instance
+		 * of it. To also decode {@code Flux<Part>} directly, register the same part
+		 * reader as a {@link CodecConfigurer#customCodecs() custom codec}.
 		 * <p>Note that {@link #maxInMemorySize(int)} and/or
 		 * {@link #enableLoggingRequestDetails(boolean)}, if configured, will be
 		 * applied to the given reader, if applicable.
@@ -31,6 +31,7 @@ import org.springframework.core.codec.Decoder;
 import org.springframework.core.codec.StringDecoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.ReactiveHttpInputMessage;
@@ -50,12 +51,12 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 
 	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
-	private static final StringDecoder stringDecoder = StringDecoder.textPlainOnly();
-
 
 	@Nullable
 	private final Decoder<?> decoder;
 
+	private final StringDecoder lineDecoder = StringDecoder.textPlainOnly();
+
 
 	/**
 	 * Constructor without a {@code Decoder}. In this mode only {@code String}
@@ -82,6 +83,28 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 		return this.decoder;
 	}
 
+	/**
+	 * Configure a limit on the maximum number of bytes per SSE event which are
+	 * buffered before the event is parsed.
+	 * <p>Note that the {@link #getDecoder() data decoder}, if provided, must
+	 * also be customized accordingly to raise the limit if necessary in order
+	 * to be able to parse the data portion of the event.
+	 * <p>By default this is not limited.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @since 5.1.21
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.lineDecoder.setMaxInMemorySize(byteCount);
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 * @since 5.1.21
+	 */
+	public int getMaxInMemorySize() {
+		return this.lineDecoder.getMaxInMemorySize();
+	}
+
 	@Override
 	public List<MediaType> getReadableMediaTypes() {
 		return Collections.singletonList(MediaType.TEXT_EVENT_STREAM);
@@ -104,7 +127,9 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 		boolean shouldWrap = isServerSentEvent(elementType);
 		ResolvableType valueType = (shouldWrap ? elementType.getGeneric() : elementType);
 
-		return stringDecoder.decode(message.getBody(), STRING_TYPE, null, hints)
+		LimitTracker limitTracker = new LimitTracker();
+		return this.lineDecoder.decode(message.getBody(), STRING_TYPE, null, hints)
+				.doOnNext(limitTracker::afterLineParsed)
 				.bufferUntil(line -> line.equals(""))
 				.concatMap(lines -> buildEvent(lines, valueType, shouldWrap, hints));
 	}
@@ -177,11 +202,65 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 
 		if (elementType.resolve() == String.class) {
 			Flux<DataBuffer> body = message.getBody();
-			return stringDecoder.decodeToMono(body, elementType, null, null).cast(Object.class);
+			return this.lineDecoder.decodeToMono(body, elementType, null, null).cast(Object.class);
 		}
 
 		return Mono.error(new UnsupportedOperationException(
 				"ServerSentEventHttpMessageReader only supports reading stream of events as a Flux"));
 	}
 
+
+	/**
+	 * Tracks the number of bytes buffered for the lines of the current event,
+	 * with each line being limited by the line decoder already.
+	 */
+	private class LimitTracker {
+
+		private long accumulated = 0;
+
+		public void afterLineParsed(String line) {
+			int maxInMemorySize = getMaxInMemorySize();
+			if (maxInMemorySize < 0) {
+				return;
+			}
+			if (line.isEmpty()) {
+				this.accumulated = 0;
+			}
+			this.accumulated += getByteCount(line);
+			if (this.accumulated > maxInMemorySize) {
+				raiseLimitException(maxInMemorySize);
+			}
+		}
+
+		/**
+		 * Return the number of bytes of the given line in UTF-8, the charset
+		 * that lines are decoded with, without encoding it.
+		 */
+		private long getByteCount(String line) {
+			long count = 0;
+			for (int i = 0; i < line.length(); i++) {
+				char ch = line.charAt(i);
+				if (ch < 0x80) {
+					count++;
+				}
+				else if (ch < 0x800) {
+					count += 2;
+				}
+				else if (Character.isHighSurrogate(ch) && i + 1 < line.length() &&
+						Character.isLowSurrogate(line.charAt(i + 1))) {
+					count += 4;
+					i++;
+				}
+				else {
+					count += 3;
+				}
+			}
+			return count;
+		}
+
+		private void raiseLimitException(int maxInMemorySize) {
+			throw new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + maxInMemorySize);
+		}
+	}
+
 }
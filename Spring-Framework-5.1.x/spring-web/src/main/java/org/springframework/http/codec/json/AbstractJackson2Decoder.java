@@ -18,17 +18,23 @@ package org.springframework.http.codec.json;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
@@ -62,6 +68,8 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 
 	private int maxInMemorySize = -1;
 
+	private boolean directElementBinding = false;
+
 
 	/**
 	 * Until https://github.com/FasterXML/jackson-core/issues/476 is resolved,
@@ -102,6 +110,36 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return this.maxInMemorySize;
 	}
 
+	/**
+	 * Specify whether to bind JSON values directly from the received bytes,
+	 * rather than from a {@link TokenBuffer} populated by Jackson's non-blocking
+	 * parser. This saves copying each value into a {@code TokenBuffer}, and lets
+	 * {@link #decodeToMono} bind a top-level JSON array into a {@code List},
+	 * {@code Set} or object array one element at a time, rather than holding
+	 * the tokens of the entire array before binding.
+	 * <p>Value boundaries are determined through a lightweight scan of the JSON
+	 * structure, with each complete value bound by a regular Jackson parser.
+	 * This is only applied to plain JSON input without comments, single-quoted
+	 * strings or unquoted control characters enabled on the underlying
+	 * {@link JsonFactory}; other formats such as Smile always go through the
+	 * {@code TokenBuffer}.
+	 * <p>Default is "false".
+	 * @since 5.1.21
+	 * @see #decode
+	 * @see #decodeToMono
+	 */
+	public void setDirectElementBinding(boolean directElementBinding) {
+		this.directElementBinding = directElementBinding;
+	}
+
+	/**
+	 * Return whether to bind JSON values directly from the received bytes.
+	 * @since 5.1.21
+	 */
+	public boolean isDirectElementBinding() {
+		return this.directElementBinding;
+	}
+
 
 	@Override
 	public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
@@ -121,6 +159,15 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 
 		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
+		if (canBindDirectly()) {
+			JsonElementTokenizer tokenizer = new JsonElementTokenizer(true, false, getMaxInMemorySize());
+			ObjectReader reader = getObjectReader(getJavaType(elementType), hints, forceUseOfBigDecimal);
+			return tokenizer.tokenize(processed).flatMap(element -> {
+				Object value = readValue(reader, element);
+				logValue(value, hints);
+				return Mono.justOrEmpty(value);
+			});
+		}
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, this.jsonFactory, getObjectMapper(),
 				true, forceUseOfBigDecimal, getMaxInMemorySize());
 		return decodeInternal(tokens, elementType, mimeType, hints);
@@ -153,6 +200,34 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		}
 
 		Flux<DataBuffer> processed = processInput(input, elementType, mimeType, hints);
+		if (canBindDirectly()) {
+			JavaType javaType = getJavaType(elementType);
+			ObjectReader reader = getObjectReader(javaType, hints, forceUseOfBigDecimal);
+			boolean bindArrayElements = canBindArrayElements(javaType);
+			JsonElementTokenizer tokenizer = new JsonElementTokenizer(bindArrayElements, true, getMaxInMemorySize());
+			if (bindArrayElements) {
+				ObjectReader elementReader = reader.forType(javaType.getContentType());
+				return tokenizer.tokenize(processed)
+						.collect(() -> new ArrayElementCollector(javaType), (collector, element) -> {
+							if (element.isArrayElement()) {
+								collector.addElement(readValue(elementReader, element));
+							}
+							else {
+								collector.addValue(readValue(reader, element));
+							}
+						})
+						.flatMap(collector -> {
+							Object value = collector.getResult(tokenizer.getTopLevelArrayCount());
+							logValue(value, hints);
+							return Mono.justOrEmpty(value);
+						});
+			}
+			return tokenizer.tokenize(processed).flatMap(element -> {
+				Object value = readValue(reader, element);
+				logValue(value, hints);
+				return Mono.justOrEmpty(value);
+			}).singleOrEmpty();
+		}
 		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(processed, this.jsonFactory, getObjectMapper(),
 				false, forceUseOfBigDecimal, getMaxInMemorySize());
 		return decodeInternal(tokens, elementType, mimeType, hints).singleOrEmpty();
@@ -164,24 +239,12 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		Assert.notNull(tokens, "'tokens' must not be null");
 		Assert.notNull(elementType, "'elementType' must not be null");
 
-		MethodParameter param = getParameter(elementType);
-		Class<?> contextClass = (param != null ? param.getContainingClass() : null);
-		JavaType javaType = getJavaType(elementType.getType(), contextClass);
-		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
-
-		ObjectReader reader = (jsonView != null ?
-				getObjectMapper().readerWithView(jsonView).forType(javaType) :
-				getObjectMapper().readerFor(javaType));
+		ObjectReader reader = getObjectReader(getJavaType(elementType), hints, false);
 
 		return tokens.flatMap(tokenBuffer -> {
 			try {
 				Object value = reader.readValue(tokenBuffer.asParser(getObjectMapper()));
-				if (!Hints.isLoggingSuppressed(hints)) {
-					LogFormatUtils.traceDebug(logger, traceOn -> {
-						String formatted = LogFormatUtils.formatValue(value, !traceOn);
-						return Hints.getLogPrefix(hints) + "Decoded [" + formatted + "]";
-					});
-				}
+				logValue(value, hints);
 				return Mono.justOrEmpty(value);
 			}
 			catch (InvalidDefinitionException ex) {
@@ -196,6 +259,84 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		});
 	}
 
+	@Nullable
+	private Object readValue(ObjectReader reader, JsonElementTokenizer.Element element) {
+		try {
+			return reader.readValue(element.getBytes(), element.getOffset(), element.getLength());
+		}
+		catch (InvalidDefinitionException ex) {
+			throw new CodecException("Type definition error: " + ex.getType(), ex);
+		}
+		catch (JsonProcessingException ex) {
+			throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
+		}
+		catch (IOException ex) {
+			throw new DecodingException("I/O error while parsing input stream", ex);
+		}
+	}
+
+	private JavaType getJavaType(ResolvableType elementType) {
+		MethodParameter param = getParameter(elementType);
+		Class<?> contextClass = (param != null ? param.getContainingClass() : null);
+		return getJavaType(elementType.getType(), contextClass);
+	}
+
+	private ObjectReader getObjectReader(JavaType javaType, @Nullable Map<String, Object> hints,
+			boolean forceUseOfBigDecimal) {
+
+		Class<?> jsonView = (hints != null ? (Class<?>) hints.get(Jackson2CodecSupport.JSON_VIEW_HINT) : null);
+		ObjectReader reader = (jsonView != null ?
+				getObjectMapper().readerWithView(jsonView).forType(javaType) :
+				getObjectMapper().readerFor(javaType));
+		return (forceUseOfBigDecimal ? reader.with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS) : reader);
+	}
+
+	private void logValue(@Nullable Object value, @Nullable Map<String, Object> hints) {
+		if (!Hints.isLoggingSuppressed(hints)) {
+			LogFormatUtils.traceDebug(logger, traceOn -> {
+				String formatted = LogFormatUtils.formatValue(value, !traceOn);
+				return Hints.getLogPrefix(hints) + "Decoded [" + formatted + "]";
+			});
+		}
+	}
+
+	/**
+	 * Whether values can be bound directly from the received bytes: only for
+	 * plain JSON without non-standard features affecting its structure.
+	 */
+	private boolean canBindDirectly() {
+		return (this.directElementBinding &&
+				JsonFactory.FORMAT_NAME_JSON.equals(this.jsonFactory.getFormatName()) &&
+				!this.jsonFactory.isEnabled(JsonParser.Feature.ALLOW_COMMENTS) &&
+				!this.jsonFactory.isEnabled(JsonParser.Feature.ALLOW_YAML_COMMENTS) &&
+				!this.jsonFactory.isEnabled(JsonParser.Feature.ALLOW_SINGLE_QUOTES) &&
+				!this.jsonFactory.isEnabled(JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS));
+	}
+
+	/**
+	 * Whether the given type can be bound from a top-level JSON array one
+	 * element at a time: a {@code List}, {@code Set} or object array without
+	 * polymorphic type information of its own.
+	 */
+	private boolean canBindArrayElements(JavaType javaType) {
+		Class<?> rawClass = javaType.getRawClass();
+		if (javaType.isArrayType()) {
+			if (javaType.getContentType().isPrimitive()) {
+				return false;
+			}
+		}
+		else if (!(javaType instanceof CollectionType) || (!rawClass.isAssignableFrom(ArrayList.class) &&
+				!rawClass.isAssignableFrom(HashSet.class))) {
+			return false;
+		}
+		try {
+			return (getObjectMapper().getDeserializationConfig().findTypeDeserializer(javaType) == null);
+		}
+		catch (JsonMappingException ex) {
+			return false;
+		}
+	}
+
 
 	// HttpMessageDecoder
 
@@ -219,4 +360,56 @@ public abstract class AbstractJackson2Decoder extends Jackson2CodecSupport imple
 		return parameter.getParameterAnnotation(annotType);
 	}
 
+
+	/**
+	 * Collects the elements of a top-level JSON array into the target
+	 * collection or array, or holds the value of any other top-level JSON
+	 * value, bound for the target type as a whole.
+	 */
+	private static final class ArrayElementCollector {
+
+		private final JavaType javaType;
+
+		private final List<Object> elements = new ArrayList<>();
+
+		@Nullable
+		private Object value;
+
+		private int valueCount;
+
+		ArrayElementCollector(JavaType javaType) {
+			this.javaType = javaType;
+		}
+
+		void addElement(@Nullable Object element) {
+			this.elements.add(element);
+		}
+
+		void addValue(@Nullable Object value) {
+			this.value = value;
+			this.valueCount++;
+		}
+
+		@Nullable
+		Object getResult(int arrayCount) {
+			if (this.valueCount + arrayCount > 1) {
+				throw new DecodingException("JSON decoding error: Expected a single top-level JSON value");
+			}
+			else if (arrayCount == 0) {
+				return this.value;
+			}
+			Class<?> rawClass = this.javaType.getRawClass();
+			if (this.javaType.isArrayType()) {
+				Object array = Array.newInstance(this.javaType.getContentType().getRawClass(), this.elements.size());
+				return this.elements.toArray((Object[]) array);
+			}
+			else if (rawClass.isAssignableFrom(ArrayList.class)) {
+				return this.elements;
+			}
+			else {
+				return new HashSet<>(this.elements);
+			}
+		}
+	}
+
 }
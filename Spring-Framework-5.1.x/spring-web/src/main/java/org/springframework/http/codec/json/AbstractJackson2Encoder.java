@@ -17,6 +17,7 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -28,7 +29,6 @@ import java.util.Map;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -45,6 +45,7 @@ import org.springframework.core.codec.EncodingException;
 import org.springframework.core.codec.Hints;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.HttpMessageEncoder;
@@ -140,20 +141,23 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		else {
 			byte[] separator = streamSeparator(mimeType);
 			if (separator != null) { // streaming
-				try {
-					ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
-					ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
-					JsonEncoding encoding = getJsonEncoding(mimeType);
-					JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
-					SequenceWriter sequenceWriter = writer.writeValues(generator);
-
-					return Flux.from(inputStream)
-							.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter, byteBuilder,
-									separator));
-				}
-				catch (IOException ex) {
-					return Flux.error(ex);
-				}
+				return Flux.defer(() -> {
+					// One generator per subscription, writing each value into its own buffer
+					try {
+						ObjectWriter writer = createObjectWriter(elementType, mimeType, hints);
+						TargetBufferOutputStream outputStream = new TargetBufferOutputStream();
+						JsonEncoding encoding = getJsonEncoding(mimeType);
+						JsonGenerator generator = getObjectMapper().getFactory().createGenerator(outputStream, encoding);
+						SequenceWriter sequenceWriter = writer.writeValues(generator);
+
+						return Flux.from(inputStream)
+								.map(value -> encodeStreamingValue(value, bufferFactory, hints, sequenceWriter,
+										outputStream, separator));
+					}
+					catch (IOException ex) {
+						return Flux.error(ex);
+					}
+				});
 			}
 			else { // non-streaming
 				ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
@@ -170,15 +174,18 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			ResolvableType valueType, @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
 		ObjectWriter writer = createObjectWriter(valueType, mimeType, hints);
-		ByteArrayBuilder byteBuilder = new ByteArrayBuilder(writer.getFactory()._getBufferRecycler());
 		JsonEncoding encoding = getJsonEncoding(mimeType);
 
 		logValue(hints, value);
 
+		// Write straight into the (potentially pooled) buffer, which grows as needed
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		boolean release = true;
 		try {
-			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(byteBuilder, encoding);
+			JsonGenerator generator = getObjectMapper().getFactory().createGenerator(buffer.asOutputStream(), encoding);
 			writer.writeValue(generator, value);
-			generator.flush();
+			generator.close();
+			release = false;
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new CodecException("Type definition error: " + ex.getType(), ex);
@@ -187,24 +194,30 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
 		}
 		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
 		}
-
-		byte[] bytes = byteBuilder.toByteArray();
-		DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length);
-		buffer.write(bytes);
 
 		return buffer;
 	}
 
 	private DataBuffer encodeStreamingValue(Object value, DataBufferFactory bufferFactory, @Nullable Map<String, Object> hints,
-			SequenceWriter sequenceWriter, ByteArrayBuilder byteArrayBuilder, byte[] separator) {
+			SequenceWriter sequenceWriter, TargetBufferOutputStream outputStream, byte[] separator) {
 
 		logValue(hints, value);
 
+		DataBuffer buffer = bufferFactory.allocateBuffer();
+		int start = buffer.writePosition();
+		outputStream.setTarget(buffer);
+		boolean release = true;
 		try {
 			sequenceWriter.write(value);
 			sequenceWriter.flush();
+			release = false;
 		}
 		catch (InvalidDefinitionException ex) {
 			throw new CodecException("Type definition error: " + ex.getType(), ex);
@@ -213,25 +226,19 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 			throw new EncodingException("JSON encoding error: " + ex.getOriginalMessage(), ex);
 		}
 		catch (IOException ex) {
-			throw new IllegalStateException("Unexpected I/O error while writing to byte array builder", ex);
+			throw new IllegalStateException("Unexpected I/O error while writing to data buffer", ex);
+		}
+		finally {
+			outputStream.setTarget(null);
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
 		}
 
-		byte[] bytes = byteArrayBuilder.toByteArray();
-		byteArrayBuilder.reset();
-
-		int offset;
-		int length;
-		if (bytes.length > 0 && bytes[0] == ' ') {
+		if (buffer.writePosition() > start && buffer.getByte(start) == ' ') {
 			// SequenceWriter writes an unnecessary space in between values
-			offset = 1;
-			length = bytes.length - 1;
+			buffer.readPosition(start + 1);
 		}
-		else {
-			offset = 0;
-			length = bytes.length;
-		}
-		DataBuffer buffer = bufferFactory.allocateBuffer(length + separator.length);
-		buffer.write(bytes, offset, length);
 		buffer.write(separator);
 
 		return buffer;
@@ -322,4 +329,36 @@ public abstract class AbstractJackson2Encoder extends Jackson2CodecSupport imple
 		return parameter.getMethodAnnotation(annotType);
 	}
 
+
+	/**
+	 * {@link OutputStream} for a generator that is reused across the values of
+	 * a stream, writing to the buffer of the value currently being encoded.
+	 */
+	private static class TargetBufferOutputStream extends OutputStream {
+
+		@Nullable
+		private DataBuffer target;
+
+		public void setTarget(@Nullable DataBuffer target) {
+			this.target = target;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			obtainTarget().write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			obtainTarget().write(b, off, len);
+		}
+
+		private DataBuffer obtainTarget() throws IOException {
+			if (this.target == null) {
+				throw new IOException("No target buffer for the value being encoded");
+			}
+			return this.target;
+		}
+	}
+
 }
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+/**
+ * Splits a UTF-8 encoded JSON stream of arbitrary size into the raw bytes of
+ * its top-level values or, optionally, of the elements of a top-level array,
+ * ready for binding with a regular (blocking) Jackson parser.
+ *
+ * <p>In contrast to {@link Jackson2Tokenizer}, no {@code TokenBuffer} is built
+ * for each value: the tokenizer merely tracks the nesting of JSON structures
+ * and string literals to locate value boundaries. A value that is contained
+ * in a single data buffer is handed out as a range of that buffer's bytes,
+ * whereas a value spanning several buffers is accumulated until complete.
+ * The syntax of each value is left to the parser binding it.
+ *
+ * <p>Not suitable for non-standard JSON features that affect the structure,
+ * such as comments or single-quoted strings.
+ *
+ * @since 5.1.21
+ * @see Jackson2Tokenizer
+ */
+final class JsonElementTokenizer {
+
+	private static final int NO_VALUE = 0;
+
+	private static final int STRUCTURE_VALUE = 1;
+
+	private static final int STRING_VALUE = 2;
+
+	private static final int LITERAL_VALUE = 3;
+
+
+	private final boolean tokenizeArrayElements;
+
+	private final boolean limitWholeInput;
+
+	private final int maxInMemorySize;
+
+	private int valueType = NO_VALUE;
+
+	private int depth;
+
+	private boolean inString;
+
+	private boolean escaped;
+
+	private boolean inTopLevelArray;
+
+	private boolean arrayElementExpected;
+
+	private boolean arraySeparatorExpected;
+
+	private boolean arrayElement;
+
+	private int topLevelArrayCount;
+
+	private int bomBytesToSkip = -1;
+
+	private long byteCount;
+
+	private byte[] pending = new byte[0];
+
+	private int pendingLength;
+
+
+	/**
+	 * Create a new tokenizer for a single JSON stream.
+	 * @param tokenizeArrays if {@code true} and a "top level" JSON value is
+	 * an array, each element is returned individually immediately after it is received
+	 * @param limitWholeInput whether to apply the {@code maxInMemorySize} to the
+	 * entire input rather than to each value
+	 * @param maxInMemorySize maximum memory size, or -1 for unlimited
+	 */
+	JsonElementTokenizer(boolean tokenizeArrays, boolean limitWholeInput, int maxInMemorySize) {
+		this.tokenizeArrayElements = tokenizeArrays;
+		this.limitWholeInput = limitWholeInput;
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+
+	/**
+	 * Tokenize the given {@code Flux<DataBuffer>} into a {@code Flux<Element>}.
+	 * @param dataBuffers the source data buffers, encoded in UTF-8
+	 * @return the resulting elements
+	 */
+	public Flux<Element> tokenize(Flux<DataBuffer> dataBuffers) {
+		return dataBuffers.flatMap(this::tokenize, Flux::error, this::endOfInput);
+	}
+
+	/**
+	 * Return the number of top-level arrays tokenized into their elements so far.
+	 */
+	public int getTopLevelArrayCount() {
+		return this.topLevelArrayCount;
+	}
+
+	private Flux<Element> tokenize(DataBuffer dataBuffer) {
+		byte[] bytes = new byte[dataBuffer.readableByteCount()];
+		dataBuffer.read(bytes);
+		DataBufferUtils.release(dataBuffer);
+
+		List<Element> result = new ArrayList<>();
+		try {
+			if (this.limitWholeInput) {
+				assertInMemorySize(this.byteCount + bytes.length);
+				this.byteCount += bytes.length;
+			}
+			int valueStart = 0;
+			int i = 0;
+			while (i < bytes.length) {
+				byte b = bytes[i];
+				if (this.valueType != NO_VALUE) {
+					boolean complete = (this.valueType == LITERAL_VALUE ? isLiteralEnd(b) : scanValue(b));
+					if (!complete) {
+						i++;
+						continue;
+					}
+					int valueEnd = (this.valueType == LITERAL_VALUE ? i : i + 1);
+					result.add(completeValue(bytes, valueStart, valueEnd));
+					if (this.valueType != LITERAL_VALUE) {
+						this.valueType = NO_VALUE;
+						i++;
+						continue;
+					}
+					// Re-process the delimiter of the literal below
+					this.valueType = NO_VALUE;
+				}
+				if (startValue(b, i)) {
+					valueStart = i;
+				}
+				i++;
+			}
+			if (this.valueType != NO_VALUE) {
+				if (!this.limitWholeInput) {
+					assertInMemorySize(this.pendingLength + (long) (bytes.length - valueStart));
+				}
+				appendPending(bytes, valueStart, bytes.length);
+			}
+			return Flux.fromIterable(result);
+		}
+		catch (DecodingException | DataBufferLimitException ex) {
+			// Values completed before the failure are still valid
+			return Flux.fromIterable(result).concatWith(Flux.error(ex));
+		}
+	}
+
+	private Flux<Element> endOfInput() {
+		if (this.valueType == LITERAL_VALUE) {
+			this.valueType = NO_VALUE;
+			return Flux.just(completeValue(new byte[0], 0, 0));
+		}
+		else if (this.valueType != NO_VALUE || this.inTopLevelArray) {
+			return Flux.error(new DecodingException("JSON decoding error: Unexpected end-of-input within " +
+					(this.valueType != NO_VALUE ? "value" : "top-level array")));
+		}
+		return Flux.empty();
+	}
+
+	/**
+	 * Process the given byte outside of a value.
+	 * @return {@code true} if the byte starts a value, {@code false} otherwise
+	 */
+	private boolean startValue(byte b, int index) {
+		if (this.bomBytesToSkip != 0) {
+			if (this.bomBytesToSkip < 0) {
+				this.bomBytesToSkip = (b == (byte) 0xEF ? 2 : 0);
+				if (this.bomBytesToSkip > 0) {
+					return false;
+				}
+			}
+			else {
+				this.bomBytesToSkip--;
+				return false;
+			}
+		}
+		if (isWhitespace(b)) {
+			return false;
+		}
+		if (this.inTopLevelArray) {
+			if (this.arraySeparatorExpected) {
+				if (b == ',') {
+					this.arraySeparatorExpected = false;
+					this.arrayElementExpected = true;
+					return false;
+				}
+				else if (b == ']') {
+					this.inTopLevelArray = false;
+					this.arraySeparatorExpected = false;
+					return false;
+				}
+				throw unexpectedCharacter(b, index, "expected comma or end of array");
+			}
+			else if (b == ']' && !this.arrayElementExpected) {
+				this.inTopLevelArray = false;
+				return false;
+			}
+		}
+		else if (b == '[' && this.tokenizeArrayElements) {
+			this.inTopLevelArray = true;
+			this.arrayElementExpected = false;
+			this.topLevelArrayCount++;
+			return false;
+		}
+		if (b == '{' || b == '[') {
+			this.valueType = STRUCTURE_VALUE;
+			this.depth = 1;
+		}
+		else if (b == '"') {
+			this.valueType = STRING_VALUE;
+			this.inString = true;
+		}
+		else if (b == '}' || b == ']' || b == ',' || b == ':') {
+			throw unexpectedCharacter(b, index, "expected a value");
+		}
+		else {
+			this.valueType = LITERAL_VALUE;
+		}
+		this.arrayElement = this.inTopLevelArray;
+		if (this.inTopLevelArray) {
+			this.arrayElementExpected = false;
+			this.arraySeparatorExpected = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Process the given byte within a structure or string value.
+	 * @return {@code true} if the byte completes the value, {@code false} otherwise
+	 */
+	private boolean scanValue(byte b) {
+		if (this.inString) {
+			if (this.escaped) {
+				this.escaped = false;
+			}
+			else if (b == '\\') {
+				this.escaped = true;
+			}
+			else if (b == '"') {
+				this.inString = false;
+				return (this.valueType == STRING_VALUE);
+			}
+			return false;
+		}
+		switch (b) {
+			case '"':
+				this.inString = true;
+				return false;
+			case '{':
+			case '[':
+				this.depth++;
+				return false;
+			case '}':
+			case ']':
+				return (--this.depth == 0);
+			default:
+				return false;
+		}
+	}
+
+	private Element completeValue(byte[] bytes, int start, int end) {
+		if (this.pendingLength == 0) {
+			if (!this.limitWholeInput) {
+				assertInMemorySize(end - start);
+			}
+			return new Element(bytes, start, end - start, this.arrayElement);
+		}
+		if (!this.limitWholeInput) {
+			assertInMemorySize(this.pendingLength + (long) (end - start));
+		}
+		appendPending(bytes, start, end);
+		Element element = new Element(this.pending, 0, this.pendingLength, this.arrayElement);
+		this.pending = new byte[0];
+		this.pendingLength = 0;
+		return element;
+	}
+
+	/**
+	 * Append the given range to the bytes of a value spanning several buffers.
+	 */
+	private void appendPending(byte[] bytes, int start, int end) {
+		int length = end - start;
+		if (this.pendingLength + length > this.pending.length) {
+			int capacity = Math.max(this.pendingLength + length, this.pending.length * 2);
+			this.pending = Arrays.copyOf(this.pending, capacity);
+		}
+		System.arraycopy(bytes, start, this.pending, this.pendingLength, length);
+		this.pendingLength += length;
+	}
+
+	private void assertInMemorySize(long byteCount) {
+		if (this.maxInMemorySize >= 0 && byteCount > this.maxInMemorySize) {
+			throw new DataBufferLimitException(this.limitWholeInput ?
+					"Exceeded limit on max bytes to buffer : " + this.maxInMemorySize :
+					"Exceeded limit on max bytes per JSON object: " + this.maxInMemorySize);
+		}
+	}
+
+	private DecodingException unexpectedCharacter(byte b, int index, String expected) {
+		return new DecodingException("JSON decoding error: Unexpected character ('" + (char) (b & 0xFF) +
+				"' (code " + (b & 0xFF) + ")) at buffer index " + index + ": " + expected);
+	}
+
+	private static boolean isLiteralEnd(byte b) {
+		return (isWhitespace(b) || b == ',' || b == ']' || b == '}' || b == '[' || b == '{' || b == '"');
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return (b == ' ' || b == '\n' || b == '\r' || b == '\t');
+	}
+
+
+	/**
+	 * The raw bytes of a complete top-level JSON value or array element.
+	 */
+	static final class Element {
+
+		private final byte[] bytes;
+
+		private final int offset;
+
+		private final int length;
+
+		private final boolean arrayElement;
+
+		Element(byte[] bytes, int offset, int length, boolean arrayElement) {
+			this.bytes = bytes;
+			this.offset = offset;
+			this.length = length;
+			this.arrayElement = arrayElement;
+		}
+
+		public byte[] getBytes() {
+			return this.bytes;
+		}
+
+		public int getOffset() {
+			return this.offset;
+		}
+
+		public int getLength() {
+			return this.length;
+		}
+
+		/**
+		 * Whether this is an element of a top-level array, as opposed to
+		 * a top-level value.
+		 */
+		public boolean isArrayElement() {
+			return this.arrayElement;
+		}
+
+		@Override
+		public String toString() {
+			return new String(this.bytes, this.offset, this.length, StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+
+/**
+ * Push parser for a {@code "multipart/form-data"} body that turns each data
+ * buffer received into {@link Token tokens} for the headers and the body
+ * chunks of the parts contained in it.
+ *
+ * <p>Body tokens are slices of the buffer passed to {@link #parse}, without
+ * copying and without retaining that buffer: they are only valid until the
+ * caller releases it. Parts are delimited with a Knuth-Morris-Pratt search
+ * for the boundary, which is carried across buffer boundaries, so that every
+ * body byte is examined exactly once.
+ *
+ * <p>Nested multipart bodies are not parsed but exposed as the body of the
+ * enclosing part. Instances are stateful and not thread-safe.
+ *
+ * @since 5.1.21
+ * @see PartGenerator
+ */
+final class MultipartParser {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] HEADERS_END = {CR, LF, CR, LF};
+
+	// Static DataBufferFactory to wrap delimiter bytes that turn out to be body content.
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	private enum State {
+
+		/** Before the first delimiter: discarding content. */
+		PREAMBLE,
+
+		/** After a delimiter: until the end of the delimiter line. */
+		DELIMITER_SUFFIX,
+
+		/** Within the header section of a part. */
+		HEADERS,
+
+		/** Within the body of a part, up to the next delimiter. */
+		BODY,
+
+		/** After the close delimiter: discarding content. */
+		EPILOGUE
+	}
+
+
+	private final byte[] delimiter;
+
+	private final int[] delimiterFailure;
+
+	private final int maxHeadersSize;
+
+	private final Charset headersCharset;
+
+	private State state = State.PREAMBLE;
+
+	/** Number of delimiter bytes matched so far, possibly in previous buffers. */
+	private int delimiterMatch;
+
+	/** Number of bytes seen after a delimiter, and the first of these. */
+	private int suffixCount;
+
+	private byte suffixStart;
+
+	/** Number of bytes matched of the empty line ending the headers. */
+	private int headersEndMatch;
+
+	/** Offset of the scanned byte view within the current data buffer. */
+	private int bufferOffset;
+
+	private byte[] headers = new byte[256];
+
+	private int headersLength;
+
+
+	/**
+	 * Create a new parser for a single multipart body.
+	 * @param boundary the boundary taken from the {@code Content-Type} header
+	 * @param maxHeadersSize the maximum size of the headers of each part,
+	 * or -1 for unlimited
+	 * @param headersCharset the charset to decode part headers with
+	 */
+	MultipartParser(byte[] boundary, int maxHeadersSize, Charset headersCharset) {
+		// Delimiters are preceded by CRLF, except for the very first one...
+		this.delimiter = new byte[boundary.length + 4];
+		this.delimiter[0] = CR;
+		this.delimiter[1] = LF;
+		this.delimiter[2] = HYPHEN;
+		this.delimiter[3] = HYPHEN;
+		System.arraycopy(boundary, 0, this.delimiter, 4, boundary.length);
+		this.delimiterFailure = failureFunction(this.delimiter);
+		this.maxHeadersSize = maxHeadersSize;
+		this.headersCharset = headersCharset;
+		// ... which we handle by pretending the body to start with CRLF
+		this.delimiterMatch = 2;
+	}
+
+
+	/**
+	 * Parse the given data buffer.
+	 * @param buffer the next buffer of the multipart body
+	 * @return the tokens found in the buffer, in order
+	 * @throws DecodingException if the part headers are malformed
+	 * @throws DataBufferLimitException if part headers exceed the maximum size
+	 */
+	public List<Token> parse(DataBuffer buffer) {
+		List<Token> tokens = new ArrayList<>(4);
+		// Scan a view of the readable bytes, avoiding per-byte index checks
+		ByteBuffer bytes = buffer.asByteBuffer();
+		int position = bytes.position();
+		int end = bytes.limit();
+		this.bufferOffset = buffer.readPosition() - position;
+		while (position < end) {
+			switch (this.state) {
+				case PREAMBLE:
+				case BODY:
+					position = scanBody(buffer, bytes, position, end, tokens);
+					break;
+				case DELIMITER_SUFFIX:
+					position = scanDelimiterSuffix(bytes, position, end);
+					break;
+				case HEADERS:
+					position = scanHeaders(bytes, position, end, tokens);
+					break;
+				default:
+					// Epilogue
+					return tokens;
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Verify that the end of the input is a legal end of the multipart body.
+	 * @throws DecodingException if the close delimiter has not been found
+	 */
+	public void complete() {
+		switch (this.state) {
+			case EPILOGUE:
+				return;
+			case PREAMBLE:
+				throw new DecodingException("Could not find first boundary");
+			default:
+				throw new DecodingException("Could not find end of body");
+		}
+	}
+
+	/**
+	 * Search for the next delimiter, handing out body content in between.
+	 * @return the position after the delimiter, or the end of the buffer
+	 */
+	private int scanBody(DataBuffer buffer, ByteBuffer bytes, int start, int end, List<Token> tokens) {
+		int carried = this.delimiterMatch;
+		int match = this.delimiterMatch;
+		for (int i = start; i < end; i++) {
+			byte b = bytes.get(i);
+			while (match > 0 && this.delimiter[match] != b) {
+				match = this.delimiterFailure[match - 1];
+			}
+			if (this.delimiter[match] == b) {
+				match++;
+			}
+			if (match == this.delimiter.length) {
+				emitBody(buffer, start, i + 1, carried, match, tokens);
+				if (this.state == State.BODY) {
+					tokens.add(Token.PART_END);
+				}
+				this.state = State.DELIMITER_SUFFIX;
+				this.delimiterMatch = 0;
+				this.suffixCount = 0;
+				return i + 1;
+			}
+		}
+		emitBody(buffer, start, end, carried, match, tokens);
+		this.delimiterMatch = match;
+		return end;
+	}
+
+	/**
+	 * Hand out the body content in the given range that precedes the given
+	 * number of held back bytes, which are a (potential) delimiter, taking into
+	 * account that the bytes carried over from previous buffers are a prefix
+	 * of the delimiter.
+	 */
+	private void emitBody(DataBuffer buffer, int start, int end, int carried, int heldBack,
+			List<Token> tokens) {
+
+		if (this.state != State.BODY) {
+			return;
+		}
+		int content = carried + (end - start) - heldBack;
+		if (content <= 0) {
+			return;
+		}
+		int carriedContent = Math.min(carried, content);
+		if (carriedContent > 0) {
+			tokens.add(Token.body(bufferFactory.wrap(Arrays.copyOf(this.delimiter, carriedContent))));
+		}
+		int bufferContent = content - carriedContent;
+		if (bufferContent > 0) {
+			tokens.add(Token.body(buffer.slice(this.bufferOffset + start, bufferContent)));
+		}
+	}
+
+	/**
+	 * Process the rest of a delimiter line: either "--" for the close
+	 * delimiter, or optional whitespace up to CRLF.
+	 * @return the position after the delimiter line, or the end of the buffer
+	 */
+	private int scanDelimiterSuffix(ByteBuffer bytes, int start, int end) {
+		for (int i = start; i < end; i++) {
+			byte b = bytes.get(i);
+			this.suffixCount++;
+			if (this.suffixCount == 1) {
+				this.suffixStart = b;
+			}
+			else if (this.suffixCount == 2 && this.suffixStart == HYPHEN && b == HYPHEN) {
+				this.state = State.EPILOGUE;
+				return end;
+			}
+			if (b == LF) {
+				this.state = State.HEADERS;
+				// The CRLF ending the delimiter line also starts the headers end
+				this.headers[0] = CR;
+				this.headers[1] = LF;
+				this.headersLength = 2;
+				this.headersEndMatch = 2;
+				return i + 1;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Accumulate header bytes up to the empty line that ends them.
+	 * @return the position after the headers, or the end of the buffer
+	 */
+	private int scanHeaders(ByteBuffer bytes, int start, int end, List<Token> tokens) {
+		int match = this.headersEndMatch;
+		for (int i = start; i < end; i++) {
+			byte b = bytes.get(i);
+			appendHeaderByte(b);
+			if (HEADERS_END[match] == b) {
+				match++;
+			}
+			else {
+				match = (b == CR ? 1 : 0);
+			}
+			if (match == HEADERS_END.length) {
+				tokens.add(Token.headers(parseHeaders()));
+				this.state = State.BODY;
+				this.delimiterMatch = 0;
+				this.headersLength = 0;
+				return i + 1;
+			}
+		}
+		this.headersEndMatch = match;
+		return end;
+	}
+
+	private void appendHeaderByte(byte b) {
+		if (this.maxHeadersSize >= 0 && this.headersLength - 2 >= this.maxHeadersSize) {
+			throw new DataBufferLimitException(
+					"Part headers exceeded the memory usage limit of " + this.maxHeadersSize + " bytes");
+		}
+		if (this.headersLength == this.headers.length) {
+			this.headers = Arrays.copyOf(this.headers, this.headers.length * 2);
+		}
+		this.headers[this.headersLength++] = b;
+	}
+
+	private HttpHeaders parseHeaders() {
+		HttpHeaders result = new HttpHeaders();
+		// Skip the leading CRLF and the trailing empty line, which overlap without headers
+		int length = Math.max(0, this.headersLength - 6);
+		String[] lines = new String(this.headers, 2, length, this.headersCharset).split("\r\n");
+		String name = null;
+		StringBuilder value = new StringBuilder();
+		for (String line : lines) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			if (name != null && (line.charAt(0) == ' ' || line.charAt(0) == '\t')) {
+				// Obsolete line folding
+				value.append(' ').append(line.trim());
+				continue;
+			}
+			if (name != null) {
+				result.add(name, value.toString());
+			}
+			int colon = line.indexOf(':');
+			if (colon <= 0) {
+				throw new DecodingException("Invalid part header: \"" + line + "\"");
+			}
+			name = line.substring(0, colon).trim();
+			value.setLength(0);
+			value.append(line.substring(colon + 1).trim());
+		}
+		if (name != null) {
+			result.add(name, value.toString());
+		}
+		return result;
+	}
+
+	private static int[] failureFunction(byte[] pattern) {
+		int[] result = new int[pattern.length];
+		int match = 0;
+		for (int i = 1; i < pattern.length; i++) {
+			while (match > 0 && pattern[i] != pattern[match]) {
+				match = result[match - 1];
+			}
+			if (pattern[i] == pattern[match]) {
+				match++;
+			}
+			result[i] = match;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Output of the parser: the headers of a part, a chunk of its body,
+	 * or the end of a part.
+	 */
+	static final class Token {
+
+		static final Token PART_END = new Token(null, null);
+
+		@Nullable
+		private final HttpHeaders headers;
+
+		@Nullable
+		private final DataBuffer buffer;
+
+		private Token(@Nullable HttpHeaders headers, @Nullable DataBuffer buffer) {
+			this.headers = headers;
+			this.buffer = buffer;
+		}
+
+		static Token headers(HttpHeaders headers) {
+			return new Token(headers, null);
+		}
+
+		static Token body(DataBuffer buffer) {
+			return new Token(null, buffer);
+		}
+
+		/**
+		 * Return the headers of a new part, or {@code null} if this is not
+		 * a headers token.
+		 */
+		@Nullable
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		/**
+		 * Return a chunk of the body of the current part, or {@code null}
+		 * if this is not a body token.
+		 */
+		@Nullable
+		public DataBuffer getBuffer() {
+			return this.buffer;
+		}
+
+		/**
+		 * Whether this token signals the end of the current part.
+		 */
+		public boolean isPartEnd() {
+			return (this == PART_END);
+		}
+
+		@Override
+		public String toString() {
+			if (this.headers != null) {
+				return "headers " + this.headers;
+			}
+			else if (this.buffer != null) {
+				return "body " + StandardCharsets.UTF_8.decode(this.buffer.asByteBuffer());
+			}
+			return "part end";
+		}
+	}
+
+}
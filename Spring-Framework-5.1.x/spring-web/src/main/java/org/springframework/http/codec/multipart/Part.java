@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.http.codec.multipart;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
@@ -57,4 +58,19 @@ public interface Part {
 	 */
 	Flux<DataBuffer> content();
 
+	/**
+	 * Return a mono that, when subscribed to, deletes the underlying storage
+	 * for this part, e.g. a temporary file.
+	 * <p>Parts obtained through {@link org.springframework.web.server.ServerWebExchange#getMultipartData()}
+	 * are deleted automatically once the request has been handled. Parts read
+	 * directly from the request body should be deleted by the caller when not
+	 * consumed.
+	 * <p>The default implementation returns an empty mono, for parts without
+	 * storage of their own.
+	 * @since 5.1.21
+	 */
+	default Mono<Void> delete() {
+		return Mono.empty();
+	}
+
 }
@@ -0,0 +1,614 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Subscribe to a multipart body, feed it to a {@link MultipartParser}, and
+ * turn the parser output into {@link Part parts}, pushing each one into the
+ * {@link FluxSink} as soon as it is complete.
+ *
+ * <p>A part is kept in memory up to the configured in-memory size. Beyond
+ * that, file parts are written to a temporary file, through a
+ * {@link FileChannel} on the blocking operation scheduler, while other parts
+ * are rejected. The body is only requested one buffer at a time and only
+ * while there is demand for parts, with each buffer being released once the
+ * parser output for it has been consumed.
+ *
+ * <p>All temporary files created for the request are tracked, and deleted
+ * when the stream of parts terminates with an error or is cancelled, including
+ * the files of parts that have been emitted already. After successful
+ * completion, the files are owned by the emitted parts.
+ *
+ * @since 5.1.21
+ * @see DefaultPartHttpMessageReader
+ */
+final class PartGenerator extends BaseSubscriber<DataBuffer> implements Consumer<FluxSink<Part>> {
+
+	private static final OpenOption[] FILE_CHANNEL_OPTIONS =
+			{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+	// Static DataBufferFactory to wrap in-memory content and read from temporary files.
+	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	private final Flux<DataBuffer> body;
+
+	private final MultipartParser parser;
+
+	private final int maxInMemorySize;
+
+	private final long maxDiskUsagePerPart;
+
+	private final int maxParts;
+
+	private final Callable<Path> fileStorageDirectory;
+
+	private final Scheduler blockingOperationScheduler;
+
+	@Nullable
+	private FluxSink<Part> sink;
+
+	private final AtomicBoolean awaitingDemand = new AtomicBoolean();
+
+	private final AtomicBoolean terminated = new AtomicBoolean();
+
+	private final List<Path> files = new CopyOnWriteArrayList<>();
+
+	private volatile boolean processing;
+
+	private volatile boolean bodyComplete;
+
+	// State of the current part...
+
+	@Nullable
+	private HttpHeaders headers;
+
+	@Nullable
+	private String filename;
+
+	private int partCount;
+
+	private long partSize;
+
+	private final List<byte[]> content = new ArrayList<>();
+
+	@Nullable
+	private Path file;
+
+	@Nullable
+	private FileChannel channel;
+
+
+	PartGenerator(Flux<DataBuffer> body, MultipartParser parser, int maxInMemorySize,
+			long maxDiskUsagePerPart, int maxParts, Callable<Path> fileStorageDirectory,
+			Scheduler blockingOperationScheduler) {
+
+		this.body = body;
+		this.parser = parser;
+		this.maxInMemorySize = maxInMemorySize;
+		this.maxDiskUsagePerPart = maxDiskUsagePerPart;
+		this.maxParts = maxParts;
+		this.fileStorageDirectory = fileStorageDirectory;
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+
+	@Override
+	public void accept(FluxSink<Part> sink) {
+		this.sink = sink;
+		sink.onRequest(n -> {
+			if (this.awaitingDemand.compareAndSet(true, false)) {
+				request(1);
+			}
+		});
+		sink.onDispose(() -> {
+			dispose();
+			if (this.terminated.compareAndSet(false, true)) {
+				// Cancelled by the consumer of the parts
+				deleteFiles();
+			}
+		});
+		this.body.subscribe(this);
+	}
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		requestBody();
+	}
+
+	@Override
+	protected void hookOnNext(DataBuffer buffer) {
+		List<MultipartParser.Token> tokens;
+		try {
+			tokens = this.parser.parse(buffer);
+		}
+		catch (Throwable ex) {
+			DataBufferUtils.release(buffer);
+			fail(ex);
+			return;
+		}
+		this.processing = true;
+		process(tokens.iterator(), buffer);
+	}
+
+	@Override
+	protected void hookOnError(Throwable ex) {
+		fail(ex);
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		this.bodyComplete = true;
+		if (!this.processing) {
+			complete();
+		}
+	}
+
+	/**
+	 * Request the next body buffer if there is demand for parts, or else
+	 * once there is.
+	 */
+	private void requestBody() {
+		this.awaitingDemand.set(true);
+		if (obtainSink().requestedFromDownstream() > 0 && this.awaitingDemand.compareAndSet(true, false)) {
+			request(1);
+		}
+	}
+
+	/**
+	 * Process the given parser output for the given buffer. Returns early,
+	 * to be continued on the blocking operation scheduler, when body content
+	 * needs to be written to the file system.
+	 */
+	private void process(Iterator<MultipartParser.Token> tokens, DataBuffer buffer) {
+		try {
+			while (tokens.hasNext()) {
+				if (this.terminated.get()) {
+					DataBufferUtils.release(buffer);
+					return;
+				}
+				MultipartParser.Token token = tokens.next();
+				HttpHeaders headers = token.getHeaders();
+				DataBuffer chunk = token.getBuffer();
+				if (headers != null) {
+					startPart(headers);
+				}
+				else if (chunk != null) {
+					if (!storeInMemory(chunk)) {
+						this.blockingOperationScheduler.schedule(() -> {
+							try {
+								storeInFile(chunk);
+							}
+							catch (Throwable ex) {
+								DataBufferUtils.release(buffer);
+								fail(ex);
+								return;
+							}
+							process(tokens, buffer);
+						});
+						return;
+					}
+				}
+				else {
+					completePart();
+				}
+			}
+		}
+		catch (Throwable ex) {
+			DataBufferUtils.release(buffer);
+			fail(ex);
+			return;
+		}
+		DataBufferUtils.release(buffer);
+		this.processing = false;
+		if (this.bodyComplete) {
+			complete();
+		}
+		else {
+			requestBody();
+		}
+	}
+
+	private void startPart(HttpHeaders headers) {
+		this.partCount++;
+		if (this.maxParts >= 0 && this.partCount > this.maxParts) {
+			throw new DecodingException("Too many parts (" + this.maxParts + " allowed)");
+		}
+		this.headers = headers;
+		this.filename = headers.getContentDisposition().getFilename();
+		this.partSize = 0;
+	}
+
+	/**
+	 * Keep the given body chunk in memory, unless the in-memory limit is
+	 * exceeded by a file part.
+	 * @return {@code true} if stored in memory, {@code false} if the chunk
+	 * should be stored in a file instead
+	 */
+	private boolean storeInMemory(DataBuffer chunk) {
+		this.partSize += chunk.readableByteCount();
+		if (this.channel != null) {
+			return false;
+		}
+		if (this.maxInMemorySize >= 0 && this.partSize > this.maxInMemorySize) {
+			if (this.filename == null) {
+				throw new DataBufferLimitException("Part[" + this.partCount + "] " +
+						"exceeded the in-memory limit of " + this.maxInMemorySize + " bytes");
+			}
+			return false;
+		}
+		byte[] bytes = new byte[chunk.readableByteCount()];
+		chunk.read(bytes);
+		this.content.add(bytes);
+		return true;
+	}
+
+	/**
+	 * Write the given body chunk to the file of the current part, creating
+	 * that file with the content held in memory so far if necessary.
+	 */
+	private void storeInFile(DataBuffer chunk) throws Exception {
+		if (this.maxDiskUsagePerPart >= 0 && this.partSize > this.maxDiskUsagePerPart) {
+			throw new DecodingException("Part[" + this.partCount + "] " +
+					"exceeded the disk usage limit of " + this.maxDiskUsagePerPart + " bytes");
+		}
+		FileChannel channel = this.channel;
+		if (channel == null) {
+			Path file = Files.createTempFile(this.fileStorageDirectory.call(), null, ".multipart");
+			this.files.add(file);
+			if (this.terminated.get()) {
+				// Terminated concurrently, possibly before the file has been tracked
+				Files.deleteIfExists(file);
+				return;
+			}
+			this.file = file;
+			channel = FileChannel.open(file, FILE_CHANNEL_OPTIONS);
+			this.channel = channel;
+			for (byte[] bytes : this.content) {
+				writeFully(channel, ByteBuffer.wrap(bytes));
+			}
+			this.content.clear();
+		}
+		writeFully(channel, chunk.asByteBuffer());
+	}
+
+	private void completePart() throws IOException {
+		HttpHeaders headers = this.headers;
+		Assert.state(headers != null, "No part headers");
+		Part part;
+		FileChannel channel = this.channel;
+		if (channel != null) {
+			channel.close();
+			Assert.state(this.file != null && this.filename != null, "No file part");
+			part = new FileStoragePart(headers, this.filename, this.file, this.blockingOperationScheduler);
+		}
+		else {
+			byte[] content = joinContent();
+			if (this.filename != null) {
+				part = new InMemoryFilePart(headers, content, this.filename, this.blockingOperationScheduler);
+			}
+			else if (isFormField(headers)) {
+				part = new DefaultFormFieldPart(headers, content);
+			}
+			else {
+				part = new DefaultPart(headers, content);
+			}
+		}
+		this.headers = null;
+		this.filename = null;
+		this.file = null;
+		this.channel = null;
+		this.content.clear();
+		obtainSink().next(part);
+	}
+
+	private byte[] joinContent() {
+		if (this.content.size() == 1) {
+			return this.content.get(0);
+		}
+		byte[] result = new byte[(int) this.partSize];
+		int offset = 0;
+		for (byte[] bytes : this.content) {
+			System.arraycopy(bytes, 0, result, offset, bytes.length);
+			offset += bytes.length;
+		}
+		return result;
+	}
+
+	private void complete() {
+		if (this.terminated.compareAndSet(false, true)) {
+			try {
+				this.parser.complete();
+			}
+			catch (Throwable ex) {
+				deleteFiles();
+				obtainSink().error(ex);
+				return;
+			}
+			obtainSink().complete();
+		}
+	}
+
+	private void fail(Throwable ex) {
+		if (this.terminated.compareAndSet(false, true)) {
+			dispose();
+			deleteFiles();
+			if (ex instanceof IOException) {
+				ex = new DecodingException("Failed to store part[" + this.partCount + "]", ex);
+			}
+			obtainSink().error(ex);
+		}
+	}
+
+	/**
+	 * Delete the files of all parts of the request, including the file
+	 * of a part that is not complete yet, if any.
+	 */
+	private void deleteFiles() {
+		FileChannel channel = this.channel;
+		if (channel != null) {
+			try {
+				channel.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+		for (Path file : this.files) {
+			try {
+				Files.deleteIfExists(file);
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+	private FluxSink<Part> obtainSink() {
+		FluxSink<Part> sink = this.sink;
+		Assert.state(sink != null, "Not subscribed yet");
+		return sink;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer byteBuffer) throws IOException {
+		while (byteBuffer.hasRemaining()) {
+			channel.write(byteBuffer);
+		}
+	}
+
+	private static boolean isFormField(HttpHeaders headers) {
+		MediaType contentType = headers.getContentType();
+		return (contentType == null || MediaType.TEXT_PLAIN.equalsTypeAndSubtype(contentType));
+	}
+
+
+	private abstract static class AbstractPart implements Part {
+
+		private final String name;
+
+		private final HttpHeaders headers;
+
+		AbstractPart(HttpHeaders headers) {
+			String name = headers.getContentDisposition().getName();
+			this.name = (name != null ? name : "");
+			this.headers = headers;
+		}
+
+		@Override
+		public String name() {
+			return this.name;
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + this.name + "', headers=" + this.headers;
+		}
+	}
+
+
+	private static class DefaultPart extends AbstractPart {
+
+		private final byte[] content;
+
+		DefaultPart(HttpHeaders headers, byte[] content) {
+			super(headers);
+			this.content = content;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory.wrap(this.content)));
+		}
+
+		protected byte[] getContent() {
+			return this.content;
+		}
+	}
+
+
+	private static class DefaultFormFieldPart extends DefaultPart implements FormFieldPart {
+
+		DefaultFormFieldPart(HttpHeaders headers, byte[] content) {
+			super(headers, content);
+		}
+
+		@Override
+		public String value() {
+			MediaType contentType = headers().getContentType();
+			Charset charset = (contentType != null && contentType.getCharset() != null ?
+					contentType.getCharset() : StandardCharsets.UTF_8);
+			return new String(getContent(), charset);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "=" + value() + "'";
+		}
+	}
+
+
+	private static class InMemoryFilePart extends DefaultPart implements FilePart {
+
+		private final String filename;
+
+		private final Scheduler scheduler;
+
+		InMemoryFilePart(HttpHeaders headers, byte[] content, String filename, Scheduler scheduler) {
+			super(headers, content);
+			this.filename = filename;
+			this.scheduler = scheduler;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.<Void>fromCallable(() -> {
+				try (FileChannel output = FileChannel.open(dest, FILE_CHANNEL_OPTIONS)) {
+					writeFully(output, ByteBuffer.wrap(getContent()));
+				}
+				return null;
+			}).subscribeOn(this.scheduler);
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+
+	/**
+	 * File part stored in a temporary file, which is deleted once its content
+	 * has been consumed, either through {@link #content()} or through
+	 * {@link #transferTo(Path)}, or else through {@link #delete()}.
+	 */
+	private static class FileStoragePart extends AbstractPart implements FilePart {
+
+		private final String filename;
+
+		private final Path file;
+
+		private final Scheduler scheduler;
+
+		FileStoragePart(HttpHeaders headers, String filename, Path file, Scheduler scheduler) {
+			super(headers);
+			this.filename = filename;
+			this.file = file;
+			this.scheduler = scheduler;
+		}
+
+		@Override
+		public String filename() {
+			return this.filename;
+		}
+
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.using(() -> this.file,
+					file -> DataBufferUtils.readByteChannel(
+							() -> FileChannel.open(file, StandardOpenOption.READ), bufferFactory, 4096),
+					file -> deleteFile())
+					.subscribeOn(this.scheduler);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			return Mono.<Void>fromRunnable(this::deleteFile).subscribeOn(this.scheduler);
+		}
+
+		@Override
+		public Mono<Void> transferTo(Path dest) {
+			return Mono.<Void>fromCallable(() -> {
+				try (FileChannel input = FileChannel.open(this.file, StandardOpenOption.READ);
+						FileChannel output = FileChannel.open(dest, FILE_CHANNEL_OPTIONS)) {
+					long size = input.size();
+					long totalWritten = 0;
+					while (totalWritten < size) {
+						long written = input.transferTo(totalWritten, size - totalWritten, output);
+						if (written <= 0) {
+							break;
+						}
+						totalWritten += written;
+					}
+				}
+				finally {
+					deleteFile();
+				}
+				return null;
+			}).subscribeOn(this.scheduler);
+		}
+
+		private void deleteFile() {
+			try {
+				Files.deleteIfExists(this.file);
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Part '" + name() + "', filename='" + this.filename + "'";
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,7 +51,9 @@ import org.springframework.util.MimeType;
  * {@link #decode(Publisher, ResolvableType, MimeType, Map)} are expected to use
  * <a href="https://developers.google.com/protocol-buffers/docs/techniques?hl=en#streaming">
  * delimited Protobuf messages</a> with the size of each message specified before
- * the message itself. Single values deserialized via
+ * the message itself. A message contained in a single data buffer is parsed
+ * directly from that buffer, while a message spanning several data buffers
+ * is first aggregated. Single values deserialized via
  * {@link #decodeToMono(Publisher, ResolvableType, MimeType, Map)} are expected
  * to use regular Protobuf message format (without the size prepended before
  * the message).
@@ -205,10 +207,7 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 		public Iterable<? extends Message> apply(DataBuffer input) {
 			try {
 				List<Message> messages = new ArrayList<>();
-				int remainingBytesToRead;
-				int chunkBytesToRead;
-
-				do {
+				while (input.readableByteCount() > 0) {
 					if (this.output == null) {
 						if (!readMessageSize(input)) {
 							return messages;
@@ -219,28 +218,34 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 											"(" + this.messageBytesToRead + ") exceeds " +
 											"the configured limit (" + this.maxMessageSize + ")");
 						}
+						int readPosition = input.readPosition();
+						if (input.readableByteCount() >= this.messageBytesToRead) {
+							// Message contained in this buffer: parse without copying
+							ByteBuffer messageBuffer = input.asByteBuffer(readPosition, this.messageBytesToRead);
+							input.readPosition(readPosition + this.messageBytesToRead);
+							messages.add(parseMessage(messageBuffer));
+							continue;
+						}
 						this.output = input.factory().allocateBuffer(this.messageBytesToRead);
 					}
 
-					chunkBytesToRead = this.messageBytesToRead >= input.readableByteCount() ?
-							input.readableByteCount() : this.messageBytesToRead;
-					remainingBytesToRead = input.readableByteCount() - chunkBytesToRead;
-
-					byte[] bytesToWrite = new byte[chunkBytesToRead];
-					input.read(bytesToWrite, 0, chunkBytesToRead);
-					this.output.write(bytesToWrite);
+					int readPosition = input.readPosition();
+					int chunkBytesToRead = Math.min(this.messageBytesToRead, input.readableByteCount());
+					this.output.write(input.asByteBuffer(readPosition, chunkBytesToRead));
+					input.readPosition(readPosition + chunkBytesToRead);
 					this.messageBytesToRead -= chunkBytesToRead;
 
 					if (this.messageBytesToRead == 0) {
-						CodedInputStream stream = CodedInputStream.newInstance(this.output.asByteBuffer());
-						DataBufferUtils.release(this.output);
+						DataBuffer aggregated = this.output;
 						this.output = null;
-						Message message = getMessageBuilder(this.elementType.toClass())
-								.mergeFrom(stream, extensionRegistry)
-								.build();
-						messages.add(message);
+						try {
+							messages.add(parseMessage(aggregated.asByteBuffer()));
+						}
+						finally {
+							DataBufferUtils.release(aggregated);
+						}
 					}
-				} while (remainingBytesToRead > 0);
+				}
 				return messages;
 			}
 			catch (DecodingException ex) {
@@ -257,6 +262,12 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 			}
 		}
 
+		private Message parseMessage(ByteBuffer buffer) throws Exception {
+			return getMessageBuilder(this.elementType.toClass())
+					.mergeFrom(CodedInputStream.newInstance(buffer), extensionRegistry)
+					.build();
+		}
+
 		/**
 		 * Parse message size as a varint from the input stream, updating {@code messageBytesToRead} and
 		 * {@code offset} fields if needed to allow processing of upcoming chunks.
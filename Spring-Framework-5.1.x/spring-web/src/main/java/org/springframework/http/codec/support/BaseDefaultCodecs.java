@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,7 @@ import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.http.codec.json.Jackson2SmileDecoder;
 import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
 import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
 import org.springframework.http.codec.multipart.MultipartHttpMessageWriter;
 import org.springframework.http.codec.multipart.SynchronossPartHttpMessageReader;
@@ -237,9 +238,6 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs, CodecConfigure
 		if (codec instanceof DecoderHttpMessageReader) {
 			codec = ((DecoderHttpMessageReader) codec).getDecoder();
 		}
-		else if (codec instanceof ServerSentEventHttpMessageReader) {
-			codec = ((ServerSentEventHttpMessageReader) codec).getDecoder();
-		}
 
 		if (codec == null) {
 			return;
@@ -268,6 +266,12 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs, CodecConfigure
 			if (codec instanceof FormHttpMessageReader) {
 				((FormHttpMessageReader) codec).setMaxInMemorySize(size);
 			}
+			if (codec instanceof ServerSentEventHttpMessageReader) {
+				((ServerSentEventHttpMessageReader) codec).setMaxInMemorySize(size);
+			}
+			if (codec instanceof DefaultPartHttpMessageReader) {
+				((DefaultPartHttpMessageReader) codec).setMaxInMemorySize(size);
+			}
 			if (synchronossMultipartPresent) {
 				if (codec instanceof SynchronossPartHttpMessageReader) {
 					((SynchronossPartHttpMessageReader) codec).setMaxInMemorySize(size);
@@ -283,6 +287,9 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs, CodecConfigure
 			if (codec instanceof MultipartHttpMessageReader) {
 				((MultipartHttpMessageReader) codec).setEnableLoggingRequestDetails(enable);
 			}
+			if (codec instanceof DefaultPartHttpMessageReader) {
+				((DefaultPartHttpMessageReader) codec).setEnableLoggingRequestDetails(enable);
+			}
 			if (synchronossMultipartPresent) {
 				if (codec instanceof SynchronossPartHttpMessageReader) {
 					((SynchronossPartHttpMessageReader) codec).setEnableLoggingRequestDetails(enable);
@@ -299,6 +306,9 @@ class BaseDefaultCodecs implements CodecConfigurer.DefaultCodecs, CodecConfigure
 		if (codec instanceof MultipartHttpMessageReader) {
 			initCodec(((MultipartHttpMessageReader) codec).getPartReader());
 		}
+		else if (codec instanceof ServerSentEventHttpMessageReader) {
+			initCodec(((ServerSentEventHttpMessageReader) codec).getDecoder());
+		}
 		else if (codec instanceof MultipartHttpMessageWriter) {
 			initCodec(((MultipartHttpMessageWriter) codec).getFormWriter());
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -139,6 +139,26 @@ public interface ServerWebExchange {
 	 */
 	Mono<MultiValueMap<String, Part>> getMultipartData();
 
+	/**
+	 * Delete the storage of the parts of the {@link #getMultipartData() multipart
+	 * data}, e.g. temporary files of parts not consumed by the handler. Invoked
+	 * once the request has been handled.
+	 * <p>The default implementation goes through the cached multipart data,
+	 * ignoring any error from reading it. Implementations are encouraged to
+	 * override this method to avoid reading multipart data that has not been
+	 * requested.
+	 * @since 5.1.21
+	 * @see Part#delete()
+	 */
+	default Mono<Void> cleanupMultipart() {
+		return getMultipartData()
+				.onErrorResume(ex -> Mono.empty())
+				.flatMapIterable(Map::values)
+				.flatMapIterable(Function.identity())
+				.flatMap(part -> part.delete().onErrorResume(ex -> Mono.empty()))
+				.then();
+	}
+
 	/**
 	 * Return the {@link LocaleContext} using the configured
 	 * {@link org.springframework.web.server.i18n.LocaleContextResolver}.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -107,6 +107,11 @@ public class ServerWebExchangeDecorator implements ServerWebExchange {
 		return getDelegate().getMultipartData();
 	}
 
+	@Override
+	public Mono<Void> cleanupMultipart() {
+		return getDelegate().cleanupMultipart();
+	}
+
 	@Override
 	public boolean isNotModified() {
 		return getDelegate().isNotModified();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import org.springframework.context.ApplicationContext;
@@ -91,6 +92,9 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 
 	private final Mono<MultiValueMap<String, Part>> multipartDataMono;
 
+	@Nullable
+	private volatile MultiValueMap<String, Part> multipartData;
+
 	@Nullable
 	private final ApplicationContext applicationContext;
 
@@ -129,7 +133,8 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 		this.sessionMono = sessionManager.getSession(this).cache();
 		this.localeContextResolver = localeContextResolver;
 		this.formDataMono = initFormData(request, codecConfigurer, getLogPrefix());
-		this.multipartDataMono = initMultipartData(request, codecConfigurer, getLogPrefix());
+		this.multipartDataMono = initMultipartData(request, codecConfigurer, getLogPrefix())
+				.doOnNext(data -> this.multipartData = data);
 		this.applicationContext = applicationContext;
 	}
 
@@ -221,6 +226,23 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 		return this.multipartDataMono;
 	}
 
+	/**
+	 * Delete the storage of the parts of the {@link #getMultipartData() multipart
+	 * data} only if it has been read, without triggering a read otherwise.
+	 * @since 5.1.21
+	 */
+	@Override
+	public Mono<Void> cleanupMultipart() {
+		MultiValueMap<String, Part> multipartData = this.multipartData;
+		if (multipartData == null) {
+			return Mono.empty();
+		}
+		return Flux.fromIterable(multipartData.values())
+				.flatMapIterable(Function.identity())
+				.flatMap(part -> part.delete().onErrorResume(ex -> Mono.empty()))
+				.then();
+	}
+
 	@Override
 	public LocaleContext getLocaleContext() {
 		return this.localeContextResolver.resolveLocaleContext(this);
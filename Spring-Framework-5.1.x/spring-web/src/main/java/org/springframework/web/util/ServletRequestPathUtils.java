@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.server.PathContainer;
+
+/**
+ * Utility class to parse the lookup path of a servlet request into a
+ * {@link PathContainer} once per request and to cache it in a request
+ * attribute, for matching against pre-parsed
+ * {@link org.springframework.web.util.pattern.PathPattern PathPatterns}.
+ *
+ * <p>The lookup path is determined through a {@link UrlPathHelper}, i.e. in the
+ * same way as for String pattern matching through a
+ * {@link org.springframework.util.PathMatcher PathMatcher}.
+ *
+ * @since 5.1.21
+ * @see org.springframework.web.util.pattern.PathPattern#matches(PathContainer)
+ */
+public abstract class ServletRequestPathUtils {
+
+	/** Name of the request attribute that holds the parsed lookup path. */
+	public static final String PATH_ATTRIBUTE = ServletRequestPathUtils.class.getName() + ".PATH";
+
+
+	/**
+	 * Parse the given lookup path and cache it in the request attribute
+	 * {@link #PATH_ATTRIBUTE}, replacing any previously parsed lookup path.
+	 * @param request the current request
+	 * @param lookupPath the lookup path as determined by the given UrlPathHelper
+	 * @param urlPathHelper the UrlPathHelper that determined the lookup path,
+	 * indicating whether the lookup path has been decoded already
+	 * @return the parsed lookup path
+	 */
+	public static PathContainer parseAndCache(
+			HttpServletRequest request, String lookupPath, UrlPathHelper urlPathHelper) {
+
+		PathContainer path = parseLookupPath(lookupPath, urlPathHelper);
+		request.setAttribute(PATH_ATTRIBUTE, path);
+		return path;
+	}
+
+	/**
+	 * Parse the given lookup path without caching it, e.g. for matching
+	 * outside of a request.
+	 * @param lookupPath the lookup path as determined by the given UrlPathHelper
+	 * @param urlPathHelper the UrlPathHelper that determined the lookup path,
+	 * indicating whether the lookup path has been decoded already
+	 * @return the parsed lookup path
+	 */
+	public static PathContainer parseLookupPath(String lookupPath, UrlPathHelper urlPathHelper) {
+		// PathContainer expects an encoded path: segments are decoded for matching
+		String path = (urlPathHelper.isUrlDecode() ? UriUtils.encodePath(lookupPath, StandardCharsets.UTF_8) : lookupPath);
+		return PathContainer.parsePath(path);
+	}
+
+	/**
+	 * Return the cached lookup path for the given request,
+	 * parsing and caching it first if necessary.
+	 * @param request the current request
+	 * @param urlPathHelper the UrlPathHelper to determine the lookup path with
+	 * @return the parsed lookup path
+	 */
+	public static PathContainer getParsedLookupPath(HttpServletRequest request, UrlPathHelper urlPathHelper) {
+		Object path = request.getAttribute(PATH_ATTRIBUTE);
+		if (path instanceof PathContainer) {
+			return (PathContainer) path;
+		}
+		return parseAndCache(request, urlPathHelper.getLookupPathForRequest(request), urlPathHelper);
+	}
+
+	/**
+	 * Return the cached lookup path for the given request if it has been parsed
+	 * from the given lookup path, or otherwise parse the given lookup path
+	 * without replacing the cached one, e.g. for a lookup path that differs
+	 * from the one determined for the current dispatch.
+	 * @param request the current request
+	 * @param lookupPath the lookup path as determined by the given UrlPathHelper
+	 * @param urlPathHelper the UrlPathHelper that determined the lookup path,
+	 * indicating whether the lookup path has been decoded already
+	 * @return the parsed lookup path
+	 */
+	public static PathContainer getParsedLookupPath(
+			HttpServletRequest request, String lookupPath, UrlPathHelper urlPathHelper) {
+
+		Object path = request.getAttribute(PATH_ATTRIBUTE);
+		if (path instanceof PathContainer &&
+				lookupPath.equals(getPathValue((PathContainer) path, urlPathHelper))) {
+			return (PathContainer) path;
+		}
+		return parseLookupPath(lookupPath, urlPathHelper);
+	}
+
+	/**
+	 * Check whether a parsed lookup path has been cached for the given request.
+	 * @param request the current request
+	 */
+	public static boolean hasParsedLookupPath(ServletRequest request) {
+		return (request.getAttribute(PATH_ATTRIBUTE) != null);
+	}
+
+	/**
+	 * Remove the cached lookup path for the given request.
+	 * @param request the current request
+	 */
+	public static void clearParsedLookupPath(ServletRequest request) {
+		request.removeAttribute(PATH_ATTRIBUTE);
+	}
+
+	/**
+	 * Return the given path within a parsed lookup path in the same form as
+	 * the lookup path of the given UrlPathHelper, i.e. decoded if applicable.
+	 * @param path a path obtained from a parsed lookup path
+	 * @param urlPathHelper the UrlPathHelper that determined the lookup path
+	 * @return the path value
+	 */
+	public static String getPathValue(PathContainer path, UrlPathHelper urlPathHelper) {
+		return (urlPathHelper.isUrlDecode() ? UriUtils.decode(path.value(), StandardCharsets.UTF_8) : path.value());
+	}
+
+}
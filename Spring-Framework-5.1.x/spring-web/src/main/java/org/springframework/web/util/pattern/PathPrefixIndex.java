@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+
+/**
+ * Prefix tree over the leading literal segments of URL patterns, used to narrow
+ * down the mappings to check for a lookup path before evaluating their conditions.
+ *
+ * <p>Each mapping is indexed under the literal segments that precede the first
+ * segment with a wildcard or URI variable, excluding the last segment of the
+ * pattern which may be subject to suffix or trailing slash matching. Mappings
+ * without such a literal prefix are kept at the root and apply to any path.
+ * Segments are compared leniently (ignoring case, surrounding whitespace and
+ * path parameters) so that the candidates for a path are always a superset of
+ * the mappings that can actually match it.
+ *
+ * <p>Not thread-safe: modifications must be guarded against concurrent lookups.
+ *
+ * <p>Mainly for internal use within the framework, shared by the handler method
+ * mappings of Spring MVC and Spring WebFlux.
+ *
+ * @since 5.1.21
+ * @param <T> the mapping type
+ * @see org.springframework.web.servlet.handler.AbstractHandlerMethodMapping
+ * @see org.springframework.web.reactive.result.method.AbstractHandlerMethodMapping
+ */
+public final class PathPrefixIndex<T> {
+
+	private final Node<T> root = new Node<>();
+
+
+	/**
+	 * Index the given mapping under the literal prefixes of its URL patterns.
+	 * @param mapping the mapping to index
+	 * @param patterns the URL patterns of the mapping, if any
+	 */
+	public void add(T mapping, Collection<String> patterns) {
+		if (patterns.isEmpty()) {
+			this.root.mappings.add(mapping);
+			return;
+		}
+		for (String pattern : patterns) {
+			Node<T> node = this.root;
+			String[] segments = tokenize(pattern);
+			for (int i = 0; i < segments.length - 1 && isLiteral(segments[i]); i++) {
+				node = node.children.computeIfAbsent(segments[i], key -> new Node<>());
+			}
+			node.mappings.add(mapping);
+		}
+	}
+
+	/**
+	 * Remove the given mapping, previously indexed with the same URL patterns.
+	 * @param mapping the mapping to remove
+	 * @param patterns the URL patterns of the mapping, if any
+	 */
+	public void remove(T mapping, Collection<String> patterns) {
+		if (patterns.isEmpty()) {
+			this.root.mappings.remove(mapping);
+			return;
+		}
+		for (String pattern : patterns) {
+			Node<T> node = this.root;
+			String[] segments = tokenize(pattern);
+			for (int i = 0; i < segments.length - 1 && isLiteral(segments[i]) && node != null; i++) {
+				node = node.children.get(segments[i]);
+			}
+			if (node != null) {
+				node.mappings.remove(mapping);
+			}
+		}
+	}
+
+	/**
+	 * Return the mappings that may match the given lookup path.
+	 * @param lookupPath the lookup path, with "/" as separator
+	 * @return the candidate mappings, in registration order per prefix
+	 */
+	public Collection<T> getCandidates(String lookupPath) {
+		Collector<T> collector = new Collector<>(this.root);
+		Node<T> node = this.root;
+		int length = lookupPath.length();
+		int start = 0;
+		while (start < length && node != null) {
+			int end = lookupPath.indexOf('/', start);
+			end = (end != -1 ? end : length);
+			if (end > start) {
+				String segment = normalize(lookupPath.substring(start, end));
+				if (!segment.isEmpty()) {
+					node = node.children.get(segment);
+					collector.add(node);
+				}
+			}
+			start = end + 1;
+		}
+		return collector.getCandidates();
+	}
+
+	/**
+	 * Return the mappings that may match the given parsed lookup path.
+	 * @param lookupPath the parsed lookup path
+	 * @return the candidate mappings, in registration order per prefix
+	 */
+	public Collection<T> getCandidates(PathContainer lookupPath) {
+		Collector<T> collector = new Collector<>(this.root);
+		Node<T> node = this.root;
+		for (PathContainer.Element element : lookupPath.elements()) {
+			if (node == null) {
+				break;
+			}
+			if (element instanceof PathContainer.PathSegment) {
+				String segment = normalize(((PathContainer.PathSegment) element).valueToMatch());
+				if (!segment.isEmpty()) {
+					node = node.children.get(segment);
+					collector.add(node);
+				}
+			}
+		}
+		return collector.getCandidates();
+	}
+
+
+	private static String[] tokenize(String pattern) {
+		String[] tokens = pattern.split("/");
+		int count = 0;
+		for (String token : tokens) {
+			String segment = normalize(token);
+			if (!segment.isEmpty()) {
+				tokens[count++] = segment;
+			}
+		}
+		String[] segments = new String[count];
+		System.arraycopy(tokens, 0, segments, 0, count);
+		return segments;
+	}
+
+	private static boolean isLiteral(String segment) {
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '*' || c == '?' || c == '{' || c == '}') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Normalize the given segment for lenient comparison, removing path
+	 * parameters and surrounding whitespace, and folding the case of each
+	 * character in the same way as {@link String#equalsIgnoreCase}.
+	 */
+	private static String normalize(String segment) {
+		int end = segment.indexOf(';');
+		String value = (end != -1 ? segment.substring(0, end) : segment).trim();
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (fold(c) != c) {
+				char[] chars = value.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					chars[j] = fold(chars[j]);
+				}
+				return new String(chars);
+			}
+		}
+		return value;
+	}
+
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+
+	private static final class Node<T> {
+
+		final Map<String, Node<T>> children = new HashMap<>(4);
+
+		final Set<T> mappings = new LinkedHashSet<>(4);
+	}
+
+
+	/**
+	 * Collects the mappings of the nodes along a path, avoiding a copy
+	 * unless more than one node contributes mappings.
+	 */
+	private static final class Collector<T> {
+
+		@Nullable
+		private Set<T> first;
+
+		@Nullable
+		private Set<T> merged;
+
+		Collector(Node<T> root) {
+			add(root);
+		}
+
+		void add(@Nullable Node<T> node) {
+			if (node == null || node.mappings.isEmpty()) {
+				return;
+			}
+			if (this.first == null) {
+				this.first = node.mappings;
+			}
+			else {
+				if (this.merged == null) {
+					this.merged = new LinkedHashSet<>(this.first);
+				}
+				this.merged.addAll(node.mappings);
+			}
+		}
+
+		Collection<T> getCandidates() {
+			if (this.merged != null) {
+				return this.merged;
+			}
+			return (this.first != null ? this.first : Collections.emptySet());
+		}
+	}
+
+}
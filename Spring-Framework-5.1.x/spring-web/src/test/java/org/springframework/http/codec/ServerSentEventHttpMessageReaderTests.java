@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import reactor.test.StepVerifier;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.AbstractLeakCheckingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.Jackson2JsonDecoder;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
@@ -189,6 +190,51 @@ public class ServerSentEventHttpMessageReaderTests extends AbstractLeakCheckingT
 				.verify();
 	}
 
+	@Test
+	public void maxInMemorySize() {
+		ServerSentEventHttpMessageReader reader = new ServerSentEventHttpMessageReader();
+		String body = "data:foo\ndata:bar\n\ndata:baz\n\n";
+
+		reader.setMaxInMemorySize(16);
+		StepVerifier.create(reader.read(ResolvableType.forClass(String.class),
+				MockServerHttpRequest.post("/").body(Mono.just(stringBuffer(body))), Collections.emptyMap()))
+				.expectNext("foo\nbar", "baz")
+				.verifyComplete();
+
+		reader.setMaxInMemorySize(15);
+		StepVerifier.create(reader.read(ResolvableType.forClass(String.class),
+				MockServerHttpRequest.post("/").body(Mono.just(stringBuffer(body))), Collections.emptyMap()))
+				.verifyError(DataBufferLimitException.class);
+	}
+
+	@Test
+	public void maxInMemorySizePerLine() {
+		ServerSentEventHttpMessageReader reader = new ServerSentEventHttpMessageReader();
+		reader.setMaxInMemorySize(8);
+		Flux<DataBuffer> body = Flux.just(stringBuffer("data:"), stringBuffer("foobar\n\n"));
+
+		StepVerifier.create(reader.read(ResolvableType.forClass(String.class),
+				MockServerHttpRequest.post("/").body(body), Collections.emptyMap()))
+				.verifyError(DataBufferLimitException.class);
+	}
+
+	@Test
+	public void maxInMemorySizeInBytes() {
+		ServerSentEventHttpMessageReader reader = new ServerSentEventHttpMessageReader();
+		String body = "data:\u00e9\u00e9\ndata:\u00e9\u00e9\n\n";
+
+		reader.setMaxInMemorySize(18);
+		StepVerifier.create(reader.read(ResolvableType.forClass(String.class),
+				MockServerHttpRequest.post("/").body(Mono.just(stringBuffer(body))), Collections.emptyMap()))
+				.expectNext("\u00e9\u00e9\n\u00e9\u00e9")
+				.verifyComplete();
+
+		reader.setMaxInMemorySize(17);
+		StepVerifier.create(reader.read(ResolvableType.forClass(String.class),
+				MockServerHttpRequest.post("/").body(Mono.just(stringBuffer(body))), Collections.emptyMap()))
+				.verifyError(DataBufferLimitException.class);
+	}
+
 	private DataBuffer stringBuffer(String value) {
 		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
 		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
@@ -21,8 +21,10 @@ import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -41,6 +43,7 @@ import org.springframework.core.codec.AbstractDecoderTestCase;
 import org.springframework.core.codec.CodecException;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.Pojo;
 import org.springframework.util.MimeType;
@@ -48,6 +51,7 @@ import org.springframework.util.MimeType;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -291,6 +295,79 @@ public class Jackson2JsonDecoderTests extends AbstractDecoderTestCase<Jackson2Js
 				null);
 	}
 
+	@Test
+	public void decodeWithDirectElementBinding() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectElementBinding(true);
+		Flux<DataBuffer> input = Flux.concat(
+				stringBuffer("[{\"bar\":\"b1\",\"foo\":\"f1\"}, null, {\"bar\":"),
+				stringBuffer("\"b2\",\"foo\":\"f2\"}]"));
+
+		StepVerifier.create(decoder.decode(input, forClass(Pojo.class), APPLICATION_JSON, emptyMap()))
+				.expectNext(pojo1)
+				.expectNext(pojo2)
+				.verifyComplete();
+
+		StepVerifier.create(decoder.decode(stringBuffer("[{\"foo\": 1}, {\"foo\": [2]}]"),
+				forClass(Pojo.class), APPLICATION_JSON, emptyMap()))
+				.expectNextCount(1)
+				.verifyError(DecodingException.class);
+	}
+
+	@Test
+	public void decodeToMonoWithDirectElementBinding() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectElementBinding(true);
+		String json = "[{\"bar\":\"b1\",\"foo\":\"f1\"},{\"bar\":\"b2\",\"foo\":\"f2\"}]";
+
+		StepVerifier.create(decoder.decodeToMono(Flux.concat(stringBuffer(json.substring(0, 20)),
+				stringBuffer(json.substring(20))), ResolvableType.forClassWithGenerics(List.class, Pojo.class),
+				APPLICATION_JSON, emptyMap()))
+				.expectNext(asList(pojo1, pojo2))
+				.verifyComplete();
+
+		StepVerifier.create(decoder.decodeToMono(stringBuffer(json),
+				ResolvableType.forClassWithGenerics(Set.class, Pojo.class), APPLICATION_JSON, emptyMap()))
+				.expectNext(new HashSet<>(asList(pojo1, pojo2)))
+				.verifyComplete();
+
+		StepVerifier.create(decoder.decodeToMono(stringBuffer(json), forClass(Pojo[].class),
+				APPLICATION_JSON, emptyMap()))
+				.consumeNextWith(value -> assertArrayEquals(new Pojo[] {pojo1, pojo2}, (Pojo[]) value))
+				.verifyComplete();
+
+		StepVerifier.create(decoder.decodeToMono(stringBuffer("[ ]"),
+				ResolvableType.forClassWithGenerics(List.class, Pojo.class), APPLICATION_JSON, emptyMap()))
+				.expectNext(Collections.emptyList())
+				.verifyComplete();
+
+		StepVerifier.create(decoder.decodeToMono(Flux.empty(),
+				ResolvableType.forClassWithGenerics(List.class, Pojo.class), APPLICATION_JSON, emptyMap()))
+				.verifyComplete();
+
+		StepVerifier.create(decoder.decodeToMono(stringBuffer("{\"bar\":\"b1\",\"foo\":\"f1\"}"),
+				ResolvableType.forClassWithGenerics(List.class, Pojo.class), APPLICATION_JSON, emptyMap()))
+				.verifyError(DecodingException.class);
+
+		StepVerifier.create(decoder.decodeToMono(stringBuffer("{\"bar\":\"b1\",\"foo\":\"f1\"}"),
+				forClass(Pojo.class), APPLICATION_JSON, emptyMap()))
+				.expectNext(pojo1)
+				.verifyComplete();
+	}
+
+	@Test
+	public void decodeToMonoWithDirectElementBindingAndLimit() {
+		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
+		decoder.setDirectElementBinding(true);
+		String json = "[{\"bar\":\"b1\",\"foo\":\"f1\"},{\"bar\":\"b2\",\"foo\":\"f2\"}]";
+		decoder.setMaxInMemorySize(json.length() - 1);
+
+		StepVerifier.create(decoder.decodeToMono(Flux.concat(stringBuffer(json.substring(0, 20)),
+				stringBuffer(json.substring(20))), ResolvableType.forClassWithGenerics(List.class, Pojo.class),
+				APPLICATION_JSON, emptyMap()))
+				.verifyError(DataBufferLimitException.class);
+	}
+
 
 	private Mono<DataBuffer> stringBuffer(String value) {
 		return stringBuffer(value, StandardCharsets.UTF_8);
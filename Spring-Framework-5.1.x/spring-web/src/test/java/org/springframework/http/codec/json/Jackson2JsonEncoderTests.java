@@ -33,6 +33,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.AbstractEncoderTestCase;
+import org.springframework.core.codec.EncodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
@@ -238,6 +239,42 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTestCase<Jackson2Js
 
 	}
 
+	@Test
+	public void encodeValueBeyondInitialBufferSize() {
+		char[] chars = new char[10000];
+		Arrays.fill(chars, 'x');
+		String foo = new String(chars);
+		Mono<Object> input = Mono.just(new Pojo(foo, "bar"));
+
+		testEncode(input, ResolvableType.forClass(Pojo.class), step -> step
+				.consumeNextWith(expectString("{\"foo\":\"" + foo + "\",\"bar\":\"bar\"}"))
+				.verifyComplete(),
+				null, null);
+	}
+
+	@Test
+	public void encodeErrorReleasesBuffer() {
+		Flux<DataBuffer> result = this.encoder.encode(Mono.just(new FailingBean()), this.bufferFactory,
+				ResolvableType.forClass(FailingBean.class), APPLICATION_JSON, Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.expectError(EncodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void encodeStreamErrorReleasesBuffer() {
+		Flux<Object> input = Flux.just(new Pojo("foo", "bar"), new FailingBean());
+
+		Flux<DataBuffer> result = this.encoder.encode(input, this.bufferFactory,
+				ResolvableType.forClass(Object.class), APPLICATION_STREAM_JSON, Collections.emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(expectString("{\"foo\":\"foo\",\"bar\":\"bar\"}\n"))
+				.expectError(EncodingException.class)
+				.verify();
+	}
+
 
 	@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
 	private static class ParentClass {
@@ -251,4 +288,11 @@ public class Jackson2JsonEncoderTests extends AbstractEncoderTestCase<Jackson2Js
 	private static class Bar extends ParentClass {
 	}
 
+	private static class FailingBean {
+
+		public String getValue() {
+			throw new IllegalStateException("Not readable");
+		}
+	}
+
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.AbstractLeakCheckingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link JsonElementTokenizer}.
+ *
+ * @since 5.1.21
+ */
+public class JsonElementTokenizerTests extends AbstractLeakCheckingTestCase {
+
+	@Test
+	public void doNotTokenizeArrayElements() {
+		testTokenize(
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"),
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"), false);
+
+		testTokenize(
+				asList("{\"foo\": \"foofoo\"", ", \"bar\": \"barbar\"}"),
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"), false);
+
+		testTokenize(
+				asList("[{\"foo\": \"bar\"},", "{\"foo\": \"baz\"}]"),
+				singletonList("[{\"foo\": \"bar\"},{\"foo\": \"baz\"}]"), false);
+
+		testTokenize(asList("\"foo", "bar\""), singletonList("\"foobar\""), false);
+
+		testTokenize(asList("12", "34"), singletonList("1234"), false);
+
+		testTokenize(singletonList("true"), singletonList("true"), false);
+	}
+
+	@Test
+	public void tokenizeArrayElements() {
+		testTokenize(
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"),
+				singletonList("{\"foo\": \"foofoo\", \"bar\": \"barbar\"}"), true);
+
+		testTokenize(
+				singletonList("[{\"foo\": \"bar\"}, {\"foo\": \"baz\"}]"),
+				asList("{\"foo\": \"bar\"}", "{\"foo\": \"baz\"}"), true);
+
+		// nested arrays
+		testTokenize(
+				singletonList("[" +
+						"{\"id\":\"0\",\"start\":[-999999999,1,1],\"end\":[999999999,12,31]}," +
+						"{\"id\":\"1\",\"start\":[-999999999,1,1],\"end\":[999999999,12,31]}" +
+						"]"),
+				asList(
+						"{\"id\":\"0\",\"start\":[-999999999,1,1],\"end\":[999999999,12,31]}",
+						"{\"id\":\"1\",\"start\":[-999999999,1,1],\"end\":[999999999,12,31]}"), true);
+
+		testTokenize(
+				singletonList("[[1, 2], [3]]"),
+				asList("[1, 2]", "[3]"), true);
+
+		testTokenize(
+				asList("[",
+						"{\"id\":1,\"name\":\"Robert\"}", ",",
+						"{\"id\":2,", "\"name\":\"Raide\"}", ",",
+						"{\"id\":3,\"name\":\"Ford\"}", "]"),
+				asList("{\"id\":1,\"name\":\"Robert\"}",
+						"{\"id\":2,\"name\":\"Raide\"}",
+						"{\"id\":3,\"name\":\"Ford\"}"), true);
+
+		testTokenize(asList("[1", ",2,", "3]"), asList("1", "2", "3"), true);
+
+		testTokenize(asList("[\"foo\", nu", "ll, false ]"), asList("\"foo\"", "null", "false"), true);
+
+		testTokenize(singletonList("[ ]"), asList(), true);
+	}
+
+	@Test
+	public void structuralCharactersWithinStrings() {
+		testTokenize(
+				singletonList("[{\"foo\": \"}],[{\"}, \"\\\"]\\\\\", \"{\"]"),
+				asList("{\"foo\": \"}],[{\"}", "\"\\\"]\\\\\"", "\"{\""), true);
+	}
+
+	@Test
+	public void multipleTopLevelValues() {
+		testTokenize(
+				asList("{\"id\":1}\n{\"id\"", ":2}\n", "[3, 4]\n5 \"six\""),
+				asList("{\"id\":1}", "{\"id\":2}", "3", "4", "5", "\"six\""), true);
+	}
+
+	@Test
+	public void byteOrderMark() {
+		String bom = new String(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, StandardCharsets.UTF_8);
+		testTokenize(singletonList(bom + "[1,2]"), asList("1", "2"), true);
+	}
+
+	@Test
+	public void arrayElementFlag() {
+		JsonElementTokenizer tokenizer = new JsonElementTokenizer(true, false, -1);
+		Flux<DataBuffer> source = Flux.just(stringBuffer("[{\"id\":1}] {\"id\":2}"));
+
+		StepVerifier.create(tokenizer.tokenize(source))
+				.assertNext(element -> assertTrue(element.isArrayElement()))
+				.assertNext(element -> assertFalse(element.isArrayElement()))
+				.verifyComplete();
+		assertEquals(1, tokenizer.getTopLevelArrayCount());
+	}
+
+	@Test
+	public void invalidStructure() {
+		StepVerifier.create(tokenize(singletonList("[{\"id\":1} {\"id\":2}]"), true, -1))
+				.expectNext("{\"id\":1}")
+				.verifyError(DecodingException.class);
+
+		StepVerifier.create(tokenize(singletonList("[1,]"), true, -1))
+				.expectNext("1")
+				.verifyError(DecodingException.class);
+
+		StepVerifier.create(tokenize(singletonList("}"), true, -1))
+				.verifyError(DecodingException.class);
+	}
+
+	@Test
+	public void incompleteInput() {
+		StepVerifier.create(tokenize(singletonList("{\"status\": \"noClosingQuote}"), false, -1))
+				.verifyError(DecodingException.class);
+
+		StepVerifier.create(tokenize(asList("[{\"id\":1}", ","), true, -1))
+				.expectNext("{\"id\":1}")
+				.verifyError(DecodingException.class);
+	}
+
+	@Test
+	public void errorInStream() {
+		Flux<DataBuffer> source = Flux.just(stringBuffer("{\"id\":1,\"name\":"))
+				.concatWith(Flux.error(new RuntimeException()));
+
+		StepVerifier.create(new JsonElementTokenizer(true, false, -1).tokenize(source))
+				.expectError(RuntimeException.class)
+				.verify();
+	}
+
+	@Test
+	public void limitPerValue() {
+		List<String> source = asList("[",
+				"{", "\"id\":1,\"name\":\"Dan\"", "},",
+				"{", "\"id\":2,\"name\":\"Ron\"", "},",
+				"{", "\"id\":3,\"name\":\"Bartholomew\"", "}",
+				"]");
+
+		String expected = "{\"id\":3,\"name\":\"Bartholomew\"}";
+		int maxInMemorySize = expected.length();
+
+		StepVerifier.create(tokenize(source, true, maxInMemorySize))
+				.expectNext("{\"id\":1,\"name\":\"Dan\"}")
+				.expectNext("{\"id\":2,\"name\":\"Ron\"}")
+				.expectNext(expected)
+				.verifyComplete();
+
+		StepVerifier.create(tokenize(source, true, maxInMemorySize - 1))
+				.expectNext("{\"id\":1,\"name\":\"Dan\"}")
+				.expectNext("{\"id\":2,\"name\":\"Ron\"}")
+				.verifyError(DataBufferLimitException.class);
+	}
+
+	@Test
+	public void limitWholeInput() {
+		List<String> source = asList("[{\"id\":1}", ",{\"id\":2}", ",{\"id\":3}]");
+		int maxInMemorySize = String.join("", source).length();
+
+		StepVerifier.create(new JsonElementTokenizer(true, true, maxInMemorySize)
+				.tokenize(Flux.fromIterable(source).map(this::stringBuffer)).map(Object::toString))
+				.expectNext("{\"id\":1}", "{\"id\":2}", "{\"id\":3}")
+				.verifyComplete();
+
+		StepVerifier.create(new JsonElementTokenizer(true, true, maxInMemorySize - 1)
+				.tokenize(Flux.fromIterable(source).map(this::stringBuffer)).map(Object::toString))
+				.expectNext("{\"id\":1}", "{\"id\":2}")
+				.verifyError(DataBufferLimitException.class);
+	}
+
+
+	private void testTokenize(List<String> input, List<String> output, boolean tokenizeArrays) {
+		StepVerifier.create(tokenize(input, tokenizeArrays, -1))
+				.expectNextSequence(output)
+				.verifyComplete();
+	}
+
+	private Flux<String> tokenize(List<String> source, boolean tokenizeArrays, int maxInMemorySize) {
+		JsonElementTokenizer tokenizer = new JsonElementTokenizer(tokenizeArrays, false, maxInMemorySize);
+		return tokenizer.tokenize(Flux.fromIterable(source).map(this::stringBuffer)).map(Object::toString);
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+}
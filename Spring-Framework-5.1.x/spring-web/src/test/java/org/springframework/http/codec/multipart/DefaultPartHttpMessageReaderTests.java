@@ -0,0 +1,385 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.AbstractLeakCheckingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.MultiValueMap;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.core.ResolvableType.forClass;
+import static org.springframework.core.ResolvableType.forClassWithGenerics;
+
+/**
+ * Unit tests for {@link DefaultPartHttpMessageReader}.
+ *
+ * @since 5.1.21
+ */
+public class DefaultPartHttpMessageReaderTests extends AbstractLeakCheckingTestCase {
+
+	private static final ResolvableType PARTS_ELEMENT_TYPE =
+			forClassWithGenerics(MultiValueMap.class, String.class, Part.class);
+
+	private static final String BOUNDARY = "boundary";
+
+	private static final String BODY = "preamble\r\n" +
+			"--boundary\r\n" +
+			"Content-Disposition: form-data; name=\"text\"\r\n" +
+			"\r\n" +
+			"foo\r\n--bound\r\n--boundar\r\r\n" +
+			"--boundary  \r\n" +
+			"Content-Disposition: form-data; name=\"file\"; filename=\"foo.txt\"\r\n" +
+			"Content-Type: text/plain\r\n" +
+			"\r\n" +
+			"Lorem Ipsum.\r\n" +
+			"--boundary\r\n" +
+			"\r\n" +
+			"\r\n" +
+			"--boundary--\r\n" +
+			"epilogue";
+
+
+	private final DefaultPartHttpMessageReader partReader = new DefaultPartHttpMessageReader();
+
+	private final MultipartHttpMessageReader reader = new MultipartHttpMessageReader(this.partReader);
+
+	private Path storageDirectory;
+
+
+	@Before
+	public void setup() throws IOException {
+		this.storageDirectory = Files.createTempDirectory("DefaultPartHttpMessageReaderTests");
+		this.partReader.setFileStorageDirectory(this.storageDirectory);
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		FileSystemUtils.deleteRecursively(this.storageDirectory);
+	}
+
+
+	@Test
+	public void canRead() {
+		assertTrue(this.partReader.canRead(forClass(Part.class), MediaType.MULTIPART_FORM_DATA));
+		assertTrue(this.partReader.canRead(forClass(Part.class), null));
+		assertFalse(this.partReader.canRead(forClass(Part.class), MediaType.APPLICATION_FORM_URLENCODED));
+		assertFalse(this.partReader.canRead(forClass(Object.class), MediaType.MULTIPART_FORM_DATA));
+	}
+
+	@Test
+	public void resolveParts() {
+		MultiValueMap<String, Part> parts =
+				this.reader.readMono(PARTS_ELEMENT_TYPE, generateMultipartRequest(), emptyMap()).block();
+		assertNotNull(parts);
+		assertEquals(2, parts.size());
+
+		Part part = parts.getFirst("filePart");
+		assertTrue(part instanceof FilePart);
+		assertEquals("filePart", part.name());
+		assertEquals("foo.txt", ((FilePart) part).filename());
+		assertEquals("Lorem Ipsum.", content(part));
+
+		part = parts.getFirst("textPart");
+		assertTrue(part instanceof FormFieldPart);
+		assertEquals("textPart", part.name());
+		assertEquals("sample-text", ((FormFieldPart) part).value());
+	}
+
+	@Test
+	public void anyChunkSize() {
+		byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+		for (int chunkSize = 1; chunkSize <= body.length; chunkSize++) {
+			StepVerifier.create(this.partReader.read(forClass(Part.class), request(body, chunkSize), emptyMap()))
+					.assertNext(part -> {
+						assertTrue(part instanceof FormFieldPart);
+						assertEquals("text", part.name());
+						assertEquals("foo\r\n--bound\r\n--boundar\r", ((FormFieldPart) part).value());
+					})
+					.assertNext(part -> {
+						assertTrue(part instanceof FilePart);
+						assertEquals("file", part.name());
+						assertEquals("foo.txt", ((FilePart) part).filename());
+						assertEquals(MediaType.TEXT_PLAIN, part.headers().getContentType());
+						assertEquals("Lorem Ipsum.", content(part));
+					})
+					.assertNext(part -> {
+						assertEquals("", part.name());
+						assertTrue(part.headers().isEmpty());
+						assertEquals("", content(part));
+					})
+					.verifyComplete();
+		}
+	}
+
+	@Test
+	public void partsEmittedWhenComplete() {
+		String firstPart = BODY.substring(0, BODY.indexOf("--boundary  ") + "--boundary".length());
+		Flux<DataBuffer> body = Flux.just(firstPart.getBytes(StandardCharsets.UTF_8)).map(this::buffer)
+				.concatWith(Flux.never());
+
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request(body), emptyMap()))
+				.assertNext(part -> assertEquals("text", part.name()))
+				.expectNoEvent(Duration.ofMillis(100))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void filePartStoredOnDisk() {
+		this.partReader.setMaxInMemorySize(11);
+
+		StepVerifier.create(this.partReader.read(forClass(Part.class), generateMultipartRequest(), emptyMap())
+				.filter(part -> part instanceof FilePart))
+				.assertNext(part -> {
+					assertEquals(1, storedFileCount());
+					assertEquals("Lorem Ipsum.", content(part));
+					assertEquals(0, storedFileCount());
+				})
+				.verifyComplete();
+	}
+
+	@Test
+	public void transferTo() throws IOException {
+		this.partReader.setMaxInMemorySize(11);
+		MultiValueMap<String, Part> parts =
+				this.reader.readMono(PARTS_ELEMENT_TYPE, generateMultipartRequest(), emptyMap()).block();
+		assertNotNull(parts);
+		FilePart part = (FilePart) parts.getFirst("filePart");
+		assertNotNull(part);
+
+		File dest = File.createTempFile(part.filename(), "multipart");
+		part.transferTo(dest).block(Duration.ofSeconds(5));
+
+		assertTrue(dest.exists());
+		assertEquals(12, dest.length());
+		assertTrue(dest.delete());
+		assertEquals(0, storedFileCount());
+	}
+
+	@Test
+	public void readTooManyParts() {
+		testMultipartExceptions(reader -> reader.setMaxParts(1), ex -> {
+			assertEquals(DecodingException.class, ex.getClass());
+			assertEquals("Too many parts (1 allowed)", ex.getMessage());
+		});
+	}
+
+	@Test
+	public void readFilePartTooBig() {
+		this.partReader.setMaxInMemorySize(11);
+		this.partReader.setMaxDiskUsagePerPart(5);
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, generateMultipartRequest(), emptyMap()))
+				.consumeErrorWith(ex -> {
+					assertEquals(DecodingException.class, ex.getClass());
+					assertEquals("Part[1] exceeded the disk usage limit of 5 bytes", ex.getMessage());
+				})
+				.verify(Duration.ofSeconds(5));
+		assertEquals(0, storedFileCount());
+	}
+
+	@Test
+	public void filesOfEmittedPartsDeletedOnError() {
+		this.partReader.setMaxInMemorySize(11);
+		this.partReader.setMaxParts(1);
+		StepVerifier.create(this.partReader.read(forClass(Part.class), generateMultipartRequest(), emptyMap()))
+				.assertNext(part -> assertTrue(part instanceof FilePart))
+				.consumeErrorWith(ex -> assertEquals("Too many parts (1 allowed)", ex.getMessage()))
+				.verify(Duration.ofSeconds(5));
+		assertEquals(0, storedFileCount());
+	}
+
+	@Test
+	public void filesOfEmittedPartsDeletedOnCancel() {
+		this.partReader.setMaxInMemorySize(11);
+		Part part = this.partReader.read(forClass(Part.class), generateMultipartRequest(), emptyMap())
+				.next().block(Duration.ofSeconds(5));
+		assertTrue(part instanceof FilePart);
+		assertEquals(0, storedFileCount());
+	}
+
+	@Test
+	public void deleteUnconsumedFilePart() {
+		this.partReader.setMaxInMemorySize(11);
+		MultiValueMap<String, Part> parts =
+				this.reader.readMono(PARTS_ELEMENT_TYPE, generateMultipartRequest(), emptyMap()).block();
+		assertNotNull(parts);
+		assertEquals(1, storedFileCount());
+
+		Flux.fromIterable(parts.values()).flatMapIterable(list -> list)
+				.flatMap(Part::delete).blockLast(Duration.ofSeconds(5));
+		assertEquals(0, storedFileCount());
+	}
+
+	@Test
+	public void defaultLimits() {
+		DefaultPartHttpMessageReader reader = new DefaultPartHttpMessageReader();
+		assertEquals(128, reader.getMaxParts());
+		assertEquals(10 * 1024 * 1024, reader.getMaxDiskUsagePerPart());
+	}
+
+	@Test
+	public void readFormFieldTooBig() {
+		testMultipartExceptions(reader -> reader.setMaxInMemorySize(5), ex -> {
+			assertEquals(DataBufferLimitException.class, ex.getClass());
+			assertEquals("Part[1] exceeded the in-memory limit of 5 bytes", ex.getMessage());
+		});
+	}
+
+	@Test
+	public void readPartHeadersTooBig() {
+		testMultipartExceptions(reader -> reader.setMaxHeadersSize(10),
+				ex -> assertEquals(DataBufferLimitException.class, ex.getClass()));
+	}
+
+	@Test
+	public void noEndDelimiter() {
+		byte[] body = BODY.substring(0, BODY.indexOf("--boundary--")).getBytes(StandardCharsets.UTF_8);
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request(body, 16), emptyMap()))
+				.expectNextCount(2)
+				.verifyError(DecodingException.class);
+	}
+
+	@Test
+	public void noBoundary() {
+		ServerHttpRequest request = MockServerHttpRequest.post("/")
+				.contentType(MediaType.MULTIPART_FORM_DATA)
+				.body(Flux.just(buffer("invalid content".getBytes(StandardCharsets.UTF_8))));
+
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, request, emptyMap()))
+				.verifyError(DecodingException.class);
+		DataBufferUtils.release(request.getBody().blockFirst());
+	}
+
+	@Test
+	public void invalidContent() {
+		byte[] body = "invalid content".getBytes(StandardCharsets.UTF_8);
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, request(body, 4), emptyMap()))
+				.verifyError(DecodingException.class);
+	}
+
+	@Test
+	public void bodyError() {
+		byte[] body = BODY.substring(0, BODY.indexOf("Lorem")).getBytes(StandardCharsets.UTF_8);
+		Flux<DataBuffer> buffers = Flux.just(body).map(this::buffer)
+				.concatWith(Flux.error(new IllegalStateException("body error")));
+
+		StepVerifier.create(this.partReader.read(forClass(Part.class), request(buffers), emptyMap()))
+				.expectNextCount(1)
+				.verifyErrorMessage("body error");
+	}
+
+
+	private void testMultipartExceptions(
+			Consumer<DefaultPartHttpMessageReader> configurer, Consumer<Throwable> assertions) {
+
+		configurer.accept(this.partReader);
+		byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+		StepVerifier.create(this.reader.readMono(PARTS_ELEMENT_TYPE, request(body, 5), emptyMap()))
+				.consumeErrorWith(assertions)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	private ServerHttpRequest generateMultipartRequest() {
+		MultipartBodyBuilder partsBuilder = new MultipartBodyBuilder();
+		partsBuilder.part("filePart", new ClassPathResource("org/springframework/http/codec/multipart/foo.txt"));
+		partsBuilder.part("textPart", "sample-text");
+
+		MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/");
+		new MultipartHttpMessageWriter()
+				.write(Mono.just(partsBuilder.build()), null, MediaType.MULTIPART_FORM_DATA, outputMessage, null)
+				.block(Duration.ofSeconds(5));
+		return MockServerHttpRequest.post("/")
+				.contentType(outputMessage.getHeaders().getContentType())
+				.body(outputMessage.getBody());
+	}
+
+	private ServerHttpRequest request(byte[] body, int chunkSize) {
+		List<byte[]> chunks = new ArrayList<>();
+		for (int offset = 0; offset < body.length; offset += chunkSize) {
+			int length = Math.min(chunkSize, body.length - offset);
+			byte[] chunk = new byte[length];
+			System.arraycopy(body, offset, chunk, 0, length);
+			chunks.add(chunk);
+		}
+		return request(Flux.defer(() -> Flux.fromIterable(chunks).map(this::buffer)));
+	}
+
+	private ServerHttpRequest request(Flux<DataBuffer> body) {
+		MediaType contentType = new MediaType(MediaType.MULTIPART_FORM_DATA, singletonMap("boundary", BOUNDARY));
+		return MockServerHttpRequest.post("/").contentType(contentType).body(body);
+	}
+
+	private DataBuffer buffer(byte[] bytes) {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
+		buffer.write(bytes);
+		return buffer;
+	}
+
+	private long storedFileCount() {
+		try (Stream<Path> files = Files.list(this.storageDirectory)) {
+			return files.count();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static String content(Part part) {
+		DataBuffer buffer = DataBufferUtils.join(part.content()).block(Duration.ofSeconds(5));
+		assertNotNull(buffer);
+		String result = StandardCharsets.UTF_8.decode(buffer.asByteBuffer()).toString();
+		DataBufferUtils.release(buffer);
+		return result;
+	}
+
+}
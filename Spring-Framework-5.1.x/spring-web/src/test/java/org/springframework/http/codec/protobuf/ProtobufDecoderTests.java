@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -213,6 +213,23 @@ public class ProtobufDecoderTests extends AbstractDecoderTestCase<ProtobufDecode
 				.verifyComplete();
 	}
 
+	@Test
+	public void decodeSplitMessageFollowedByCompleteMessage() throws IOException {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer();
+		this.testMsg1.writeDelimitedTo(buffer.asOutputStream());
+		this.testMsg2.writeDelimitedTo(buffer.asOutputStream());
+		int len = 3;
+		Flux<DataBuffer> input = Flux.just(
+				DataBufferUtils.retain(buffer.slice(0, len)),
+				DataBufferUtils.retain(buffer.slice(len, buffer.readableByteCount() - len)));
+		release(buffer);
+
+		testDecode(input, Msg.class, step -> step
+				.expectNext(this.testMsg1)
+				.expectNext(this.testMsg2)
+				.verifyComplete());
+	}
+
 	@Test
 	public void exceedMaxSize() {
 		this.decoder.setMaxMessageSize(1);
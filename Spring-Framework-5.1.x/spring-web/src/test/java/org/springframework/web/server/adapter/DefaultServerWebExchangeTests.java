@@ -16,16 +16,34 @@
 
 package org.springframework.web.server.adapter;
 
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageReader;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.multipart.MultipartHttpMessageReader;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
 import org.springframework.web.server.session.DefaultWebSessionManager;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 /**
  * Unit tests for {@link DefaultServerWebExchange}.
@@ -56,6 +74,71 @@ public class DefaultServerWebExchangeTests {
 		assertEquals("/foo;p=abc?q=123", exchange.transformUrl("/foo"));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanupMultipartDeletesParts() {
+		AtomicBoolean deleted = new AtomicBoolean();
+		Part part = mock(Part.class);
+		given(part.name()).willReturn("file");
+		given(part.delete()).willReturn(Mono.fromRunnable(() -> deleted.set(true)));
+		HttpMessageReader<Part> partReader = mock(HttpMessageReader.class);
+		given(partReader.read(any(), any(), any())).willReturn(Flux.just(part));
+		ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+		configurer.defaultCodecs().multipartReader(new MultipartHttpMessageReader(partReader));
+
+		MockServerHttpRequest request = MockServerHttpRequest.post("https://example.com")
+				.contentType(MediaType.MULTIPART_FORM_DATA).build();
+		DefaultServerWebExchange exchange = createExchange(request, configurer);
+
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertFalse(deleted.get());
+
+		assertSame(part, exchange.getMultipartData().block(Duration.ofSeconds(5)).getFirst("file"));
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertTrue(deleted.get());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanupMultipartWithCustomExchange() throws Exception {
+		CountDownLatch deleted = new CountDownLatch(1);
+		Part part = mock(Part.class);
+		given(part.name()).willReturn("file");
+		given(part.delete()).willReturn(Mono.fromRunnable(deleted::countDown));
+		HttpMessageReader<Part> partReader = mock(HttpMessageReader.class);
+		given(partReader.read(any(), any(), any())).willReturn(Flux.just(part));
+		ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+		configurer.defaultCodecs().multipartReader(new MultipartHttpMessageReader(partReader));
+
+		HttpWebHandlerAdapter adapter = new HttpWebHandlerAdapter(exchange -> exchange.getMultipartData().then()) {
+			@Override
+			protected ServerWebExchange createExchange(ServerHttpRequest request, ServerHttpResponse response) {
+				return super.createExchange(request, response).mutate().build();
+			}
+		};
+		adapter.setCodecConfigurer(configurer);
+
+		MockServerHttpRequest request = MockServerHttpRequest.post("https://example.com")
+				.contentType(MediaType.MULTIPART_FORM_DATA).build();
+		adapter.handle(request, new MockServerHttpResponse()).block(Duration.ofSeconds(5));
+		assertTrue(deleted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void cleanupMultipartDefaultMethod() {
+		AtomicBoolean deleted = new AtomicBoolean();
+		Part part = mock(Part.class);
+		given(part.delete()).willReturn(Mono.fromRunnable(() -> deleted.set(true)));
+		MultiValueMap<String, Part> parts = new LinkedMultiValueMap<>();
+		parts.add("file", part);
+		ServerWebExchange exchange = mock(ServerWebExchange.class);
+		given(exchange.getMultipartData()).willReturn(Mono.just(parts));
+		given(exchange.cleanupMultipart()).willCallRealMethod();
+
+		exchange.cleanupMultipart().block(Duration.ofSeconds(5));
+		assertTrue(deleted.get());
+	}
+
 
 	private DefaultServerWebExchange createExchange() {
 		MockServerHttpRequest request = MockServerHttpRequest.get("https://example.com").build();
@@ -63,9 +146,14 @@ public class DefaultServerWebExchangeTests {
 	}
 
 	private DefaultServerWebExchange createExchange(MockServerHttpRequest request) {
+		return createExchange(request, ServerCodecConfigurer.create());
+	}
+
+	private DefaultServerWebExchange createExchange(MockServerHttpRequest request,
+			ServerCodecConfigurer configurer) {
+
 		return new DefaultServerWebExchange(request, new MockServerHttpResponse(),
-				new DefaultWebSessionManager(), ServerCodecConfigurer.create(),
-				new AcceptHeaderLocaleContextResolver());
+				new DefaultWebSessionManager(), configurer, new AcceptHeaderLocaleContextResolver());
 	}
 
 }
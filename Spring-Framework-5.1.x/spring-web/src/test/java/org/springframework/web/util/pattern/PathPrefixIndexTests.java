@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.util.pattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.http.server.PathContainer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PathPrefixIndex}.
+ *
+ * @since 5.1.21
+ */
+public class PathPrefixIndexTests {
+
+	private final PathPrefixIndex<String> index = new PathPrefixIndex<>();
+
+
+	@Test
+	public void literalPrefix() {
+		this.index.add("users", Collections.singleton("/api/users/{id}"));
+		this.index.add("orders", Collections.singleton("/api/orders/{id}/items"));
+		this.index.add("other", Collections.singleton("/other/{id}"));
+
+		assertEquals(Collections.singletonList("users"), candidates("/api/users/42"));
+		assertEquals(Collections.singletonList("orders"), candidates("/api/orders/42/items"));
+		assertEquals(Collections.emptyList(), candidates("/api/customers/42"));
+		assertEquals(Collections.emptyList(), candidates("/"));
+	}
+
+	@Test
+	public void lastSegmentNotIndexed() {
+		this.index.add("users", Collections.singleton("/api/users"));
+		this.index.add("pattern", Collections.singleton("/api/users*"));
+
+		assertEquals(Arrays.asList("users", "pattern"), candidates("/api/users.json"));
+		assertEquals(Arrays.asList("users", "pattern"), candidates("/api/users/"));
+	}
+
+	@Test
+	public void wildcardsAndEmptyPatternsApplyToAnyPath() {
+		this.index.add("empty", Collections.emptySet());
+		this.index.add("wildcard", Collections.singleton("/**/users/{id}"));
+		this.index.add("variable", Collections.singleton("/{version}/users/{id}"));
+		this.index.add("users", Collections.singleton("/api/users/{id}"));
+
+		assertEquals(Arrays.asList("empty", "wildcard", "variable", "users"), candidates("/api/users/42"));
+		assertEquals(Arrays.asList("empty", "wildcard", "variable"), candidates("/v1/users/42"));
+	}
+
+	@Test
+	public void nestedPrefixes() {
+		this.index.add("api", Collections.singleton("/api/**"));
+		this.index.add("users", Arrays.asList("/api/users/{id}", "/api/{name}"));
+
+		assertEquals(Arrays.asList("api", "users"), candidates("/api/users/42"));
+		assertEquals(Arrays.asList("api", "users"), candidates("/api/other"));
+	}
+
+	@Test
+	public void lenientSegmentComparison() {
+		this.index.add("users", Collections.singleton("/API/Users/{id}"));
+
+		assertEquals(Collections.singletonList("users"), candidates("/api/USERS/42"));
+		assertEquals(Collections.singletonList("users"), candidates("//api;v=1//users/42"));
+	}
+
+	@Test
+	public void parsedLookupPath() {
+		this.index.add("users", Collections.singleton("/api/users/{id}"));
+		this.index.add("other", Collections.singleton("/other/{id}"));
+
+		assertEquals(Collections.singletonList("users"),
+				new ArrayList<>(this.index.getCandidates(PathContainer.parsePath("/api;v=1/us%65rs/42"))));
+		assertEquals(Collections.singletonList("users"),
+				new ArrayList<>(this.index.getCandidates(PathContainer.parsePath("/api/users/"))));
+		assertEquals(Collections.emptyList(),
+				new ArrayList<>(this.index.getCandidates(PathContainer.parsePath("/api/orders/42"))));
+	}
+
+	@Test
+	public void remove() {
+		this.index.add("users", Arrays.asList("/api/users/{id}", "/users/{id}"));
+		this.index.add("empty", Collections.emptySet());
+		this.index.remove("users", Arrays.asList("/api/users/{id}", "/users/{id}"));
+		this.index.remove("empty", Collections.emptySet());
+
+		assertEquals(Collections.emptyList(), candidates("/api/users/42"));
+		assertEquals(Collections.emptyList(), candidates("/users/42"));
+	}
+
+
+	private List<String> candidates(String lookupPath) {
+		return new ArrayList<>(this.index.getCandidates(lookupPath));
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Mono;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.config.EnableWebFlux;
+
+/**
+ * Benchmarks for request processing through {@link DispatcherHandler#handle},
+ * using mock exchanges against a set of annotated controller endpoints.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-webflux:jmh -PjmhInclude=DispatcherHandlerBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DispatcherHandlerBenchmark {
+
+	@Benchmark
+	public Object directPath(DispatcherData data) {
+		return data.handle("/health");
+	}
+
+	@Benchmark
+	public Object patternPath(DispatcherData data) {
+		return data.handle("/owners/42/pets/7");
+	}
+
+	@Benchmark
+	public Object monoResult(DispatcherData data) {
+		return data.handle("/owners/42");
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DispatcherData {
+
+		public AnnotationConfigApplicationContext context;
+
+		public DispatcherHandler dispatcherHandler;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			this.context = new AnnotationConfigApplicationContext(WebConfig.class, OwnerController.class);
+			this.dispatcherHandler = new DispatcherHandler(this.context);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.context.close();
+		}
+
+		public Object handle(String path) {
+			MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+			this.dispatcherHandler.handle(exchange).block();
+			return exchange.getResponse().getStatusCode();
+		}
+	}
+
+
+	@Configuration
+	@EnableWebFlux
+	static class WebConfig {
+	}
+
+
+	@RestController
+	static class OwnerController {
+
+		@GetMapping("/health")
+		public String health() {
+			return "UP";
+		}
+
+		@GetMapping("/owners/{ownerId}")
+		public Mono<String> owner(@PathVariable long ownerId) {
+			return Mono.just("owner" + ownerId);
+		}
+
+		@GetMapping("/owners/{ownerId}/pets/{petId}")
+		public String pet(@PathVariable long ownerId, @PathVariable long petId) {
+			return "pet" + petId;
+		}
+
+		@GetMapping("/vets/{vetId}")
+		public String vet(@PathVariable long vetId) {
+			return "vet" + vetId;
+		}
+	}
+
+}
@@ -37,6 +37,7 @@ import reactor.core.publisher.Mono;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.RequestPath;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -47,6 +48,7 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.reactive.handler.AbstractHandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPrefixIndex;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -315,7 +317,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected HandlerMethod lookupHandlerMethod(ServerWebExchange exchange) throws Exception {
 		List<Match> matches = new ArrayList<>();
-		addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, exchange);
+		PathContainer lookupPath = exchange.getRequest().getPath().pathWithinApplication();
+		addMatchingMappings(this.mappingRegistry.getMappingsByPath(lookupPath), matches, exchange);
 
 		if (!matches.isEmpty()) {
 			Comparator<Match> comparator = new MatchComparator(getMappingComparator(exchange));
@@ -410,6 +413,19 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	@Nullable
 	protected abstract T getMappingForMethod(Method method, Class<?> handlerType);
 
+	/**
+	 * Extract and return the URL patterns contained in a mapping, used to narrow
+	 * down the mappings to check for a request based on their literal prefixes.
+	 * <p>The default implementation returns an empty set, in which case the
+	 * mapping is checked for every request.
+	 * @param mapping the mapping to extract the patterns from
+	 * @return the URL patterns, or an empty set if the mapping applies to any path
+	 * @since 5.1.21
+	 */
+	protected Set<String> getMappingPathPatterns(T mapping) {
+		return Collections.emptySet();
+	}
+
 	/**
 	 * Check if a mapping matches the current request and return a (potentially
 	 * new) mapping with conditions relevant to the current request.
@@ -441,6 +457,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final Map<T, HandlerMethod> mappingLookup = new LinkedHashMap<>();
 
+		private final PathPrefixIndex<T> pathLookup = new PathPrefixIndex<>();
+
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
 
 		private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
@@ -453,6 +471,16 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.mappingLookup;
 		}
 
+		/**
+		 * Return the mappings that may match the given lookup path, based on
+		 * the literal prefixes of their URL patterns. Not thread-safe.
+		 * @since 5.1.21
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getMappingsByPath(PathContainer lookupPath) {
+			return this.pathLookup.getCandidates(lookupPath);
+		}
+
 		/**
 		 * Return CORS configuration. Thread-safe for concurrent use.
 		 */
@@ -482,6 +510,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				assertUniqueMethodMapping(handlerMethod, mapping);
 
 				this.mappingLookup.put(mapping, handlerMethod);
+				this.pathLookup.add(mapping, getMappingPathPatterns(mapping));
 
 				CorsConfiguration corsConfig = initCorsConfiguration(handler, method, mapping);
 				if (corsConfig != null) {
@@ -514,6 +543,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				}
 
 				this.mappingLookup.remove(definition.getMapping());
+				this.pathLookup.remove(definition.getMapping(), getMappingPathPatterns(definition.getMapping()));
 				this.corsLookup.remove(definition.getHandlerMethod());
 			}
 			finally {
@@ -67,6 +67,19 @@ public abstract class RequestMappingInfoHandlerMapping extends AbstractHandlerMe
 	}
 
 
+	/**
+	 * Get the URL path patterns associated with this {@link RequestMappingInfo}.
+	 * @since 5.1.21
+	 */
+	@Override
+	protected Set<String> getMappingPathPatterns(RequestMappingInfo info) {
+		Set<String> patterns = new LinkedHashSet<>();
+		for (PathPattern pattern : info.getPatternsCondition().getPatterns()) {
+			patterns.add(pattern.getPatternString());
+		}
+		return patterns;
+	}
+
 	/**
 	 * Check if the given RequestMappingInfo matches the current request and
 	 * return a (potentially new) instance with conditions that match the
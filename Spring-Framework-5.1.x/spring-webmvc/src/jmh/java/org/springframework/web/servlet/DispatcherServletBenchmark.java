@@ -0,0 +1,147 @@
+/*
+ * Copyright 2002-2020 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Benchmarks for request processing through {@link DispatcherServlet#doDispatch},
+ * using mock requests against a set of annotated controller endpoints.
+ *
+ * <p>Typically run with {@code "./gradlew :spring-webmvc:jmh -PjmhInclude=DispatcherServletBenchmark"}.
+ *
+ * @since 5.1.21
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DispatcherServletBenchmark {
+
+	@Benchmark
+	public int directPath(DispatcherData data) throws Exception {
+		return data.dispatch("GET", "/health");
+	}
+
+	@Benchmark
+	public int patternPath(DispatcherData data) throws Exception {
+		return data.dispatch("GET", "/owners/42/pets/7");
+	}
+
+	@Benchmark
+	public int patternPathWithParam(DispatcherData data) throws Exception {
+		return data.dispatch("GET", "/owners/42?detail=full");
+	}
+
+	@Benchmark
+	public int notFound(DispatcherData data) throws Exception {
+		return data.dispatch("GET", "/unknown/path");
+	}
+
+
+	@State(Scope.Benchmark)
+	public static class DispatcherData {
+
+		public AnnotationConfigWebApplicationContext context;
+
+		public DispatcherServlet servlet;
+
+		@Setup(Level.Trial)
+		public void setup() throws Exception {
+			MockServletContext servletContext = new MockServletContext();
+			this.context = new AnnotationConfigWebApplicationContext();
+			this.context.setServletContext(servletContext);
+			this.context.register(WebConfig.class, OwnerController.class);
+			this.context.refresh();
+			this.servlet = new DispatcherServlet(this.context);
+			this.servlet.init(new MockServletConfig(servletContext));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			this.servlet.destroy();
+			this.context.close();
+		}
+
+		public int dispatch(String method, String uri) throws Exception {
+			int queryIndex = uri.indexOf('?');
+			MockHttpServletRequest request = new MockHttpServletRequest(method,
+					(queryIndex != -1 ? uri.substring(0, queryIndex) : uri));
+			if (queryIndex != -1) {
+				request.setQueryString(uri.substring(queryIndex + 1));
+				String[] param = uri.substring(queryIndex + 1).split("=");
+				request.addParameter(param[0], param[1]);
+			}
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			this.servlet.service(request, response);
+			return response.getStatus();
+		}
+	}
+
+
+	@Configuration
+	@EnableWebMvc
+	static class WebConfig {
+	}
+
+
+	@RestController
+	static class OwnerController {
+
+		@GetMapping("/health")
+		public String health() {
+			return "UP";
+		}
+
+		@GetMapping("/owners/{ownerId}")
+		public String owner(@PathVariable long ownerId, @RequestParam(required = false) String detail) {
+			return "owner" + ownerId;
+		}
+
+		@GetMapping("/owners/{ownerId}/pets/{petId}")
+		public String pet(@PathVariable long ownerId, @PathVariable long petId) {
+			return "pet" + petId;
+		}
+
+		@GetMapping("/vets/{vetId}")
+		public String vet(@PathVariable long vetId) {
+			return "vet" + vetId;
+		}
+
+		@GetMapping("/visits/{visitId}/**")
+		public String visit(@PathVariable long visitId) {
+			return "visit" + visitId;
+		}
+	}
+
+}
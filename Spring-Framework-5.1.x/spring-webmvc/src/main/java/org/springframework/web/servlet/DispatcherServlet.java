@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -63,6 +63,7 @@ import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.util.NestedServletException;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.WebUtils;
 
 /**
@@ -924,6 +925,13 @@ public class DispatcherServlet extends FrameworkServlet {
 			}
 		}
 
+		// The parsed lookup path of an outer dispatch does not apply to this one,
+		// e.g. in case of a forward or an include: to be restored afterwards.
+		Object previousLookupPath = request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE);
+		if (previousLookupPath != null) {
+			ServletRequestPathUtils.clearParsedLookupPath(request);
+		}
+
 		// Make framework objects available to handlers and view objects.
 		request.setAttribute(WEB_APPLICATION_CONTEXT_ATTRIBUTE, getWebApplicationContext());
 		request.setAttribute(LOCALE_RESOLVER_ATTRIBUTE, this.localeResolver);
@@ -949,6 +957,12 @@ public class DispatcherServlet extends FrameworkServlet {
 					restoreAttributesAfterInclude(request, attributesSnapshot);
 				}
 			}
+			if (previousLookupPath != null) {
+				request.setAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE, previousLookupPath);
+			}
+			else {
+				ServletRequestPathUtils.clearParsedLookupPath(request);
+			}
 		}
 	}
 
@@ -23,6 +23,7 @@ import java.util.function.Predicate;
 import org.springframework.lang.Nullable;
 import org.springframework.util.PathMatcher;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Helps with configuring HandlerMappings path matching options such as trailing
@@ -57,6 +58,9 @@ public class PathMatchConfigurer {
 	@Nullable
 	private PathMatcher pathMatcher;
 
+	@Nullable
+	private PathPatternParser patternParser;
+
 	@Nullable
 	private Map<String, Predicate<Class<?>>> pathPrefixes;
 
@@ -117,6 +121,22 @@ public class PathMatchConfigurer {
 		return this;
 	}
 
+	/**
+	 * Set a {@link PathPatternParser} to parse the patterns of controller
+	 * methods with, matching them as parsed
+	 * {@link org.springframework.web.util.pattern.PathPattern PathPatterns}
+	 * against the lookup path of each request, which is then parsed only once.
+	 * This is an alternative to String pattern matching with the
+	 * {@link #setPathMatcher PathMatcher}, in which case suffix pattern matching
+	 * does not apply and trailing slash matching is determined by the parser.
+	 * <p>By default this is not set.
+	 * @since 5.1.21
+	 */
+	public PathMatchConfigurer setPatternParser(PathPatternParser patternParser) {
+		this.patternParser = patternParser;
+		return this;
+	}
+
 	/**
 	 * Configure a path prefix to apply to matching controller methods.
 	 * <p>Prefixes are used to enrich the mappings of every {@code @RequestMapping}
@@ -162,6 +182,15 @@ public class PathMatchConfigurer {
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Return the {@link #setPatternParser PathPatternParser} to use, if any.
+	 * @since 5.1.21
+	 */
+	@Nullable
+	public PathPatternParser getPatternParser() {
+		return this.patternParser;
+	}
+
 	@Nullable
 	protected Map<String, Predicate<Class<?>>> getPathPrefixes() {
 		return this.pathPrefixes;
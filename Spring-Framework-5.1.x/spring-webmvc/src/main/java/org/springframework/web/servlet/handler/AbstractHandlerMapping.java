@@ -48,7 +48,10 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Abstract base class for {@link org.springframework.web.servlet.HandlerMapping}
@@ -80,6 +83,9 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
 
+	@Nullable
+	private PathPatternParser patternParser;
+
 	private final List<Object> interceptors = new ArrayList<>();
 
 	private final List<HandlerInterceptor> adaptedInterceptors = new ArrayList<>();
@@ -187,6 +193,31 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 		return this.pathMatcher;
 	}
 
+	/**
+	 * Enable matching against parsed {@link PathPattern PathPatterns} as an
+	 * alternative to String pattern matching with the {@link #setPathMatcher
+	 * PathMatcher}. The lookup path of each request is then parsed only once,
+	 * and registered patterns are parsed upfront rather than on every match.
+	 * <p>Note that {@code PathPattern} syntax is largely the same as for
+	 * {@link AntPathMatcher} but does not support suffix pattern matching,
+	 * and trailing slash matching is determined by the parser.
+	 * <p>By default this is not set.
+	 * @since 5.1.21
+	 * @see PathPatternParser#setMatchOptionalTrailingSeparator
+	 */
+	public void setPatternParser(@Nullable PathPatternParser patternParser) {
+		this.patternParser = patternParser;
+	}
+
+	/**
+	 * Return the {@link #setPatternParser PathPatternParser} to use, if any.
+	 * @since 5.1.21
+	 */
+	@Nullable
+	public PathPatternParser getPatternParser() {
+		return this.patternParser;
+	}
+
 	/**
 	 * Set the interceptors to apply for all handlers mapped by this handler mapping.
 	 * <p>Supported interceptor types are HandlerInterceptor, WebRequestInterceptor, and MappedInterceptor.
@@ -453,6 +484,24 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 	@Nullable
 	protected abstract Object getHandlerInternal(HttpServletRequest request) throws Exception;
 
+	/**
+	 * Determine the lookup path for the given request through the
+	 * {@link #getUrlPathHelper() UrlPathHelper}, also parsing and caching it
+	 * for matching against {@link PathPattern PathPatterns} if a
+	 * {@link #setPatternParser PathPatternParser} is in use.
+	 * @param request current HTTP request
+	 * @return the lookup path
+	 * @since 5.1.21
+	 * @see ServletRequestPathUtils#getParsedLookupPath
+	 */
+	protected String initLookupPath(HttpServletRequest request) {
+		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
+		if (this.patternParser != null) {
+			ServletRequestPathUtils.parseAndCache(request, lookupPath, getUrlPathHelper());
+		}
+		return lookupPath;
+	}
+
 	/**
 	 * Build a {@link HandlerExecutionChain} for the given handler, including
 	 * applicable interceptors.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,7 +39,9 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -48,6 +50,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPrefixIndex;
 
 /**
  * Abstract base class for {@link HandlerMapping} implementations that define
@@ -360,7 +364,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 	 */
 	@Override
 	protected HandlerMethod getHandlerInternal(HttpServletRequest request) throws Exception {
-		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
+		String lookupPath = initLookupPath(request);
 		this.mappingRegistry.acquireReadLock();
 		try {
 			HandlerMethod handlerMethod = lookupHandlerMethod(lookupPath, request);
@@ -388,8 +392,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			addMatchingMappings(directPathMatches, matches, request);
 		}
 		if (matches.isEmpty()) {
-			// No choice but to go through all mappings...
-			addMatchingMappings(this.mappingRegistry.getMappings().keySet(), matches, request);
+			// Go through all mappings that may match the lookup path...
+			addMatchingMappings(getCandidateMappings(lookupPath, request), matches, request);
 		}
 
 		if (!matches.isEmpty()) {
@@ -421,6 +425,24 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 		}
 	}
 
+	/**
+	 * Return the mappings to check for the given lookup path, narrowed down
+	 * through the literal prefixes of their URL patterns if these can be
+	 * interpreted (i.e. for a plain {@link AntPathMatcher} or parsed path patterns),
+	 * or all registered mappings otherwise, including for {@code AntPathMatcher}
+	 * subclasses that may match differently.
+	 */
+	private Collection<T> getCandidateMappings(String lookupPath, HttpServletRequest request) {
+		if (getPatternParser() != null) {
+			return this.mappingRegistry.getMappingsByPath(
+					ServletRequestPathUtils.getParsedLookupPath(request, getUrlPathHelper()));
+		}
+		if (getPathMatcher().getClass() == AntPathMatcher.class) {
+			return this.mappingRegistry.getMappingsByPath(lookupPath);
+		}
+		return this.mappingRegistry.getMappings().keySet();
+	}
+
 	private void addMatchingMappings(Collection<T> mappings, List<Match> matches, HttpServletRequest request) {
 		for (T mapping : mappings) {
 			T match = getMatchingMapping(mapping, request);
@@ -528,6 +550,8 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 
 		private final MultiValueMap<String, T> urlLookup = new LinkedMultiValueMap<>();
 
+		private final PathPrefixIndex<T> pathLookup = new PathPrefixIndex<>();
+
 		private final Map<String, List<HandlerMethod>> nameLookup = new ConcurrentHashMap<>();
 
 		private final Map<HandlerMethod, CorsConfiguration> corsLookup = new ConcurrentHashMap<>();
@@ -551,6 +575,26 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 			return this.urlLookup.get(urlPath);
 		}
 
+		/**
+		 * Return the mappings that may match the given lookup path, based on
+		 * the literal prefixes of their URL patterns. Not thread-safe.
+		 * @since 5.1.21
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getMappingsByPath(String lookupPath) {
+			return this.pathLookup.getCandidates(lookupPath);
+		}
+
+		/**
+		 * Return the mappings that may match the given parsed lookup path, based
+		 * on the literal prefixes of their URL patterns. Not thread-safe.
+		 * @since 5.1.21
+		 * @see #acquireReadLock()
+		 */
+		public Collection<T> getMappingsByPath(PathContainer lookupPath) {
+			return this.pathLookup.getCandidates(lookupPath);
+		}
+
 		/**
 		 * Return handler methods by mapping name. Thread-safe for concurrent use.
 		 */
@@ -591,6 +635,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 				for (String url : directUrls) {
 					this.urlLookup.add(url, mapping);
 				}
+				this.pathLookup.add(mapping, getMappingPathPatterns(mapping));
 
 				String name = null;
 				if (getNamingStrategy() != null) {
@@ -667,6 +712,7 @@ public abstract class AbstractHandlerMethodMapping<T> extends AbstractHandlerMap
 						}
 					}
 				}
+				this.pathLookup.remove(definition.getMapping(), getMappingPathPatterns(definition.getMapping()));
 
 				removeMappingName(definition);
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2019 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,10 +28,14 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * Abstract base class for URL-mapped {@link org.springframework.web.servlet.HandlerMapping}
@@ -63,6 +67,23 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 
 	private final Map<String, Object> handlerMap = new LinkedHashMap<>();
 
+	private final Map<PathPattern, Object> pathPatternHandlerMap = new LinkedHashMap<>();
+
+
+	/**
+	 * {@inheritDoc}
+	 * <p>Handlers are then matched through the parsed {@link PathPattern} for
+	 * each registered URL path, and trailing slash matching is determined by
+	 * the parser rather than by {@link #setUseTrailingSlashMatch}.
+	 * <p><strong>Note:</strong> This must be set before the handlers get
+	 * registered, i.e. before the initialization of the handler map.
+	 */
+	@Override
+	public void setPatternParser(@Nullable PathPatternParser patternParser) {
+		Assert.state(this.handlerMap.isEmpty(),
+				"PathPatternParser must be set before the initialization of the handler map");
+		super.setPatternParser(patternParser);
+	}
 
 	/**
 	 * Set the root handler for this handler mapping, that is,
@@ -120,7 +141,7 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 	@Override
 	@Nullable
 	protected Object getHandlerInternal(HttpServletRequest request) throws Exception {
-		String lookupPath = getUrlPathHelper().getLookupPathForRequest(request);
+		String lookupPath = initLookupPath(request);
 		Object handler = lookupHandler(lookupPath, request);
 		if (handler == null) {
 			// We need to care for the default handler directly, since we need to
@@ -173,6 +194,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		}
 
 		// Pattern match?
+		if (getPatternParser() != null) {
+			return lookupHandlerByPathPattern(urlPath, request);
+		}
 		List<String> matchingPatterns = new ArrayList<>();
 		for (String registeredPattern : this.handlerMap.keySet()) {
 			if (getPathMatcher().match(registeredPattern, urlPath)) {
@@ -233,6 +257,48 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 		return null;
 	}
 
+	/**
+	 * Look up a handler instance for the given URL path through the parsed
+	 * {@link PathPattern PathPatterns}, selecting the most specific match
+	 * according to {@link PathPattern#SPECIFICITY_COMPARATOR}.
+	 */
+	@Nullable
+	private Object lookupHandlerByPathPattern(String urlPath, HttpServletRequest request) throws Exception {
+		PathContainer path = ServletRequestPathUtils.getParsedLookupPath(request, urlPath, getUrlPathHelper());
+		List<PathPattern> matchingPatterns = null;
+		for (PathPattern registeredPattern : this.pathPatternHandlerMap.keySet()) {
+			if (registeredPattern.matches(path)) {
+				matchingPatterns = (matchingPatterns != null ? matchingPatterns : new ArrayList<>());
+				matchingPatterns.add(registeredPattern);
+			}
+		}
+		if (matchingPatterns == null) {
+			return null;
+		}
+		if (matchingPatterns.size() > 1) {
+			matchingPatterns.sort(PathPattern.SPECIFICITY_COMPARATOR);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Matching patterns " + matchingPatterns);
+			}
+		}
+		PathPattern bestMatch = matchingPatterns.get(0);
+		Object handler = this.pathPatternHandlerMap.get(bestMatch);
+		// Bean name or resolved handler?
+		if (handler instanceof String) {
+			String handlerName = (String) handler;
+			handler = obtainApplicationContext().getBean(handlerName);
+		}
+		validateHandler(handler, request);
+		String pathWithinMapping = ServletRequestPathUtils.getPathValue(
+				bestMatch.extractPathWithinPattern(path), getUrlPathHelper());
+		PathPattern.PathMatchInfo matchInfo = bestMatch.matchAndExtract(path);
+		Map<String, String> uriTemplateVariables = (matchInfo != null ? matchInfo.getUriVariables() : null);
+		if (logger.isTraceEnabled() && !CollectionUtils.isEmpty(uriTemplateVariables)) {
+			logger.trace("URI variables " + uriTemplateVariables);
+		}
+		return buildPathExposingHandler(handler, bestMatch.getPatternString(), pathWithinMapping, uriTemplateVariables);
+	}
+
 	/**
 	 * Validate the given handler against the current request.
 	 * <p>The default implementation is empty. Can be overridden in subclasses,
@@ -363,6 +429,10 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping i
 			}
 			else {
 				this.handlerMap.put(urlPath, resolvedHandler);
+				PathPatternParser patternParser = getPatternParser();
+				if (patternParser != null) {
+					this.pathPatternHandlerMap.put(patternParser.parse(urlPath), resolvedHandler);
+				}
 				if (logger.isTraceEnabled()) {
 					logger.trace("Mapped [" + urlPath + "] onto " + getHandlerDescription(handler));
 				}
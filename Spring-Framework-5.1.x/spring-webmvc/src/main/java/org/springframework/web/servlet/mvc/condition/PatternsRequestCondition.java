@@ -28,11 +28,16 @@ import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.http.server.PathContainer;
 import org.springframework.lang.Nullable;
 import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
 import org.springframework.util.PathMatcher;
 import org.springframework.util.StringUtils;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 /**
  * A logical disjunction (' || ') request condition that matches a request
@@ -55,6 +60,12 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 
 	private final List<String> fileExtensions = new ArrayList<>();
 
+	@Nullable
+	private final PathPatternParser patternParser;
+
+	@Nullable
+	private final Set<PathPattern> pathPatterns;
+
 
 	/**
 	 * Creates a new instance with the given URL patterns.
@@ -98,6 +109,25 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 				useTrailingSlashMatch, fileExtensions);
 	}
 
+	/**
+	 * Creates a new instance with the given URL patterns, parsed into
+	 * {@link PathPattern PathPatterns} for matching against the parsed lookup
+	 * path of a request. Each pattern that is not empty and does not start
+	 * with "/" is prepended with "/".
+	 * <p>Suffix pattern matching is not supported in this mode, while
+	 * trailing slash matching is determined by the given parser.
+	 * @param patterns the URL patterns to use; if 0, the condition will match to every request.
+	 * @param urlPathHelper a {@link UrlPathHelper} for determining the lookup path for a request
+	 * @param patternParser the parser to parse the URL patterns with
+	 * @since 5.1.21
+	 * @see ServletRequestPathUtils#getParsedLookupPath
+	 */
+	public PatternsRequestCondition(String[] patterns, @Nullable UrlPathHelper urlPathHelper,
+			PathPatternParser patternParser) {
+
+		this(parse(prependLeadingSlash(Arrays.asList(patterns)), patternParser), urlPathHelper, patternParser);
+	}
+
 	/**
 	 * Private constructor accepting a collection of patterns.
 	 */
@@ -110,6 +140,8 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 		this.pathMatcher = (pathMatcher != null ? pathMatcher : new AntPathMatcher());
 		this.useSuffixPatternMatch = useSuffixPatternMatch;
 		this.useTrailingSlashMatch = useTrailingSlashMatch;
+		this.patternParser = null;
+		this.pathPatterns = null;
 
 		if (fileExtensions != null) {
 			for (String fileExtension : fileExtensions) {
@@ -122,6 +154,34 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 	}
 
 
+	/**
+	 * Private constructor accepting parsed patterns.
+	 */
+	private PatternsRequestCondition(Set<PathPattern> pathPatterns, @Nullable UrlPathHelper urlPathHelper,
+			PathPatternParser patternParser) {
+
+		Set<String> patterns = new LinkedHashSet<>(pathPatterns.size());
+		for (PathPattern pathPattern : pathPatterns) {
+			patterns.add(pathPattern.getPatternString());
+		}
+		this.patterns = Collections.unmodifiableSet(patterns);
+		this.pathHelper = (urlPathHelper != null ? urlPathHelper : UrlPathHelper.defaultInstance);
+		this.pathMatcher = new AntPathMatcher();
+		this.useSuffixPatternMatch = false;
+		this.useTrailingSlashMatch = patternParser.isMatchOptionalTrailingSeparator();
+		this.patternParser = patternParser;
+		this.pathPatterns = Collections.unmodifiableSet(pathPatterns);
+	}
+
+
+	private static Set<PathPattern> parse(Collection<String> patterns, PathPatternParser patternParser) {
+		Set<PathPattern> result = new LinkedHashSet<>(patterns.size());
+		for (String pattern : patterns) {
+			result.add(patternParser.parse(pattern));
+		}
+		return result;
+	}
+
 	private static Set<String> prependLeadingSlash(Collection<String> patterns) {
 		Set<String> result = new LinkedHashSet<>(patterns.size());
 		for (String pattern : patterns) {
@@ -137,6 +197,16 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 		return this.patterns;
 	}
 
+	/**
+	 * Return the parsed patterns of this condition, in the same order as
+	 * {@link #getPatterns()}, or an empty set if this condition has not been
+	 * created with a {@link PathPatternParser}.
+	 * @since 5.1.21
+	 */
+	public Set<PathPattern> getPathPatterns() {
+		return (this.pathPatterns != null ? this.pathPatterns : Collections.emptySet());
+	}
+
 	@Override
 	protected Collection<String> getContent() {
 		return this.patterns;
@@ -152,13 +222,17 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 	 * the "other" instance as follows:
 	 * <ul>
 	 * <li>If there are patterns in both instances, combine the patterns in "this" with
-	 * the patterns in "other" using {@link PathMatcher#combine(String, String)}.
+	 * the patterns in "other" using {@link PathMatcher#combine(String, String)}, or
+	 * {@link PathPattern#combine(PathPattern)} for parsed patterns.
 	 * <li>If only one instance has patterns, use them.
 	 * <li>If neither instance has patterns, use an empty String (i.e. "").
 	 * </ul>
 	 */
 	@Override
 	public PatternsRequestCondition combine(PatternsRequestCondition other) {
+		if (this.patternParser != null && this.pathPatterns != null && other.pathPatterns != null) {
+			return combinePathPatterns(this.pathPatterns, other.pathPatterns, this.patternParser);
+		}
 		Set<String> result = new LinkedHashSet<>();
 		if (!this.patterns.isEmpty() && !other.patterns.isEmpty()) {
 			for (String pattern1 : this.patterns) {
@@ -180,6 +254,29 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 				this.useSuffixPatternMatch, this.useTrailingSlashMatch, this.fileExtensions);
 	}
 
+	private PatternsRequestCondition combinePathPatterns(
+			Set<PathPattern> patterns, Set<PathPattern> otherPatterns, PathPatternParser patternParser) {
+
+		Set<PathPattern> result = new LinkedHashSet<>();
+		if (!patterns.isEmpty() && !otherPatterns.isEmpty()) {
+			for (PathPattern pattern1 : patterns) {
+				for (PathPattern pattern2 : otherPatterns) {
+					result.add(pattern1.combine(pattern2));
+				}
+			}
+		}
+		else if (!patterns.isEmpty()) {
+			result.addAll(patterns);
+		}
+		else if (!otherPatterns.isEmpty()) {
+			result.addAll(otherPatterns);
+		}
+		else {
+			result.add(patternParser.parse(""));
+		}
+		return new PatternsRequestCondition(result, this.pathHelper, patternParser);
+	}
+
 	/**
 	 * Checks if any of the patterns match the given request and returns an instance
 	 * that is guaranteed to contain matching patterns, sorted via
@@ -191,6 +288,8 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 	 * <li>Pattern match
 	 * <li>Pattern match with "/" appended if the pattern doesn't already end in "/"
 	 * </ul>
+	 * <p>Parsed patterns are matched against the parsed lookup path instead,
+	 * and sorted via {@link PathPattern#SPECIFICITY_COMPARATOR}.
 	 * @param request the current request
 	 * @return the same instance if the condition contains no patterns;
 	 * or a new condition with sorted matching patterns;
@@ -202,6 +301,11 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 		if (this.patterns.isEmpty()) {
 			return this;
 		}
+		if (this.patternParser != null) {
+			PathContainer path = ServletRequestPathUtils.getParsedLookupPath(request, this.pathHelper);
+			Set<PathPattern> matches = getMatchingPathPatterns(path);
+			return (!matches.isEmpty() ? new PatternsRequestCondition(matches, this.pathHelper, this.patternParser) : null);
+		}
 		String lookupPath = this.pathHelper.getLookupPathForRequest(request);
 		List<String> matches = getMatchingPatterns(lookupPath);
 		return (!matches.isEmpty() ?
@@ -219,6 +323,14 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 	 * @return a collection of matching patterns sorted with the closest match at the top
 	 */
 	public List<String> getMatchingPatterns(String lookupPath) {
+		if (this.patternParser != null) {
+			PathContainer path = ServletRequestPathUtils.parseLookupPath(lookupPath, this.pathHelper);
+			List<String> matches = new ArrayList<>();
+			for (PathPattern pattern : getMatchingPathPatterns(path)) {
+				matches.add(pattern.getPatternString());
+			}
+			return matches;
+		}
 		List<String> matches = new ArrayList<>();
 		for (String pattern : this.patterns) {
 			String match = getMatchingPattern(pattern, lookupPath);
@@ -232,6 +344,24 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 		return matches;
 	}
 
+	private Set<PathPattern> getMatchingPathPatterns(PathContainer path) {
+		Assert.state(this.pathPatterns != null, "No parsed patterns");
+		List<PathPattern> matches = null;
+		for (PathPattern pattern : this.pathPatterns) {
+			if (pattern.matches(path)) {
+				matches = (matches != null ? matches : new ArrayList<>());
+				matches.add(pattern);
+			}
+		}
+		if (matches == null) {
+			return Collections.emptySet();
+		}
+		if (matches.size() > 1) {
+			matches.sort(PathPattern.SPECIFICITY_COMPARATOR);
+		}
+		return new LinkedHashSet<>(matches);
+	}
+
 	@Nullable
 	private String getMatchingPattern(String pattern, String lookupPath) {
 		if (pattern.equals(lookupPath)) {
@@ -276,10 +406,16 @@ public final class PatternsRequestCondition extends AbstractRequestCondition<Pat
 	 */
 	@Override
 	public int compareTo(PatternsRequestCondition other, HttpServletRequest request) {
+		if (this.pathPatterns != null && other.pathPatterns != null) {
+			return compareTo(this.pathPatterns.iterator(), other.pathPatterns.iterator(),
+					PathPattern.SPECIFICITY_COMPARATOR);
+		}
 		String lookupPath = this.pathHelper.getLookupPathForRequest(request);
 		Comparator<String> patternComparator = this.pathMatcher.getPatternComparator(lookupPath);
-		Iterator<String> iterator = this.patterns.iterator();
-		Iterator<String> iteratorOther = other.patterns.iterator();
+		return compareTo(this.patterns.iterator(), other.patterns.iterator(), patternComparator);
+	}
+
+	private static <T> int compareTo(Iterator<T> iterator, Iterator<T> iteratorOther, Comparator<T> patternComparator) {
 		while (iterator.hasNext() && iteratorOther.hasNext()) {
 			int result = patternComparator.compare(iterator.next(), iteratorOther.next());
 			if (result != 0) {
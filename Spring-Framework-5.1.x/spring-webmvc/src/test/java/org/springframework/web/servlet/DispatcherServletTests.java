@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.web.servlet;
 
 import java.io.IOException;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.Servlet;
 import javax.servlet.ServletConfig;
@@ -37,6 +38,7 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.DummyEnvironment;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.mock.web.test.MockServletConfig;
@@ -57,6 +59,8 @@ import org.springframework.web.servlet.handler.SimpleMappingExceptionResolver;
 import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.servlet.mvc.Controller;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UrlPathHelper;
 import org.springframework.web.util.WebUtils;
 
 import static org.hamcrest.CoreMatchers.*;
@@ -676,6 +680,33 @@ public class DispatcherServletTests {
 		assertSame(wac, request.getAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE));
 	}
 
+	@Test
+	public void parsedLookupPathRestoredAfterInclude() throws Exception {
+		AtomicReference<Object> lookupPathDuringInclude = new AtomicReference<>();
+		DispatcherServlet servlet = new DispatcherServlet() {
+			@Override
+			protected void doDispatch(HttpServletRequest request, HttpServletResponse response) {
+				lookupPathDuringInclude.set(request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE));
+				ServletRequestPathUtils.parseAndCache(request, "/form.do", new UrlPathHelper());
+			}
+		};
+		servlet.setContextClass(SimpleWebApplicationContext.class);
+		servlet.init(servletConfig);
+
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/main.do");
+		PathContainer parsedLookupPath = PathContainer.parsePath("/main.do");
+		request.setAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE, parsedLookupPath);
+		request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/form.do");
+		servlet.service(request, new MockHttpServletResponse());
+
+		assertNull(lookupPathDuringInclude.get());
+		assertSame(parsedLookupPath, request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE));
+
+		request = new MockHttpServletRequest(getServletContext(), "GET", "/main.do");
+		servlet.service(request, new MockHttpServletResponse());
+		assertNull(request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE));
+	}
+
 	@Test
 	public void servletHandlerAdapter() throws Exception {
 		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/servlet.do");
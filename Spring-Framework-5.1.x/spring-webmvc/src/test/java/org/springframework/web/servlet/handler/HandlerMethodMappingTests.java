@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -99,6 +99,20 @@ public class HandlerMethodMappingTests {
 		assertEquals(result, request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
 	}
 
+	@Test
+	public void customAntPathMatcherSubclass() throws Exception {
+		this.mapping.setPathMatcher(new AntPathMatcher() {
+			@Override
+			public boolean match(String pattern, String path) {
+				return super.match(pattern, (path.startsWith("/v1/") ? path.substring(3) : path));
+			}
+		});
+		this.mapping.registerMapping("/foo/bar", this.handler, this.method1);
+
+		HandlerMethod result = this.mapping.getHandlerInternal(new MockHttpServletRequest("GET", "/v1/foo/bar"));
+		assertEquals(method1, result.getMethod());
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void ambiguousMatch() throws Exception {
 		this.mapping.registerMapping("/f?o", this.handler, this.method1);
@@ -284,7 +298,7 @@ public class HandlerMethodMappingTests {
 		@Override
 		protected String getMatchingMapping(String pattern, HttpServletRequest request) {
 			String lookupPath = this.pathHelper.getLookupPathForRequest(request);
-			return this.pathMatcher.match(pattern, lookupPath) ? pattern : null;
+			return getPathMatcher().match(pattern, lookupPath) ? pattern : null;
 		}
 
 		@Override
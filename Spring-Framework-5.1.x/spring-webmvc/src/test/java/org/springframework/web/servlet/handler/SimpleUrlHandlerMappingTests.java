@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2018 the original author or authors.
+ * Copyright 2002-2020 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.handler;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -30,7 +31,9 @@ import org.springframework.web.context.support.XmlWebApplicationContext;
 import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.junit.Assert.*;
 
@@ -90,6 +93,64 @@ public class SimpleUrlHandlerMappingTests {
 		assertSame(controller, hec.getHandler());
 	}
 
+	@Test
+	public void pathPatternMatching() throws Exception {
+		SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping();
+		handlerMapping.setPatternParser(new PathPatternParser());
+		Object controller = new Object();
+		Object otherController = new Object();
+		Map<String, Object> urlMap = new LinkedHashMap<>();
+		urlMap.put("/resources/**", controller);
+		urlMap.put("/resources/{name}.css", otherController);
+		handlerMapping.setUrlMap(urlMap);
+		handlerMapping.setApplicationContext(new StaticApplicationContext());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/css/main%20page.css");
+		HandlerExecutionChain hec = getHandler(handlerMapping, request);
+		assertSame(controller, hec.getHandler());
+		assertEquals("css/main page.css", request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE));
+		assertEquals("/resources/**", request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+		assertNotNull(request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE));
+
+		request = new MockHttpServletRequest("GET", "/resources/main%20page.css");
+		hec = getHandler(handlerMapping, request);
+		assertSame(otherController, hec.getHandler());
+		assertEquals("/resources/{name}.css", request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+		Map<?, ?> uriVariables = (Map<?, ?>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		assertEquals("main page", uriVariables.get("name"));
+
+		assertNull(handlerMapping.getHandler(new MockHttpServletRequest("GET", "/other")));
+	}
+
+	@Test
+	public void pathPatternMatchingWithLookupPathOtherThanParsedOne() throws Exception {
+		SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping();
+		handlerMapping.setPatternParser(new PathPatternParser());
+		Object controller = new Object();
+		Object otherController = new Object();
+		Map<String, Object> urlMap = new LinkedHashMap<>();
+		urlMap.put("/resources/**", controller);
+		urlMap.put("/other/**", otherController);
+		handlerMapping.setUrlMap(urlMap);
+		handlerMapping.setApplicationContext(new StaticApplicationContext());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resources/main.css");
+		assertSame(controller, getHandler(handlerMapping, request).getHandler());
+		Object parsedLookupPath = request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE);
+
+		Object handler = handlerMapping.lookupHandler("/other/main.css", request);
+		assertSame(otherController, ((HandlerExecutionChain) handler).getHandler());
+		assertSame(parsedLookupPath, request.getAttribute(ServletRequestPathUtils.PATH_ATTRIBUTE));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void pathPatternParserAfterRegistration() {
+		SimpleUrlHandlerMapping handlerMapping = new SimpleUrlHandlerMapping();
+		handlerMapping.setUrlMap(Collections.singletonMap("/welcome", new Object()));
+		handlerMapping.setApplicationContext(new StaticApplicationContext());
+		handlerMapping.setPatternParser(new PathPatternParser());
+	}
+
 	@SuppressWarnings("resource")
 	private void checkMappings(String beanName) throws Exception {
 		MockServletContext sc = new MockServletContext("");
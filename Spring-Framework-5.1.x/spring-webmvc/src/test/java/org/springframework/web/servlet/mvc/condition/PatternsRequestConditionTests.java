@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.condition;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import javax.servlet.http.HttpServletRequest;
 import org.junit.Test;
 
 import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.junit.Assert.*;
 
@@ -213,4 +215,47 @@ public class PatternsRequestConditionTests {
 		assertEquals(1, match1.compareTo(match2, request));
 	}
 
+	@Test
+	public void combinePathPatterns() {
+		PathPatternParser parser = new PathPatternParser();
+		PatternsRequestCondition c1 = new PatternsRequestCondition(new String[] {"/t1", "/t2"}, null, parser);
+		PatternsRequestCondition c2 = new PatternsRequestCondition(new String[] {"m1"}, null, parser);
+
+		PatternsRequestCondition combined = c1.combine(c2);
+		assertEquals(new PatternsRequestCondition("/t1/m1", "/t2/m1"), combined);
+		assertEquals(2, combined.getPathPatterns().size());
+
+		PatternsRequestCondition empty = new PatternsRequestCondition(new String[0], null, parser);
+		assertEquals(new PatternsRequestCondition(""), empty.combine(empty));
+	}
+
+	@Test
+	public void matchPathPatterns() {
+		PathPatternParser parser = new PathPatternParser();
+		PatternsRequestCondition condition =
+				new PatternsRequestCondition(new String[] {"/foo/**", "/foo/{id}", "/bar"}, null, parser);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo/b%20r");
+
+		PatternsRequestCondition match = condition.getMatchingCondition(request);
+		assertNotNull(match);
+		assertEquals(Arrays.asList("/foo/{id}", "/foo/**"), new ArrayList<>(match.getPatterns()));
+		assertEquals("/foo/{id}", match.getPathPatterns().iterator().next().getPatternString());
+		assertEquals(Arrays.asList("/foo/{id}", "/foo/**"), condition.getMatchingPatterns("/foo/b r"));
+
+		assertNull(condition.getMatchingCondition(new MockHttpServletRequest("GET", "/baz")));
+		assertNotNull("Trailing slash match by default",
+				condition.getMatchingCondition(new MockHttpServletRequest("GET", "/bar/")));
+		assertNull("No suffix pattern match",
+				condition.getMatchingCondition(new MockHttpServletRequest("GET", "/bar.json")));
+	}
+
+	@Test
+	public void comparePathPatternSpecificity() {
+		PathPatternParser parser = new PathPatternParser();
+		PatternsRequestCondition c1 = new PatternsRequestCondition(new String[] {"/fo*"}, null, parser);
+		PatternsRequestCondition c2 = new PatternsRequestCondition(new String[] {"/foo"}, null, parser);
+
+		assertEquals(1, c1.compareTo(c2, new MockHttpServletRequest("GET", "/foo")));
+	}
+
 }
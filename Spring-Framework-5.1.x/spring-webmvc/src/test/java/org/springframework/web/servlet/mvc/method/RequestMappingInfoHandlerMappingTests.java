@@ -58,7 +58,9 @@ import org.springframework.web.servlet.mvc.condition.ParamsRequestCondition;
 import org.springframework.web.servlet.mvc.condition.PatternsRequestCondition;
 import org.springframework.web.servlet.mvc.condition.ProducesRequestCondition;
 import org.springframework.web.servlet.mvc.condition.RequestMethodsRequestCondition;
+import org.springframework.web.util.ServletRequestPathUtils;
 import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
@@ -384,6 +386,25 @@ public class RequestMappingInfoHandlerMappingTests {
 		assertEquals("cars", uriVariables.get("cars"));
 	}
 
+	@Test
+	public void handleMatchWithPathPatterns() {
+		RequestMappingInfo.BuilderConfiguration config = new RequestMappingInfo.BuilderConfiguration();
+		config.setPatternParser(new PathPatternParser());
+		RequestMappingInfo info = RequestMappingInfo.paths("/{cars}/{id}", "/**").options(config).build();
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cars;colors=red,blue/a%20b");
+		String lookupPath = this.handlerMapping.getUrlPathHelper().getLookupPathForRequest(request);
+		ServletRequestPathUtils.parseAndCache(request, lookupPath, this.handlerMapping.getUrlPathHelper());
+		info = info.getMatchingCondition(request);
+		this.handlerMapping.handleMatch(info, lookupPath, request);
+
+		assertEquals("/{cars}/{id}", request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+		Map<String, String> uriVariables = getUriTemplateVariables(request);
+		assertEquals("cars", uriVariables.get("cars"));
+		assertEquals("a b", uriVariables.get("id"));
+		assertEquals(Arrays.asList("red", "blue"), getMatrixVariables(request, "cars").get("colors"));
+	}
+
 
 	private HandlerMethod getHandler(MockHttpServletRequest request) throws Exception {
 		HandlerExecutionChain chain = this.handlerMapping.getHandler(request);